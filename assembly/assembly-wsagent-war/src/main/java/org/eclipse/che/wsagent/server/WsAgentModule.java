@@ -29,6 +29,7 @@ import org.eclipse.che.api.core.rest.CoreRestModule;
 import org.eclipse.che.api.core.util.FileCleaner.FileCleanerModule;
 import org.eclipse.che.api.core.websocket.WebSocketMessageReceiver;
 import org.eclipse.che.api.core.websocket.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.WebSocketTransmitterMetrics;
 import org.eclipse.che.api.core.websocket.impl.BasicWebSocketMessageTransmitter;
 import org.eclipse.che.api.core.websocket.impl.GuiceInjectorEndpointConfigurator;
 import org.eclipse.che.api.git.GitConnectionFactory;
@@ -107,6 +108,7 @@ public class WsAgentModule extends AbstractModule {
         requestStaticInjection(GuiceInjectorEndpointConfigurator.class);
 
         bind(WebSocketMessageTransmitter.class).to(BasicWebSocketMessageTransmitter.class);
+        bind(WebSocketTransmitterMetrics.class).to(BasicWebSocketMessageTransmitter.class);
         bind(WebSocketMessageReceiver.class).to(WebSocketToJsonRpcDispatcher.class);
     }
 
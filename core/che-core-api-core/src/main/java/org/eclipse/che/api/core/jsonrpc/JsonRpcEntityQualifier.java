@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.jsonrpc;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -46,10 +47,28 @@ public class JsonRpcEntityQualifier {
     public JsonRpcEntityType qualify(String message) {
         checkNotNull(message, "Message must not be null");
         checkArgument(!message.isEmpty(), "Message must not be empty");
-        LOG.debug("Qualifying message: " + message);
+        LOG.debug("Qualifying message: {}", message);
 
-        JsonObject jsonObject = jsonParser.parse(message).getAsJsonObject();
-        LOG.debug("Json keys: " + jsonObject.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toSet()));
+        return qualify(jsonParser.parse(message));
+    }
+
+    /**
+     * Qualifies already parsed entity. Anything but json object is qualified
+     * to {@link JsonRpcEntityType#UNDEFINED}.
+     */
+    public JsonRpcEntityType qualify(JsonElement jsonElement) {
+        checkNotNull(jsonElement, "Json element must not be null");
+
+        if (!jsonElement.isJsonObject()) {
+            LOG.debug("Qualified to undefined");
+
+            return JsonRpcEntityType.UNDEFINED;
+        }
+
+        JsonObject jsonObject = jsonElement.getAsJsonObject();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Json keys: {}", jsonObject.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toSet()));
+        }
 
         if (jsonObject.has("method")) {
             LOG.debug("Qualified to request");
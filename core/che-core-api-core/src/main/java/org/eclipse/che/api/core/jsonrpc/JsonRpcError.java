@@ -15,7 +15,6 @@ import com.google.gson.JsonParser;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -36,19 +35,18 @@ public class JsonRpcError {
 
     @AssistedInject
     public JsonRpcError(@Assisted("message") String message, JsonParser jsonParser) {
-        checkNotNull(message, "Message must not be null");
-        checkArgument(!message.isEmpty(), "Message must not be empty");
-
-        this.code = getCode(message, jsonParser);
-        this.message = getMessage(message, jsonParser);
+        this(JsonRpcUtils.parse(message, jsonParser).getAsJsonObject());
     }
 
-    private static String getMessage(String message, JsonParser jsonParser) {
-        return jsonParser.parse(message).getAsJsonObject().get("message").getAsString();
-    }
+    /**
+     * Creates error out of already parsed json, e.g. a member of parsed
+     * response object.
+     */
+    public JsonRpcError(JsonObject error) {
+        checkNotNull(error, "Error must not be null");
 
-    private static int getCode(String message, JsonParser jsonParser) {
-        return jsonParser.parse(message).getAsJsonObject().get("code").getAsInt();
+        this.code = error.get("code").getAsInt();
+        this.message = error.get("message").getAsString();
     }
 
     public JsonObject toJsonObject() {
@@ -44,6 +44,6 @@ public class JsonRpcErrorTransmitter {
 
         JsonRpcError error = jsonRpcFactory.createError(e.getCode(), e.getMessage());
         JsonRpcResponse response = jsonRpcFactory.createResponse(e.getId(), null, error);
-        transmitter.transmit(endpointId, response.toString());
+        transmitter.transmit(endpointId, response.toJsonObject());
     }
 }
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.jsonrpc;
 
+import com.google.gson.JsonObject;
 import com.google.inject.assistedinject.Assisted;
 
 import java.util.List;
@@ -28,6 +29,16 @@ public interface JsonRpcFactory {
      */
     JsonRpcRequest createRequest(@Assisted("message") String message);
 
+    /**
+     * Create a JSON RPC request instance from an already parsed json object
+     *
+     * @param jsonObject
+     *         parsed json object
+     *
+     * @return JSON RPC request
+     */
+    JsonRpcRequest createRequest(@Assisted("jsonObject") JsonObject jsonObject);
+
     /**
      * Create a JSON RPC request instance by passing corresponding values
      *
@@ -64,6 +75,16 @@ public interface JsonRpcFactory {
      */
     JsonRpcResponse createResponse(@Assisted("message") String message);
 
+    /**
+     * Create a JSON RPC response instance from an already parsed json object
+     *
+     * @param jsonObject
+     *         parsed json object
+     *
+     * @return JSON RPC response
+     */
+    JsonRpcResponse createResponse(@Assisted("jsonObject") JsonObject jsonObject);
+
     /**
      * Create a JSON RPC response instance by passing corresponding values
      *
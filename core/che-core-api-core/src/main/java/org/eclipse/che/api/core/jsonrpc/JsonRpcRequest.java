@@ -20,9 +20,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Represents JSON RPC request object. Can be constructed out of
- * stringified json object or by passing specific parameters.
+ * stringified or parsed json object or by passing specific parameters.
  * Use {@link JsonRpcFactory#createRequest(String, String, JsonRpcParams)}
- * {@link JsonRpcFactory#createRequest(String)} or
+ * {@link JsonRpcFactory#createRequest(String)},
+ * {@link JsonRpcFactory#createRequest(JsonObject)} or
  * {@link JsonRpcFactory#createRequest(String, JsonRpcParams)} to get an instance.
  */
 public class JsonRpcRequest {
@@ -31,11 +32,13 @@ public class JsonRpcRequest {
     private final JsonRpcParams params;
 
     @AssistedInject
-    public JsonRpcRequest(@Assisted("message") String message, JsonParser jsonParser, JsonRpcFactory jsonRpcFactory) {
-        checkNotNull(message, "Message must not be null");
-        checkArgument(!message.isEmpty(), "Message must not be empty");
+    public JsonRpcRequest(@Assisted("message") String message, JsonParser jsonParser) {
+        this(JsonRpcUtils.parse(message, jsonParser).getAsJsonObject());
+    }
 
-        JsonObject jsonObject = jsonParser.parse(message).getAsJsonObject();
+    @AssistedInject
+    public JsonRpcRequest(@Assisted("jsonObject") JsonObject jsonObject) {
+        checkNotNull(jsonObject, "Json object must not be null");
 
         method = jsonObject.get("method").getAsString();
 
@@ -46,15 +49,14 @@ public class JsonRpcRequest {
         }
 
         if (jsonObject.has("params")) {
-            params = jsonRpcFactory.createParams(jsonObject.get("params").toString());
+            params = new JsonRpcParams(jsonObject.get("params"));
         } else {
             params = null;
         }
     }
 
     @AssistedInject
-    public JsonRpcRequest(@Assisted("id") String id, @Assisted("method") String method, @Assisted("params") JsonRpcParams params,
-                          JsonParser jsonParser) {
+    public JsonRpcRequest(@Assisted("id") String id, @Assisted("method") String method, @Assisted("params") JsonRpcParams params) {
 
         checkNotNull(method, "Method name must not be null");
         checkArgument(!method.isEmpty(), "Method name must not be empty");
@@ -65,8 +67,8 @@ public class JsonRpcRequest {
     }
 
     @AssistedInject
-    public JsonRpcRequest(@Assisted("method") String method, @Assisted("params") JsonRpcParams params, JsonParser jsonParser) {
-        this(null, method, params, jsonParser);
+    public JsonRpcRequest(@Assisted("method") String method, @Assisted("params") JsonRpcParams params) {
+        this(null, method, params);
     }
 
     public boolean hasParams() {
@@ -24,7 +24,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -43,16 +42,22 @@ public class JsonRpcResult {
 
     @AssistedInject
     public JsonRpcResult(@Assisted("message") String message, JsonParser jsonParser) {
-        checkNotNull(message, "Message must not be null");
-        checkArgument(!message.isEmpty(), "Message must not be empty");
+        this(JsonRpcUtils.parse(message, jsonParser));
+    }
+
+    /**
+     * Creates result out of already parsed json, e.g. a member of parsed
+     * response object.
+     */
+    public JsonRpcResult(JsonElement result) {
+        checkNotNull(result, "Result must not be null");
 
-        JsonElement result = jsonParser.parse(message);
         if (result.isJsonArray()) {
             JsonArray jsonArray = result.getAsJsonArray();
             this.resultList = new ArrayList<>(jsonArray.size());
             jsonArray.forEach(it -> this.resultList.add(it));
         } else {
-            this.result = jsonParser.parse(message);
+            this.result = result;
         }
     }
 
@@ -11,12 +11,16 @@
 package org.eclipse.che.api.core.jsonrpc;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 
 import org.eclipse.che.dto.server.DtoFactory;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Simple utility class
  */
@@ -27,6 +31,13 @@ class JsonRpcUtils {
         return (T) object;
     }
 
+    static JsonElement parse(String message, JsonParser jsonParser) {
+        checkNotNull(message, "Message must not be null");
+        checkArgument(!message.isEmpty(), "Message must not be empty");
+
+        return jsonParser.parse(message);
+    }
+
     static <T> T getAs(JsonElement element, Class<T> type) {
         if (type.equals(String.class)) {
             return cast(element.getAsString());
@@ -10,36 +10,112 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.jsonrpc;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+
 import org.eclipse.che.api.core.websocket.WebSocketMessageTransmitter;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
  * Dispatches incoming JSON RPC requests and notifications. If during
  * dispatching happens any kind of error related to JSON RPC it throws
  * appropriate exception {@link JsonRpcException}.
+ *
+ * <p>Handlers are executed according to {@link RequestExecutionPolicy} of
+ * the method. Results and errors of handlers executed by pools are transmitted
+ * to the endpoint by the pool thread. Requests that are not handled yet may be
+ * cancelled with {@code $/cancelRequest} notification which params contain
+ * ID of the request, cancelled request is answered with error {@code -32800}
+ * instead of result. Requests that are not handled when dispatcher is shut
+ * down are cancelled without answer.
  */
 @Singleton
 public class RequestDispatcher {
     private static final Logger LOG = LoggerFactory.getLogger(RequestDispatcher.class);
 
+    static final String CANCEL_REQUEST_METHOD = "$/cancelRequest";
+    static final int    REQUEST_CANCELLED     = -32800;
+
     private final RequestHandlerRegistry      registry;
     private final JsonRpcFactory              factory;
     private final WebSocketMessageTransmitter transmitter;
+    private final JsonRpcErrorTransmitter     errorTransmitter;
+
+    private final Map<String, ExecutorService> dedicatedExecutors = new ConcurrentHashMap<>();
+    private final Map<String, SerialExecutor>  serialExecutors    = new ConcurrentHashMap<>();
+    private final Map<String, RequestTask>     requestsInProgress = new ConcurrentHashMap<>();
+
+    private int sharedPoolThreads       = Runtime.getRuntime().availableProcessors() * 2;
+    private int sharedPoolQueueCapacity = 1000;
+
+    /**
+     * When pool is overloaded receiving thread handles message itself, so reading of new messages slows
+     * down. Tasks that can't be executed since pool is shut down are cancelled.
+     */
+    private final RejectedExecutionHandler rejectionHandler = (task, executor) -> {
+        if (executor.isShutdown()) {
+            cancelRejected(task);
+        } else {
+            task.run();
+        }
+    };
+
+    private ExecutorService sharedExecutor;
+    private boolean         shutdown;
 
     @Inject
-    public RequestDispatcher(RequestHandlerRegistry registry, WebSocketMessageTransmitter transmitter, JsonRpcFactory factory) {
+    public RequestDispatcher(RequestHandlerRegistry registry,
+                             WebSocketMessageTransmitter transmitter,
+                             JsonRpcErrorTransmitter errorTransmitter,
+                             JsonRpcFactory factory) {
         this.registry = registry;
         this.transmitter = transmitter;
+        this.errorTransmitter = errorTransmitter;
         this.factory = factory;
     }
 
+    @com.google.inject.Inject(optional = true)
+    public void setSharedPoolThreads(@Named("che.jsonrpc.shared_pool.threads") int sharedPoolThreads) {
+        checkArgument(sharedPoolThreads > 0, "Number of threads must be positive");
+
+        this.sharedPoolThreads = sharedPoolThreads;
+    }
+
+    @com.google.inject.Inject(optional = true)
+    public void setSharedPoolQueueCapacity(@Named("che.jsonrpc.shared_pool.queue_capacity") int sharedPoolQueueCapacity) {
+        checkArgument(sharedPoolQueueCapacity > 0, "Queue capacity must be positive");
+
+        this.sharedPoolQueueCapacity = sharedPoolQueueCapacity;
+    }
+
     public void dispatch(String endpointId, JsonRpcRequest request) throws JsonRpcException {
         checkNotNull(endpointId, "Endpoint ID must not be null");
         checkArgument(!endpointId.isEmpty(), "Endpoint ID must not be empty");
@@ -56,18 +132,149 @@ public class RequestDispatcher {
             String id = request.getId();
             RequestHandler handler = registry.getRequestHandler(method);
             checkHandler(method, handler, id);
-            JsonRpcResult result = handler.handle(endpointId, params);
-            JsonRpcResponse response = factory.createResponse(id, result, null);
-
-            LOG.debug("Transmitting back a response: {}", response);
-            transmitter.transmit(endpointId, response.toString());
+            RequestExecutionPolicy policy = registry.getExecutionPolicy(method);
+            if (policy.getMode() == RequestExecutionPolicy.Mode.INLINE) {
+                transmitResult(endpointId, id, handler.handle(endpointId, params));
+            } else {
+                execute(endpointId, method, policy, new RequestTask(endpointId, id, () -> handler.handle(endpointId, params)));
+            }
         } else {
             LOG.debug("Request has no ID -> it is a notification");
 
             NotificationHandler handler = registry.getNotificationHandler(method);
+            if (handler == null && CANCEL_REQUEST_METHOD.equals(method)) {
+                cancel(endpointId, params);
+                return;
+            }
             checkHandler(method, handler, null);
-            handler.handle(endpointId, params);
+            RequestExecutionPolicy policy = registry.getExecutionPolicy(method);
+            if (policy.getMode() == RequestExecutionPolicy.Mode.INLINE) {
+                handler.handle(endpointId, params);
+            } else {
+                execute(endpointId, method, policy, new RequestTask(endpointId, null, () -> {
+                    handler.handle(endpointId, params);
+                    return null;
+                }));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        final List<ExecutorService> executors = new ArrayList<>(dedicatedExecutors.values());
+        synchronized (this) {
+            shutdown = true;
+            if (sharedExecutor != null) {
+                executors.add(sharedExecutor);
+            }
         }
+        // tasks that never started are cancelled, so they don't stay in requests in progress
+        executors.forEach(executor -> executor.shutdownNow().forEach(this::cancelRejected));
+        serialExecutors.values().forEach(SerialExecutor::cancelQueued);
+    }
+
+    private synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    private void transmitResult(String endpointId, String id, JsonRpcResult result) {
+        JsonRpcResponse response = factory.createResponse(id, result, null);
+
+        LOG.debug("Transmitting back a response: {}", response);
+        transmitter.transmit(endpointId, response.toJsonObject());
+    }
+
+    private void execute(String endpointId, String method, RequestExecutionPolicy policy, RequestTask task) {
+        final Executor executor;
+        if (policy.getMode() == RequestExecutionPolicy.Mode.DEDICATED) {
+            executor = dedicatedExecutors.computeIfAbsent(method, key -> createDedicatedExecutor(key, policy.getThreads()));
+        } else {
+            executor = getSharedExecutor();
+        }
+        if (task.id != null) {
+            requestsInProgress.put(requestKey(endpointId, task.id), task);
+        }
+        if (policy.isOrdered()) {
+            // ordered methods executed by the same pool keep order of messages of endpoint between each other
+            final String pool = policy.getMode() == RequestExecutionPolicy.Mode.DEDICATED ? "dedicated " + method : "shared";
+            final String key = endpointId + ' ' + pool;
+            // serial executor that is drained may be removed concurrently, new one is created then
+            while (!serialExecutors.computeIfAbsent(key, k -> new SerialExecutor(k, executor)).offer(task)) {
+                LOG.debug("Serial executor of {} is drained, creating new one", key);
+            }
+        } else {
+            executor.execute(task);
+        }
+    }
+
+    private void cancel(String endpointId, JsonRpcParams params) {
+        JsonElement element = params.toJsonElement();
+        if (!element.isJsonObject() || !element.getAsJsonObject().has("id")) {
+            LOG.warn("Can't cancel request of endpoint {}, params has no request ID: {}", endpointId, params);
+            return;
+        }
+        String id = element.getAsJsonObject().get("id").getAsString();
+        RequestTask task = requestsInProgress.get(requestKey(endpointId, id));
+        if (task == null) {
+            LOG.debug("Request {} of endpoint {} is already handled or is not known", id, endpointId);
+            return;
+        }
+        LOG.debug("Cancelling request {} of endpoint {}", id, endpointId);
+        task.cancel(true);
+    }
+
+    private synchronized ExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(sharedPoolThreads,
+                                                                 sharedPoolThreads,
+                                                                 60L,
+                                                                 SECONDS,
+                                                                 new ArrayBlockingQueue<>(sharedPoolQueueCapacity),
+                                                                 createThreadFactory("JsonRpcSharedPool-%d"),
+                                                                 rejectionHandler);
+            executor.allowCoreThreadTimeOut(true);
+            sharedExecutor = executor;
+            if (shutdown) {
+                executor.shutdown();
+            }
+        }
+        return sharedExecutor;
+    }
+
+    private ExecutorService createDedicatedExecutor(String method, int threads) {
+        ExecutorService executor = new ThreadPoolExecutor(threads,
+                                                          threads,
+                                                          0L,
+                                                          MILLISECONDS,
+                                                          new LinkedBlockingQueue<>(),
+                                                          createThreadFactory("JsonRpc-" + method.replace('%', '_') + "-%d"),
+                                                          rejectionHandler);
+        synchronized (this) {
+            if (shutdown) {
+                executor.shutdown();
+            }
+        }
+        return executor;
+    }
+
+    /** Cancels task that is dropped by pool, so it is removed from requests in progress. */
+    private void cancelRejected(Runnable task) {
+        if (task instanceof RequestTask) {
+            ((RequestTask)task).cancel(false);
+        } else if (task instanceof SerialExecutor) {
+            ((SerialExecutor)task).cancelQueued();
+        }
+    }
+
+    private static ThreadFactory createThreadFactory(String nameFormat) {
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat)
+                                         .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                                         .setDaemon(true)
+                                         .build();
+    }
+
+    private static String requestKey(String endpointId, String id) {
+        return endpointId + ' ' + id;
     }
 
     private void checkHandler(String method, Object handler, String id) throws JsonRpcException {
@@ -76,4 +283,112 @@ public class RequestDispatcher {
             throw new JsonRpcException(-32601, "Method '" + method + "' not registered", id);
         }
     }
+
+    /**
+     * Handling of a single request or notification. Result, error of handling
+     * or cancellation of request is transmitted to endpoint when task is done.
+     * Task is done only once, so exactly one of them is transmitted.
+     */
+    private class RequestTask extends FutureTask<JsonRpcResult> {
+        private final String endpointId;
+        private final String id;
+
+        RequestTask(String endpointId, String id, Callable<JsonRpcResult> handling) {
+            super(handling);
+            this.endpointId = endpointId;
+            this.id = id;
+        }
+
+        @Override
+        protected void done() {
+            if (id != null) {
+                requestsInProgress.remove(requestKey(endpointId, id), this);
+            }
+            if (isCancelled()) {
+                if (id != null && !isShutdown()) {
+                    errorTransmitter.transmit(endpointId, new JsonRpcException(REQUEST_CANCELLED, "Request is cancelled", id));
+                }
+                return;
+            }
+            try {
+                JsonRpcResult result = get();
+                if (id != null) {
+                    transmitResult(endpointId, id, result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof JsonRpcException && id != null) {
+                    errorTransmitter.transmit(endpointId, (JsonRpcException)e.getCause());
+                } else {
+                    LOG.error("Error while handling message of endpoint {}", endpointId, e.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes tasks of a single method and endpoint one by one in order
+     * they are offered. Executor removes itself from the map of serial
+     * executors when all offered tasks are executed.
+     */
+    private class SerialExecutor implements Runnable {
+        private final String          key;
+        private final Executor        executor;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        private boolean running;
+        private boolean removed;
+
+        SerialExecutor(String key, Executor executor) {
+            this.key = key;
+            this.executor = executor;
+        }
+
+        boolean offer(Runnable task) {
+            synchronized (this) {
+                if (removed) {
+                    return false;
+                }
+                tasks.add(task);
+                if (running) {
+                    return true;
+                }
+                running = true;
+            }
+            executor.execute(this);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            Runnable task;
+            while ((task = next()) != null) {
+                task.run();
+            }
+        }
+
+        private synchronized Runnable next() {
+            Runnable task = tasks.poll();
+            if (task == null) {
+                running = false;
+                removed = true;
+                serialExecutors.remove(key, this);
+            }
+            return task;
+        }
+
+        /** Cancels tasks that are not executed yet, executor is removed then. */
+        void cancelQueued() {
+            final List<Runnable> queued;
+            synchronized (this) {
+                queued = new ArrayList<>(tasks);
+                tasks.clear();
+                running = false;
+                removed = true;
+                serialExecutors.remove(key, this);
+            }
+            queued.forEach(RequestDispatcher.this::cancelRejected);
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Defines how {@link RequestDispatcher} executes handler of a method:
+ * <ul>
+ * <li>{@link Mode#INLINE} - handler is executed by the thread that received a message,
+ * messages of an endpoint are handled one by one in order they are received</li>
+ * <li>{@link Mode#SHARED} - handler is executed by bounded pool shared between methods</li>
+ * <li>{@link Mode#DEDICATED} - handler is executed by pool that is used only by this method</li>
+ * </ul>
+ * Handlers executed by a pool are called concurrently unless the policy is ordered, handlers
+ * of ordered methods executed by the same pool are called one by one for each endpoint in order
+ * messages are received.
+ */
+public class RequestExecutionPolicy {
+    public static final RequestExecutionPolicy INLINE = new RequestExecutionPolicy(Mode.INLINE, 0, true);
+
+    private final Mode    mode;
+    private final int     threads;
+    private final boolean ordered;
+
+    private RequestExecutionPolicy(Mode mode, int threads, boolean ordered) {
+        this.mode = mode;
+        this.threads = threads;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Policy to execute handlers with the shared pool.
+     *
+     * @param ordered
+     *         whether messages of an endpoint must be handled in order they are received
+     */
+    public static RequestExecutionPolicy shared(boolean ordered) {
+        return new RequestExecutionPolicy(Mode.SHARED, 0, ordered);
+    }
+
+    /**
+     * Policy to execute handlers with a pool dedicated to the method.
+     *
+     * @param threads
+     *         number of threads of the pool
+     * @param ordered
+     *         whether messages of an endpoint must be handled in order they are received
+     */
+    public static RequestExecutionPolicy dedicated(int threads, boolean ordered) {
+        checkArgument(threads > 0, "Number of threads must be positive");
+
+        return new RequestExecutionPolicy(Mode.DEDICATED, threads, ordered);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** Number of threads of dedicated pool, {@code 0} for other modes. */
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestExecutionPolicy{" +
+               "mode=" + mode +
+               ", threads=" + threads +
+               ", ordered=" + ordered +
+               '}';
+    }
+
+    public enum Mode {
+        INLINE,
+        SHARED,
+        DEDICATED
+    }
+}
@@ -19,13 +19,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Registry to store request and notification handlers associated with a
- * specific method names
+ * specific method names along with policies that define how handlers are
+ * executed, methods without policy are handled with {@link RequestExecutionPolicy#INLINE}.
  */
 @Singleton
 public class RequestHandlerRegistry {
 
-    private final Map<String, RequestHandler>      requestHandlers      = new ConcurrentHashMap<>();
-    private final Map<String, NotificationHandler> notificationHandlers = new ConcurrentHashMap<>();
+    private final Map<String, RequestHandler>         requestHandlers      = new ConcurrentHashMap<>();
+    private final Map<String, NotificationHandler>    notificationHandlers = new ConcurrentHashMap<>();
+    private final Map<String, RequestExecutionPolicy> executionPolicies    = new ConcurrentHashMap<>();
 
     public void register(String method, RequestHandler handler) {
         checkNotNull(method, "Method name must not be null");
@@ -43,6 +45,28 @@ public class RequestHandlerRegistry {
         notificationHandlers.put(method, handler);
     }
 
+    public void register(String method, RequestHandler handler, RequestExecutionPolicy policy) {
+        register(method, handler);
+        setExecutionPolicy(method, policy);
+    }
+
+    public void register(String method, NotificationHandler handler, RequestExecutionPolicy policy) {
+        register(method, handler);
+        setExecutionPolicy(method, policy);
+    }
+
+    /**
+     * Sets policy of execution of handlers of the method, it is applied
+     * to requests and notifications received after the call.
+     */
+    public void setExecutionPolicy(String method, RequestExecutionPolicy policy) {
+        checkNotNull(method, "Method name must not be null");
+        checkArgument(!method.isEmpty(), "Method name must not be empty");
+        checkNotNull(policy, "Execution policy must not be null");
+
+        executionPolicies.put(method, policy);
+    }
+
     public void unregisterRequestHandler(String method) {
         checkNotNull(method, "Method name must not be null");
         checkArgument(!method.isEmpty(), "Method name must not be empty");
@@ -70,4 +94,11 @@ public class RequestHandlerRegistry {
 
         return notificationHandlers.get(method);
     }
+
+    RequestExecutionPolicy getExecutionPolicy(String method) {
+        checkNotNull(method, "Method name must not be null");
+        checkArgument(!method.isEmpty(), "Method name must not be empty");
+
+        return executionPolicies.getOrDefault(method, RequestExecutionPolicy.INLINE);
+    }
 }
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.core.jsonrpc.reception;
 
 import org.eclipse.che.api.core.jsonrpc.JsonRpcFactory;
+import org.eclipse.che.api.core.jsonrpc.RequestExecutionPolicy;
 import org.eclipse.che.api.core.jsonrpc.RequestHandlerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,4 +45,16 @@ public class MethodNameConfigurator {
 
         return new ParamsConfigurator(registry, factory, name);
     }
+
+    /**
+     * Defines method name and policy of execution of its handler, so handler
+     * that takes long doesn't block messages received after the request.
+     */
+    public ParamsConfigurator methodName(String name, RequestExecutionPolicy policy) {
+        checkNotNull(policy, "Execution policy must not be null");
+
+        ParamsConfigurator paramsConfigurator = methodName(name);
+        registry.setExecutionPolicy(name, policy);
+        return paramsConfigurator;
+    }
 }
@@ -169,7 +169,7 @@ public class SendConfiguratorFromMany<P> {
     private void transmitNotification() {
         JsonRpcParams params = factory.createParamsList(pListValue);
         JsonRpcRequest request = factory.createRequest(method, params);
-        transmitter.transmit(endpointId, request.toString());
+        transmitter.transmit(endpointId, request.toJsonObject());
     }
 
     private String transmitRequest() {
@@ -178,7 +178,7 @@ public class SendConfiguratorFromMany<P> {
 
         JsonRpcParams params = factory.createParamsList(pListValue);
         JsonRpcRequest request = factory.createRequest(requestId, method, params);
-        transmitter.transmit(endpointId, request.toString());
+        transmitter.transmit(endpointId, request.toJsonObject());
         return requestId;
     }
 }
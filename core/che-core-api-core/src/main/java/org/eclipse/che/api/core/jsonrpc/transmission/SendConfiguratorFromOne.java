@@ -188,7 +188,7 @@ public class SendConfiguratorFromOne<P> {
 
         JsonRpcParams params = factory.createParams(pValue);
         JsonRpcRequest request = factory.createRequest(requestId, method, params);
-        transmitter.transmit(endpointId, request.toString());
+        transmitter.transmit(endpointId, request.toJsonObject());
         return requestId;
     }
 
@@ -196,7 +196,7 @@ public class SendConfiguratorFromOne<P> {
         JsonRpcParams params = factory.createParams(pValue);
         JsonRpcRequest request = factory.createRequest(method, params);
         if (endpointId != null) {
-            transmitter.transmit(endpointId, request.toString());
+            transmitter.transmit(endpointId, request.toJsonObject());
         }
     }
 }
@@ -10,23 +10,37 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.notification;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Dispatchers events to listeners. Usage example:
@@ -41,47 +55,42 @@ import java.util.concurrent.CopyOnWriteArraySet;
  *     bus.publish(new MyEvent());
  * </pre>
  *
+ * <p>Subscribers are called by publisher thread unless they are subscribed with
+ * asynchronous {@link SubscriptionPolicy}. For each concrete class of published
+ * events service keeps array of subscriptions of the class and all its super
+ * types, arrays are dropped when subscribers are changed.
+ *
  * @author andrew00x
  */
 @Singleton
 public class EventService {
     private static final Logger LOG = LoggerFactory.getLogger(EventService.class);
 
-    private static final int CACHE_NUM  = 1 << 2;
-    private static final int CACHE_MASK = CACHE_NUM - 1;
-    private static final int SEG_SIZE   = 32;
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private static final Comparator<Subscription> BY_PRIORITY =
+            Comparator.comparingInt((Subscription subscription) -> subscription.policy.getPriority()).reversed();
+
+    private final ConcurrentMap<Class<?>, List<Subscription>> subscriptionsByEventType;
 
-    private final LoadingCache<Class<?>, Set<Class<?>>>[]       typeCache;
-    private final ConcurrentMap<Class<?>, Set<EventSubscriber>> subscribersByEventType;
+    /** Replaced on each change of subscriptions, so publisher never gets stale array from the new table. */
+    private volatile ConcurrentMap<Class<?>, Subscription[]> dispatchTable;
+
+    private int             asyncThreads = Runtime.getRuntime().availableProcessors();
+    private ExecutorService asyncExecutor;
+    private boolean         shutdown;
 
-    @SuppressWarnings("unchecked")
     public EventService() {
-        subscribersByEventType = new ConcurrentHashMap<>();
-        typeCache = new LoadingCache[CACHE_NUM];
-        for (int i = 0; i < CACHE_NUM; i++) {
-            typeCache[i] = CacheBuilder.newBuilder().concurrencyLevel(SEG_SIZE).build(
-                    new CacheLoader<Class<?>, Set<Class<?>>>() {
-                        @Override
-                        public Set<Class<?>> load(Class<?> eventClass) {
-                            LinkedList<Class<?>> parents = new LinkedList<>();
-                            Set<Class<?>> classes = new HashSet<>();
-                            parents.add(eventClass);
-                            while (!parents.isEmpty()) {
-                                Class<?> clazz = parents.pop();
-                                classes.add(clazz);
-                                Class<?> parent = clazz.getSuperclass();
-                                if (parent != null) {
-                                    parents.add(parent);
-                                }
-                                Class<?>[] interfaces = clazz.getInterfaces();
-                                if (interfaces.length > 0) {
-                                    Collections.addAll(parents, interfaces);
-                                }
-                            }
-                            return classes;
-                        }
-                    });
+        subscriptionsByEventType = new ConcurrentHashMap<>();
+        dispatchTable = new ConcurrentHashMap<>();
+    }
+
+    @com.google.inject.Inject(optional = true)
+    public void setAsyncThreads(@Named("che.event.async_threads") int asyncThreads) {
+        if (asyncThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive.");
         }
+        this.asyncThreads = asyncThreads;
     }
 
     /**
@@ -91,24 +100,18 @@ public class EventService {
      *         event
      * @return published event
      */
-    @SuppressWarnings("unchecked")
     public <T> T publish(T event) {
         if (event == null) {
             throw new IllegalArgumentException("Null event.");
         }
         final Class<?> eventClass = event.getClass();
-        for (Class<?> clazz : typeCache[eventClass.hashCode() & CACHE_MASK].getUnchecked(eventClass)) {
-            final Set<EventSubscriber> eventSubscribers = subscribersByEventType.get(clazz);
-            if (eventSubscribers != null && !eventSubscribers.isEmpty()) {
-                for (EventSubscriber eventSubscriber : eventSubscribers) {
-                    try {
-                        LOG.debug("Publish event {} for {}", event, eventSubscriber);
-                        eventSubscriber.onEvent(event);
-                    } catch (RuntimeException e) {
-                        LOG.error(e.getMessage(), e);
-                    }
-                }
-            }
+        final ConcurrentMap<Class<?>, Subscription[]> table = dispatchTable;
+        Subscription[] subscriptions = table.get(eventClass);
+        if (subscriptions == null) {
+            subscriptions = table.computeIfAbsent(eventClass, this::createDispatchArray);
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.deliver(event);
         }
         return event;
     }
@@ -122,7 +125,21 @@ public class EventService {
      */
     public void subscribe(EventSubscriber<?> subscriber) {
         final Class<?> eventType = getEventType(subscriber);
-        doSubscribe(subscriber, eventType);
+        doSubscribe(subscriber, eventType, SubscriptionPolicy.SYNC);
+    }
+
+    /**
+     * Subscribe event listener which receives events according to the given policy. The event to subscribe to
+     * is inferred by checking the generic type arguments of the given subscriber.
+     *
+     * @param subscriber
+     *         event subscriber
+     * @param policy
+     *         policy of delivery of events to the subscriber
+     */
+    public void subscribe(EventSubscriber<?> subscriber, SubscriptionPolicy policy) {
+        final Class<?> eventType = getEventType(subscriber);
+        doSubscribe(subscriber, eventType, policy);
     }
 
     /**
@@ -133,19 +150,33 @@ public class EventService {
      * @param eventType The event to subscribe to.
      */
     public <T> void subscribe(EventSubscriber<? extends T> subscriber, Class<T> eventType) {
-        doSubscribe(subscriber, eventType);
+        doSubscribe(subscriber, eventType, SubscriptionPolicy.SYNC);
+    }
+
+    /**
+     * Subscribe to an event. The given subscriber will receive instances of the specified event according to
+     * the given policy.
+     *
+     * @param subscriber The subscriber to call when an event is published.
+     * @param eventType The event to subscribe to.
+     * @param policy The policy of delivery of events to the subscriber.
+     */
+    public <T> void subscribe(EventSubscriber<? extends T> subscriber, Class<T> eventType, SubscriptionPolicy policy) {
+        doSubscribe(subscriber, eventType, policy);
     }
 
-    private void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
-        Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
-        if (entries == null) {
-            Set<EventSubscriber> newEntries = new CopyOnWriteArraySet<>();
-            entries = subscribersByEventType.putIfAbsent(eventType, newEntries);
-            if (entries == null) {
-                entries = newEntries;
+    private synchronized void doSubscribe(EventSubscriber<?> subscriber, Class<?> eventType, SubscriptionPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Null subscription policy.");
+        }
+        final List<Subscription> entries = subscriptionsByEventType.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>());
+        for (Subscription entry : entries) {
+            if (entry.subscriber.equals(subscriber)) {
+                return;
             }
         }
-        entries.add(subscriber);
+        entries.add(new Subscription(subscriber, eventType, policy));
+        dispatchTable = new ConcurrentHashMap<>();
     }
 
     /**
@@ -163,18 +194,98 @@ public class EventService {
         doUnsubscribe(subscriber, eventType);
     }
 
-    private void doUnsubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
-        final Set<EventSubscriber> entries = subscribersByEventType.get(eventType);
+    private synchronized void doUnsubscribe(EventSubscriber<?> subscriber, Class<?> eventType) {
+        final List<Subscription> entries = subscriptionsByEventType.get(eventType);
         if (entries != null && !entries.isEmpty()) {
-            boolean changed = entries.remove(subscriber);
-            if (changed) {
-                if (entries.isEmpty()) {
-                    subscribersByEventType.remove(eventType);
+            for (Subscription entry : entries) {
+                if (entry.subscriber.equals(subscriber)) {
+                    entry.active = false;
+                    entries.remove(entry);
+                    if (entries.isEmpty()) {
+                        subscriptionsByEventType.remove(eventType);
+                    }
+                    dispatchTable = new ConcurrentHashMap<>();
+                    return;
                 }
             }
         }
     }
 
+    /** Returns statistics of all current subscriptions. */
+    public List<SubscriberMetrics> getMetrics() {
+        final List<SubscriberMetrics> metrics = new ArrayList<>();
+        for (List<Subscription> subscriptions : subscriptionsByEventType.values()) {
+            for (Subscription subscription : subscriptions) {
+                metrics.add(subscription.getMetrics());
+            }
+        }
+        return metrics;
+    }
+
+    /** Stops the shared pool of asynchronous subscribers, events that are not delivered yet are discarded. */
+    @PreDestroy
+    public void shutdown() {
+        final ExecutorService executor;
+        synchronized (this) {
+            shutdown = true;
+            executor = asyncExecutor;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private Subscription[] createDispatchArray(Class<?> eventClass) {
+        final List<Subscription> result = new ArrayList<>();
+        for (Class<?> clazz : getTypeHierarchy(eventClass)) {
+            final List<Subscription> subscriptions = subscriptionsByEventType.get(clazz);
+            if (subscriptions != null) {
+                result.addAll(subscriptions);
+            }
+        }
+        if (result.isEmpty()) {
+            return NO_SUBSCRIPTIONS;
+        }
+        // sort is stable, so subscribers of the same priority keep order of types and subscription
+        result.sort(BY_PRIORITY);
+        return result.toArray(new Subscription[result.size()]);
+    }
+
+    private static Set<Class<?>> getTypeHierarchy(Class<?> eventClass) {
+        final LinkedList<Class<?>> parents = new LinkedList<>();
+        final Set<Class<?>> classes = new LinkedHashSet<>();
+        parents.add(eventClass);
+        while (!parents.isEmpty()) {
+            Class<?> clazz = parents.pop();
+            classes.add(clazz);
+            Class<?> parent = clazz.getSuperclass();
+            if (parent != null) {
+                parents.add(parent);
+            }
+            Class<?>[] interfaces = clazz.getInterfaces();
+            if (interfaces.length > 0) {
+                Collections.addAll(parents, interfaces);
+            }
+        }
+        return classes;
+    }
+
+    private synchronized Executor getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            asyncExecutor = Executors.newFixedThreadPool(asyncThreads,
+                                                         new ThreadFactoryBuilder().setNameFormat("EventService-%d")
+                                                                                   .setUncaughtExceptionHandler(
+                                                                                           LoggingUncaughtExceptionHandler
+                                                                                                   .getInstance())
+                                                                                   .setDaemon(true)
+                                                                                   .build());
+            if (shutdown) {
+                asyncExecutor.shutdown();
+            }
+        }
+        return asyncExecutor;
+    }
+
     private Class<?> getEventType(EventSubscriber<?> subscriber) {
         Class<?> eventType = null;
         Class<?> clazz = subscriber.getClass();
@@ -200,4 +311,115 @@ public class EventService {
         }
         return eventType;
     }
+
+    /** Subscriber along with its policy and statistics. */
+    private class Subscription {
+        final EventSubscriber    subscriber;
+        final Class<?>           eventType;
+        final SubscriptionPolicy policy;
+        final Lane               lane;
+
+        final LongAdder  delivered         = new LongAdder();
+        final LongAdder  failed            = new LongAdder();
+        final LongAdder  totalLatencyNanos = new LongAdder();
+        final AtomicLong maxLatencyNanos   = new AtomicLong();
+
+        volatile boolean active = true;
+
+        Subscription(EventSubscriber<?> subscriber, Class<?> eventType, SubscriptionPolicy policy) {
+            this.subscriber = subscriber;
+            this.eventType = eventType;
+            this.policy = policy;
+            this.lane = policy.isAsync() ? new Lane(this) : null;
+        }
+
+        void deliver(Object event) {
+            if (lane == null) {
+                invoke(event);
+            } else {
+                lane.offer(event);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void invoke(Object event) {
+            if (!active) {
+                return;
+            }
+            final long start = System.nanoTime();
+            try {
+                LOG.debug("Publish event {} for {}", event, subscriber);
+                subscriber.onEvent(event);
+            } catch (RuntimeException e) {
+                failed.increment();
+                LOG.error(e.getMessage(), e);
+            } finally {
+                final long latency = System.nanoTime() - start;
+                delivered.increment();
+                totalLatencyNanos.add(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            }
+        }
+
+        Executor getExecutor() {
+            return policy.getExecutor() != null ? policy.getExecutor() : getAsyncExecutor();
+        }
+
+        SubscriberMetrics getMetrics() {
+            return new SubscriberMetrics(subscriber,
+                                         eventType,
+                                         lane != null,
+                                         delivered.sum(),
+                                         failed.sum(),
+                                         totalLatencyNanos.sum(),
+                                         maxLatencyNanos.get(),
+                                         lane == null ? 0 : lane.depth.get());
+        }
+    }
+
+    /**
+     * Events of asynchronous subscriber waiting to be delivered. Lane is drained
+     * by a single task at a time, so events are delivered in order they are offered.
+     */
+    private static class Lane implements Runnable {
+        final Subscription  subscription;
+        final Queue<Object> events    = new ConcurrentLinkedQueue<>();
+        final AtomicInteger depth     = new AtomicInteger();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Lane(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        void offer(Object event) {
+            events.add(event);
+            depth.incrementAndGet();
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            Object event;
+            while ((event = events.poll()) != null) {
+                depth.decrementAndGet();
+                subscription.invoke(event);
+            }
+            scheduled.set(false);
+            // event may be offered after the queue is found empty but before the flag is reset
+            if (!events.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    subscription.getExecutor().execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    LOG.warn("Events for {} are not delivered, executor rejected them", subscription.subscriber);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+/**
+ * Snapshot of statistics of a subscription of {@link EventService}.
+ * Latency is the time subscriber spends handling an event.
+ */
+public class SubscriberMetrics {
+    private final EventSubscriber<?> subscriber;
+    private final Class<?>           eventType;
+    private final boolean            async;
+    private final long               deliveredEvents;
+    private final long               failedEvents;
+    private final long               totalLatencyNanos;
+    private final long               maxLatencyNanos;
+    private final int                queueDepth;
+
+    SubscriberMetrics(EventSubscriber<?> subscriber,
+                      Class<?> eventType,
+                      boolean async,
+                      long deliveredEvents,
+                      long failedEvents,
+                      long totalLatencyNanos,
+                      long maxLatencyNanos,
+                      int queueDepth) {
+        this.subscriber = subscriber;
+        this.eventType = eventType;
+        this.async = async;
+        this.deliveredEvents = deliveredEvents;
+        this.failedEvents = failedEvents;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+        this.queueDepth = queueDepth;
+    }
+
+    public EventSubscriber<?> getSubscriber() {
+        return subscriber;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /** Number of events handled by subscriber including failed ones. */
+    public long getDeliveredEvents() {
+        return deliveredEvents;
+    }
+
+    /** Number of events subscriber failed to handle with an exception. */
+    public long getFailedEvents() {
+        return failedEvents;
+    }
+
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos;
+    }
+
+    public long getAverageLatencyNanos() {
+        return deliveredEvents == 0 ? 0 : totalLatencyNanos / deliveredEvents;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /** Number of events waiting in the lane of asynchronous subscriber, always {@code 0} for synchronous one. */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriberMetrics{" +
+               "subscriber=" + subscriber +
+               ", eventType=" + eventType +
+               ", async=" + async +
+               ", deliveredEvents=" + deliveredEvents +
+               ", failedEvents=" + failedEvents +
+               ", averageLatencyNanos=" + getAverageLatencyNanos() +
+               ", maxLatencyNanos=" + maxLatencyNanos +
+               ", queueDepth=" + queueDepth +
+               '}';
+    }
+}
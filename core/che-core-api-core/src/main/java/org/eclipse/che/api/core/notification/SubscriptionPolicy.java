@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.notification;
+
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Defines how {@link EventService} delivers events to a subscriber.
+ *
+ * <p>Synchronous subscriber is called by the thread that publishes an event,
+ * so {@link EventService#publish(Object)} returns after subscriber handles
+ * the event. Asynchronous subscriber has its own lane of events, the lane is
+ * drained by the shared pool of {@link EventService} or by the executor given
+ * to {@link #async(Executor)}. Events of a lane are delivered one by one in
+ * order they are published, so subscriber is never called concurrently.
+ *
+ * <p>Subscribers with higher priority are called (or receive event to their lanes)
+ * before subscribers with lower priority, default priority is {@code 0}.
+ */
+public class SubscriptionPolicy {
+    public static final SubscriptionPolicy SYNC = new SubscriptionPolicy(false, null, 0);
+
+    private final boolean  async;
+    private final Executor executor;
+    private final int      priority;
+
+    private SubscriptionPolicy(boolean async, Executor executor, int priority) {
+        this.async = async;
+        this.executor = executor;
+        this.priority = priority;
+    }
+
+    /** Policy to deliver events with the shared pool of event service. */
+    public static SubscriptionPolicy async() {
+        return new SubscriptionPolicy(true, null, 0);
+    }
+
+    /** Policy to deliver events with the given executor. */
+    public static SubscriptionPolicy async(Executor executor) {
+        checkNotNull(executor, "Executor must not be null");
+
+        return new SubscriptionPolicy(true, executor, 0);
+    }
+
+    /** Returns copy of this policy with the given priority. */
+    public SubscriptionPolicy withPriority(int priority) {
+        return new SubscriptionPolicy(async, executor, priority);
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /** Executor of asynchronous subscriber, {@code null} if the shared pool is used. */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionPolicy{" +
+               "async=" + async +
+               ", executor=" + executor +
+               ", priority=" + priority +
+               '}';
+    }
+}
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import com.google.gson.stream.JsonWriter;
+
 import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonSerializable;
@@ -28,19 +30,22 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.nio.charset.Charset;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Implementation of {@link MessageBodyReader} and {@link MessageBodyWriter} needed for binding JSON content to and from Java Objects.
  *
@@ -80,8 +85,21 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
         // Add Cache-Control before start write body.
         httpHeaders.putSingle(HttpHeaders.CACHE_CONTROL, "public, no-cache, no-store, no-transform");
         if (t instanceof JsonSerializable) {
-            try (Writer w = new OutputStreamWriter(entityStream, Charset.forName("UTF-8"))) {
-                w.write(((JsonSerializable)t).toJson());
+            // DTO is written directly to the response without building its JSON string
+            try (JsonWriter writer = newJsonWriter(entityStream)) {
+                ((JsonSerializable)t).writeTo(writer);
+            }
+        } else if (t instanceof Collection && getDtoElementClass(genericType) != null && isJsonSerializable((Collection<?>)t)) {
+            try (JsonWriter writer = newJsonWriter(entityStream)) {
+                writer.beginArray();
+                for (Object dto : (Collection<?>)t) {
+                    if (dto == null) {
+                        writer.nullValue();
+                    } else {
+                        ((JsonSerializable)dto).writeTo(writer);
+                    }
+                }
+                writer.endArray();
             }
         } else {
             delegate.writeTo(t, type, genericType, annotations, mediaType, httpHeaders, entityStream);
@@ -100,20 +118,44 @@ public class CheJsonProvider<T> implements MessageBodyReader<T>, MessageBodyWrit
     public T readFrom(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType,
                       MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException {
         if (type.isAnnotationPresent(DTO.class)) {
-            return DtoFactory.getInstance().createDtoFromJson(entityStream, type);
-        } else if (type.isAssignableFrom(List.class) && genericType instanceof ParameterizedType) {
-            ParameterizedType parameterizedType = (ParameterizedType)genericType;
-            Type elementType = parameterizedType.getActualTypeArguments()[0];
-            if (elementType instanceof Class) {
-                Class elementClass = (Class)elementType;
-                if (elementClass.isAnnotationPresent(DTO.class)) {
-                    return (T)DtoFactory.getInstance().createListDtoFromJson(entityStream, elementClass);
-                }
+            return DtoFactory.getInstance().createDtoFromJson(new InputStreamReader(entityStream, UTF_8), type);
+        } else if (type.isAssignableFrom(List.class)) {
+            final Class elementClass = getDtoElementClass(genericType);
+            if (elementClass != null) {
+                return (T)DtoFactory.getInstance().createListDtoFromJson(new InputStreamReader(entityStream, UTF_8), elementClass);
             }
         }
         return (T)delegate.readFrom(type, genericType, annotations, mediaType, httpHeaders, entityStream);
     }
 
+    private static JsonWriter newJsonWriter(OutputStream entityStream) {
+        return DtoFactory.newJsonWriter(new BufferedWriter(new OutputStreamWriter(entityStream, UTF_8)));
+    }
+
+    /**
+     * Checks whether each element of the collection may be written directly. DTO interface may be implemented not only by
+     * generated DTO classes, such elements are written by the delegate.
+     */
+    private static boolean isJsonSerializable(Collection<?> collection) {
+        for (Object element : collection) {
+            if (element != null && !(element instanceof JsonSerializable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns DTO interface of elements of the collection type or {@code null} if elements aren't DTOs. */
+    private static Class<?> getDtoElementClass(Type collectionType) {
+        if (collectionType instanceof ParameterizedType) {
+            final Type elementType = ((ParameterizedType)collectionType).getActualTypeArguments()[0];
+            if (elementType instanceof Class && ((Class<?>)elementType).isAnnotationPresent(DTO.class)) {
+                return (Class<?>)elementType;
+            }
+        }
+        return null;
+    }
+
     /**
      * Get Set of classes that we never try to serialize or deserialize. Returned Set is mutable and new classes may be added in ignored
      * Set.
@@ -14,6 +14,8 @@ import com.google.inject.AbstractModule;
 import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 
+import org.eclipse.che.everrest.BinaryDtoResponseFilter;
+
 /**
  * @author andrew00x
  */
@@ -23,6 +25,7 @@ public class CoreRestModule extends AbstractModule {
         bind(CheJsonProvider.class);
         bind(ApiExceptionMapper.class);
         bind(RuntimeExceptionMapper.class);
+        bind(BinaryDtoResponseFilter.class);
         Multibinder.newSetBinder(binder(), Class.class, Names.named("che.json.ignored_classes"));
     }
 }
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
 
 import org.eclipse.che.api.core.BadRequestException;
@@ -23,6 +24,7 @@ import org.eclipse.che.api.core.rest.shared.dto.ServiceError;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.Pair;
 import org.eclipse.che.commons.subject.Subject;
+import org.eclipse.che.dto.server.BinaryJson;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
@@ -64,6 +66,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
 
     private static final int      DEFAULT_QUERY_PARAMS_LIST_SIZE = 5;
     private static final Object[] EMPTY_ARRAY                    = new Object[0];
+    private static final String   BINARY_DTO_ACCEPT              = BinaryJson.MEDIA_TYPE + ", " + MediaType.APPLICATION_JSON + ";q=0.9";
 
     private final String url;
 
@@ -72,7 +75,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
     private Object                body;
     private List<Pair<String, ?>> queryParams;
     private String                authorizationHeaderValue;
-
+    private boolean               binaryDtoAccepted;
 
     public static HttpJsonRequest create(String url) {
         return new DefaultHttpJsonRequest(url);
@@ -139,6 +142,12 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         return this;
     }
 
+    @Override
+    public HttpJsonRequest acceptBinaryDto() {
+        binaryDtoAccepted = true;
+        return this;
+    }
+
     @Override
     public String getUrl() {
         final UriBuilder ub = UriBuilder.fromUri(url);
@@ -168,7 +177,8 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
      * Makes this request using {@link HttpURLConnection}.
      *
      * <p>Uses {@link HttpHeaders#AUTHORIZATION} header with value from {@link EnvironmentContext}.
-     * <br>uses {@link HttpHeaders#ACCEPT} header with "application/json" value.
+     * <br>uses {@link HttpHeaders#ACCEPT} header with "application/json" value, binary form of DTOs is preferred
+     * if {@link #acceptBinaryDto()} is called.
      * <br>Encodes query parameters in "UTF-8".
      *
      * @param timeout
@@ -231,7 +241,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         try {
             conn.setRequestMethod(method);
             //drop a hint for server side that we want to receive application/json
-            conn.addRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+            conn.addRequestProperty(HttpHeaders.ACCEPT, binaryDtoAccepted ? BINARY_DTO_ACCEPT : MediaType.APPLICATION_JSON);
             if (!isNullOrEmpty(authorizationHeaderValue)) {
                 conn.setRequestProperty(HttpHeaders.AUTHORIZATION, authorizationHeaderValue);
             } else if (authToken != null) {
@@ -286,6 +296,11 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                                                     UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, str));
             }
             final String contentType = conn.getContentType();
+            if (binaryDtoAccepted && contentType != null && contentType.startsWith(BinaryJson.MEDIA_TYPE)) {
+                try (InputStream in = conn.getInputStream()) {
+                    return new DefaultHttpJsonResponse(ByteStreams.toByteArray(in), responseCode);
+                }
+            }
             if (contentType != null && !contentType.startsWith(MediaType.APPLICATION_JSON)) {
                 throw new IOException(conn.getResponseMessage());
             }
@@ -314,6 +329,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                ", method='" + method + '\'' +
                ", body=" + body +
                ", queryParams=" + queryParams +
+               ", binaryDtoAccepted=" + binaryDtoAccepted +
                '}';
     }
 }
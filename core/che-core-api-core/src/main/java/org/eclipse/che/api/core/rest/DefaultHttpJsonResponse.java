@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.rest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
@@ -17,8 +18,10 @@ import java.util.Map;
 
 import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.commons.json.JsonParseException;
+import org.eclipse.che.dto.server.BinaryJson;
 import org.eclipse.che.dto.server.DtoFactory;
 
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 
 import static java.util.Objects.requireNonNull;
@@ -32,28 +35,59 @@ public class DefaultHttpJsonResponse implements HttpJsonResponse {
 
     private static final Type STRING_MAP_TYPE = new TypeToken<Map<String, String>>() {}.getType();
 
-    private final String responseBody;
+    private final byte[] binaryBody;
     private final int responseCode;
 
+    private String responseBody;
+
     protected DefaultHttpJsonResponse(String response, int responseCode) {
         this.responseBody = response;
+        this.binaryBody = null;
+        this.responseCode = responseCode;
+    }
+
+    /**
+     * Creates response which body contains DTOs in the binary form,
+     * body is converted to JSON only if it is requested as string or as non-DTO object.
+     *
+     * @see org.eclipse.che.dto.server.BinaryJson
+     */
+    protected DefaultHttpJsonResponse(byte[] binaryResponse, int responseCode) {
+        this.binaryBody = requireNonNull(binaryResponse, "Required non-null response");
         this.responseCode = responseCode;
     }
 
     @Override
     public String asString() {
+        if (responseBody == null && binaryBody != null) {
+            responseBody = BinaryJson.decode(binaryBody);
+        }
         return responseBody;
     }
 
     @Override
     public <T> T asDto(Class<T> dtoInterface) {
         requireNonNull(dtoInterface, "Required non-null dto interface");
+        if (binaryBody != null) {
+            try {
+                return DtoFactory.getInstance().createDtoFromBinary(new ByteArrayInputStream(binaryBody), dtoInterface);
+            } catch (IOException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
         return DtoFactory.getInstance().createDtoFromJson(responseBody, dtoInterface);
     }
 
     @Override
     public <T> List<T> asList(Class<T> dtoInterface) {
         requireNonNull(dtoInterface, "Required non-null dto interface");
+        if (binaryBody != null) {
+            try {
+                return DtoFactory.getInstance().createListDtoFromBinary(new ByteArrayInputStream(binaryBody), dtoInterface);
+            } catch (IOException e) {
+                throw new JsonSyntaxException(e);
+            }
+        }
         return DtoFactory.getInstance().createListDtoFromJson(responseBody, dtoInterface);
     }
 
@@ -67,7 +101,7 @@ public class DefaultHttpJsonResponse implements HttpJsonResponse {
     public <T> T as(Class<T> clazz, Type genericType) throws IOException {
         requireNonNull(clazz, "Required non-null class");
         try {
-            return JsonHelper.fromJson(responseBody, clazz, genericType);
+            return JsonHelper.fromJson(asString(), clazz, genericType);
         } catch (JsonParseException jsonEx) {
             throw new IOException(jsonEx.getLocalizedMessage(), jsonEx);
         }
@@ -141,6 +141,20 @@ public interface HttpJsonRequest {
      */
     HttpJsonRequest setTimeout(int timeoutMs);
 
+    /**
+     * Asks server to send DTOs of response in the compact binary form instead of JSON,
+     * server which can't do it responds with JSON. Response is read in the same way
+     * regardless of its form. Request body is sent as JSON anyway.
+     *
+     * <p>Implementations which don't support binary form ignore this method.
+     *
+     * @return this request instance
+     * @see org.eclipse.che.dto.server.BinaryJson
+     */
+    default HttpJsonRequest acceptBinaryDto() {
+        return this;
+    }
+
     /**
      * Returns HTTP URL built from source URL
      * and query parameters added to this request.
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket;
 
+import com.google.gson.JsonElement;
+
 /**
  * Plain text transmitter over a web socket protocol. In current specification
  * it is not required from and the implementor to fulfill strict ordering of
@@ -33,6 +35,21 @@ public interface WebSocketMessageTransmitter {
      */
     void transmit(String endpointId, String message);
 
+    /**
+     * Transmit a JSON message to an endpoint over web socket protocol. By
+     * default the message is transmitted as its text, implementation may
+     * transmit it in another form which is agreed with the endpoint without
+     * producing the text.
+     *
+     * @param endpointId
+     *         identifier of an endpoint known to an transmitter implementation
+     * @param message
+     *         JSON message
+     */
+    default void transmit(String endpointId, JsonElement message) {
+        transmit(endpointId, message.toString());
+    }
+
     /**
      * Transmit (broadcast) a string message to all endpoints registered over
      * web socket protocol. The connection should be considered to be opened at
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.websocket;
+
+import java.util.Map;
+
+/**
+ * Metrics of messages that are transmitted by {@link WebSocketMessageTransmitter}
+ * which keeps outbound messages of each endpoint in a bounded queue.
+ */
+public interface WebSocketTransmitterMetrics {
+    /** Returns number of messages waiting to be sent for each endpoint. */
+    Map<String, Integer> getQueueDepths();
+
+    /**
+     * Returns number of messages discarded because of queue overflow for each endpoint,
+     * the number grows for the endpoint while it is connected with the same session.
+     */
+    Map<String, Long> getDroppedMessages();
+}
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import org.eclipse.che.api.core.websocket.WebSocketMessageReceiver;
+import org.eclipse.che.dto.server.BinaryJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,15 +22,26 @@ import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.PathParam;
+import java.util.List;
 
 /**
  * Duplex WEB SOCKET endpoint, handles messages, errors, session open/close events.
  *
+ * <p>Client which opens session with {@code encoding=binary} query parameter receives JSON messages in the compact
+ * binary form described by {@link BinaryJson} instead of JSON text, messages which are transmitted as text, e.g.
+ * re-sent ones, are still sent as text. Client may send messages in both forms.
+ *
  * @author Dmitry Kuleshov
  */
 public class BasicWebSocketEndpoint {
     private static final Logger LOG = LoggerFactory.getLogger(BasicWebSocketEndpoint.class);
 
+    /** Property of session which is set when client asks for messages in binary form. */
+    static final String BINARY_ENCODING_PROPERTY = "che.websocket.binary-encoding";
+
+    private static final String ENCODING_PARAMETER = "encoding";
+    private static final String BINARY_ENCODING    = "binary";
+
     private final WebSocketSessionRegistry registry;
     private final MessagesReSender         reSender;
     private final WebSocketMessageReceiver receiver;
@@ -51,6 +63,11 @@ public class BasicWebSocketEndpoint {
 
         session.setMaxIdleTimeout(0);
 
+        final List<String> encoding = session.getRequestParameterMap().get(ENCODING_PARAMETER);
+        if (encoding != null && encoding.contains(BINARY_ENCODING)) {
+            session.getUserProperties().put(BINARY_ENCODING_PROPERTY, Boolean.TRUE);
+        }
+
         registry.add(endpointId, session);
         reSender.resend(endpointId);
     }
@@ -64,6 +81,23 @@ public class BasicWebSocketEndpoint {
         receiver.receive(endpointId, message);
     }
 
+    @OnMessage
+    public void onMessage(byte[] message, @PathParam("endpoint-id") String endpointId) {
+        LOG.debug("Receiving a binary web socket message.");
+        LOG.debug("Endpoint: {}", endpointId);
+
+        final String decoded;
+        try {
+            decoded = BinaryJson.decode(message);
+        } catch (RuntimeException e) {
+            LOG.error("Unable to decode binary web socket message of endpoint {}", endpointId, e);
+            return;
+        }
+        LOG.debug("Message: {}", decoded);
+
+        receiver.receive(endpointId, decoded);
+    }
+
     @OnClose
     public void onClose(CloseReason closeReason, @PathParam("endpoint-id") String endpointId) {
         LOG.info("Web socket session closed");
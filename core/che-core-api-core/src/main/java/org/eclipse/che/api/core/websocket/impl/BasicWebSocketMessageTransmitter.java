@@ -10,71 +10,208 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
+import com.google.gson.JsonElement;
+
 import org.eclipse.che.api.core.websocket.WebSocketMessageTransmitter;
+import org.eclipse.che.api.core.websocket.WebSocketTransmitterMetrics;
+import org.eclipse.che.api.core.websocket.impl.OutboundMessageQueue.OverflowPolicy;
+import org.eclipse.che.dto.server.BinaryJson;
 import org.slf4j.Logger;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import javax.websocket.Session;
-import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+import static java.util.Locale.ROOT;
+import static java.util.stream.Collectors.toMap;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Transmits messages over WEB SOCKET to a specific endpoint or broadcasts them.
  * If WEB SOCKET session is not opened adds messages to re-sender to try to send
  * them when session will be opened again.
+ * <p/>
+ * Each endpoint has its own bounded queue of outbound messages which is drained
+ * with asynchronous remote endpoint of the session, so transmission never waits
+ * for a client and slow client does not delay messages of other clients. When
+ * client does not keep up with messages the queue overflow policy is applied,
+ * see {@link #setOverflowPolicy(String)}.
+ * <p/>
+ * JSON messages are sent in binary form described by {@link BinaryJson} to sessions
+ * which asked for it, see {@link BasicWebSocketEndpoint}. Binary form is written from
+ * JSON tree by the thread that transmits a message, text messages are sent as is.
  *
  * @author Dmitry Kuleshov
  */
 @Singleton
-public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmitter {
+public class BasicWebSocketMessageTransmitter implements WebSocketMessageTransmitter, WebSocketTransmitterMetrics {
     private static final Logger LOG = getLogger(BasicWebSocketMessageTransmitter.class);
 
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
     private final WebSocketSessionRegistry registry;
     private final MessagesReSender         reSender;
 
+    private final Map<String, OutboundMessageQueue> queues        = new ConcurrentHashMap<>();
+    private final Consumer<String>                  closeListener = this::releaseQueue;
+
+    private volatile int            queueCapacity  = DEFAULT_QUEUE_CAPACITY;
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
     @Inject
     public BasicWebSocketMessageTransmitter(WebSocketSessionRegistry registry, MessagesReSender reSender) {
         this.registry = registry;
         this.reSender = reSender;
     }
 
+    /** Sets max number of messages waiting to be sent to a single endpoint. */
+    @com.google.inject.Inject(optional = true)
+    public void setQueueCapacity(@Named("che.websocket.outbound.queue_capacity") int queueCapacity) {
+        this.queueCapacity = queueCapacity > 0 ? queueCapacity : DEFAULT_QUEUE_CAPACITY;
+    }
+
+    /**
+     * Sets policy that is applied when queue of endpoint is full, one of:
+     * <ul>
+     * <li>{@code drop_oldest} - the oldest waiting message is discarded, default</li>
+     * <li>{@code drop_newest} - the new message is discarded</li>
+     * <li>{@code coalesce} - the new message is discarded if the same message is already waiting, otherwise the oldest one</li>
+     * <li>{@code disconnect} - session is closed, waiting messages are left to re-sender</li>
+     * </ul>
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setOverflowPolicy(@Named("che.websocket.outbound.overflow_policy") String overflowPolicy) {
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(ROOT));
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        registry.addCloseListener(closeListener);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        registry.removeCloseListener(closeListener);
+    }
+
     @Override
-    public synchronized void transmit(String endpointId, String message) {
+    public void transmit(String endpointId, String message) {
         final Optional<Session> sessionOptional = registry.get(endpointId);
 
         if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
             LOG.debug("Session is not registered or closed, adding message to pending");
 
+            releaseQueue(endpointId);
             reSender.add(endpointId, message);
         } else {
             LOG.debug("Session registered and open, sending message");
 
-            try {
-                sessionOptional.get().getBasicRemote().sendText(message);
-            } catch (IOException e) {
-                LOG.error("Error while trying to send a message to a basic websocket remote endpoint", e);
-            }
+            send(endpointId, sessionOptional.get(), message);
+        }
+    }
+
+    @Override
+    public void transmit(String endpointId, JsonElement message) {
+        final Optional<Session> sessionOptional = registry.get(endpointId);
+
+        if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
+            LOG.debug("Session is not registered or closed, adding message to pending");
+
+            releaseQueue(endpointId);
+            reSender.add(endpointId, message.toString());
+        } else if (isBinaryEncoding(sessionOptional.get())) {
+            LOG.debug("Session registered and open, sending message in binary form");
+
+            send(endpointId, sessionOptional.get(), ByteBuffer.wrap(BinaryJson.encode(message)));
+        } else {
+            LOG.debug("Session registered and open, sending message");
+
+            send(endpointId, sessionOptional.get(), message.toString());
         }
     }
 
     @Override
-    public synchronized void transmit(String message) {
-        LOG.debug("Broadcasting a web socket transmission: ", message);
-
-        registry.getSessions()
-                .stream()
-                .filter(Session::isOpen)
-                .map(Session::getBasicRemote)
-                .forEach(it -> {
-                    try {
-                        it.sendText(message);
-                    } catch (IOException e) {
-                        LOG.error("Error while trying to send a message to a basic websocket remote endpoint", e);
-                    }
-                });
+    public void transmit(String message) {
+        LOG.debug("Broadcasting a web socket transmission: {}", message);
+
+        for (String endpointId : registry.getEndpointIds()) {
+            registry.get(endpointId)
+                    .filter(Session::isOpen)
+                    .ifPresent(session -> send(endpointId, session, message));
+        }
+        // forget queues of sessions that are closed and have nothing to send
+        queues.values().removeIf(queue -> !queue.getSession().isOpen() && queue.size() == 0);
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepths() {
+        return queues.entrySet().stream().collect(toMap(Map.Entry::getKey, e -> e.getValue().size()));
+    }
+
+    @Override
+    public Map<String, Long> getDroppedMessages() {
+        return queues.entrySet().stream().collect(toMap(Map.Entry::getKey, e -> e.getValue().getDropped()));
+    }
+
+    private void send(String endpointId, Session session, String message) {
+        final OutboundMessageQueue queue = getQueue(endpointId, session);
+        if (!queue.offer(message)) {
+            LOG.debug("Session is closed while sending, adding message to pending");
+
+            queues.remove(endpointId, queue);
+            reSender.add(endpointId, message);
+        }
     }
 
+    private void send(String endpointId, Session session, ByteBuffer message) {
+        final OutboundMessageQueue queue = getQueue(endpointId, session);
+        if (!queue.offer(message)) {
+            LOG.debug("Session is closed while sending, adding message to pending");
+
+            queues.remove(endpointId, queue);
+            reSender.add(endpointId, OutboundMessageQueue.toText(message));
+        }
+    }
+
+    /**
+     * Forgets queue of the endpoint if its session is closed, messages that are not sent yet are passed to re-sender
+     * before the new message, so their order is kept.
+     */
+    private void releaseQueue(String endpointId) {
+        final OutboundMessageQueue queue = queues.get(endpointId);
+        if (queue != null && !queue.getSession().isOpen() && queues.remove(endpointId, queue)) {
+            queue.close();
+        }
+    }
+
+    private static boolean isBinaryEncoding(Session session) {
+        final Map<String, Object> properties = session.getUserProperties();
+        return properties != null && Boolean.TRUE.equals(properties.get(BasicWebSocketEndpoint.BINARY_ENCODING_PROPERTY));
+    }
+
+    private OutboundMessageQueue getQueue(String endpointId, Session session) {
+        final OutboundMessageQueue queue = queues.get(endpointId);
+        if (queue != null && queue.getSession() == session) {
+            return queue;
+        }
+        return queues.compute(endpointId, (id, current) -> {
+            if (current != null && current.getSession() == session) {
+                return current;
+            }
+            final OutboundMessageQueue created = new OutboundMessageQueue(id, session, queueCapacity, overflowPolicy, reSender);
+            if (current != null) {
+                // endpoint is reconnected, messages that are not sent to the previous session go first
+                current.transferTo(created);
+            }
+            return created;
+        });
+    }
 }
@@ -10,51 +10,105 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
+import org.eclipse.che.api.core.websocket.WebSocketMessageTransmitter;
+import org.slf4j.Logger;
+
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.websocket.Session;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Instance is responsible for re-sending messages that were not sent during the period
- * when WEB SOCKET session was closed. If session is closed during re-send process it
- * stops and left messages will be re-sent as WEB SOCKET session becomes open again.
+ * when WEB SOCKET session was closed. Messages are re-sent through {@link WebSocketMessageTransmitter}
+ * when WEB SOCKET session becomes open again, if session is closed during re-send
+ * process left messages are returned back by the transmitter.
+ * <p/>
+ * Messages of each endpoint are numbered with increasing sequence numbers and are
+ * limited by memory budget, when budget is exceeded the oldest messages are discarded.
+ * Messages of endpoints that neither receive messages nor reconnect during configured
+ * time to live are discarded altogether.
+ * <p/>
+ * Class is thread safe.
  *
  * @author Dmitry Kuleshov
  */
 @Singleton
 public class MessagesReSender {
-    private static final int MAX_MESSAGES = 100;
+    private static final Logger LOG = getLogger(MessagesReSender.class);
+
+    private static final long DEFAULT_MAX_BYTES_PER_ENDPOINT = 1024 * 1024;
+    private static final long DEFAULT_TTL_SEC                = 600;
+    private static final long MAX_EVICTION_PERIOD_MILLIS     = TimeUnit.MINUTES.toMillis(1);
+
+    private final WebSocketSessionRegistry              registry;
+    private final Provider<WebSocketMessageTransmitter> transmitter;
 
-    private final WebSocketSessionRegistry registry;
+    private final Map<String, PendingMessages> messagesMap      = new ConcurrentHashMap<>();
+    private final AtomicLong                    nextEvictionTime = new AtomicLong();
 
-    private final Map<String, List<String>> messagesMap = new HashMap<>();
+    private volatile long maxBytesPerEndpoint = DEFAULT_MAX_BYTES_PER_ENDPOINT;
+    private volatile long ttlMillis           = TimeUnit.SECONDS.toMillis(DEFAULT_TTL_SEC);
 
     @Inject
-    public MessagesReSender(WebSocketSessionRegistry registry) {
+    public MessagesReSender(WebSocketSessionRegistry registry, Provider<WebSocketMessageTransmitter> transmitter) {
         this.registry = registry;
+        this.transmitter = transmitter;
     }
 
-    public void add(String endpointId, String message) {
-        List<String> messages = messagesMap.get(endpointId);
+    /** Sets max approximate size in bytes of messages kept for a single endpoint. */
+    @com.google.inject.Inject(optional = true)
+    public void setMaxBytesPerEndpoint(@Named("che.websocket.resend.max_bytes_per_endpoint") long maxBytesPerEndpoint) {
+        this.maxBytesPerEndpoint = maxBytesPerEndpoint;
+    }
 
-        if (messages == null) {
-            messages = new LinkedList<>();
-            messagesMap.put(endpointId, messages);
-        }
+    /** Sets time after which messages of endpoint that does not reconnect are discarded. */
+    @com.google.inject.Inject(optional = true)
+    public void setTtl(@Named("che.websocket.resend.ttl_sec") long ttlSec) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSec);
+    }
 
-        if (messages.size() <= MAX_MESSAGES) {
-            messages.add(message);
-        }
+    /**
+     * Keeps message to re-send it when session of endpoint is opened.
+     *
+     * @return sequence number of the message, sequence numbers of endpoint are increased by one with each message
+     */
+    public long add(String endpointId, String message) {
+        evictExpired();
+
+        final long[] sequence = new long[1];
+        messagesMap.compute(endpointId, (id, messages) -> {
+            final PendingMessages result = messages == null ? new PendingMessages() : messages;
+            sequence[0] = result.add(message, maxBytesPerEndpoint);
+            return result;
+        });
+        return sequence[0];
     }
 
+    /** Re-sends all kept messages of endpoint if its session is opened. */
     public void resend(String endpointId) {
-        final List<String> messages = messagesMap.remove(endpointId);
+        resend(endpointId, 0);
+    }
+
+    /**
+     * Re-sends kept messages of endpoint which sequence numbers are greater than
+     * {@code afterSequence} if session of endpoint is opened. Messages with lower
+     * sequence numbers are considered as delivered and are discarded.
+     */
+    public void resend(String endpointId, long afterSequence) {
+        final PendingMessages messages = messagesMap.get(endpointId);
 
         if (messages == null || messages.isEmpty()) {
             return;
@@ -62,24 +116,86 @@ public class MessagesReSender {
 
         final Optional<Session> sessionOptional = registry.get(endpointId);
 
-        if (!sessionOptional.isPresent()) {
+        if (!sessionOptional.isPresent() || !sessionOptional.get().isOpen()) {
+            return;
+        }
+
+        for (String message : messages.takeAfter(afterSequence)) {
+            transmitter.get().transmit(endpointId, message);
+        }
+    }
+
+    private void evictExpired() {
+        final long now = System.currentTimeMillis();
+        final long evictionTime = nextEvictionTime.get();
+        if (now < evictionTime || !nextEvictionTime.compareAndSet(evictionTime, now + Math.min(ttlMillis, MAX_EVICTION_PERIOD_MILLIS))) {
             return;
         }
 
-        final Session session = sessionOptional.get();
+        final long expirationTime = now - ttlMillis;
+        for (String endpointId : messagesMap.keySet()) {
+            messagesMap.computeIfPresent(endpointId, (id, messages) -> {
+                if (messages.getLastAccessTime() < expirationTime) {
+                    LOG.debug("Discarding messages of endpoint {} which is not connected for a long time", id);
+                    return null;
+                }
+                return messages;
+            });
+        }
+    }
 
-        final List<String> backing = new ArrayList<>(messages);
-        messages.clear();
+    private static class PendingMessage {
+        final long   sequence;
+        final String message;
+        final long   size;
 
-        for (String message : backing) {
+        PendingMessage(long sequence, String message) {
+            this.sequence = sequence;
+            this.message = message;
+            // chars of java string take two bytes
+            this.size = 2L * message.length();
+        }
+    }
 
-            if (session.isOpen()) {
-                session.getAsyncRemote().sendText(message);
-            } else {
-                messages.add(message);
+    private static class PendingMessages {
+        private final Deque<PendingMessage> messages = new ArrayDeque<>();
+
+        private long lastSequence;
+        private long bytes;
+        private long lastAccessTime = System.currentTimeMillis();
+
+        synchronized long add(String message, long maxBytes) {
+            final PendingMessage pending = new PendingMessage(++lastSequence, message);
+            messages.add(pending);
+            bytes += pending.size;
+            while (bytes > maxBytes && !messages.isEmpty()) {
+                final PendingMessage discarded = messages.poll();
+                bytes -= discarded.size;
+                LOG.debug("Discarding message {} since messages exceed memory limit", discarded.sequence);
             }
+            lastAccessTime = System.currentTimeMillis();
+            return lastSequence;
         }
 
-        messagesMap.put(endpointId, messages);
+        synchronized List<String> takeAfter(long afterSequence) {
+            final List<String> result = new ArrayList<>(messages.size());
+            for (PendingMessage pending : messages) {
+                if (pending.sequence > afterSequence) {
+                    result.add(pending.message);
+                }
+            }
+            messages.clear();
+            bytes = 0;
+            lastAccessTime = System.currentTimeMillis();
+            return result;
+        }
+
+        synchronized boolean isEmpty() {
+            return messages.isEmpty();
+        }
+
+        synchronized long getLastAccessTime() {
+            return lastAccessTime;
+        }
     }
 }
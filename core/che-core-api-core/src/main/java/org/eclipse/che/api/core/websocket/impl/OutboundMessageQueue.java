@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.websocket.impl;
+
+import org.eclipse.che.dto.server.BinaryJson;
+import org.slf4j.Logger;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static javax.websocket.CloseReason.CloseCodes.TRY_AGAIN_LATER;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Bounded queue of outbound messages of a single WEB SOCKET session. Messages are
+ * sent with asynchronous remote endpoint of the session one by one, next message
+ * is sent when container reports that previous one is sent, so slow client does
+ * not block threads that transmit messages. When queue is full the {@link OverflowPolicy}
+ * decides which message is discarded. Messages that are not sent before session
+ * is closed are passed to {@link MessagesReSender}. Message is either a text or a JSON
+ * message which is already written in binary form by {@link BasicWebSocketMessageTransmitter},
+ * so nothing is converted while queue is locked.
+ */
+class OutboundMessageQueue implements SendHandler {
+    private static final Logger LOG = getLogger(OutboundMessageQueue.class);
+
+    private final String           endpointId;
+    private final Session          session;
+    private final int              capacity;
+    private final OverflowPolicy   overflowPolicy;
+    private final MessagesReSender reSender;
+
+    /** Contains text messages as strings and binary messages as byte buffers. */
+    private final Deque<Object> messages = new ArrayDeque<>();
+
+    private boolean sending;
+    private boolean draining;
+    private boolean closed;
+    private long    dropped;
+
+    OutboundMessageQueue(String endpointId,
+                         Session session,
+                         int capacity,
+                         OverflowPolicy overflowPolicy,
+                         MessagesReSender reSender) {
+        this.endpointId = endpointId;
+        this.session = session;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.reSender = reSender;
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    /** Number of messages waiting to be sent. */
+    synchronized int size() {
+        return messages.size();
+    }
+
+    /** Number of messages discarded because of overflow since queue is created. */
+    synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Adds text message to the queue and starts sending if there is no message
+     * being sent at the moment.
+     *
+     * @return {@code false} if queue is closed and message is not accepted,
+     * {@code true} otherwise even if message is discarded because of overflow
+     */
+    boolean offer(String message) {
+        return add(message);
+    }
+
+    /**
+     * Adds JSON message in binary form described by {@link BinaryJson} to the queue,
+     * see {@link #offer(String)}.
+     */
+    boolean offer(ByteBuffer message) {
+        return add(message);
+    }
+
+    /** Moves messages that are not sent yet to another queue of the same endpoint. */
+    synchronized void transferTo(OutboundMessageQueue queue) {
+        closed = true;
+        final Object[] pending = messages.toArray();
+        messages.clear();
+        for (Object message : pending) {
+            if (!queue.add(message)) {
+                reSender.add(endpointId, toText(message));
+            }
+        }
+    }
+
+    /** Returns text of the message given to the queue, binary messages are converted back to JSON. */
+    static String toText(Object message) {
+        if (message instanceof ByteBuffer) {
+            final ByteBuffer buffer = ((ByteBuffer)message).duplicate();
+            final byte[] binary = new byte[buffer.remaining()];
+            buffer.get(binary);
+            return BinaryJson.decode(binary);
+        }
+        return (String)message;
+    }
+
+    /** Closes the queue of closed session, messages that are not sent yet are passed to re-sender. */
+    synchronized void close() {
+        if (!closed) {
+            passToReSender();
+        }
+    }
+
+    @Override
+    public synchronized void onResult(SendResult result) {
+        if (!result.isOK()) {
+            LOG.error("Error while trying to send a message to an async websocket remote endpoint {}", endpointId, result.getException());
+        }
+        sending = false;
+        // result of send that is started by drain loop itself, loop sends next message
+        if (!draining) {
+            drain();
+        }
+    }
+
+    private synchronized boolean add(Object message) {
+        if (closed) {
+            return false;
+        }
+        if (messages.size() >= capacity && !makeRoom(message)) {
+            return true;
+        }
+        messages.add(message);
+        drain();
+        return true;
+    }
+
+    private boolean makeRoom(Object message) {
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                dropped++;
+                return false;
+            case COALESCE:
+                if (messages.contains(message)) {
+                    dropped++;
+                    return false;
+                }
+                messages.poll();
+                dropped++;
+                return true;
+            case DISCONNECT:
+                LOG.warn("Outbound queue of endpoint {} is overflowed, closing session", endpointId);
+                messages.add(message);
+                closeSession();
+                return false;
+            case DROP_OLDEST:
+            default:
+                messages.poll();
+                dropped++;
+                return true;
+        }
+    }
+
+    private void drain() {
+        draining = true;
+        try {
+            while (!sending && !messages.isEmpty()) {
+                if (!session.isOpen()) {
+                    passToReSender();
+                    return;
+                }
+                sending = true;
+                try {
+                    send(messages.poll());
+                } catch (IllegalStateException e) {
+                    sending = false;
+                    LOG.error("Error while trying to send a message to an async websocket remote endpoint {}", endpointId, e);
+                }
+            }
+        } finally {
+            draining = false;
+        }
+    }
+
+    private void send(Object message) {
+        if (message instanceof ByteBuffer) {
+            session.getAsyncRemote().sendBinary((ByteBuffer)message, this);
+        } else {
+            session.getAsyncRemote().sendText((String)message, this);
+        }
+    }
+
+    private void closeSession() {
+        passToReSender();
+        try {
+            session.close(new CloseReason(TRY_AGAIN_LATER, "Too many messages are waiting to be sent"));
+        } catch (IOException e) {
+            LOG.error("Error while trying to close websocket session of endpoint {}", endpointId, e);
+        }
+    }
+
+    private void passToReSender() {
+        closed = true;
+        // session is closed, so binary messages are converted back to JSON rarely
+        for (Object message : messages) {
+            reSender.add(endpointId, toText(message));
+        }
+        messages.clear();
+    }
+
+    /** Defines which message is discarded when queue is full. */
+    enum OverflowPolicy {
+        /** The oldest queued message is discarded. */
+        DROP_OLDEST,
+        /** The new message is discarded. */
+        DROP_NEWEST,
+        /** The new message is discarded if the same message is already queued, otherwise the oldest one is discarded. */
+        COALESCE,
+        /** Session is closed, queued messages including the new one are left to re-sender. */
+        DISCONNECT
+    }
+}
@@ -14,11 +14,14 @@ import org.slf4j.Logger;
 
 import javax.inject.Singleton;
 import javax.websocket.Session;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static java.util.stream.Collectors.toSet;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -32,7 +35,8 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class WebSocketSessionRegistry {
     private static final Logger LOG = getLogger(WebSocketSessionRegistry.class);
 
-    private final Map<String, Session> sessionsMap = new ConcurrentHashMap<>();
+    private final Map<String, Session>    sessionsMap    = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> closeListeners = new CopyOnWriteArrayList<>();
 
     public void add(String endpointId, Session session) {
         LOG.debug("Registering session with endpoint {}", session.getId(), endpointId);
@@ -43,7 +47,18 @@ public class WebSocketSessionRegistry {
     public void remove(String endpointId) {
         LOG.debug("Cancelling registration for session with endpoint {}", endpointId);
 
-        sessionsMap.remove(endpointId);
+        if (sessionsMap.remove(endpointId) != null) {
+            closeListeners.forEach(listener -> listener.accept(endpointId));
+        }
+    }
+
+    /** Adds listener which is called with identifier of endpoint when its session is closed and removed from registry. */
+    public void addCloseListener(Consumer<String> listener) {
+        closeListeners.add(listener);
+    }
+
+    public void removeCloseListener(Consumer<String> listener) {
+        closeListeners.remove(listener);
     }
 
     public Optional<Session> get(String endpointId) {
@@ -53,4 +68,8 @@ public class WebSocketSessionRegistry {
     public Set<Session> getSessions() {
         return sessionsMap.values().stream().collect(toSet());
     }
+
+    public Set<String> getEndpointIds() {
+        return new HashSet<>(sessionsMap.keySet());
+    }
 }
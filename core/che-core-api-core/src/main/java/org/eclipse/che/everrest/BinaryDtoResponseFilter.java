@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.everrest;
+
+import org.eclipse.che.dto.server.BinaryJson;
+import org.eclipse.che.dto.server.BinaryJsonWriter;
+import org.eclipse.che.dto.server.JsonSerializable;
+import org.everrest.core.ApplicationContext;
+import org.everrest.core.Filter;
+import org.everrest.core.GenericContainerResponse;
+import org.everrest.core.ResponseFilter;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Filter implementing {@link ResponseFilter} in order to send DTOs in the compact binary form described by
+ * {@link BinaryJson} to clients which explicitly accept {@value BinaryJson#MEDIA_TYPE} media type,
+ * e.g. {@link org.eclipse.che.api.core.rest.HttpJsonRequest#acceptBinaryDto()}.
+ * It is applying on successful JSON responses which entity is DTO or collection of DTOs only,
+ * other responses are sent as is. DTOs are written to the response stream directly, both JSON and
+ * binary responses are marked with {@code Vary: Accept}, so caches keep them apart.
+ */
+@Filter
+public class BinaryDtoResponseFilter implements ResponseFilter {
+    private static final MediaType BINARY_DTO_TYPE = MediaType.valueOf(BinaryJson.MEDIA_TYPE);
+    /** The same as {@link org.eclipse.che.api.core.rest.CheJsonProvider} sets for JSON. */
+    private static final String    CACHE_CONTROL   = "public, no-cache, no-store, no-transform";
+
+    @Override
+    public void doFilter(GenericContainerResponse containerResponse) {
+        final Object entity = containerResponse.getEntity();
+        if (entity == null
+            || containerResponse.getStatus() / 100 != 2
+            || !isJson(containerResponse.getContentType())
+            || !isDto(entity)) {
+            return;
+        }
+        if (isBinaryAccepted(ApplicationContext.getCurrent().getHttpHeaders())) {
+            containerResponse.setResponse(Response.fromResponse(containerResponse.getResponse())
+                                                  .entity((StreamingOutput)output -> writeBinary(entity, output))
+                                                  .type(BINARY_DTO_TYPE)
+                                                  .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                                                  .build());
+        }
+        // JSON response keeps its entity and generic type, so header is added to it as is
+        containerResponse.getHttpHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    /** Checks whether entity is DTO or collection of DTOs. */
+    private static boolean isDto(Object entity) {
+        if (entity instanceof JsonSerializable) {
+            return true;
+        }
+        if (entity instanceof Collection) {
+            for (Object element : (Collection<?>)entity) {
+                if (element != null && !(element instanceof JsonSerializable)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static void writeBinary(Object entity, OutputStream output) throws IOException {
+        final BinaryJsonWriter writer = new BinaryJsonWriter(new BufferedOutputStream(output));
+        writer.setLenient(true);
+        writer.setSerializeNulls(false);
+        if (entity instanceof JsonSerializable) {
+            ((JsonSerializable)entity).writeTo(writer);
+        } else {
+            writer.beginArray();
+            for (Object element : (Collection<?>)entity) {
+                if (element == null) {
+                    writer.nullValue();
+                } else {
+                    ((JsonSerializable)element).writeTo(writer);
+                }
+            }
+            writer.endArray();
+        }
+        // response stream is closed by container
+        writer.flush();
+    }
+
+    private static boolean isJson(MediaType contentType) {
+        return contentType != null
+               && MediaType.APPLICATION_JSON_TYPE.getType().equals(contentType.getType())
+               && MediaType.APPLICATION_JSON_TYPE.getSubtype().equals(contentType.getSubtype());
+    }
+
+    /** Wildcards are not taken into account, binary form is sent to clients which know it only. */
+    private static boolean isBinaryAccepted(HttpHeaders headers) {
+        if (headers == null) {
+            return false;
+        }
+        for (MediaType acceptable : headers.getAcceptableMediaTypes()) {
+            if (BINARY_DTO_TYPE.getType().equals(acceptable.getType()) && BINARY_DTO_TYPE.getSubtype().equals(acceptable.getSubtype())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc;
+
+import com.google.gson.JsonParser;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.assistedinject.FactoryModuleBuilder;
+
+import org.eclipse.che.api.core.jsonrpc.JsonRpcEntityQualifier.JsonRpcEntityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures number of messages per second processed by {@link JsonRpcMessageReceiver}. Benchmark {@link #singleParse()}
+ * runs the receiver, {@link #parsePerStage()} reproduces the former reception path where every stage parsed the
+ * stringified message on its own. Dispatchers only count received entities, so only reception is measured.
+ * Benchmark is not run by surefire, run {@link #main(String[])} with test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JsonRpcMessageReceiverBenchmark {
+    private static final String ENDPOINT_ID = "endpoint";
+
+    private static final String DID_CHANGE = "{\"jsonrpc\":\"2.0\",\"method\":\"textDocument/didChange\",\"params\":{" +
+                                             "\"textDocument\":{\"uri\":\"file:///projects/console-java-simple/src/main/java/" +
+                                             "org/eclipse/che/examples/HelloWorld.java\",\"version\":42}," +
+                                             "\"contentChanges\":[{\"range\":{\"start\":{\"line\":17,\"character\":8}," +
+                                             "\"end\":{\"line\":17,\"character\":8}},\"rangeLength\":0,\"text\":\"S\"}]}}";
+
+    private static final String RESPONSE = "{\"jsonrpc\":\"2.0\",\"id\":\"17\",\"result\":{\"path\":\"/console-java-simple/" +
+                                           "src/main/java/org/eclipse/che/examples/HelloWorld.java\",\"type\":\"MODIFIED\"}}";
+
+    @Param({"request", "response", "batch"})
+    public String messageType;
+
+    private String                     message;
+    private JsonRpcMessageReceiver     receiver;
+    private JsonRpcEntityValidator     validator;
+    private JsonRpcEntityQualifier     qualifier;
+    private JsonParser                 jsonParser;
+    private JsonRpcFactory             factory;
+    private CountingRequestDispatcher  requestDispatcher;
+    private CountingResponseDispatcher responseDispatcher;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (messageType) {
+            case "request":
+                message = DID_CHANGE;
+                break;
+            case "response":
+                message = RESPONSE;
+                break;
+            default:
+                message = '[' + DID_CHANGE + ',' + DID_CHANGE + ',' + DID_CHANGE + ',' + RESPONSE + ']';
+        }
+
+        factory = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                install(new FactoryModuleBuilder().build(JsonRpcFactory.class));
+            }
+        }).getInstance(JsonRpcFactory.class);
+        jsonParser = new JsonParser();
+        validator = new JsonRpcEntityValidator(jsonParser);
+        qualifier = new JsonRpcEntityQualifier(jsonParser);
+        requestDispatcher = new CountingRequestDispatcher();
+        responseDispatcher = new CountingResponseDispatcher();
+        receiver = new JsonRpcMessageReceiver(requestDispatcher,
+                                              responseDispatcher,
+                                              qualifier,
+                                              validator,
+                                              new JsonRpcErrorTransmitter(null, factory),
+                                              factory);
+    }
+
+    @Benchmark
+    public long singleParse() {
+        receiver.receive(ENDPOINT_ID, message);
+        return requestDispatcher.received + responseDispatcher.received;
+    }
+
+    @Benchmark
+    public long parsePerStage() throws JsonRpcException {
+        validator.validate(message);
+        if (JsonRpcList.isArray(message, jsonParser)) {
+            for (String listMessage : factory.createList(message).toStringifiedList()) {
+                processObject(listMessage);
+            }
+        } else {
+            processObject(message);
+        }
+        return requestDispatcher.received + responseDispatcher.received;
+    }
+
+    private void processObject(String message) throws JsonRpcException {
+        JsonRpcEntityType type = qualifier.qualify(message);
+        if (type == JsonRpcEntityType.REQUEST) {
+            requestDispatcher.dispatch(ENDPOINT_ID, factory.createRequest(message));
+        } else if (type == JsonRpcEntityType.RESPONSE) {
+            responseDispatcher.dispatch(ENDPOINT_ID, factory.createResponse(message));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder().include(JsonRpcMessageReceiverBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    private static class CountingRequestDispatcher extends RequestDispatcher {
+        long received;
+
+        CountingRequestDispatcher() {
+            super(null, null, null, null);
+        }
+
+        @Override
+        public void dispatch(String endpointId, JsonRpcRequest request) {
+            received++;
+        }
+    }
+
+    private static class CountingResponseDispatcher extends ResponseDispatcher {
+        long received;
+
+        @Override
+        public void dispatch(String endpointId, JsonRpcResponse response) {
+            received++;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.jsonrpc;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import org.eclipse.che.api.core.websocket.WebSocketMessageTransmitter;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.che.api.core.jsonrpc.RequestDispatcher.CANCEL_REQUEST_METHOD;
+import static org.eclipse.che.api.core.jsonrpc.RequestDispatcher.REQUEST_CANCELLED;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link RequestDispatcher}
+ */
+@Listeners(MockitoTestNGListener.class)
+public class RequestDispatcherTest {
+    private static final String ENDPOINT_ID = "endpoint";
+    private static final String METHOD      = "method";
+
+    @Mock
+    private WebSocketMessageTransmitter transmitter;
+    @Mock
+    private JsonRpcErrorTransmitter     errorTransmitter;
+    @Mock
+    private JsonRpcFactory              factory;
+
+    private RequestHandlerRegistry registry;
+    private RequestDispatcher      dispatcher;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(factory.createResponse(anyString(), any(), any())).thenAnswer(
+                invocation -> new JsonRpcResponse((String)invocation.getArguments()[0],
+                                                  (JsonRpcResult)invocation.getArguments()[1],
+                                                  (JsonRpcError)invocation.getArguments()[2]));
+        registry = new RequestHandlerRegistry();
+        dispatcher = new RequestDispatcher(registry, transmitter, errorTransmitter, factory);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void shouldHandleInlineRequestInReceivingThread() throws Exception {
+        AtomicReference<Thread> handlingThread = new AtomicReference<>();
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> {
+            handlingThread.set(Thread.currentThread());
+            return result();
+        });
+
+        dispatcher.dispatch(ENDPOINT_ID, request("1"));
+
+        verify(transmitter).transmit(ENDPOINT_ID, response("1"));
+        assertEquals(handlingThread.get(), Thread.currentThread());
+    }
+
+    @Test
+    public void shouldHandleRequestWithSharedPool() throws Exception {
+        AtomicReference<String> handlingThread = new AtomicReference<>();
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> {
+            handlingThread.set(Thread.currentThread().getName());
+            return result();
+        }, RequestExecutionPolicy.shared(false));
+
+        dispatcher.dispatch(ENDPOINT_ID, request("1"));
+
+        verify(transmitter, timeout(5000)).transmit(ENDPOINT_ID, response("1"));
+        assertTrue(handlingThread.get().startsWith("JsonRpcSharedPool-"), handlingThread.get());
+    }
+
+    @Test
+    public void shouldHandleRequestWithDedicatedPool() throws Exception {
+        AtomicReference<String> handlingThread = new AtomicReference<>();
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> {
+            handlingThread.set(Thread.currentThread().getName());
+            return result();
+        }, RequestExecutionPolicy.dedicated(1, false));
+
+        dispatcher.dispatch(ENDPOINT_ID, request("1"));
+
+        verify(transmitter, timeout(5000)).transmit(ENDPOINT_ID, response("1"));
+        assertTrue(handlingThread.get().startsWith("JsonRpc-" + METHOD + "-"), handlingThread.get());
+    }
+
+    @Test
+    public void shouldTransmitErrorOfHandlerExecutedByPool() throws Exception {
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> {
+            throw new JsonRpcException(-32000, "error", "1");
+        }, RequestExecutionPolicy.shared(false));
+
+        dispatcher.dispatch(ENDPOINT_ID, request("1"));
+
+        JsonRpcException error = captureError();
+        assertEquals(error.getCode(), -32000);
+        verify(transmitter, never()).transmit(anyString(), any(JsonElement.class));
+    }
+
+    @Test
+    public void shouldAnswerOnlyWithCancellationWhenRequestCancelledDuringExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await(10, SECONDS);
+                fail("Handler must be interrupted");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+            // handler that ignores interruption still completes with result
+            return result();
+        }, RequestExecutionPolicy.shared(false));
+
+        dispatcher.dispatch(ENDPOINT_ID, request("1"));
+        assertTrue(started.await(5, SECONDS));
+        dispatcher.dispatch(ENDPOINT_ID, cancelRequest("1"));
+        assertTrue(finished.await(5, SECONDS));
+
+        JsonRpcException error = captureError();
+        assertEquals(error.getCode(), REQUEST_CANCELLED);
+        assertEquals(error.getId(), "1");
+        verify(transmitter, never()).transmit(anyString(), any(JsonElement.class));
+    }
+
+    @Test
+    public void shouldNotExecuteRequestCancelledBeforeExecution() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> {
+            if (calls.incrementAndGet() == 1) {
+                try {
+                    release.await(5, SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return result();
+        }, RequestExecutionPolicy.dedicated(1, false));
+
+        // the only thread of pool is busy with the first request, so the second one is queued
+        dispatcher.dispatch(ENDPOINT_ID, request("1"));
+        dispatcher.dispatch(ENDPOINT_ID, request("2"));
+        dispatcher.dispatch(ENDPOINT_ID, cancelRequest("2"));
+        release.countDown();
+        dispatcher.dispatch(ENDPOINT_ID, request("3"));
+
+        verify(transmitter, timeout(5000)).transmit(ENDPOINT_ID, response("1"));
+        verify(transmitter, timeout(5000)).transmit(ENDPOINT_ID, response("3"));
+        verify(transmitter, never()).transmit(ENDPOINT_ID, response("2"));
+        JsonRpcException error = captureError();
+        assertEquals(error.getCode(), REQUEST_CANCELLED);
+        assertEquals(error.getId(), "2");
+        assertEquals(calls.get(), 2);
+    }
+
+    @Test
+    public void shouldIgnoreCancellationOfUnknownRequest() throws Exception {
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> result(), RequestExecutionPolicy.shared(false));
+
+        dispatcher.dispatch(ENDPOINT_ID, cancelRequest("unknown"));
+
+        verifyZeroInteractions(transmitter, errorTransmitter);
+    }
+
+    @Test
+    public void shouldIgnoreCancellationOfHandledRequest() throws Exception {
+        registry.register(METHOD, (RequestHandler)(endpointId, params) -> result(), RequestExecutionPolicy.shared(false));
+        dispatcher.dispatch(ENDPOINT_ID, request("1"));
+        verify(transmitter, timeout(5000)).transmit(ENDPOINT_ID, response("1"));
+
+        dispatcher.dispatch(ENDPOINT_ID, cancelRequest("1"));
+
+        verifyZeroInteractions(errorTransmitter);
+    }
+
+    @Test
+    public void shouldFailRequestOfUnknownMethod() throws Exception {
+        try {
+            dispatcher.dispatch(ENDPOINT_ID, request("1"));
+            fail("Request of unknown method must fail");
+        } catch (JsonRpcException e) {
+            assertEquals(e.getCode(), -32601);
+            assertEquals(e.getId(), "1");
+        }
+    }
+
+    private JsonRpcException captureError() {
+        ArgumentCaptor<JsonRpcException> captor = ArgumentCaptor.forClass(JsonRpcException.class);
+        verify(errorTransmitter, timeout(5000)).transmit(eq(ENDPOINT_ID), captor.capture());
+        return captor.getValue();
+    }
+
+    private static JsonRpcRequest request(String id) {
+        return new JsonRpcRequest(id, METHOD, new JsonRpcParams(new JsonObject()));
+    }
+
+    private static JsonRpcRequest cancelRequest(String id) {
+        JsonObject params = new JsonObject();
+        params.addProperty("id", id);
+        return new JsonRpcRequest(CANCEL_REQUEST_METHOD, new JsonRpcParams(params));
+    }
+
+    private static JsonRpcResult result() {
+        return new JsonRpcResult(new JsonPrimitive("result"));
+    }
+
+    private static JsonElement response(String id) {
+        return new JsonParser().parse("{\"jsonrpc\":\"2.0\",\"result\":\"result\",\"id\":\"" + id + "\"}");
+    }
+}
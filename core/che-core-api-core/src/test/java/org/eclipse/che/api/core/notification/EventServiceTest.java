@@ -11,12 +11,19 @@
 package org.eclipse.che.api.core.notification;
 
 import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author andrew00x
@@ -29,6 +36,11 @@ public class EventServiceTest {
         bus = new EventService();
     }
 
+    @AfterMethod
+    public void tearDown() {
+        bus.shutdown();
+    }
+
     @Test
     public void testSimpleEvent() {
         final List<Object> events = new ArrayList<>();
@@ -158,6 +170,122 @@ public class EventServiceTest {
         Assert.assertEquals(events.size(), 0);
     }
 
+    @Test
+    public void shouldCallSubscribersWithHigherPriorityFirst() {
+        final List<String> events = new ArrayList<>();
+        bus.subscribe(new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(String.format("low:%s", event));
+            }
+        });
+        bus.subscribe(new EventSubscriber<ExtEvent>() {
+            @Override
+            public void onEvent(ExtEvent event) {
+                events.add(String.format("high:%s", event));
+            }
+        }, SubscriptionPolicy.SYNC.withPriority(10));
+
+        bus.publish(new ExtEvent());
+
+        Assert.assertEquals(events, Arrays.asList("high:ext_event", "low:ext_event"));
+    }
+
+    @Test
+    public void shouldDeliverEventsToAsyncSubscriberInOrderOfPublishing() throws Exception {
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch delivered = new CountDownLatch(100);
+        final Thread publisher = Thread.currentThread();
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                threads.add(Thread.currentThread());
+                events.add(event.data);
+                delivered.countDown();
+            }
+        }, SubscriptionPolicy.async());
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(String.valueOf(i));
+            bus.publish(new Event(String.valueOf(i)));
+        }
+
+        Assert.assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(events, expected);
+        Assert.assertFalse(threads.contains(publisher));
+    }
+
+    @Test
+    public void shouldDeliverEventsToAsyncSubscriberWithItsExecutor() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final CountDownLatch delivered = new CountDownLatch(1);
+            final Thread[] subscriberThread = new Thread[1];
+            bus.subscribe(new EventSubscriber<Event>() {
+                @Override
+                public void onEvent(Event event) {
+                    subscriberThread[0] = Thread.currentThread();
+                    delivered.countDown();
+                }
+            }, SubscriptionPolicy.async(executor));
+            final Thread[] executorThread = new Thread[1];
+            executor.submit(() -> executorThread[0] = Thread.currentThread()).get();
+
+            bus.publish(new Event());
+
+            Assert.assertTrue(delivered.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(subscriberThread[0], executorThread[0]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldCollectMetricsOfSubscribers() {
+        final EventSubscriber<Event> subscriber = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                if ("fail".equals(event.data)) {
+                    throw new RuntimeException("fail");
+                }
+            }
+        };
+        bus.subscribe(subscriber);
+
+        bus.publish(new Event());
+        bus.publish(new ExtEvent());
+        bus.publish(new Event("fail"));
+
+        Assert.assertEquals(bus.getMetrics().size(), 1);
+        final SubscriberMetrics metrics = bus.getMetrics().get(0);
+        Assert.assertEquals(metrics.getSubscriber(), subscriber);
+        Assert.assertEquals(metrics.getEventType(), Event.class);
+        Assert.assertFalse(metrics.isAsync());
+        Assert.assertEquals(metrics.getDeliveredEvents(), 3);
+        Assert.assertEquals(metrics.getFailedEvents(), 1);
+        Assert.assertEquals(metrics.getQueueDepth(), 0);
+        Assert.assertTrue(metrics.getMaxLatencyNanos() <= metrics.getTotalLatencyNanos());
+    }
+
+    @Test
+    public void shouldNotDeliverEventsToSubscriberThatIsSubscribedTwice() {
+        final List<String> events = new ArrayList<>();
+        final EventSubscriber<Event> subscriber = new EventSubscriber<Event>() {
+            @Override
+            public void onEvent(Event event) {
+                events.add(event.data);
+            }
+        };
+        bus.subscribe(subscriber);
+        bus.subscribe(subscriber);
+
+        bus.publish(new Event());
+
+        Assert.assertEquals(events.size(), 1);
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void shouldNotDetermineTheTypeOfEventOnSubscribe() {
         bus.subscribe(new CustomEventSubscriber<>());
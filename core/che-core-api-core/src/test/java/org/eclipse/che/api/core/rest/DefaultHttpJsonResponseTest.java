@@ -13,6 +13,7 @@ package org.eclipse.che.api.core.rest;
 import com.google.common.reflect.TypeToken;
 
 import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.BinaryJson;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
@@ -74,6 +75,24 @@ public class DefaultHttpJsonResponseTest {
         assertEquals(response.asList(Link.class), singletonList(testLink));
     }
     
+    @Test
+    public void shouldReadDtoFromBinaryResponse() throws Exception {
+        final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+        final DefaultHttpJsonResponse response = new DefaultHttpJsonResponse(DtoFactory.getInstance().toBinary(testLink), 200);
+
+        assertEquals(response.asDto(Link.class), testLink);
+        assertEquals(response.asString(), DtoFactory.getInstance().toJson(testLink));
+    }
+
+    @Test
+    public void shouldReadListOfDtoFromBinaryResponse() throws Exception {
+        final Link testLink = createLink("POST", "http://localhost:8080", "rel");
+        final String responseBody = DtoFactory.getInstance().toJson(new JsonArrayImpl<>(singletonList(testLink)));
+        final DefaultHttpJsonResponse response = new DefaultHttpJsonResponse(BinaryJson.encode(responseBody), 200);
+
+        assertEquals(response.asList(Link.class), singletonList(testLink));
+    }
+
     @Test(expectedExceptions = NullPointerException.class)
     public void shouldThrowNullPointerExceptionWhenClazzIsNull() throws Exception {
         new DefaultHttpJsonResponse("{}", 200).as(null, null);
@@ -11,6 +11,7 @@
 package org.eclipse.che.api.core.websocket.impl;
 
 import org.eclipse.che.api.core.websocket.WebSocketMessageReceiver;
+import org.eclipse.che.dto.server.BinaryJson;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -21,8 +22,14 @@ import org.testng.annotations.Test;
 
 import javax.websocket.CloseReason;
 import javax.websocket.Session;
+import java.util.HashMap;
+import java.util.Map;
 
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 /**
  * Tests for {@link BasicWebSocketEndpoint}
@@ -76,6 +83,24 @@ public class BasicWebSocketEndpointTest {
         verify(receiver).receive("id", "message");
     }
 
+    @Test
+    public void shouldMarkSessionWhenClientAsksForBinaryEncoding(){
+        final Map<String, Object> properties = new HashMap<>();
+        when(session.getRequestParameterMap()).thenReturn(singletonMap("encoding", singletonList("binary")));
+        when(session.getUserProperties()).thenReturn(properties);
+
+        endpoint.onOpen(session, "id");
+
+        assertEquals(properties.get(BasicWebSocketEndpoint.BINARY_ENCODING_PROPERTY), Boolean.TRUE);
+    }
+
+    @Test
+    public void shouldRunReceiveOnBinaryMessage(){
+        endpoint.onMessage(BinaryJson.encode("{\"id\":1}"), "id");
+
+        verify(receiver).receive("id", "{\"id\":1}");
+    }
+
     @Test
     public void shouldRunRemoveOnClose(){
         endpoint.onClose(closeReason, "id");
@@ -10,6 +10,11 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
+import com.google.gson.JsonObject;
+
+import org.eclipse.che.dto.server.BinaryJson;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -18,18 +23,26 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
 import javax.websocket.Session;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  * Test for {@link BasicWebSocketMessageTransmitter}
@@ -51,23 +64,23 @@ public class BasicWebSocketMessageTransmitterTest {
     @Mock
     private Session              session;
     @Mock
-    private RemoteEndpoint.Basic remote;
+    private RemoteEndpoint.Async remote;
 
     @BeforeMethod
     public void setUp() throws Exception {
-        when(session.getBasicRemote()).thenReturn(remote);
+        when(session.getAsyncRemote()).thenReturn(remote);
         when(session.isOpen()).thenReturn(true);
 
         when(registry.get(ENDPOINT_ID)).thenReturn(Optional.of(session));
-        when(registry.getSessions()).thenReturn(emptySet());
+        when(registry.getEndpointIds()).thenReturn(emptySet());
     }
 
     @Test
     public void shouldSendDirectMessageIfSessionIsOpenAndEndpointIsSet() throws IOException {
         transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-        verify(session).getBasicRemote();
-        verify(remote).sendText(MESSAGE);
+        verify(session).getAsyncRemote();
+        verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
         verify(reSender, never()).add(eq(ENDPOINT_ID), anyString());
     }
 
@@ -75,11 +88,21 @@ public class BasicWebSocketMessageTransmitterTest {
     public void shouldSendBroadcastingMessageIfSessionIsOpen() throws IOException {
         transmitter.transmit(MESSAGE);
 
-        verify(session, never()).getBasicRemote();
-        verify(remote, never()).sendText(MESSAGE);
+        verify(session, never()).getAsyncRemote();
+        verify(remote, never()).sendText(eq(MESSAGE), any(SendHandler.class));
         verify(reSender, never()).add(any(), anyString());
 
-        verify(registry).getSessions();
+        verify(registry).getEndpointIds();
+    }
+
+    @Test
+    public void shouldSendBroadcastingMessageToEachOpenSession() throws IOException {
+        when(registry.getEndpointIds()).thenReturn(singleton(ENDPOINT_ID));
+
+        transmitter.transmit(MESSAGE);
+
+        verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
+        verify(reSender, never()).add(any(), anyString());
     }
 
     @Test
@@ -88,8 +111,82 @@ public class BasicWebSocketMessageTransmitterTest {
 
         transmitter.transmit(ENDPOINT_ID, MESSAGE);
 
-        verify(session, never()).getBasicRemote();
-        verify(remote, never()).sendText(MESSAGE);
+        verify(session, never()).getAsyncRemote();
+        verify(remote, never()).sendText(eq(MESSAGE), any(SendHandler.class));
         verify(reSender).add(ENDPOINT_ID, MESSAGE);
     }
+
+    @Test
+    public void shouldSendJsonMessageAsTextIfClientDoesNotAskForBinaryForm() throws IOException {
+        transmitter.transmit(ENDPOINT_ID, jsonMessage());
+
+        verify(remote).sendText(eq(jsonMessage().toString()), any(SendHandler.class));
+    }
+
+    @Test
+    public void shouldSendJsonMessageInBinaryFormIfClientAsksForIt() throws IOException {
+        when(session.getUserProperties()).thenReturn(singletonMap(BasicWebSocketEndpoint.BINARY_ENCODING_PROPERTY, true));
+
+        transmitter.transmit(ENDPOINT_ID, jsonMessage());
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+        verify(remote).sendBinary(eq(ByteBuffer.wrap(BinaryJson.encode(jsonMessage().toString()))), any(SendHandler.class));
+        verify(remote, never()).sendText(anyString(), any(SendHandler.class));
+        assertEquals(transmitter.getQueueDepths().get(ENDPOINT_ID), Integer.valueOf(1));
+    }
+
+    @Test
+    public void shouldAddJsonMessageToPendingAsTextIfSessionIsNotOpened() throws IOException {
+        when(session.isOpen()).thenReturn(false);
+
+        transmitter.transmit(ENDPOINT_ID, jsonMessage());
+
+        verify(reSender).add(ENDPOINT_ID, jsonMessage().toString());
+    }
+
+    @Test
+    public void shouldNotWaitForPreviousMessageToBeSent() throws IOException {
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+
+        verify(remote).sendText(eq(MESSAGE), any(SendHandler.class));
+        assertEquals(transmitter.getQueueDepths().get(ENDPOINT_ID), Integer.valueOf(1));
+    }
+
+    @Test
+    public void shouldForgetQueueAndPassWaitingMessagesToPendingWhenSessionIsClosed() throws IOException {
+        transmitter.subscribe();
+        ArgumentCaptor<Consumer> closeListener = ArgumentCaptor.forClass(Consumer.class);
+        verify(registry).addCloseListener(closeListener.capture());
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+        transmitter.transmit(ENDPOINT_ID, "waiting");
+
+        when(session.isOpen()).thenReturn(false);
+        closeListener.getValue().accept(ENDPOINT_ID);
+
+        verify(reSender).add(ENDPOINT_ID, "waiting");
+        assertTrue(transmitter.getQueueDepths().isEmpty());
+    }
+
+    @Test
+    public void shouldForgetQueueOfClosedSessionWhenMessageIsTransmittedToIt() throws IOException {
+        transmitter.transmit(ENDPOINT_ID, MESSAGE);
+        transmitter.transmit(ENDPOINT_ID, "waiting");
+
+        when(session.isOpen()).thenReturn(false);
+        transmitter.transmit(ENDPOINT_ID, "new");
+
+        InOrder inOrder = inOrder(reSender);
+        inOrder.verify(reSender).add(ENDPOINT_ID, "waiting");
+        inOrder.verify(reSender).add(ENDPOINT_ID, "new");
+        assertTrue(transmitter.getQueueDepths().isEmpty());
+    }
+
+    private static JsonObject jsonMessage() {
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("id", 1);
+        message.add("params", null);
+        return message;
+    }
 }
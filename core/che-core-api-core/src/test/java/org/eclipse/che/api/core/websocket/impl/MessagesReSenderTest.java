@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.core.websocket.impl;
 
+import org.eclipse.che.api.core.websocket.WebSocketMessageTransmitter;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
@@ -17,18 +18,16 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
-import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
 
 import java.util.Optional;
 
-import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 /**
  * Tests for {@link MessagesReSender}
@@ -41,25 +40,24 @@ public class MessagesReSenderTest {
     private static final String ENDPOINT_ID = "id";
 
     @Mock
-    private WebSocketSessionRegistry sessionRegistry;
+    private WebSocketSessionRegistry    sessionRegistry;
+    @Mock
+    private WebSocketMessageTransmitter transmitter;
     @InjectMocks
-    private MessagesReSender         reSender;
+    private MessagesReSender            reSender;
 
     @Mock
-    private Session               session;
-    @Mock
-    private RemoteEndpoint.Async  endpoint;
+    private Session session;
 
     @BeforeMethod
     public void beforeMethod() {
         when(sessionRegistry.get(anyString())).thenReturn(Optional.of(session));
-        when(session.getAsyncRemote()).thenReturn(endpoint);
         when(session.isOpen()).thenReturn(true);
     }
 
     @BeforeMethod
     public void before() {
-        reSender = new MessagesReSender(sessionRegistry);
+        reSender = new MessagesReSender(sessionRegistry, () -> transmitter);
     }
 
     @Test
@@ -71,8 +69,7 @@ public class MessagesReSenderTest {
         reSender.resend(ENDPOINT_ID);
 
         verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session, never()).getAsyncRemote();
-        verify(endpoint, never()).sendText(MESSAGE);
+        verify(transmitter, never()).transmit(ENDPOINT_ID, MESSAGE);
     }
 
     @Test
@@ -82,14 +79,12 @@ public class MessagesReSenderTest {
         when(session.isOpen()).thenReturn(false);
         reSender.resend(ENDPOINT_ID);
 
-        verify(session, never()).getAsyncRemote();
-        verify(endpoint, never()).sendText(MESSAGE);
+        verify(transmitter, never()).transmit(ENDPOINT_ID, MESSAGE);
 
         when(session.isOpen()).thenReturn(true);
         reSender.resend(ENDPOINT_ID);
 
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
     }
 
     @Test
@@ -99,8 +94,7 @@ public class MessagesReSenderTest {
         reSender.resend(ENDPOINT_ID);
 
         verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
     }
 
     @Test
@@ -113,8 +107,8 @@ public class MessagesReSenderTest {
 
         verify(sessionRegistry).get(ENDPOINT_ID);
         verify(sessionRegistry).get("1");
-        verify(session, times(2)).getAsyncRemote();
-        verify(endpoint, times(2)).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+        verify(transmitter).transmit("1", MESSAGE);
     }
 
     @Test
@@ -123,13 +117,11 @@ public class MessagesReSenderTest {
 
         reSender.resend(ENDPOINT_ID);
         verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
 
         reSender.resend(ENDPOINT_ID);
         verify(sessionRegistry).get(ENDPOINT_ID);
-        verify(session).getAsyncRemote();
-        verify(endpoint).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
     }
 
     @Test
@@ -142,15 +134,62 @@ public class MessagesReSenderTest {
 
         verify(sessionRegistry).get(ENDPOINT_ID);
         verify(sessionRegistry).get("1");
-        verify(session, times(2)).getAsyncRemote();
-        verify(endpoint, times(2)).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+        verify(transmitter).transmit("1", MESSAGE);
 
         reSender.resend(ENDPOINT_ID);
         reSender.resend("1");
 
         verify(sessionRegistry).get(ENDPOINT_ID);
         verify(sessionRegistry).get("1");
-        verify(session, times(2)).getAsyncRemote();
-        verify(endpoint, times(2)).sendText(MESSAGE);
+        verify(transmitter).transmit(ENDPOINT_ID, MESSAGE);
+        verify(transmitter).transmit("1", MESSAGE);
+    }
+
+    @Test
+    public void shouldNumberMessagesOfEndpoint() {
+        assertEquals(reSender.add(ENDPOINT_ID, MESSAGE), 1);
+        assertEquals(reSender.add(ENDPOINT_ID, MESSAGE), 2);
+        assertEquals(reSender.add("1", MESSAGE), 1);
+    }
+
+    @Test
+    public void shouldResendOnlyMessagesAfterSequence() {
+        reSender.add(ENDPOINT_ID, "0");
+        long sequence = reSender.add(ENDPOINT_ID, "1");
+        reSender.add(ENDPOINT_ID, "2");
+
+        reSender.resend(ENDPOINT_ID, sequence);
+
+        verify(transmitter, never()).transmit(ENDPOINT_ID, "0");
+        verify(transmitter, never()).transmit(ENDPOINT_ID, "1");
+        verify(transmitter).transmit(ENDPOINT_ID, "2");
+    }
+
+    @Test
+    public void shouldDiscardOldestMessagesWhenMemoryLimitIsExceeded() {
+        reSender.setMaxBytesPerEndpoint(2 * 2 * MESSAGE.length());
+
+        reSender.add(ENDPOINT_ID, "0" + MESSAGE.substring(1));
+        reSender.add(ENDPOINT_ID, "1" + MESSAGE.substring(1));
+        reSender.add(ENDPOINT_ID, "2" + MESSAGE.substring(1));
+
+        reSender.resend(ENDPOINT_ID);
+
+        verify(transmitter, never()).transmit(ENDPOINT_ID, "0" + MESSAGE.substring(1));
+        verify(transmitter).transmit(ENDPOINT_ID, "1" + MESSAGE.substring(1));
+        verify(transmitter).transmit(ENDPOINT_ID, "2" + MESSAGE.substring(1));
+    }
+
+    @Test
+    public void shouldDiscardMessagesOfEndpointThatIsNotConnectedLongerThanTtl() throws Exception {
+        reSender.setTtl(0);
+        reSender.add(ENDPOINT_ID, MESSAGE);
+
+        Thread.sleep(5);
+        reSender.add("1", MESSAGE);
+        reSender.resend(ENDPOINT_ID);
+
+        verify(transmitter, never()).transmit(ENDPOINT_ID, MESSAGE);
     }
 }
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.websocket.impl;
+
+import org.eclipse.che.api.core.websocket.impl.OutboundMessageQueue.OverflowPolicy;
+import org.eclipse.che.dto.server.BinaryJson;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.nio.ByteBuffer;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+/**
+ * Tests for {@link OutboundMessageQueue}
+ */
+@Listeners(MockitoTestNGListener.class)
+public class OutboundMessageQueueTest {
+    private static final String ENDPOINT_ID = "id";
+
+    @Mock
+    private Session              session;
+    @Mock
+    private RemoteEndpoint.Async remote;
+    @Mock
+    private MessagesReSender     reSender;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        when(session.getAsyncRemote()).thenReturn(remote);
+        when(session.isOpen()).thenReturn(true);
+    }
+
+    @Test
+    public void shouldSendNextMessageWhenPreviousOneIsSent() {
+        OutboundMessageQueue queue = createQueue(10, OverflowPolicy.DROP_OLDEST);
+
+        queue.offer("1");
+        queue.offer("2");
+
+        verify(remote).sendText(eq("1"), any(SendHandler.class));
+        verify(remote, never()).sendText(eq("2"), any(SendHandler.class));
+        assertEquals(queue.size(), 1);
+
+        queue.onResult(new SendResult());
+
+        verify(remote).sendText(eq("2"), any(SendHandler.class));
+        assertEquals(queue.size(), 0);
+    }
+
+    @Test
+    public void shouldSendAllMessagesIfContainerSendsThemImmediately() {
+        OutboundMessageQueue queue = createQueue(10, OverflowPolicy.DROP_OLDEST);
+        doAnswer(invocation -> {
+            ((SendHandler)invocation.getArguments()[1]).onResult(new SendResult());
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+
+        queue.offer("1");
+        queue.offer("2");
+
+        verify(remote).sendText(eq("1"), any(SendHandler.class));
+        verify(remote).sendText(eq("2"), any(SendHandler.class));
+        assertEquals(queue.size(), 0);
+    }
+
+    @Test
+    public void shouldDropOldestMessageWhenQueueIsFull() {
+        OutboundMessageQueue queue = createQueue(1, OverflowPolicy.DROP_OLDEST);
+
+        queue.offer("1");
+        queue.offer("2");
+        queue.offer("3");
+        queue.onResult(new SendResult());
+
+        verify(remote, never()).sendText(eq("2"), any(SendHandler.class));
+        verify(remote).sendText(eq("3"), any(SendHandler.class));
+        assertEquals(queue.getDropped(), 1);
+    }
+
+    @Test
+    public void shouldDropNewestMessageWhenQueueIsFull() {
+        OutboundMessageQueue queue = createQueue(1, OverflowPolicy.DROP_NEWEST);
+
+        queue.offer("1");
+        queue.offer("2");
+        queue.offer("3");
+        queue.onResult(new SendResult());
+
+        verify(remote).sendText(eq("2"), any(SendHandler.class));
+        verify(remote, never()).sendText(eq("3"), any(SendHandler.class));
+        assertEquals(queue.getDropped(), 1);
+    }
+
+    @Test
+    public void shouldCoalesceSameMessagesWhenQueueIsFull() {
+        OutboundMessageQueue queue = createQueue(2, OverflowPolicy.COALESCE);
+
+        queue.offer("1");
+        queue.offer("2");
+        queue.offer("3");
+        queue.offer("3");
+        queue.onResult(new SendResult());
+        queue.onResult(new SendResult());
+
+        verify(remote).sendText(eq("2"), any(SendHandler.class));
+        verify(remote).sendText(eq("3"), any(SendHandler.class));
+        assertEquals(queue.size(), 0);
+        assertEquals(queue.getDropped(), 1);
+    }
+
+    @Test
+    public void shouldCloseSessionAndPassMessagesToReSenderWhenQueueIsFull() throws Exception {
+        OutboundMessageQueue queue = createQueue(1, OverflowPolicy.DISCONNECT);
+
+        queue.offer("1");
+        queue.offer("2");
+        queue.offer("3");
+
+        ArgumentCaptor<CloseReason> reason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(reason.capture());
+        assertEquals(reason.getValue().getCloseCode(), CloseReason.CloseCodes.TRY_AGAIN_LATER);
+        verify(reSender).add(ENDPOINT_ID, "2");
+        verify(reSender).add(ENDPOINT_ID, "3");
+        assertFalse(queue.offer("4"));
+    }
+
+    @Test
+    public void shouldPassMessagesToReSenderIfSessionIsClosed() {
+        OutboundMessageQueue queue = createQueue(10, OverflowPolicy.DROP_OLDEST);
+
+        queue.offer("1");
+        queue.offer("2");
+        when(session.isOpen()).thenReturn(false);
+        queue.onResult(new SendResult());
+
+        verify(remote, never()).sendText(eq("2"), any(SendHandler.class));
+        verify(reSender).add(ENDPOINT_ID, "2");
+        assertFalse(queue.offer("3"));
+    }
+
+    @Test
+    public void shouldTransferMessagesToQueueOfNewSession() {
+        OutboundMessageQueue queue = createQueue(10, OverflowPolicy.DROP_OLDEST);
+        queue.offer("1");
+        queue.offer("2");
+
+        OutboundMessageQueue newQueue = createQueue(10, OverflowPolicy.DROP_OLDEST);
+        queue.transferTo(newQueue);
+
+        assertFalse(queue.offer("3"));
+        assertEquals(newQueue.size(), 0);
+        verify(remote).sendText(eq("2"), any(SendHandler.class));
+    }
+
+    @Test
+    public void shouldSendBinaryMessagesAsBinaryAndTextMessagesAsText() {
+        OutboundMessageQueue queue = createQueue(10, OverflowPolicy.DROP_OLDEST);
+        ByteBuffer binary = ByteBuffer.wrap(BinaryJson.encode("{\"jsonrpc\":\"2.0\"}"));
+
+        queue.offer(binary);
+        queue.onResult(new SendResult());
+        queue.offer("{\"jsonrpc\":\"2.0\"}");
+
+        verify(remote).sendBinary(eq(binary), any(SendHandler.class));
+        verify(remote).sendText(eq("{\"jsonrpc\":\"2.0\"}"), any(SendHandler.class));
+    }
+
+    @Test
+    public void shouldPassBinaryMessagesToReSenderAsJson() {
+        OutboundMessageQueue queue = createQueue(10, OverflowPolicy.DROP_OLDEST);
+        queue.offer("1");
+        queue.offer(ByteBuffer.wrap(BinaryJson.encode("{\"jsonrpc\":\"2.0\"}")));
+        when(session.isOpen()).thenReturn(false);
+
+        queue.onResult(new SendResult());
+
+        verify(reSender).add(ENDPOINT_ID, "{\"jsonrpc\":\"2.0\"}");
+    }
+
+    private OutboundMessageQueue createQueue(int capacity, OverflowPolicy overflowPolicy) {
+        return new OutboundMessageQueue(ENDPOINT_ID, session, capacity, overflowPolicy, reSender);
+    }
+}
@@ -18,8 +18,12 @@ import org.testng.annotations.Test;
 
 import javax.websocket.Session;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
+import static java.util.Arrays.asList;
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.*;
 
@@ -87,4 +91,24 @@ public class WebSocketSessionRegistryTest {
         assertEquals(2, registry.getSessions().size());
     }
 
+    @Test
+    public void shouldGetAllEndpointIds() {
+        registry.add("0", session);
+        registry.add("1", mock(Session.class));
+
+        assertEquals(registry.getEndpointIds(), new HashSet<>(asList("0", "1")));
+    }
+
+    @Test
+    public void shouldNotifyCloseListenersWhenSessionIsRemoved() {
+        final List<String> closed = new ArrayList<>();
+        registry.addCloseListener(closed::add);
+        registry.add("0", session);
+
+        registry.remove("0");
+        registry.remove("1");
+
+        assertEquals(closed, asList("0"));
+    }
+
 }
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.everrest;
+
+import org.eclipse.che.api.core.rest.ApiExceptionMapper;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.dto.server.BinaryJson;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.everrest.core.ApplicationContext;
+import org.everrest.core.impl.ApplicationProviderBinder;
+import org.everrest.core.impl.ContainerRequest;
+import org.everrest.core.impl.ContainerResponse;
+import org.everrest.core.impl.EverrestConfiguration;
+import org.everrest.core.impl.EverrestProcessor;
+import org.everrest.core.impl.RequestDispatcher;
+import org.everrest.core.impl.RequestHandlerImpl;
+import org.everrest.core.impl.ResourceBinderImpl;
+import org.everrest.core.tools.DependencySupplierImpl;
+import org.everrest.core.tools.ResourceLauncher;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static org.eclipse.che.api.core.util.LinksHelper.createLink;
+import static org.everrest.core.ApplicationContext.anApplicationContext;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests of {@link BinaryDtoResponseFilter}.
+ */
+public class BinaryDtoResponseFilterTest {
+    private static final String BASE_URI     = "http://localhost/service";
+    private static final String SERVICE_PATH = BASE_URI + "/myservice";
+
+    private static final String BINARY_OR_JSON = BinaryJson.MEDIA_TYPE + ", " + APPLICATION_JSON + ";q=0.9";
+
+    private static final Link LINK = createLink("GET", "http://localhost/link", "rel");
+
+    @Path("/myservice")
+    public static class MyJaxRSService {
+        @GET
+        @Path("/dto")
+        @Produces(APPLICATION_JSON)
+        public Link getDto() {
+            return LINK;
+        }
+
+        @GET
+        @Path("/list")
+        @Produces(APPLICATION_JSON)
+        public List<Link> getDtos() {
+            return singletonList(LINK);
+        }
+
+        @GET
+        @Path("/string")
+        @Produces(APPLICATION_JSON)
+        public String getString() {
+            return "hello";
+        }
+    }
+
+    private ResourceLauncher resourceLauncher;
+
+    @BeforeMethod
+    public void before() throws Exception {
+        final ResourceBinderImpl resources = new ResourceBinderImpl();
+        resources.addResource(MyJaxRSService.class, null);
+        final DependencySupplierImpl dependencies = new DependencySupplierImpl();
+        final ApplicationProviderBinder providers = new ApplicationProviderBinder();
+        providers.addExceptionMapper(ApiExceptionMapper.class);
+        providers.addResponseFilter(BinaryDtoResponseFilter.class);
+        final URI uri = new URI(BASE_URI);
+        final ContainerRequest req = new ContainerRequest(null, uri, uri, null, null, null);
+        final ApplicationContext contextImpl = anApplicationContext().withRequest(req).withProviders(providers).build();
+        contextImpl.setDependencySupplier(dependencies);
+        ApplicationContext.setCurrent(contextImpl);
+        final EverrestProcessor processor = new EverrestProcessor(new EverrestConfiguration(),
+                                                                  dependencies,
+                                                                  new RequestHandlerImpl(new RequestDispatcher(resources), providers),
+                                                                  null);
+        resourceLauncher = new ResourceLauncher(processor);
+    }
+
+    @Test
+    public void shouldSendDtoInBinaryFormIfClientAcceptsIt() throws Exception {
+        final ContainerResponse response = get("/dto", BINARY_OR_JSON);
+
+        assertEquals(response.getContentType().toString(), BinaryJson.MEDIA_TYPE);
+        assertEquals(DtoFactory.getInstance().createDtoFromBinary(body(response), Link.class), LINK);
+        assertEquals(response.getHttpHeaders().getFirst(HttpHeaders.VARY), HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    public void shouldSendListOfDtosInBinaryFormIfClientAcceptsIt() throws Exception {
+        final ContainerResponse response = get("/list", BINARY_OR_JSON);
+
+        assertEquals(response.getContentType().toString(), BinaryJson.MEDIA_TYPE);
+        assertEquals(DtoFactory.getInstance().createListDtoFromBinary(body(response), Link.class), singletonList(LINK));
+        assertEquals(response.getHttpHeaders().getFirst(HttpHeaders.VARY), HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    public void shouldSendJsonIfClientDoesNotAcceptBinaryFormExplicitly() throws Exception {
+        final ContainerResponse response = get("/dto", "*/*");
+
+        assertEquals(response.getContentType().toString(), APPLICATION_JSON);
+        assertEquals(response.getEntity(), LINK);
+        assertEquals(response.getHttpHeaders().getFirst(HttpHeaders.VARY), HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    public void shouldKeepListOfDtosIfClientDoesNotAcceptBinaryFormExplicitly() throws Exception {
+        final ContainerResponse response = get("/list", APPLICATION_JSON);
+
+        assertEquals(response.getContentType().toString(), APPLICATION_JSON);
+        assertEquals(response.getEntity(), singletonList(LINK));
+        assertEquals(response.getHttpHeaders().getFirst(HttpHeaders.VARY), HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    public void shouldSendJsonIfEntityIsNotDto() throws Exception {
+        final ContainerResponse response = get("/string", BINARY_OR_JSON);
+
+        assertEquals(response.getEntity(), "hello");
+        assertNull(response.getHttpHeaders().getFirst(HttpHeaders.VARY));
+    }
+
+    private static ByteArrayInputStream body(ContainerResponse response) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput)response.getEntity()).write(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private ContainerResponse get(String path, String accept) throws Exception {
+        final Map<String, List<String>> headers = singletonMap(HttpHeaders.ACCEPT, singletonList(accept));
+        return resourceLauncher.service(HttpMethod.GET, SERVICE_PATH + path, BASE_URI, headers, null, null);
+    }
+}
@@ -11,6 +11,7 @@
 
 package org.eclipse.che.dto.generator;
 
+import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.dto.server.JsonArrayImpl;
 import org.eclipse.che.dto.server.JsonSerializable;
 import org.eclipse.che.dto.server.JsonStringMapImpl;
@@ -22,6 +23,9 @@ import org.eclipse.che.dto.shared.JsonStringMap;
 import org.eclipse.che.dto.shared.SerializationIndex;
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.Primitives;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
@@ -40,6 +44,10 @@ public class DtoImplServerTemplate extends DtoImpl {
     private static final String JSON_ARRAY_IMPL   = JsonArrayImpl.class.getCanonicalName();
     private static final String JSON_MAP_IMPL     = JsonStringMapImpl.class.getCanonicalName();
     private static final String SERVER_DTO_MARKER = "  @" + DTOImpl.class.getCanonicalName() + "(\"server\")\n";
+    private static final String DTO_FACTORY       = DtoFactory.class.getCanonicalName();
+    private static final String JSON_READER       = JsonReader.class.getCanonicalName();
+    private static final String JSON_WRITER       = JsonWriter.class.getCanonicalName();
+    private static final String JSON_TOKEN        = JsonToken.class.getCanonicalName();
 
     DtoImplServerTemplate(DtoTemplate template, Class<?> superInterface) {
         super(template, superInterface);
@@ -70,8 +78,10 @@ public class DtoImplServerTemplate extends DtoImpl {
         // equals, hashCode, serialization and copy constructor
         emitEqualsAndHashCode(methods, builder);
         emitSerializer(methods, builder);
+        emitStreamSerializer(methods, builder);
         emitDeserializer(methods, builder);
         emitDeserializerShortcut(builder);
+        emitStreamDeserializer(methods, builder);
         emitCopyConstructor(methods, builder);
         // Delegation DTO methods.
         emitDelegateMethods(builder);
@@ -301,8 +311,8 @@ public class DtoImplServerTemplate extends DtoImpl {
         builder.append("\n");
         builder.append("    @Override\n");
         builder.append("    public String toJson() {\n");
-        // The default toJson() creates its own JSON for internal printing, thus keeping JSONs values is safe
-        builder.append("      return gson.toJson(toJsonElementInt(false));\n");
+        // The default toJson() writes fields directly to the string without building JSON tree
+        builder.append("      return ").append(DTO_FACTORY).append(".writeToString(this);\n");
         builder.append("    }\n");
         builder.append("\n");
         builder.append("    @Override\n");
@@ -451,6 +461,128 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
 
+    /** Generates method which writes fields to the stream of JSON tokens without building JSON tree. */
+    private void emitStreamSerializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    @Override\n");
+        builder.append("    public void writeTo(").append(JSON_WRITER).append(" writer) throws java.io.IOException {\n");
+        if (isCompactJson()) {
+            // compact DTOs are rare and small, the JSON tree keeps rules of omitting trailing empty arrays in one place
+            builder.append("      gson.toJson(toJsonElementInt(false), writer);\n");
+        } else {
+            builder.append("      writer.beginObject();\n");
+            for (Method getter : getters) {
+                emitStreamSerializeFieldForMethod(getter, builder);
+            }
+            builder.append("      writer.endObject();\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    private void emitStreamSerializeFieldForMethod(Method getter, StringBuilder builder) {
+        final String fieldName = getJavaFieldName(getter.getName());
+        final List<Type> expandedTypes = expandType(getter.getGenericReturnType());
+        final Class<?> rawClass = getRawClass(expandedTypes.get(0));
+        builder.append("      writer.name(").append(quoteStringLiteral(getJsonFieldName(getter))).append(");\n");
+        if (isList(rawClass) || isMap(rawClass)) {
+            builder.append("      this.").append(getEnsureName(fieldName)).append("();\n");
+        }
+        emitStreamSerializerImpl(expandedTypes, 0, builder, "this." + fieldName, "      ");
+    }
+
+    /**
+     * Produces code to write the value of the type with the given variable name to the stream of JSON tokens.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param inVar
+     *         the java expression that will be the input for serialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamSerializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String inVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final Class<?> rawClass = getRawClass(type);
+        final String childInVar = "value" + depth;
+        if (isList(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            builder.append(i).append("if (").append(inVar).append(" == null) {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.beginArray();\n");
+            builder.append(i).append("  for (").append(childInTypeName).append(" ").append(childInVar).append(" : ").append(inVar)
+                   .append(") {\n");
+            emitStreamSerializerImpl(expandedTypes, depth + 1, builder, childInVar, i + "    ");
+            builder.append(i).append("  }\n");
+            builder.append(i).append("  writer.endArray();\n");
+            builder.append(i).append("}\n");
+        } else if (isMap(rawClass)) {
+            String childInTypeName = getImplName(expandedTypes.get(depth + 1), false);
+            String entryVar = "entry" + depth;
+            builder.append(i).append("if (").append(inVar).append(" == null) {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.beginObject();\n");
+            builder.append(i).append("  for (java.util.Map.Entry<String, ").append(childInTypeName).append("> ").append(entryVar)
+                   .append(" : ").append(inVar).append(".entrySet()) {\n");
+            builder.append(i).append("    writer.name(").append(entryVar).append(".getKey());\n");
+            builder.append(i).append("    ").append(childInTypeName).append(" ").append(childInVar).append(" = ").append(entryVar)
+                   .append(".getValue();\n");
+            emitStreamSerializerImpl(expandedTypes, depth + 1, builder, childInVar, i + "    ");
+            builder.append(i).append("  }\n");
+            builder.append(i).append("  writer.endObject();\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.isEnum()) {
+            builder.append(i).append("writer.value(").append(inVar).append(" == null ? null : ").append(inVar).append(".name());\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            emitStreamSerializeDto(getImplNameForDto(rawClass), inVar, builder, i);
+        } else if (rawClass.equals(String.class)) {
+            builder.append(i).append("writer.value(").append(inVar).append(");\n");
+        } else if (rawClass == float.class) {
+            // written as number object to get the same format as JSON tree has
+            builder.append(i).append("writer.value(Float.valueOf(").append(inVar).append("));\n");
+        } else if (rawClass.isPrimitive()) {
+            builder.append(i).append("writer.value(").append(inVar).append(");\n");
+        } else if (rawClass == Boolean.class) {
+            builder.append(i).append("if (").append(inVar).append(" == null) {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.value(").append(inVar).append(".booleanValue());\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass == Integer.class
+                   || rawClass == Long.class
+                   || rawClass == Double.class
+                   || rawClass == Float.class
+                   || rawClass == Short.class
+                   || rawClass == Byte.class) {
+            builder.append(i).append("writer.value((Number)").append(inVar).append(");\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("if (").append(inVar).append(" instanceof JsonElement) {\n");
+            builder.append(i).append("  gson.toJson((JsonElement)").append(inVar).append(", writer);\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  writer.nullValue();\n");
+            builder.append(i).append("}\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                emitStreamSerializeDto(dtoImplementation.getCanonicalName(), inVar, builder, i);
+            } else {
+                throw new IllegalArgumentException("Unable to generate server implementation for DTO interface " +
+                                                   getDtoInterface().getCanonicalName() + ". Type " + rawClass +
+                                                   " is not allowed to use in DTO interface.");
+            }
+        }
+    }
+
+    private static void emitStreamSerializeDto(String implName, String inVar, StringBuilder builder, String i) {
+        builder.append(i).append("if (").append(inVar).append(" == null) {\n");
+        builder.append(i).append("  writer.nullValue();\n");
+        builder.append(i).append("} else {\n");
+        builder.append(i).append("  ((").append(implName).append(")").append(inVar).append(").writeTo(writer);\n");
+        builder.append(i).append("}\n");
+    }
+
     /** Generates a static factory method that creates a new instance based on a JsonElement. */
     private void emitDeserializer(List<Method> getters, StringBuilder builder) {
         // The default fromJsonElement(json) works in unsafe mode and clones the JSON's for 'any' properties
@@ -605,6 +737,143 @@ public class DtoImplServerTemplate extends DtoImpl {
         }
     }
     
+    /** Generates a static factory method that reads a new instance from the stream of JSON tokens without building JSON tree. */
+    private void emitStreamDeserializer(List<Method> getters, StringBuilder builder) {
+        builder.append("    public static ").append(getImplClassName()).append(" fromJsonReader(").append(JSON_READER)
+               .append(" reader) throws java.io.IOException {\n");
+        builder.append("      if (reader.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+        builder.append("        reader.nextNull();\n");
+        builder.append("        return null;\n");
+        builder.append("      }\n");
+        if (isCompactJson()) {
+            builder.append("      return fromJsonElement(new JsonParser().parse(reader), false);\n");
+        } else {
+            builder.append("      ").append(getImplClassName()).append(" dto = new ").append(getImplClassName()).append("();\n");
+            builder.append("      reader.beginObject();\n");
+            builder.append("      while (reader.hasNext()) {\n");
+            builder.append("        switch (reader.nextName()) {\n");
+            final Set<String> jsonFieldNames = new HashSet<>();
+            for (Method getter : getters) {
+                if (jsonFieldNames.add(getJsonFieldName(getter))) {
+                    emitStreamDeserializeFieldForMethod(getter, builder);
+                }
+            }
+            builder.append("          default:\n");
+            builder.append("            reader.skipValue();\n");
+            builder.append("        }\n");
+            builder.append("      }\n");
+            builder.append("      reader.endObject();\n");
+            builder.append("      return dto;\n");
+        }
+        builder.append("    }\n\n");
+    }
+
+    private void emitStreamDeserializeFieldForMethod(Method getter, StringBuilder builder) {
+        final String fieldName = getFieldNameFromGetterName(getter.getName());
+        final String outVar = "value0";
+        builder.append("          case ").append(quoteStringLiteral(getJsonFieldName(getter))).append(": {\n");
+        emitStreamDeserializerImpl(expandType(getter.getGenericReturnType()), 0, builder, outVar, "            ");
+        builder.append("            dto.").append(getSetterName(fieldName)).append("(").append(outVar).append(");\n");
+        builder.append("            break;\n");
+        builder.append("          }\n");
+    }
+
+    /**
+     * Produces code to read the value of the type from the stream of JSON tokens to the variable with the given name.
+     *
+     * @param expandedTypes
+     *         the type and its generic (and its generic (..)) expanded into a list, @see {@link #expandType(java.lang.reflect.Type)}
+     * @param depth
+     *         the depth (in the generics) for this recursive call. This can be used to index into {@code expandedTypes}
+     * @param outVar
+     *         the name of variable that will be the output of deserialization
+     * @param i
+     *         indentation string
+     */
+    private void emitStreamDeserializerImpl(List<Type> expandedTypes, int depth, StringBuilder builder, String outVar, String i) {
+        final Type type = expandedTypes.get(depth);
+        final Class<?> rawClass = getRawClass(type);
+        final String childOutVar = "value" + (depth + 1);
+        if (isList(rawClass)) {
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (reader.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+            builder.append(i).append("  reader.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            builder.append(i).append("  reader.beginArray();\n");
+            builder.append(i).append("  while (reader.hasNext()) {\n");
+            emitStreamDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+            builder.append(i).append("    ").append(outVar).append(".add(").append(childOutVar).append(");\n");
+            builder.append(i).append("  }\n");
+            builder.append(i).append("  reader.endArray();\n");
+            builder.append(i).append("}\n");
+        } else if (isMap(rawClass)) {
+            String keyVar = "key" + depth;
+            builder.append(i).append(getImplName(type, false)).append(" ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (reader.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+            builder.append(i).append("  reader.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = new ").append(getImplName(type, true)).append("();\n");
+            builder.append(i).append("  reader.beginObject();\n");
+            builder.append(i).append("  while (reader.hasNext()) {\n");
+            builder.append(i).append("    String ").append(keyVar).append(" = reader.nextName();\n");
+            emitStreamDeserializerImpl(expandedTypes, depth + 1, builder, childOutVar, i + "    ");
+            builder.append(i).append("    ").append(outVar).append(".put(").append(keyVar).append(", ").append(childOutVar).append(");\n");
+            builder.append(i).append("  }\n");
+            builder.append(i).append("  reader.endObject();\n");
+            builder.append(i).append("}\n");
+        } else if (getEnclosingTemplate().isDtoInterface(rawClass)) {
+            builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                   .append(getImplNameForDto(rawClass)).append(".fromJsonReader(reader);\n");
+        } else if (rawClass.equals(String.class)) {
+            // the same conversions as gson does for strings
+            builder.append(i).append("String ").append(outVar).append(" = null;\n");
+            builder.append(i).append("if (reader.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+            builder.append(i).append("  reader.nextNull();\n");
+            builder.append(i).append("} else if (reader.peek() == ").append(JSON_TOKEN).append(".BOOLEAN) {\n");
+            builder.append(i).append("  ").append(outVar).append(" = Boolean.toString(reader.nextBoolean());\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = reader.nextString();\n");
+            builder.append(i).append("}\n");
+        } else if (rawClass.isPrimitive()) {
+            final String primitiveName = rawClass.getSimpleName();
+            builder.append(i).append(primitiveName).append(" ").append(outVar).append(" = ")
+                   .append(rawClass == boolean.class ? "false" : "0").append(";\n");
+            builder.append(i).append("if (reader.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+            builder.append(i).append("  reader.nextNull();\n");
+            builder.append(i).append("} else {\n");
+            builder.append(i).append("  ").append(outVar).append(" = ").append(getNextPrimitiveExpression(rawClass)).append(";\n");
+            builder.append(i).append("}\n");
+        } else if (isAny(rawClass)) {
+            builder.append(i).append("JsonElement ").append(outVar).append(" = new JsonParser().parse(reader);\n");
+        } else {
+            final Class<?> dtoImplementation = getEnclosingTemplate().getDtoImplementation(rawClass);
+            if (dtoImplementation != null) {
+                builder.append(i).append(getImplName(rawClass, false)).append(" ").append(outVar).append(" = ")
+                       .append(dtoImplementation.getCanonicalName()).append(".fromJsonReader(reader);\n");
+            } else {
+                // Use gson to handle all other types.
+                String rawClassName = rawClass.getName().replace('$', '.');
+                builder.append(i).append(rawClassName).append(" ").append(outVar).append(" = gson.fromJson(reader, ")
+                       .append(rawClassName).append(".class);\n");
+            }
+        }
+    }
+
+    private static String getNextPrimitiveExpression(Class<?> primitive) {
+        if (primitive == boolean.class) {
+            return "reader.peek() == " + JSON_TOKEN + ".STRING ? Boolean.parseBoolean(reader.nextString()) : reader.nextBoolean()";
+        } else if (primitive == long.class) {
+            return "reader.nextLong()";
+        } else if (primitive == double.class) {
+            return "reader.nextDouble()";
+        } else if (primitive == int.class) {
+            return "reader.nextInt()";
+        }
+        // float, short and byte
+        return "(" + primitive.getSimpleName() + ")" + (primitive == float.class ? "reader.nextDouble()" : "reader.nextInt()");
+    }
+
     /**
      * Append the expression that clones the given JsonElement variable into a new value. If the copyJons run-time
      * parameter is set to false, then the expression won't perform a clone but instead will reuse the variable by
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Compact binary form of JSON documents used as an alternative wire format of DTOs.
+ *
+ * <p>Document is a sequence of JSON tokens, each token starts with one byte tag:
+ * <ul>
+ * <li>numbers which fit into {@code long} are written as zigzag varints, other numbers as IEEE 754 doubles
+ * or as text if they can't be represented exactly</li>
+ * <li>names and short strings are interned per document, second and next occurrences of the same string
+ * are written as varint index of its first occurrence, so names of DTO fields are transferred once per
+ * message and DTOs annotated with {@link org.eclipse.che.dto.shared.CompactJsonDto CompactJsonDto} stay
+ * positional arrays ordered by {@link org.eclipse.che.dto.shared.SerializationIndex SerializationIndex}</li>
+ * </ul>
+ * DTOs are written and read with {@link BinaryJsonWriter} and {@link BinaryJsonReader} by the same generated
+ * code which streams them as JSON, so any DTO which may be sent as JSON may be sent in binary form too.
+ *
+ * @see DtoFactory#toBinary(Object)
+ * @see DtoFactory#createDtoFromBinary(java.io.InputStream, Class)
+ */
+public final class BinaryJson {
+    /** Media type of DTOs in binary form. */
+    public static final String MEDIA_TYPE = "application/x-che-dto";
+
+    static final int MAGIC   = 0xCB;
+    static final int VERSION = 1;
+
+    static final int BEGIN_OBJECT = 1;
+    static final int END_OBJECT   = 2;
+    static final int BEGIN_ARRAY  = 3;
+    static final int END_ARRAY    = 4;
+    /** String which is added to the table of interned strings: varint length and UTF-8 bytes. */
+    static final int STRING_NEW   = 5;
+    /** Reference to interned string: varint index in the table of interned strings. */
+    static final int STRING_REF   = 6;
+    /** String which is not interned: varint length and UTF-8 bytes. */
+    static final int STRING       = 7;
+    /** Integral number: zigzag varint. */
+    static final int LONG         = 8;
+    /** Floating point number: 8 bytes of IEEE 754 double, big-endian. */
+    static final int DOUBLE       = 9;
+    /** Number which can't be represented as long or double exactly: varint length and ASCII text. */
+    static final int NUMBER       = 10;
+    static final int TRUE         = 11;
+    static final int FALSE        = 12;
+    static final int NULL         = 13;
+
+    /** Longer strings are unlikely to repeat and are not interned. */
+    static final int MAX_INTERNED_LENGTH = 64;
+    /** Limits memory used by the table of interned strings of a single document. */
+    static final int MAX_INTERNED_COUNT  = 1 << 16;
+
+    /**
+     * Converts JSON document to binary form.
+     *
+     * @throws JsonSyntaxException
+     *         if the given string is not strictly valid JSON
+     */
+    public static byte[] encode(String json) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(json.length() / 2 + 16);
+        // strict reader doesn't take arbitrary text for JSON, so such text is not converted
+        final JsonReader reader = new JsonReader(new StringReader(json));
+        final BinaryJsonWriter writer = new BinaryJsonWriter(out);
+        writer.setLenient(true);
+        writer.setSerializeNulls(true);
+        try {
+            copy(reader, writer);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            writer.flush();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            // nothing but malformed input may fail while reading string and writing to memory
+            throw new JsonSyntaxException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes already built JSON tree in binary form, the same as {@link #encode(String)} writes
+     * the text of the tree, but without producing and parsing of the text.
+     */
+    public static byte[] encode(JsonElement json) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BinaryJsonWriter writer = new BinaryJsonWriter(out);
+        writer.setLenient(true);
+        writer.setSerializeNulls(true);
+        try {
+            write(json, writer);
+            writer.flush();
+        } catch (IOException e) {
+            // writing to memory doesn't fail
+            throw new JsonIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Converts binary form of JSON document back to JSON text.
+     *
+     * @throws JsonSyntaxException
+     *         if the given bytes are not valid binary JSON
+     */
+    public static String decode(byte[] binary) {
+        final StringWriter out = new StringWriter(binary.length * 2);
+        final JsonWriter writer = new JsonWriter(out);
+        writer.setLenient(true);
+        writer.setHtmlSafe(false);
+        writer.setSerializeNulls(true);
+        final ByteArrayInputStream in = new ByteArrayInputStream(binary);
+        try {
+            copy(new BinaryJsonReader(in), writer);
+            writer.flush();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            // nothing but malformed or truncated input may fail while reading and writing memory
+            throw new JsonSyntaxException(e);
+        }
+        if (in.available() != 0) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+        return out.toString();
+    }
+
+    /** Copies single top-level value with all its content from reader to writer. */
+    static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+        int depth = 0;
+        do {
+            switch (reader.peek()) {
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    writer.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    reader.endArray();
+                    writer.endArray();
+                    depth--;
+                    break;
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    writer.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    reader.endObject();
+                    writer.endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    writer.name(reader.nextName());
+                    break;
+                case STRING:
+                    writer.value(reader.nextString());
+                    break;
+                case NUMBER:
+                    // keeps the exact text of number, writer decides on its representation
+                    writer.value(new NumberText(reader.nextString()));
+                    break;
+                case BOOLEAN:
+                    writer.value(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                case END_DOCUMENT:
+                default:
+                    throw new IllegalStateException("Unexpected end of document");
+            }
+        } while (depth > 0);
+    }
+
+    /** Writes JSON tree with all its content to writer. */
+    static void write(JsonElement element, JsonWriter writer) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            writer.nullValue();
+        } else if (element.isJsonPrimitive()) {
+            final JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isNumber()) {
+                writer.value(primitive.getAsNumber());
+            } else if (primitive.isBoolean()) {
+                writer.value(primitive.getAsBoolean());
+            } else {
+                writer.value(primitive.getAsString());
+            }
+        } else if (element.isJsonArray()) {
+            writer.beginArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                write(item, writer);
+            }
+            writer.endArray();
+        } else {
+            writer.beginObject();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                writer.name(entry.getKey());
+                write(entry.getValue(), writer);
+            }
+            writer.endObject();
+        }
+    }
+
+    /** Number which is represented by its text, the same as JSON writer writes it. */
+    static final class NumberText extends Number {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+
+        NumberText(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int intValue() {
+            return (int)longValue();
+        }
+
+        @Override
+        public long longValue() {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return (long)doubleValue();
+            }
+        }
+
+        @Override
+        public float floatValue() {
+            return Float.parseFloat(text);
+        }
+
+        @Override
+        public double doubleValue() {
+            return Double.parseDouble(text);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private BinaryJson() {
+    }
+}
@@ -0,0 +1,489 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.dto.server.BinaryJson.BEGIN_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJson.BEGIN_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJson.DOUBLE;
+import static org.eclipse.che.dto.server.BinaryJson.END_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJson.END_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJson.FALSE;
+import static org.eclipse.che.dto.server.BinaryJson.LONG;
+import static org.eclipse.che.dto.server.BinaryJson.MAGIC;
+import static org.eclipse.che.dto.server.BinaryJson.MAX_INTERNED_COUNT;
+import static org.eclipse.che.dto.server.BinaryJson.NULL;
+import static org.eclipse.che.dto.server.BinaryJson.NUMBER;
+import static org.eclipse.che.dto.server.BinaryJson.STRING;
+import static org.eclipse.che.dto.server.BinaryJson.STRING_NEW;
+import static org.eclipse.che.dto.server.BinaryJson.STRING_REF;
+import static org.eclipse.che.dto.server.BinaryJson.TRUE;
+import static org.eclipse.che.dto.server.BinaryJson.VERSION;
+
+/**
+ * Reads JSON tokens from the binary form described by {@link BinaryJson}.
+ *
+ * <p>Reader may be passed to generated {@link DtoProvider#fromJson(JsonReader)} and to gson type adapters instead
+ * of usual JSON reader. Numbers may be read as strings and strings which contain numbers may be read as numbers,
+ * the same as JSON reader allows. Single reader reads single document.
+ */
+public class BinaryJsonReader extends JsonReader {
+    private static final Reader UNREADABLE = new Reader() {
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private static final int EMPTY_DOCUMENT    = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int ARRAY             = 2;
+    private static final int OBJECT_NAME       = 3;
+    private static final int OBJECT_VALUE      = 4;
+
+    /** Strings are read by chunks, so malformed length doesn't allocate more memory than input contains. */
+    private static final int MAX_CHUNK_LENGTH = 8192;
+
+    private final InputStream  in;
+    private final List<String> interned;
+
+    private int[] scopes    = new int[16];
+    private int   depth     = 1;
+    private int   peekedTag = -1;
+
+    public BinaryJsonReader(InputStream in) {
+        super(UNREADABLE);
+        this.in = in;
+        this.interned = new ArrayList<>();
+        scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        consumeValue();
+        push(ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        peekedTag = -1;
+        depth--;
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        consumeValue();
+        push(OBJECT_NAME);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        peekedTag = -1;
+        depth--;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        final JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        final int scope = scopes[depth - 1];
+        if (peekedTag == -1) {
+            if (scope == NONEMPTY_DOCUMENT) {
+                return JsonToken.END_DOCUMENT;
+            }
+            if (scope == EMPTY_DOCUMENT) {
+                readHeader();
+            }
+            peekedTag = readByte();
+        }
+        if (scope == OBJECT_NAME && peekedTag != END_OBJECT && !isString(peekedTag)) {
+            throw new MalformedJsonException("Expected a name but was tag " + peekedTag);
+        }
+        switch (peekedTag) {
+            case BEGIN_OBJECT:
+                return JsonToken.BEGIN_OBJECT;
+            case END_OBJECT:
+                if (scope != OBJECT_NAME) {
+                    throw new MalformedJsonException("Unexpected end of object");
+                }
+                return JsonToken.END_OBJECT;
+            case BEGIN_ARRAY:
+                return JsonToken.BEGIN_ARRAY;
+            case END_ARRAY:
+                if (scope != ARRAY) {
+                    throw new MalformedJsonException("Unexpected end of array");
+                }
+                return JsonToken.END_ARRAY;
+            case STRING_NEW:
+            case STRING_REF:
+            case STRING:
+                return scope == OBJECT_NAME ? JsonToken.NAME : JsonToken.STRING;
+            case LONG:
+            case DOUBLE:
+            case NUMBER:
+                return JsonToken.NUMBER;
+            case TRUE:
+            case FALSE:
+                return JsonToken.BOOLEAN;
+            case NULL:
+                return JsonToken.NULL;
+            default:
+                throw new MalformedJsonException("Unknown tag " + peekedTag);
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        final String name = readString(peekedTag);
+        peekedTag = -1;
+        scopes[depth - 1] = OBJECT_VALUE;
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        final JsonToken token = peek();
+        final String result;
+        switch (peekedTag) {
+            case STRING_NEW:
+            case STRING_REF:
+            case STRING:
+                if (token != JsonToken.STRING) {
+                    throw unexpected("a string", token);
+                }
+                result = readString(peekedTag);
+                break;
+            case LONG:
+                result = Long.toString(readLong());
+                break;
+            case DOUBLE:
+                result = Double.toString(readDouble());
+                break;
+            case NUMBER:
+                result = readUtf8();
+                break;
+            default:
+                throw unexpected("a string", token);
+        }
+        consumeValue();
+        return result;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        final JsonToken token = peek();
+        if (token != JsonToken.BOOLEAN) {
+            throw unexpected("a boolean", token);
+        }
+        final boolean result = peekedTag == TRUE;
+        consumeValue();
+        return result;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        consumeValue();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        final JsonToken token = peek();
+        final double result;
+        switch (peekedTag) {
+            case LONG:
+                result = readLong();
+                break;
+            case DOUBLE:
+                result = readDouble();
+                break;
+            case NUMBER:
+                result = Double.parseDouble(readUtf8());
+                break;
+            case STRING_NEW:
+            case STRING_REF:
+            case STRING:
+                if (token != JsonToken.STRING) {
+                    throw unexpected("a double", token);
+                }
+                result = Double.parseDouble(readString(peekedTag));
+                break;
+            default:
+                throw unexpected("a double", token);
+        }
+        consumeValue();
+        return result;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        final JsonToken token = peek();
+        final long result;
+        switch (peekedTag) {
+            case LONG:
+                result = readLong();
+                break;
+            case DOUBLE:
+                result = toLong(readDouble());
+                break;
+            case NUMBER:
+                result = parseLong(readUtf8());
+                break;
+            case STRING_NEW:
+            case STRING_REF:
+            case STRING:
+                if (token != JsonToken.STRING) {
+                    throw unexpected("a long", token);
+                }
+                result = parseLong(readString(peekedTag));
+                break;
+            default:
+                throw unexpected("a long", token);
+        }
+        consumeValue();
+        return result;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        final JsonToken token = peek();
+        if (token != JsonToken.NUMBER && token != JsonToken.STRING) {
+            throw unexpected("an int", token);
+        }
+        final long result = nextLong();
+        if ((int)result != result) {
+            throw new NumberFormatException("Expected an int but was " + result);
+        }
+        return (int)result;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        if (peek() == JsonToken.NAME) {
+            nextName();
+            return;
+        }
+        // strings are read to keep the table of interned strings complete
+        final int start = depth;
+        do {
+            switch (peek()) {
+                case BEGIN_ARRAY:
+                    beginArray();
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    break;
+                case BEGIN_OBJECT:
+                    beginObject();
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                case NUMBER:
+                    nextString();
+                    break;
+                case BOOLEAN:
+                    nextBoolean();
+                    break;
+                case NULL:
+                    nextNull();
+                    break;
+                case END_DOCUMENT:
+                default:
+                    throw new MalformedJsonException("Unexpected end of document");
+            }
+        } while (depth > start);
+    }
+
+    @Override
+    public void close() throws IOException {
+        peekedTag = -1;
+        depth = 1;
+        scopes[0] = NONEMPTY_DOCUMENT;
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        final JsonToken token = peek();
+        if (token != expected) {
+            throw unexpected(expected.name(), token);
+        }
+    }
+
+    private IllegalStateException unexpected(String expected, JsonToken actual) {
+        return new IllegalStateException("Expected " + expected + " but was " + actual);
+    }
+
+    /** Updates scope after value is read. */
+    private void consumeValue() {
+        peekedTag = -1;
+        final int scope = scopes[depth - 1];
+        if (scope == OBJECT_VALUE) {
+            scopes[depth - 1] = OBJECT_NAME;
+        } else if (scope == EMPTY_DOCUMENT) {
+            scopes[depth - 1] = NONEMPTY_DOCUMENT;
+        }
+    }
+
+    private void push(int scope) {
+        if (depth == scopes.length) {
+            final int[] newScopes = new int[depth * 2];
+            System.arraycopy(scopes, 0, newScopes, 0, depth);
+            scopes = newScopes;
+        }
+        scopes[depth++] = scope;
+    }
+
+    private void readHeader() throws IOException {
+        final int magic = in.read();
+        if (magic == -1) {
+            throw new EOFException("End of input");
+        }
+        if (magic != MAGIC) {
+            throw new MalformedJsonException("Not a binary JSON document");
+        }
+        final int version = readByte();
+        if (version != VERSION) {
+            throw new MalformedJsonException("Unsupported version of binary JSON " + version);
+        }
+    }
+
+    private String readString(int tag) throws IOException {
+        switch (tag) {
+            case STRING_NEW:
+                if (interned.size() >= MAX_INTERNED_COUNT) {
+                    throw new MalformedJsonException("Too many interned strings");
+                }
+                final String value = readUtf8();
+                interned.add(value);
+                return value;
+            case STRING_REF:
+                final long index = readVarint();
+                if (index < 0 || index >= interned.size()) {
+                    throw new MalformedJsonException("Unknown string reference " + index);
+                }
+                return interned.get((int)index);
+            default:
+                return readUtf8();
+        }
+    }
+
+    private String readUtf8() throws IOException {
+        final long length = readVarint();
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new MalformedJsonException("Invalid length of string " + length);
+        }
+        byte[] bytes = new byte[(int)Math.min(length, MAX_CHUNK_LENGTH)];
+        int offset = 0;
+        while (offset < length) {
+            if (offset == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int)Math.min(length, 2L * bytes.length));
+            }
+            final int read = in.read(bytes, offset, bytes.length - offset);
+            if (read == -1) {
+                throw new EOFException("End of input");
+            }
+            offset += read;
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    private long readLong() throws IOException {
+        final long zigzag = readVarint();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private double readDouble() throws IOException {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    private long readVarint() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final int b = readByte();
+            if (shift == 63 && b > 1) {
+                // the last byte may carry the highest bit of long only
+                throw new MalformedJsonException("Varint overflows long");
+            }
+            result |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new MalformedJsonException("Malformed varint");
+    }
+
+    private int readByte() throws IOException {
+        final int b = in.read();
+        if (b == -1) {
+            throw new EOFException("End of input");
+        }
+        return b;
+    }
+
+    private static boolean isString(int tag) {
+        return tag == STRING_NEW || tag == STRING_REF || tag == STRING;
+    }
+
+    private static long parseLong(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return toLong(Double.parseDouble(text));
+        }
+    }
+
+    private static long toLong(double value) {
+        final long result = (long)value;
+        if (result != value) {
+            throw new NumberFormatException("Expected a long but was " + value);
+        }
+        return result;
+    }
+}
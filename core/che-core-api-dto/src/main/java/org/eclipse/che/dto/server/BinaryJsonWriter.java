@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.dto.server.BinaryJson.BEGIN_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJson.BEGIN_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJson.DOUBLE;
+import static org.eclipse.che.dto.server.BinaryJson.END_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJson.END_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJson.FALSE;
+import static org.eclipse.che.dto.server.BinaryJson.LONG;
+import static org.eclipse.che.dto.server.BinaryJson.MAGIC;
+import static org.eclipse.che.dto.server.BinaryJson.MAX_INTERNED_COUNT;
+import static org.eclipse.che.dto.server.BinaryJson.MAX_INTERNED_LENGTH;
+import static org.eclipse.che.dto.server.BinaryJson.NULL;
+import static org.eclipse.che.dto.server.BinaryJson.NUMBER;
+import static org.eclipse.che.dto.server.BinaryJson.STRING;
+import static org.eclipse.che.dto.server.BinaryJson.STRING_NEW;
+import static org.eclipse.che.dto.server.BinaryJson.STRING_REF;
+import static org.eclipse.che.dto.server.BinaryJson.TRUE;
+import static org.eclipse.che.dto.server.BinaryJson.VERSION;
+
+/**
+ * Writes JSON tokens in the binary form described by {@link BinaryJson} to the output stream.
+ *
+ * <p>Writer may be passed to {@link JsonSerializable#writeTo(JsonWriter)} and to gson type adapters instead
+ * of usual JSON writer. The same as JSON writer it skips {@code null} properties unless
+ * {@link #setSerializeNulls(boolean)} is set. Writer doesn't validate order of tokens, it relies on callers which
+ * produce well-formed JSON. Single writer writes single document.
+ */
+public class BinaryJsonWriter extends JsonWriter {
+    private static final Writer UNWRITABLE = new Writer() {
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private final OutputStream         out;
+    private final Map<String, Integer> interned;
+
+    private boolean started;
+    private String  deferredName;
+
+    public BinaryJsonWriter(OutputStream out) {
+        super(UNWRITABLE);
+        this.out = out;
+        this.interned = new HashMap<>();
+    }
+
+    @Override
+    public JsonWriter beginArray() throws IOException {
+        writeDeferredName();
+        writeTag(BEGIN_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() throws IOException {
+        writeTag(END_ARRAY);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() throws IOException {
+        writeDeferredName();
+        writeTag(BEGIN_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() throws IOException {
+        // name of skipped null property
+        deferredName = null;
+        writeTag(END_OBJECT);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) throws IOException {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        if (deferredName != null) {
+            throw new IllegalStateException("Name is already written");
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        writeString(value);
+        return this;
+    }
+
+    /** Converts the raw JSON value to binary form, so it is read back as the same JSON. */
+    @Override
+    public JsonWriter jsonValue(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        final JsonReader reader = new JsonReader(new StringReader(value));
+        reader.setLenient(true);
+        BinaryJson.copy(reader, this);
+        return this;
+    }
+
+    @Override
+    public JsonWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+        }
+        writeTag(NULL);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        writeTag(value ? TRUE : FALSE);
+        return this;
+    }
+
+    // not annotated with @Override, the method is absent in the older versions of gson
+    public JsonWriter value(Boolean value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        return value(value.booleanValue());
+    }
+
+    // not annotated with @Override, the method is absent in the older versions of gson
+    public JsonWriter value(float value) throws IOException {
+        // text of float is kept, so it is read back as the same float and converted to the same JSON
+        return value(Double.parseDouble(Float.toString(value)));
+    }
+
+    @Override
+    public JsonWriter value(double value) throws IOException {
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        writeTag(DOUBLE);
+        final long bits = Double.doubleToRawLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int)(bits >>> shift));
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) throws IOException {
+        writeDeferredName();
+        writeTag(LONG);
+        writeVarint((value << 1) ^ (value >> 63));
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer
+            || value instanceof Long
+            || value instanceof Short
+            || value instanceof Byte
+            || value instanceof AtomicInteger
+            || value instanceof AtomicLong) {
+            return value(value.longValue());
+        }
+        if (value instanceof Double) {
+            return value(value.doubleValue());
+        }
+        if (value instanceof Float) {
+            return value(value.floatValue());
+        }
+        return writeNumberText(value.toString());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /** Writes number given by its JSON text in the shortest form which keeps the text. */
+    private JsonWriter writeNumberText(String text) throws IOException {
+        if (isIntegral(text)) {
+            final BigInteger integer = new BigInteger(text);
+            if (integer.bitLength() < 64 && integer.toString().equals(text)) {
+                return value(integer.longValue());
+            }
+        } else {
+            try {
+                final double number = Double.parseDouble(text);
+                if (Double.toString(number).equals(text)) {
+                    return value(number);
+                }
+            } catch (NumberFormatException e) {
+                if (!isLenient()) {
+                    throw new IllegalArgumentException("String created by " + text + " is not a valid JSON number");
+                }
+            }
+        }
+        writeDeferredName();
+        writeTag(NUMBER);
+        final byte[] bytes = text.getBytes(UTF_8);
+        writeVarint(bytes.length);
+        out.write(bytes);
+        return this;
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value.length() <= MAX_INTERNED_LENGTH) {
+            final Integer index = interned.get(value);
+            if (index != null) {
+                writeTag(STRING_REF);
+                writeVarint(index);
+                return;
+            }
+            if (interned.size() < MAX_INTERNED_COUNT) {
+                interned.put(value, interned.size());
+                writeTag(STRING_NEW);
+                writeBytes(value.getBytes(UTF_8));
+                return;
+            }
+        }
+        writeTag(STRING);
+        writeBytes(value.getBytes(UTF_8));
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            final String name = deferredName;
+            deferredName = null;
+            writeString(name);
+        }
+    }
+
+    private void writeTag(int tag) throws IOException {
+        if (!started) {
+            started = true;
+            out.write(MAGIC);
+            out.write(VERSION);
+        }
+        out.write(tag);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int)value);
+    }
+
+    private static boolean isIntegral(String text) {
+        final int start = text.startsWith("-") ? 1 : 0;
+        if (text.length() == start) {
+            return false;
+        }
+        for (int i = start; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
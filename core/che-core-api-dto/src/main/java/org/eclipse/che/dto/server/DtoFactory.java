@@ -16,18 +16,27 @@ import com.google.common.cache.LoadingCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
 import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
 import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -150,6 +159,33 @@ public final class DtoFactory {
         throw new IllegalArgumentException("JsonSerializable instance required. ");
     }
 
+    /**
+     * Creates writer of JSON tokens configured in the same way as writer used by {@link JsonSerializable#toJson()}:
+     * {@code null} properties are skipped and HTML characters are not escaped.
+     *
+     * @param out
+     *         writer to which JSON is written
+     * @see JsonSerializable#writeTo(JsonWriter)
+     */
+    public static JsonWriter newJsonWriter(Writer out) {
+        final JsonWriter writer = new JsonWriter(out);
+        writer.setLenient(true);
+        writer.setHtmlSafe(false);
+        writer.setSerializeNulls(false);
+        return writer;
+    }
+
+    /** Serializes the given instance to JSON string with {@link JsonSerializable#writeTo(JsonWriter)}. */
+    public static String writeToString(JsonSerializable json) {
+        final StringWriter out = new StringWriter();
+        try {
+            json.writeTo(newJsonWriter(out));
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return out.toString();
+    }
+
     /**
      * Creates new instance of class which implements specified DTO interface.
      *
@@ -208,14 +244,7 @@ public final class DtoFactory {
      *         if an i/o error occurs
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
-        }
-        return dtoProvider.fromJson(sb.toString());
+        return readDto(newJsonReader(json), getDtoProvider(dtoInterface));
     }
 
     /**
@@ -272,21 +301,7 @@ public final class DtoFactory {
      */
     public <T> JsonArray<T> createListDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final List<JsonElement> list;
-        try {
-            list = gson.fromJson(json, listTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
-            }
-            throw e;
-        }
-        final List<T> result = new ArrayList<>(list.size());
-        for (JsonElement e : list) {
-            result.add(dtoProvider.fromJson(e));
-        }
-        return new JsonArrayImpl<>(result);
+        return new JsonArrayImpl<>(readJsonDocument(newJsonReader(json), reader -> readList(reader, dtoProvider)));
     }
 
     /**
@@ -343,24 +358,9 @@ public final class DtoFactory {
      * @throws IOException
      *         if an i/o error occurs
      */
-    @SuppressWarnings("unchecked")
     public <T> JsonStringMap<T> createMapDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
         final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        final Map<String, JsonElement> map;
-        try {
-            map = gson.fromJson(json, mapTypeCache.getUnchecked(JsonElement.class));
-        } catch (JsonSyntaxException e) {
-            final Throwable cause = e.getCause();
-            if (cause instanceof IOException) {
-                throw (IOException)cause;
-            }
-            throw e;
-        }
-        final Map<String, T> result = new LinkedHashMap<>(map.size());
-        for (Map.Entry<String, JsonElement> e : map.entrySet()) {
-            result.put(e.getKey(), dtoProvider.fromJson(e.getValue()));
-        }
-        return new JsonStringMapImpl<>(result);
+        return new JsonStringMapImpl<>(readJsonDocument(newJsonReader(json), reader -> readMap(reader, dtoProvider)));
     }
 
     /**
@@ -382,6 +382,151 @@ public final class DtoFactory {
 
     //
 
+    /**
+     * Serializes DTO to the compact binary form described by {@link BinaryJson}. Binary form contains the same
+     * data as JSON produced by {@link #toJson(Object)}.
+     *
+     * @param dto
+     *         DTO or list of DTOs created by this factory
+     * @throws IllegalArgumentException
+     *         if the given instance is not created by this factory
+     */
+    public <T> byte[] toBinary(T dto) {
+        if (!(dto instanceof JsonSerializable)) {
+            throw new IllegalArgumentException("JsonSerializable instance required. ");
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BinaryJsonWriter writer = new BinaryJsonWriter(out);
+        writer.setLenient(true);
+        writer.setSerializeNulls(false);
+        try {
+            ((JsonSerializable)dto).writeTo(writer);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates new instance of class which implements specified DTO interface and initializes it with data
+     * read from the binary form produced by {@link #toBinary(Object)}.
+     *
+     * @param binary
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @return DTO or {@code null} if the stream is empty
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws JsonSyntaxException
+     *         if data is malformed
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> T createDtoFromBinary(InputStream binary, Class<T> dtoInterface) throws IOException {
+        return readDto(new BinaryJsonReader(new BufferedInputStream(binary)), getDtoProvider(dtoInterface));
+    }
+
+    /**
+     * Reads list of DTOs from the binary form produced by {@link #toBinary(Object)}.
+     *
+     * @param binary
+     *         binary data
+     * @param dtoInterface
+     *         DTO interface
+     * @return list of DTO
+     * @throws IllegalArgumentException
+     *         if can't provide any implementation for specified interface
+     * @throws JsonSyntaxException
+     *         if data is malformed
+     * @throws IOException
+     *         if an i/o error occurs
+     */
+    public <T> JsonArray<T> createListDtoFromBinary(InputStream binary, Class<T> dtoInterface) throws IOException {
+        return readDtoList(new BinaryJsonReader(new BufferedInputStream(binary)), getDtoProvider(dtoInterface));
+    }
+
+    //
+
+    private static <T> T readDto(JsonReader reader, DtoProvider<T> dtoProvider) throws IOException {
+        try {
+            if (isEmptyDocument(reader)) {
+                return null;
+            }
+            final T dto = dtoProvider.fromJson(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+            return dto;
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static <T> JsonArray<T> readDtoList(JsonReader reader, DtoProvider<T> dtoProvider) throws IOException {
+        try {
+            return new JsonArrayImpl<>(readList(reader, dtoProvider));
+        } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * Reads the whole JSON document in the same way as {@link Gson#fromJson(Reader, Type)} which was used for lists and
+     * maps of DTOs: content after the document is an error, malformed JSON and errors of reading are thrown as
+     * {@link IOException}, unexpected tokens are reported with {@link JsonSyntaxException}.
+     */
+    private static <T> T readJsonDocument(JsonReader reader, JsonReadFunction<T> function) throws IOException {
+        try {
+            final T result = function.read(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonIOException("JSON document was not fully consumed.");
+            }
+            return result;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    private static <T> List<T> readList(JsonReader reader, DtoProvider<T> dtoProvider) throws IOException {
+        final List<T> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(dtoProvider.fromJson(reader));
+        }
+        reader.endArray();
+        return result;
+    }
+
+    private static <T> Map<String, T> readMap(JsonReader reader, DtoProvider<T> dtoProvider) throws IOException {
+        final Map<String, T> result = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            result.put(reader.nextName(), dtoProvider.fromJson(reader));
+        }
+        reader.endObject();
+        return result;
+    }
+
+    private static JsonReader newJsonReader(Reader in) {
+        final JsonReader reader = new JsonReader(in);
+        reader.setLenient(true);
+        return reader;
+    }
+
+    private static boolean isEmptyDocument(JsonReader reader) throws IOException {
+        try {
+            reader.peek();
+            return false;
+        } catch (EOFException e) {
+            return true;
+        }
+    }
+
+    private interface JsonReadFunction<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
     @SuppressWarnings("unchecked")
     private <T> DtoProvider<T> getDtoProvider(Class<T> dtoInterface) {
         DtoProvider<?> dtoProvider = dtoInterface2Providers.get(dtoInterface);
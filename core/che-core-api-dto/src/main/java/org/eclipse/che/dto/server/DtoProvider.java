@@ -11,6 +11,10 @@
 package org.eclipse.che.dto.server;
 
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
 
 /**
  * Provides implementation of DTO interface.
@@ -24,6 +28,14 @@ public interface DtoProvider<DTO> {
 
     DTO fromJson(JsonElement json);
 
+    /**
+     * Reads DTO from the stream of JSON tokens. Generated providers read fields directly from the stream,
+     * default implementation parses the next value to JSON element.
+     */
+    default DTO fromJson(JsonReader reader) throws IOException {
+        return fromJson(new JsonParser().parse(reader));
+    }
+
     DTO newInstance();
 
     DTO clone(DTO origin);
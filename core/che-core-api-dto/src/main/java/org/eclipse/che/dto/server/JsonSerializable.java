@@ -13,9 +13,11 @@
 // limitations under the License.
 package org.eclipse.che.dto.server;
 
+import java.io.IOException;
 import java.io.Serializable;
 
 import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
 
 /** An entity that may serialize itself to JSON. */
 public interface JsonSerializable extends Serializable {
@@ -25,4 +27,14 @@ public interface JsonSerializable extends Serializable {
 
     /** Serializes DTO to JSON object. */
     JsonElement toJsonElement();
+
+    /**
+     * Writes DTO to the stream of JSON tokens without building intermediate tree of JSON elements.
+     * The output is the same as the output of {@link #toJson()} if writer is created with
+     * {@link DtoFactory#newJsonWriter(java.io.Writer)}. By default the output of {@link #toJson()}
+     * is written as raw value, implementations override it to write tokens directly.
+     */
+    default void writeTo(JsonWriter writer) throws IOException {
+        writer.jsonValue(toJson());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.dto.definitions.ComplicatedDto;
+import org.eclipse.che.dto.definitions.DtoWithAny;
+import org.eclipse.che.dto.definitions.SimpleDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Compares throughput of serialization of DTOs through the intermediate tree of JSON elements
+ * ({@link #treeToJson()}, {@link #treeFromJson()}) with streaming serialization of generated
+ * implementations ({@link #streamToJson()}, {@link #streamFromJson()}) for DTOs of different shape.
+ * Allocation rate per operation is reported by the GC profiler which {@link #main(String[])} enables.
+ * Benchmark is not run by surefire, run {@link #main(String[])} with test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    @Param({"simple", "complicated", "any"})
+    public String dtoType;
+
+    private final DtoFactory dtoFactory = DtoFactory.getInstance();
+
+    private Class<?> dtoInterface;
+    private Object   dto;
+    private String   json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (dtoType) {
+            case "simple":
+                dtoInterface = SimpleDto.class;
+                dto = newSimpleDto(0);
+                break;
+            case "complicated":
+                dtoInterface = ComplicatedDto.class;
+                dto = newComplicatedDto();
+                break;
+            case "any":
+                dtoInterface = DtoWithAny.class;
+                dto = newDtoWithAny();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown DTO type " + dtoType);
+        }
+        json = dtoFactory.toJson(dto);
+    }
+
+    @Benchmark
+    public String treeToJson() {
+        return GSON.toJson(((JsonSerializable)dto).toJsonElement());
+    }
+
+    @Benchmark
+    public String streamToJson() {
+        return DtoFactory.writeToString((JsonSerializable)dto);
+    }
+
+    @Benchmark
+    public Object treeFromJson() {
+        return dtoFactory.createDtoFromJson(json, dtoInterface);
+    }
+
+    @Benchmark
+    public Object streamFromJson() throws IOException {
+        return dtoFactory.createDtoFromJson(new StringReader(json), dtoInterface);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder().include(DtoSerializationBenchmark.class.getSimpleName())
+                                                    .addProfiler(GCProfiler.class)
+                                                    .build();
+        new Runner(options).run();
+    }
+
+    private SimpleDto newSimpleDto(int i) {
+        return dtoFactory.createDto(SimpleDto.class).withName("name-" + i).withId(i).withDefault("default value " + i);
+    }
+
+    private ComplicatedDto newComplicatedDto() {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, SimpleDto> map = new HashMap<>();
+        final List<SimpleDto> simpleDtos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            strings.add("string-" + i);
+            map.put("key-" + i, newSimpleDto(i));
+            simpleDtos.add(newSimpleDto(i));
+        }
+        return dtoFactory.createDto(ComplicatedDto.class)
+                         .withStrings(strings)
+                         .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                         .withMap(map)
+                         .withSimpleDtos(simpleDtos)
+                         .withArrayOfArrayOfEnum(asList(asList(ComplicatedDto.SimpleEnum.values()),
+                                                        asList(ComplicatedDto.SimpleEnum.values())));
+    }
+
+    private DtoWithAny newDtoWithAny() {
+        final List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            objects.add(new JsonParser().parse("{\"id\":" + i + ",\"attributes\":{\"a\":[1,2,3],\"b\":\"value\"}}"));
+        }
+        return dtoFactory.createDto(DtoWithAny.class)
+                         .withStuff(new JsonParser().parse("{\"a\":100,\"b\":{\"c\":\"blah\"}}"))
+                         .withObjects(objects);
+    }
+}
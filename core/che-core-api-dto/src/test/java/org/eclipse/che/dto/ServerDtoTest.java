@@ -10,11 +10,15 @@
  *******************************************************************************/
 package org.eclipse.che.dto;
 
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.MalformedJsonException;
 
 import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DTOHierarchy;
@@ -25,17 +29,27 @@ import org.eclipse.che.dto.definitions.SimpleDto;
 import org.eclipse.che.dto.definitions.model.Model;
 import org.eclipse.che.dto.definitions.model.ModelComponentDto;
 import org.eclipse.che.dto.definitions.model.ModelDto;
+import org.eclipse.che.dto.server.BinaryJson;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonArrayImpl;
+import org.eclipse.che.dto.server.JsonSerializable;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -325,6 +339,151 @@ public class ServerDtoTest {
         assertEquals(complicatedDto.getArrayOfArrayOfEnum().get(0).get(2), ComplicatedDto.SimpleEnum.THREE);
     }
 
+    @Test
+    public void testStreamingSerializerWritesSameJsonAsJsonTree() throws Exception {
+        final SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("<name> & 'quotes'").withId(1);
+        final ComplicatedDto complicatedDto = dtoFactory.createDto(ComplicatedDto.class)
+                                                        .withStrings(asList("a", null, "\u00e9\n"))
+                                                        .withSimpleEnum(ComplicatedDto.SimpleEnum.TWO)
+                                                        .withMap(singletonMap("key", simpleDto))
+                                                        .withSimpleDtos(asList(simpleDto, null))
+                                                        .withArrayOfArrayOfEnum(singletonList(asList(ComplicatedDto.SimpleEnum.ONE, null)));
+        final DtoWithAny dtoWithAny = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny())
+                                                .withObjects(createListTestValueForAny());
+
+        for (Object dto : asList(simpleDto, complicatedDto, dtoWithAny, dtoFactory.createDto(ComplicatedDto.class))) {
+            final JsonElement tree = ((JsonSerializable)dto).toJsonElement();
+            assertEquals(dtoFactory.toJson(dto), new GsonBuilder().disableHtmlEscaping().create().toJson(tree));
+        }
+    }
+
+    @Test
+    public void testStreamingDeserializerReadsSameDtoAsJsonTree() throws Exception {
+        final SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("name").withId(1).withDefault("default");
+        final ComplicatedDto dto = dtoFactory.createDto(ComplicatedDto.class)
+                                             .withStrings(asList("a", "b"))
+                                             .withSimpleEnum(ComplicatedDto.SimpleEnum.THREE)
+                                             .withMap(singletonMap("key", simpleDto))
+                                             .withSimpleDtos(singletonList(simpleDto))
+                                             .withArrayOfArrayOfEnum(singletonList(asList(ComplicatedDto.SimpleEnum.ONE,
+                                                                                          ComplicatedDto.SimpleEnum.TWO)));
+        final String json = dtoFactory.toJson(dto);
+
+        final ComplicatedDto fromReader = dtoFactory.createDtoFromJson(new StringReader(json), ComplicatedDto.class);
+
+        assertEquals(fromReader, dtoFactory.createDtoFromJson(json, ComplicatedDto.class));
+        assertEquals(fromReader, dto);
+    }
+
+    @Test
+    public void testStreamingDeserializerSkipsUnknownFieldsAndNulls() throws Exception {
+        final String json = "{\"unknown\":{\"a\":[1,{}]},\"name\":null,\"id\":5,\"default\":true,\"other\":null}";
+
+        final SimpleDto dto = dtoFactory.createDtoFromJson(new StringReader(json), SimpleDto.class);
+
+        checkSimpleDto(dto, null, 5, "true");
+    }
+
+    @Test
+    public void testStreamingDeserializerReturnsNullForEmptyInput() throws Exception {
+        assertNull(dtoFactory.createDtoFromJson(new StringReader(" "), SimpleDto.class));
+        assertNull(dtoFactory.createDtoFromJson(new StringReader("null"), SimpleDto.class));
+    }
+
+    @Test
+    public void testStreamingListDtoDeserializer() throws Exception {
+        final String json = "[{\"name\":\"a\",\"id\":1},null,{\"name\":\"b\",\"id\":2}]";
+
+        final List<SimpleDto> dtos = dtoFactory.createListDtoFromJson(new StringReader(json), SimpleDto.class);
+
+        assertEquals(dtos.size(), 3);
+        checkSimpleDto(dtos.get(0), "a", 1, null);
+        assertNull(dtos.get(1));
+        checkSimpleDto(dtos.get(2), "b", 2, null);
+    }
+
+    @Test(expectedExceptions = JsonIOException.class)
+    public void testListDtoDeserializerRequiresWholeDocument() throws Exception {
+        dtoFactory.createListDtoFromJson(new StringReader("[{\"name\":\"a\"}] []"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testMapDtoDeserializerThrowsSyntaxExceptionOnUnexpectedToken() throws Exception {
+        dtoFactory.createMapDtoFromJson(new StringReader("[{\"name\":\"a\"}]"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void testMapDtoDeserializerThrowsIOExceptionOnMalformedJson() throws Exception {
+        dtoFactory.createMapDtoFromJson(new StringReader("{\"a\":{\"name\" \"a\"}}"), SimpleDto.class);
+    }
+
+    @Test
+    public void testDefaultWriteToWritesJsonAsRawValue() throws Exception {
+        final JsonSerializable serializable = new JsonSerializable() {
+            @Override
+            public String toJson() {
+                return "{\"name\":\"a\",\"id\":1}";
+            }
+
+            @Override
+            public JsonElement toJsonElement() {
+                return new JsonParser().parse(toJson());
+            }
+        };
+        final StringWriter out = new StringWriter();
+
+        serializable.writeTo(DtoFactory.newJsonWriter(out));
+
+        assertEquals(out.toString(), serializable.toJson());
+        assertEquals(BinaryJson.decode(dtoFactory.toBinary(serializable)), serializable.toJson());
+    }
+
+    @Test
+    public void testBinarySerializerReadsSameDtoAsJson() throws Exception {
+        final SimpleDto simpleDto = dtoFactory.createDto(SimpleDto.class).withName("\u00e9 name").withId(-7).withDefault("default");
+        final ComplicatedDto complicatedDto = dtoFactory.createDto(ComplicatedDto.class)
+                                                        .withStrings(asList("a", "a", "b"))
+                                                        .withSimpleEnum(ComplicatedDto.SimpleEnum.THREE)
+                                                        .withMap(singletonMap("key", simpleDto))
+                                                        .withSimpleDtos(asList(simpleDto, simpleDto))
+                                                        .withArrayOfArrayOfEnum(singletonList(asList(ComplicatedDto.SimpleEnum.ONE,
+                                                                                                     ComplicatedDto.SimpleEnum.TWO)));
+        final DtoWithAny dtoWithAny = dtoFactory.createDto(DtoWithAny.class).withStuff(createTestValueForAny())
+                                                .withObjects(createListTestValueForAny());
+
+        final byte[] complicatedBinary = dtoFactory.toBinary(complicatedDto);
+        final byte[] anyBinary = dtoFactory.toBinary(dtoWithAny);
+
+        assertEquals(dtoFactory.createDtoFromBinary(new ByteArrayInputStream(complicatedBinary), ComplicatedDto.class), complicatedDto);
+        assertEquals(dtoFactory.createDtoFromBinary(new ByteArrayInputStream(anyBinary), DtoWithAny.class), dtoWithAny);
+        assertEquals(BinaryJson.decode(complicatedBinary), dtoFactory.toJson(complicatedDto));
+        assertEquals(BinaryJson.decode(anyBinary), dtoFactory.toJson(dtoWithAny));
+    }
+
+    @Test
+    public void testBinaryListIsSmallerThanJson() throws Exception {
+        final List<SimpleDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            dtos.add(dtoFactory.createDto(SimpleDto.class).withName("name").withId(i * 1000));
+        }
+        final JsonArrayImpl<SimpleDto> list = new JsonArrayImpl<>(dtos);
+
+        final byte[] binary = dtoFactory.toBinary(list);
+
+        assertTrue(binary.length * 2 < list.toJson().getBytes(UTF_8).length);
+        assertEquals(dtoFactory.createListDtoFromBinary(new ByteArrayInputStream(binary), SimpleDto.class), dtos);
+    }
+
+    @Test
+    public void testBinaryJsonKeepsNullsAndNumbers() throws Exception {
+        final String json = "{\"a\":null,\"b\":[1,-1,1.5,1.0,1e400,12345678901234567890,-0],\"c\":\"a\",\"a \":{\"c\":true}}";
+
+        final byte[] binary = BinaryJson.encode(json);
+
+        assertEquals(BinaryJson.decode(binary), json);
+        assertNull(dtoFactory.createDtoFromBinary(new ByteArrayInputStream(new byte[0]), SimpleDto.class));
+    }
+
     private void checkSimpleDto(SimpleDto dto, String expectedName, int expectedId, String expectedDefault) {
         assertEquals(dto.getName(), expectedName);
         assertEquals(dto.getId(), expectedId);
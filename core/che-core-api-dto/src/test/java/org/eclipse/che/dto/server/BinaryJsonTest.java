@@ -0,0 +1,254 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.dto.server;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.MalformedJsonException;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.eclipse.che.dto.server.BinaryJson.BEGIN_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJson.BEGIN_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJson.END_ARRAY;
+import static org.eclipse.che.dto.server.BinaryJson.END_OBJECT;
+import static org.eclipse.che.dto.server.BinaryJson.LONG;
+import static org.eclipse.che.dto.server.BinaryJson.MAGIC;
+import static org.eclipse.che.dto.server.BinaryJson.MAX_INTERNED_COUNT;
+import static org.eclipse.che.dto.server.BinaryJson.MAX_INTERNED_LENGTH;
+import static org.eclipse.che.dto.server.BinaryJson.STRING;
+import static org.eclipse.che.dto.server.BinaryJson.STRING_NEW;
+import static org.eclipse.che.dto.server.BinaryJson.STRING_REF;
+import static org.eclipse.che.dto.server.BinaryJson.VERSION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests of {@link BinaryJsonWriter} and {@link BinaryJsonReader}.
+ */
+public class BinaryJsonTest {
+    private static final String JSON = "{\"name\":\"a\",\"count\":-42,\"ratio\":0.5,\"big\":123456789012345678901234567890,"
+                                       + "\"flags\":[true,false,null],\"nested\":{\"name\":\"\u00e9\ud83d\ude00\"},\"empty\":[]}";
+
+    @Test
+    public void shouldConvertJsonToBinaryAndBack() {
+        assertEquals(BinaryJson.decode(BinaryJson.encode(JSON)), JSON);
+    }
+
+    @Test
+    public void shouldWriteJsonTreeTheSameAsItsText() {
+        final JsonObject tree = new JsonParser().parse(JSON).getAsJsonObject();
+        tree.add("absent", null);
+
+        assertEquals(BinaryJson.encode(tree), BinaryJson.encode(tree.toString()));
+    }
+
+    @Test
+    public void shouldWriteRepeatedStringsAsReferences() {
+        final byte[] binary = BinaryJson.encode("[{\"name\":\"value\"},{\"name\":\"value\"}]");
+
+        assertEquals(binary, bytes(BEGIN_ARRAY,
+                                   BEGIN_OBJECT, STRING_NEW, 4, 'n', 'a', 'm', 'e', STRING_NEW, 5, 'v', 'a', 'l', 'u', 'e', END_OBJECT,
+                                   BEGIN_OBJECT, STRING_REF, 0, STRING_REF, 1, END_OBJECT,
+                                   END_ARRAY));
+    }
+
+    @Test
+    public void shouldNotInternLongStrings() {
+        final String value = repeat('a', MAX_INTERNED_LENGTH + 1);
+
+        final byte[] binary = BinaryJson.encode("[\"" + value + "\",\"" + value + "\"]");
+
+        assertEquals(binary[3], STRING);
+        assertEquals(binary[5 + value.length()], STRING);
+        assertEquals(BinaryJson.decode(binary), "[\"" + value + "\",\"" + value + "\"]");
+    }
+
+    @Test
+    public void shouldStopInterningWhenTableOfInternedStringsIsFull() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BinaryJsonWriter writer = new BinaryJsonWriter(out);
+        writer.beginArray();
+        for (int i = 0; i < MAX_INTERNED_COUNT; i++) {
+            writer.value(Integer.toString(i));
+        }
+        writer.value("x");
+        writer.value("x");
+        writer.endArray();
+        final byte[] binary = out.toByteArray();
+
+        final byte[] tail = Arrays.copyOfRange(binary, binary.length - 7, binary.length);
+        assertEquals(tail, new byte[] {STRING, 1, 'x', STRING, 1, 'x', END_ARRAY});
+        final BinaryJsonReader reader = new BinaryJsonReader(new ByteArrayInputStream(binary));
+        reader.beginArray();
+        for (int i = 0; i < MAX_INTERNED_COUNT; i++) {
+            assertEquals(reader.nextString(), Integer.toString(i));
+        }
+        assertEquals(reader.nextString(), "x");
+        assertEquals(reader.nextString(), "x");
+        reader.endArray();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectMoreInternedStringsThanTableHolds() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(bytes(BEGIN_ARRAY));
+        for (int i = 0; i <= MAX_INTERNED_COUNT; i++) {
+            out.write(STRING_NEW);
+            out.write(0);
+        }
+        out.write(END_ARRAY);
+        final BinaryJsonReader reader = new BinaryJsonReader(new ByteArrayInputStream(out.toByteArray()));
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            reader.nextString();
+        }
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectUnknownStringReference() throws Exception {
+        reader(BEGIN_ARRAY, STRING_NEW, 1, 'a', STRING_REF, 1, END_ARRAY).skipValue();
+    }
+
+    @Test
+    public void shouldReadAndWriteLimitsOfLong() throws Exception {
+        final long[] values = {0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BinaryJsonWriter writer = new BinaryJsonWriter(out);
+        writer.beginArray();
+        for (long value : values) {
+            writer.value(value);
+        }
+        writer.endArray();
+
+        final BinaryJsonReader reader = new BinaryJsonReader(new ByteArrayInputStream(out.toByteArray()));
+        reader.beginArray();
+        for (long value : values) {
+            assertEquals(reader.nextLong(), value);
+        }
+        reader.endArray();
+    }
+
+    @Test
+    public void shouldWriteLongInTenBytesAtMost() {
+        // zigzag form of Long.MIN_VALUE has all bits set, so it takes nine full bytes and the highest bit
+        assertEquals(BinaryJson.encode(Long.toString(Long.MIN_VALUE)),
+                     bytes(LONG, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x01));
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectVarintWhichOverflowsLong() throws Exception {
+        reader(LONG, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0x02).nextLong();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectVarintLongerThanTenBytes() throws Exception {
+        reader(LONG, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x00).nextLong();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectLengthOfStringWhichOverflowsInt() throws Exception {
+        reader(STRING, 0x80, 0x80, 0x80, 0x80, 0x08, 'a').nextString();
+    }
+
+    @Test(expectedExceptions = EOFException.class)
+    public void shouldNotTrustLengthOfTruncatedString() throws Exception {
+        // declared length is Integer.MAX_VALUE, reader fails at the end of input instead of allocating the whole string
+        reader(STRING, 0xFF, 0xFF, 0xFF, 0xFF, 0x07, 'a').nextString();
+    }
+
+    @Test
+    public void shouldFailOnEachTruncationOfDocument() {
+        final byte[] binary = BinaryJson.encode(JSON);
+
+        for (int length = 0; length < binary.length; length++) {
+            try {
+                BinaryJson.decode(Arrays.copyOf(binary, length));
+                fail("Document truncated to " + length + " bytes must not be decoded");
+            } catch (JsonSyntaxException e) {
+                assertTrue(e.getCause() instanceof IOException, "Unexpected failure of document truncated to " + length + " bytes");
+            }
+        }
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void shouldRejectTrailingContent() {
+        final byte[] binary = BinaryJson.encode("1");
+
+        BinaryJson.decode(Arrays.copyOf(binary, binary.length + 1));
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectDocumentWithoutMagic() throws Exception {
+        new BinaryJsonReader(new ByteArrayInputStream("{}".getBytes(UTF_8))).peek();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectUnknownVersion() throws Exception {
+        new BinaryJsonReader(new ByteArrayInputStream(new byte[] {(byte)MAGIC, VERSION + 1, BEGIN_ARRAY, END_ARRAY})).peek();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectUnknownTag() throws Exception {
+        reader(BEGIN_ARRAY, 0x7F).skipValue();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectEndOfArrayOutsideOfArray() throws Exception {
+        reader(END_ARRAY).skipValue();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectEndOfObjectInsideOfArray() throws Exception {
+        reader(BEGIN_ARRAY, END_OBJECT).skipValue();
+    }
+
+    @Test(expectedExceptions = MalformedJsonException.class)
+    public void shouldRejectNameWhichIsNotString() throws Exception {
+        reader(BEGIN_OBJECT, LONG, 0, LONG, 0, END_OBJECT).skipValue();
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void shouldNotConvertMalformedJson() {
+        BinaryJson.encode("{\"name\":}");
+    }
+
+    /** Returns the given tokens prefixed with header of binary document. */
+    private static byte[] bytes(int... tokens) {
+        final byte[] result = new byte[tokens.length + 2];
+        result[0] = (byte)MAGIC;
+        result[1] = VERSION;
+        for (int i = 0; i < tokens.length; i++) {
+            result[i + 2] = (byte)tokens[i];
+        }
+        return result;
+    }
+
+    private static BinaryJsonReader reader(int... tokens) {
+        return new BinaryJsonReader(new ByteArrayInputStream(bytes(tokens)));
+    }
+
+    private static String repeat(char c, int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
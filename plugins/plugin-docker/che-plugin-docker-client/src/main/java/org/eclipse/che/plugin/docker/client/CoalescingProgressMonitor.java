@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressDetail;
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Passes to the delegate only noticeable progress updates of each layer.
+ *
+ * <p>Docker sends an update per each downloaded, extracted or pushed chunk of a layer, so pulling of
+ * a big image produces tens of thousands of updates. For each layer and its status, e.g. {@code Downloading}
+ * or {@code Extracting}, this monitor passes the first update, the last one and updates which advance
+ * the progress by at least {@code 1/steps} of the layer size. Updates without progress details,
+ * build output and errors are always passed.
+ *
+ * <p>Monitor is not thread safe, it is supposed to be used by a thread reading a single response.
+ */
+public class CoalescingProgressMonitor implements ProgressMonitor {
+    /** Default number of progress updates passed per each status of a layer. */
+    public static final int DEFAULT_STEPS = 20;
+
+    private final ProgressMonitor            delegate;
+    private final int                        steps;
+    private final Map<String, LayerProgress> layers = new HashMap<>();
+
+    /**
+     * Returns monitor which coalesces updates passed to the given one,
+     * {@link ProgressMonitor#DEV_NULL} is returned as is.
+     */
+    public static ProgressMonitor wrap(ProgressMonitor delegate) {
+        if (delegate == ProgressMonitor.DEV_NULL || delegate instanceof CoalescingProgressMonitor) {
+            return delegate;
+        }
+        return new CoalescingProgressMonitor(delegate, DEFAULT_STEPS);
+    }
+
+    public CoalescingProgressMonitor(ProgressMonitor delegate, int steps) {
+        checkArgument(steps > 0, "Number of steps must be positive");
+        this.delegate = delegate;
+        this.steps = steps;
+    }
+
+    @Override
+    public void updateProgress(ProgressStatus currentProgressStatus) {
+        if (isNoticeable(currentProgressStatus)) {
+            delegate.updateProgress(currentProgressStatus);
+        }
+    }
+
+    private boolean isNoticeable(ProgressStatus status) {
+        final String layerId = status.getId();
+        final ProgressDetail detail = status.getProgressDetail();
+        if (layerId == null || status.getError() != null || status.getStream() != null) {
+            return true;
+        }
+        if (detail == null || detail.getTotal() <= 0) {
+            // status of the layer is changed, e.g. 'Download complete'
+            layers.remove(layerId);
+            return true;
+        }
+        final LayerProgress last = layers.get(layerId);
+        if (last == null || !Objects.equals(last.status, status.getStatus())) {
+            layers.put(layerId, new LayerProgress(status.getStatus(), detail.getCurrent()));
+            return true;
+        }
+        if (detail.getCurrent() >= detail.getTotal() || detail.getCurrent() - last.current >= detail.getTotal() / steps) {
+            last.current = detail.getCurrent();
+            return true;
+        }
+        return false;
+    }
+
+    private static class LayerProgress {
+        final String status;
+
+        long current;
+
+        LayerProgress(String status, long current) {
+            this.status = status;
+            this.current = current;
+        }
+    }
+}
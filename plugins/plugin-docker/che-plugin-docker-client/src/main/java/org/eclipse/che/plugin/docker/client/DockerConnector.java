@@ -790,7 +790,8 @@ public class DockerConnector {
             }
 
             try (InputStream responseStream = response.getInputStream()) {
-                JsonMessageReader<ProgressStatus> progressReader = new JsonMessageReader<>(responseStream, ProgressStatus.class);
+                ProgressStatusReader progressReader = new ProgressStatusReader(responseStream);
+                ProgressMonitor layersMonitor = CoalescingProgressMonitor.wrap(progressMonitor);
 
                 // Here do some trick to be able interrupt output streaming process.
                 // Current unix socket implementation of DockerConnection doesn't react to interruption.
@@ -811,7 +812,7 @@ public class DockerConnector {
                         if (buildImageId != null) {
                             return buildImageId;
                         }
-                        progressMonitor.updateProgress(progressStatus);
+                        layersMonitor.updateProgress(progressStatus);
                     }
 
                     throw new DockerException("Docker image build failed. Image id not found in build output.", 500);
@@ -915,7 +916,8 @@ public class DockerConnector {
             }
 
             try (InputStream responseStream = response.getInputStream()) {
-                JsonMessageReader<ProgressStatus> progressReader = new JsonMessageReader<>(responseStream, ProgressStatus.class);
+                ProgressStatusReader progressReader = new ProgressStatusReader(responseStream);
+                ProgressMonitor layersMonitor = CoalescingProgressMonitor.wrap(progressMonitor);
 
                 // Here do some trick to be able interrupt output streaming process.
                 // Current unix socket implementation of DockerConnection doesn't react to interruption.
@@ -927,7 +929,7 @@ public class DockerConnector {
                     String digestPrefix = firstNonNull(params.getTag(), "latest") + ": digest: ";
                     ProgressStatus progressStatus;
                     while ((progressStatus = progressReader.next()) != null) {
-                        progressMonitor.updateProgress(progressStatus);
+                        layersMonitor.updateProgress(progressStatus);
                         if (progressStatus.getError() != null) {
                             throw new DockerException(progressStatus.getError(), 500);
                         }
@@ -1025,7 +1027,8 @@ public class DockerConnector {
             }
 
             try (InputStream responseStream = response.getInputStream()) {
-                JsonMessageReader<ProgressStatus> progressReader = new JsonMessageReader<>(responseStream, ProgressStatus.class);
+                ProgressStatusReader progressReader = new ProgressStatusReader(responseStream);
+                ProgressMonitor layersMonitor = CoalescingProgressMonitor.wrap(progressMonitor);
 
                 // Here do some trick to be able interrupt output streaming process.
                 // Current unix socket implementation of DockerConnection doesn't react to interruption.
@@ -1036,7 +1039,7 @@ public class DockerConnector {
                 Future<Object> pullFuture = executor.submit(() -> {
                     ProgressStatus progressStatus;
                     while ((progressStatus = progressReader.next()) != null) {
-                        progressMonitor.updateProgress(progressStatus);
+                        layersMonitor.updateProgress(progressStatus);
                     }
 
                     return null;
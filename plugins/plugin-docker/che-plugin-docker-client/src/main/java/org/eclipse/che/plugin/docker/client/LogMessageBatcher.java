@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Collects log messages into batches, so a consumer receives one frame of many lines
+ * instead of a call per line.
+ *
+ * <p>Messages are kept in a ring buffer and are sent to the target when the buffer has
+ * {@code maxBatchSize} messages or each {@code flushIntervalMs} milliseconds, whatever comes first.
+ * If the target is slower than the source, the oldest not sent messages are overwritten.
+ * No more than {@code maxLinesPerSecond} messages are accepted each second, the others are dropped.
+ * Dropped and overwritten messages are replaced with a {@link LogMessage.Type#DOCKER} message
+ * telling how many messages were lost.
+ *
+ * <p>When spill file is set, all the messages including dropped ones are written to it,
+ * so the full log may be retrieved later. Writing stops once the file reaches {@code maxSpillBytes}.
+ *
+ * <p>Messages must be processed by a single thread, batches are sent to the target by that thread
+ * or by the given scheduler, but never concurrently. While a batch is being sent by the scheduler,
+ * processing of messages is not blocked. {@link #close()} sends the remaining messages.
+ *
+ * @see LogMessagePumper
+ */
+public class LogMessageBatcher implements MessageProcessor<LogMessage>, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(LogMessageBatcher.class);
+
+    private final MessageProcessor<List<LogMessage>> target;
+    private final LogMessage[]                       buffer;
+    private final int                                maxBatchSize;
+    private final int                                maxLinesPerSecond;
+    private final File                               spillFile;
+    private final long                               maxSpillBytes;
+    private final ScheduledFuture<?>                 flushTask;
+    private final ReentrantLock                      flushLock = new ReentrantLock();
+
+    // guarded by this
+    private int  head;
+    private int  size;
+    private long dropped;
+    private long overwritten;
+    private long rateWindowStart;
+    private int  linesInRateWindow;
+
+    private Writer  spill;
+    private long    spillBytes;
+    private boolean closed;
+
+    /**
+     * @param target
+     *         consumer of batches
+     * @param maxBatchSize
+     *         max number of messages in a batch, size of ring buffer is 4 times bigger
+     * @param flushIntervalMs
+     *         max time messages wait in the buffer
+     * @param maxLinesPerSecond
+     *         max number of messages accepted per second, {@code 0} or negative value means no limit
+     * @param spillFile
+     *         file to write all the messages to, may be {@code null}
+     * @param maxSpillBytes
+     *         max size of spill file, messages that don't fit are not written
+     * @param scheduler
+     *         scheduler of periodic flushes
+     * @throws IOException
+     *         if spill file can not be opened
+     */
+    public LogMessageBatcher(MessageProcessor<List<LogMessage>> target,
+                             int maxBatchSize,
+                             long flushIntervalMs,
+                             int maxLinesPerSecond,
+                             File spillFile,
+                             long maxSpillBytes,
+                             ScheduledExecutorService scheduler) throws IOException {
+        checkArgument(maxBatchSize > 0, "Max batch size must be positive");
+        checkArgument(flushIntervalMs > 0, "Flush interval must be positive");
+
+        this.target = target;
+        this.maxBatchSize = maxBatchSize;
+        this.buffer = new LogMessage[maxBatchSize * 4];
+        this.maxLinesPerSecond = maxLinesPerSecond;
+        this.spillFile = spillFile;
+        this.maxSpillBytes = maxSpillBytes;
+        if (spillFile != null) {
+            final File parent = spillFile.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException(format("Unable to create directory '%s' for log file", parent));
+            }
+            spill = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile, true), UTF_8));
+            spillBytes = spillFile.length();
+        }
+        this.flushTask = scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, MILLISECONDS);
+    }
+
+    @Override
+    public void process(LogMessage message) {
+        boolean full;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            writeToSpill(message);
+            if (!tryAcquireRate()) {
+                dropped++;
+                return;
+            }
+            if (dropped > 0) {
+                add(createDroppedMessage(dropped));
+                dropped = 0;
+            }
+            add(message);
+            full = size >= maxBatchSize;
+        }
+        // if another thread is sending messages, it sends this batch too
+        if (full && flushLock.tryLock()) {
+            try {
+                sendBuffered();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /** Sends buffered messages to the target. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            sendBuffered();
+        } finally {
+            flushLock.unlock();
+        }
+        synchronized (this) {
+            if (spill != null) {
+                try {
+                    spill.flush();
+                } catch (IOException e) {
+                    closeSpill(e);
+                }
+            }
+        }
+    }
+
+    /** Stops periodic flushes, sends buffered messages to the target and closes spill file. */
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (dropped > 0) {
+                add(createDroppedMessage(dropped));
+                dropped = 0;
+            }
+        }
+        flush();
+        synchronized (this) {
+            if (spill != null) {
+                try {
+                    spill.close();
+                } catch (IOException e) {
+                    LOG.warn("Failed to close log file '{}'. Cause: {}", spillFile, e.getLocalizedMessage());
+                }
+                spill = null;
+            }
+        }
+    }
+
+    private void sendBuffered() {
+        for (List<LogMessage> batch = poll(); !batch.isEmpty(); batch = poll()) {
+            try {
+                target.process(batch);
+            } catch (RuntimeException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    private synchronized List<LogMessage> poll() {
+        final int batchSize = Math.min(size, maxBatchSize);
+        final List<LogMessage> batch = new ArrayList<>(batchSize + 2);
+        if (overwritten > 0) {
+            // overwritten messages were older than the ones in the buffer
+            batch.add(createDroppedMessage(overwritten));
+            overwritten = 0;
+        }
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(buffer[head]);
+            buffer[head] = null;
+            head = (head + 1) % buffer.length;
+        }
+        size -= batchSize;
+        if (!closed && size == 0 && dropped > 0 && batchSize > 0) {
+            // messages are being dropped right now, tell about it without waiting for the next accepted one
+            batch.add(createDroppedMessage(dropped));
+            dropped = 0;
+        }
+        return batch;
+    }
+
+    private void add(LogMessage message) {
+        if (size == buffer.length) {
+            // target is too slow, overwrite the oldest message
+            buffer[head] = null;
+            head = (head + 1) % buffer.length;
+            size--;
+            overwritten++;
+        }
+        buffer[(head + size) % buffer.length] = message;
+        size++;
+    }
+
+    private boolean tryAcquireRate() {
+        if (maxLinesPerSecond <= 0) {
+            return true;
+        }
+        final long now = System.currentTimeMillis();
+        if (now - rateWindowStart >= 1000) {
+            rateWindowStart = now;
+            linesInRateWindow = 0;
+        }
+        return ++linesInRateWindow <= maxLinesPerSecond;
+    }
+
+    private void writeToSpill(LogMessage message) {
+        if (spill != null) {
+            final String line = LogMessageFormatter.DEFAULT.format(message) + '\n';
+            spillBytes += line.getBytes(UTF_8).length;
+            try {
+                if (spillBytes > maxSpillBytes) {
+                    LOG.warn("Log file '{}' reached limit of {} bytes, writing of log file is stopped", spillFile, maxSpillBytes);
+                    spill.close();
+                    spill = null;
+                    return;
+                }
+                spill.write(line);
+            } catch (IOException e) {
+                closeSpill(e);
+            }
+        }
+    }
+
+    private void closeSpill(IOException cause) {
+        LOG.error(format("Failed to write log file '%s', writing of log file is stopped. Cause: %s",
+                         spillFile, cause.getLocalizedMessage()), cause);
+        try {
+            spill.close();
+        } catch (IOException ignored) {
+        }
+        spill = null;
+    }
+
+    private static LogMessage createDroppedMessage(long dropped) {
+        return new LogMessage(LogMessage.Type.DOCKER, format("%d lines dropped", dropped));
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressDetail;
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads {@link ProgressStatus} messages of pull, push and build responses.
+ *
+ * <p>Unlike {@link JsonMessageReader} this reader doesn't build a tree of each message and doesn't
+ * use reflection, it pulls tokens from the stream and keeps only fields of {@link ProgressStatus}.
+ * Other fields, e.g. {@code errorDetail} or {@code aux}, are skipped without being materialized.
+ *
+ * @see CoalescingProgressMonitor
+ */
+public class ProgressStatusReader {
+    private final JsonReader reader;
+
+    private boolean finished;
+
+    public ProgressStatusReader(InputStream source) {
+        this.reader = new JsonReader(new InputStreamReader(source, UTF_8));
+        // docker sends sequence of JSON objects which is not valid JSON document
+        this.reader.setLenient(true);
+    }
+
+    /**
+     * Returns next message from the stream.
+     *
+     * @return next message or null if stream is ended or contains malformed JSON
+     * @throws IOException
+     *         if error occurs on reading stream
+     */
+    public ProgressStatus next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                finished = true;
+                return null;
+            }
+            return readStatus();
+        } catch (EOFException | MalformedJsonException | IllegalStateException | NumberFormatException e) {
+            // stream is empty, ended in the middle of message or isn't a sequence of JSON objects
+            finished = true;
+            return null;
+        }
+    }
+
+    private ProgressStatus readStatus() throws IOException {
+        final ProgressStatus status = new ProgressStatus();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    status.setId(nextString());
+                    break;
+                case "status":
+                    status.setStatus(nextString());
+                    break;
+                case "progress":
+                    status.setProgress(nextString());
+                    break;
+                case "stream":
+                    status.setStream(nextString());
+                    break;
+                case "error":
+                    status.setError(nextString());
+                    break;
+                case "progressDetail":
+                    status.setProgressDetail(readProgressDetail());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return status;
+    }
+
+    private ProgressDetail readProgressDetail() throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        final ProgressDetail detail = new ProgressDetail();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "start":
+                    detail.setStart(reader.nextLong());
+                    break;
+                case "current":
+                    detail.setCurrent(reader.nextLong());
+                    break;
+                case "total":
+                    detail.setTotal(reader.nextLong());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return detail;
+    }
+
+    private String nextString() throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
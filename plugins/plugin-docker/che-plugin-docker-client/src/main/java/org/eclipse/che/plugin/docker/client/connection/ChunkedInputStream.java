@@ -18,10 +18,10 @@ import java.io.InputStream;
 */
 public class ChunkedInputStream extends InputStream {
     private final InputStream input;
-    private StringBuilder chunkSizeBuf;
-    private int           chunkSize;
-    private int           chunkPos;
-    private boolean       eof;
+    private StringBuilder    chunkSizeBuf;
+    private int              chunkSize;
+    private int              chunkPos;
+    private volatile boolean eof;
 
     ChunkedInputStream(InputStream input) {
         this.input = input;
@@ -34,7 +34,7 @@ public class ChunkedInputStream extends InputStream {
         if (doRead(b, 0, 1) == -1) {
             return -1;
         }
-        return b[0];
+        return b[0] & 0xFF;
     }
 
     @Override
@@ -57,7 +57,7 @@ public class ChunkedInputStream extends InputStream {
             return 0;
         }
 
-        return doRead(b, 0, len);
+        return doRead(b, off, len);
     }
 
     @Override
@@ -65,6 +65,11 @@ public class ChunkedInputStream extends InputStream {
         return (chunkSize - chunkPos);
     }
 
+    /** Whether the last chunk is read from underlying stream. Doesn't wait for concurrent reading. */
+    boolean isFinished() {
+        return eof;
+    }
+
     private int doRead(byte[] b, int off, int len) throws IOException {
         if (eof) {
             return -1;
@@ -97,7 +102,10 @@ public class ChunkedInputStream extends InputStream {
                 eof = true;
             }
         }
-        final int n = input.read(b, 0, Math.min(len - off, chunkSize - chunkPos));
+        final int n = input.read(b, off, Math.min(len, chunkSize - chunkPos));
+        if (n == -1) {
+            throw new IOException("Unexpected end of file from docker API");
+        }
         chunkPos += n;
         if (chunkPos == chunkSize) {
             if ('\r' != input.read()) { // skip '\r'
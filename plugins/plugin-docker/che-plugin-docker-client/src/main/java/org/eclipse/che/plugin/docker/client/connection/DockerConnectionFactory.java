@@ -15,7 +15,9 @@ import com.google.inject.Inject;
 import org.eclipse.che.plugin.docker.client.DockerCertificates;
 import org.eclipse.che.plugin.docker.client.DockerConnectorConfiguration;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Named;
+import javax.inject.Singleton;
 import java.net.URI;
 
 /**
@@ -23,11 +25,19 @@ import java.net.URI;
  *
  * <p>Detects connection implementation by checking docker daemon URI.
  *
+ * <p>Unix socket connections share {@link DockerConnectionPool} which keeps connections alive
+ * between requests. Tcp connections are closed after each request unless keep-alive is enabled
+ * explicitly, see {@link #TCP_KEEP_ALIVE_PROPERTY}.
+ *
  * @author Alexander Garagatyi
  */
+@Singleton
 public class DockerConnectionFactory {
     public static final String CONNECTION_TIMEOUT_MS_PROPERTY      = "che.docker.tcp_connection_timeout_ms";
     public static final String CONNECTION_READ_TIMEOUT_MS_PROPERTY = "che.docker.tcp_connection_read_timeout_ms";
+    public static final String TCP_KEEP_ALIVE_PROPERTY             = "che.docker.tcp_keep_alive";
+    public static final String MAX_IDLE_CONNECTIONS_PROPERTY       = "che.docker.connection_pool.max_idle";
+    public static final String IDLE_TIMEOUT_MS_PROPERTY            = "che.docker.connection_pool.idle_timeout_ms";
 
     @Inject(optional = true)
     @Named(CONNECTION_TIMEOUT_MS_PROPERTY)
@@ -37,8 +47,22 @@ public class DockerConnectionFactory {
     @Named(CONNECTION_READ_TIMEOUT_MS_PROPERTY)
     private int connectionReadTimeoutMs = 60000;
 
+    @Inject(optional = true)
+    @Named(TCP_KEEP_ALIVE_PROPERTY)
+    private boolean tcpKeepAlive;
+
+    @Inject(optional = true)
+    @Named(MAX_IDLE_CONNECTIONS_PROPERTY)
+    private int maxIdleConnections = 16;
+
+    @Inject(optional = true)
+    @Named(IDLE_TIMEOUT_MS_PROPERTY)
+    private int idleTimeoutMs = 30000;
+
     private final DockerCertificates dockerCertificates;
 
+    private volatile DockerConnectionPool pool;
+
     @Inject
     public DockerConnectionFactory(DockerConnectorConfiguration connectorConfiguration) {
         this.dockerCertificates = connectorConfiguration.getDockerCertificates();
@@ -46,9 +70,35 @@ public class DockerConnectionFactory {
 
     public DockerConnection openConnection(URI dockerDaemonUri) {
         if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
-            return new UnixSocketConnection(dockerDaemonUri.getPath());
+            return new UnixSocketConnection(dockerDaemonUri.getPath(), getPool());
         } else {
-            return new TcpConnection(dockerDaemonUri, dockerCertificates, connectionTimeoutMs, connectionReadTimeoutMs);
+            return new TcpConnection(dockerDaemonUri,
+                                     dockerCertificates,
+                                     connectionTimeoutMs,
+                                     connectionReadTimeoutMs,
+                                     tcpKeepAlive && maxIdleConnections > 0);
+        }
+    }
+
+    /** Closes idle connections. */
+    @PreDestroy
+    public void closeIdleConnections() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private DockerConnectionPool getPool() {
+        DockerConnectionPool result = pool;
+        if (result == null) {
+            synchronized (this) {
+                result = pool;
+                if (result == null) {
+                    // pool is created lazily, since optional configuration is injected after construction
+                    pool = result = new DockerConnectionPool(maxIdleConnections, idleTimeoutMs);
+                }
+            }
         }
+        return result;
     }
 }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps idle unix sockets connected to docker API for HTTP/1.1 keep-alive. The most
+ * recently released socket is reused first, sockets idle longer than idle timeout
+ * are closed on next access to the pool.
+ *
+ * <p>Number of open connections is not limited, since connections that stream
+ * events, logs or attached process output stay open as long as the stream is read.
+ */
+class DockerConnectionPool {
+    private final int  maxIdle;
+    private final long idleTimeoutMs;
+
+    private final Map<String, Deque<UnixSocket>> idleSockets = new HashMap<>();
+
+    private boolean closed;
+
+    /**
+     * @param maxIdle
+     *         max number of idle unix sockets kept for each socket path, {@code 0} disables keep-alive
+     * @param idleTimeoutMs
+     *         time after which idle unix socket is closed
+     */
+    DockerConnectionPool(int maxIdle, long idleTimeoutMs) {
+        this.maxIdle = maxIdle;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /** Whether connections should be kept open after response is read. */
+    boolean isKeepAlive() {
+        return maxIdle > 0;
+    }
+
+    /**
+     * Returns idle socket connected to the given path or {@code null} if there is
+     * no such socket. Returned socket is removed from the pool.
+     */
+    UnixSocket pollIdle(String socketPath) {
+        for (; ; ) {
+            final List<UnixSocket> expired = new ArrayList<>();
+            UnixSocket socket = null;
+            synchronized (this) {
+                final Deque<UnixSocket> sockets = idleSockets.get(socketPath);
+                if (sockets != null) {
+                    evictExpired(sockets, expired);
+                    socket = sockets.pollLast();
+                }
+            }
+            expired.forEach(UnixSocket::close);
+            if (socket == null || socket.isAlive()) {
+                return socket;
+            }
+            socket.close();
+        }
+    }
+
+    /**
+     * Puts socket that has finished HTTP exchange to the pool. The oldest idle
+     * socket is closed if there are too many idle sockets.
+     */
+    void releaseIdle(String socketPath, UnixSocket socket) {
+        final List<UnixSocket> evicted = new ArrayList<>();
+        socket.setIdleSince(System.currentTimeMillis());
+        synchronized (this) {
+            if (closed || !isKeepAlive()) {
+                evicted.add(socket);
+            } else {
+                final Deque<UnixSocket> sockets = idleSockets.computeIfAbsent(socketPath, path -> new ArrayDeque<>());
+                sockets.addLast(socket);
+                while (sockets.size() > maxIdle) {
+                    evicted.add(sockets.pollFirst());
+                }
+                evictExpired(sockets, evicted);
+            }
+        }
+        evicted.forEach(UnixSocket::close);
+    }
+
+    /** Closes all idle sockets, sockets released after this call are closed immediately. */
+    void close() {
+        final List<UnixSocket> sockets = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            idleSockets.values().forEach(sockets::addAll);
+            idleSockets.clear();
+        }
+        sockets.forEach(UnixSocket::close);
+    }
+
+    synchronized int getIdleCount(String socketPath) {
+        final Deque<UnixSocket> sockets = idleSockets.get(socketPath);
+        return sockets == null ? 0 : sockets.size();
+    }
+
+    private void evictExpired(Deque<UnixSocket> sockets, List<UnixSocket> evicted) {
+        final long now = System.currentTimeMillis();
+        // sockets are ordered by time of release, so the oldest ones are at the head
+        while (!sockets.isEmpty() && now - sockets.peekFirst().getIdleSince() >= idleTimeoutMs) {
+            evicted.add(sockets.pollFirst());
+        }
+    }
+}
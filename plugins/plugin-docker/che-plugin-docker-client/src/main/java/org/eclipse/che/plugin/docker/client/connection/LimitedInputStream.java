@@ -20,7 +20,7 @@ public class LimitedInputStream extends InputStream {
     private final InputStream input;
     private final int         limit;
 
-    private int pos;
+    private volatile int pos;
 
     LimitedInputStream(InputStream input, int limit) {
         this.input = input;
@@ -33,7 +33,7 @@ public class LimitedInputStream extends InputStream {
         if (doRead(b, 0, 1) == -1) {
             return -1;
         }
-        return b[0];
+        return b[0] & 0xFF;
     }
 
     @Override
@@ -56,14 +56,22 @@ public class LimitedInputStream extends InputStream {
             return 0;
         }
 
-        return doRead(b, 0, len);
+        return doRead(b, off, len);
+    }
+
+    /** Whether all {@code limit} bytes are read from underlying stream. Doesn't wait for concurrent reading. */
+    boolean isFinished() {
+        return pos >= limit;
     }
 
     private int doRead(byte[] b, int off, int len) throws IOException {
         if (pos >= limit) {
             return -1;
         }
-        int n = input.read(b, 0, Math.min(len - off, limit - pos));
+        int n = input.read(b, off, Math.min(len, limit - pos));
+        if (n == -1) {
+            throw new IOException("Unexpected end of file from docker API");
+        }
         pos += n;
         return n;
     }
@@ -24,6 +24,10 @@ import java.net.URL;
 import java.util.List;
 
 /**
+ * Connection to docker API over tcp. When keep-alive is enabled, closing of connection closes response stream
+ * instead of disconnecting, so socket is returned to keep-alive cache of {@link HttpURLConnection} if response
+ * is read completely. Otherwise each request is sent with {@code Connection: close} header.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
@@ -32,10 +36,16 @@ public class TcpConnection extends DockerConnection {
     private final DockerCertificates certificates;
     private final int                connectionTimeout;
     private final int                readTimeout;
+    private final boolean            keepAlive;
 
     private HttpURLConnection connection;
+    private TcpDockerResponse response;
 
     public TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs) {
+        this(baseUri, certificates, connectionTimeoutMs, readTimeoutMs, false);
+    }
+
+    TcpConnection(URI baseUri, DockerCertificates certificates, int connectionTimeoutMs, int readTimeoutMs, boolean keepAlive) {
         if ("https".equals(baseUri.getScheme())) {
             if (certificates == null) {
                 throw new IllegalArgumentException("Certificates are required for https connection.");
@@ -47,6 +57,7 @@ public class TcpConnection extends DockerConnection {
         this.certificates = certificates;
         this.connectionTimeout = connectionTimeoutMs;
         this.readTimeout = readTimeoutMs;
+        this.keepAlive = keepAlive;
     }
 
     @Override
@@ -55,6 +66,7 @@ public class TcpConnection extends DockerConnection {
         final String requestUri = path + (Strings.isNullOrEmpty(query) ? "" : "?" + query);
         final URL url = baseUri.resolve(requestUri).toURL();
         final String protocol = url.getProtocol();
+        close();
         connection = (HttpURLConnection)url.openConnection();
         connection.setConnectTimeout(connectionTimeout);
         connection.setReadTimeout(readTimeout);
@@ -62,8 +74,10 @@ public class TcpConnection extends DockerConnection {
             ((HttpsURLConnection)connection).setSSLSocketFactory(certificates.getSslContext().getSocketFactory());
         }
         connection.setRequestMethod(method);
-        // needed to fix bug https://github.com/docker/docker/issues/12845
-        connection.setRequestProperty("Connection", "close");
+        if (!keepAlive) {
+            // needed to fix bug https://github.com/docker/docker/issues/12845
+            connection.setRequestProperty("Connection", "close");
+        }
         for (Pair<String, ?> header : headers) {
             connection.setRequestProperty(header.first, String.valueOf(header.second));
         }
@@ -79,13 +93,31 @@ public class TcpConnection extends DockerConnection {
                 entity.writeTo(output);
             }
         }
-        return new TcpDockerResponse(connection);
+        return response = new TcpDockerResponse(connection);
     }
 
     @Override
     public void close() {
         if (connection != null) {
-            connection.disconnect();
+            if (keepAlive && response != null) {
+                closeResponse();
+            } else {
+                connection.disconnect();
+            }
+            connection = null;
+            response = null;
+        }
+    }
+
+    private void closeResponse() {
+        if (response.isEntityRead()) {
+            try {
+                // completely read stream returns socket to keep-alive cache
+                response.getInputStream().close();
+                return;
+            } catch (IOException ignored) {
+            }
         }
+        connection.disconnect();
     }
 }
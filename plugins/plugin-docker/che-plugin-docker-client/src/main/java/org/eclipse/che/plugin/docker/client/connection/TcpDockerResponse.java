@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.client.connection;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -22,6 +23,8 @@ import java.util.Map;
 public class TcpDockerResponse implements DockerResponse {
     private final HttpURLConnection connection;
 
+    private EntityInputStream entityStream;
+
     TcpDockerResponse(HttpURLConnection connection) {
         this.connection = connection;
     }
@@ -54,11 +57,62 @@ public class TcpDockerResponse implements DockerResponse {
     }
 
     @Override
-    public InputStream getInputStream() throws IOException {
-        InputStream entityStream = connection.getErrorStream();
+    public synchronized InputStream getInputStream() throws IOException {
         if (entityStream == null) {
-            entityStream = connection.getInputStream();
+            InputStream stream = connection.getErrorStream();
+            if (stream == null) {
+                stream = connection.getInputStream();
+            }
+            entityStream = new EntityInputStream(stream, connection.getContentLengthLong());
         }
         return entityStream;
     }
+
+    /**
+     * Whether the whole entity of response is read. Method doesn't wait for thread
+     * that reads the entity, so it may be used to abort reading by closing connection.
+     */
+    boolean isEntityRead() {
+        final EntityInputStream stream = entityStream;
+        return stream != null && stream.finished;
+    }
+
+    /** Tracks whether the whole entity is read, either its length is reached or end of stream is met. */
+    private static class EntityInputStream extends FilterInputStream {
+        private final long length;
+
+        private long             position;
+        private volatile boolean finished;
+
+        EntityInputStream(InputStream input, long length) {
+            super(input);
+            this.length = length;
+            this.finished = length == 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            onRead(b == -1 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = super.read(b, off, len);
+            onRead(n);
+            return n;
+        }
+
+        private void onRead(int n) {
+            if (n == -1) {
+                finished = true;
+            } else {
+                position += n;
+                if (length > 0 && position >= length) {
+                    finished = true;
+                }
+            }
+        }
+    }
 }
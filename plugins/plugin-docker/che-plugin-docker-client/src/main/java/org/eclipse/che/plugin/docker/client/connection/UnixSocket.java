@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.eclipse.che.plugin.docker.client.CLibrary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+
+import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_DONTWAIT;
+import static org.eclipse.che.plugin.docker.client.CLibrary.MSG_PEEK;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
+import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
+import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
+
+/**
+ * Connected unix socket. Socket keeps buffered streams for its whole life,
+ * so it may be used for several HTTP exchanges one after another.
+ */
+class UnixSocket {
+    private static final int INPUT_BUFFER_SIZE = 32 * 1024;
+
+    private final int          fd;
+    private final InputStream  input;
+    private final OutputStream output;
+
+    private long idleSince;
+
+    UnixSocket(int fd) {
+        this.fd = fd;
+        this.input = new BufferedInputStream(new UnixSocketInputStream(fd), INPUT_BUFFER_SIZE);
+        this.output = new BufferedOutputStream(new UnixSocketOutputStream(fd));
+    }
+
+    static UnixSocket connect(String socketPath) throws ConnectException {
+        final CLibrary cLib = getCLibrary();
+        int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
+        if (fd == -1) {
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+        }
+        final SockAddrUn sockAddr = new SockAddrUn(socketPath);
+        int c = cLib.connect(fd, sockAddr, sockAddr.size());
+        if (c == -1) {
+            cLib.close(fd);
+            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", socketPath));
+        }
+        return new UnixSocket(fd);
+    }
+
+    InputStream getInputStream() {
+        return input;
+    }
+
+    OutputStream getOutputStream() {
+        return output;
+    }
+
+    /**
+     * Checks without blocking that idle socket is still connected. Socket that
+     * is closed by peer or has unexpected data to read may not be reused.
+     */
+    boolean isAlive() {
+        // -1 with EAGAIN means there is nothing to read and peer has not closed connection
+        return getCLibrary().recv(fd, new byte[1], 1, MSG_PEEK | MSG_DONTWAIT) == -1;
+    }
+
+    long getIdleSince() {
+        return idleSince;
+    }
+
+    void setIdleSince(long idleSince) {
+        this.idleSince = idleSince;
+    }
+
+    void close() {
+        getCLibrary().close(fd);
+    }
+}
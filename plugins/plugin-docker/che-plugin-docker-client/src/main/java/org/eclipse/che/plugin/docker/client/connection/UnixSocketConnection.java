@@ -13,97 +13,213 @@ package org.eclipse.che.plugin.docker.client.connection;
 import com.google.common.base.Strings;
 
 import org.eclipse.che.commons.lang.Pair;
-import org.eclipse.che.plugin.docker.client.CLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
-import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-import static org.eclipse.che.plugin.docker.client.CLibrary.AF_UNIX;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SOCK_STREAM;
-import static org.eclipse.che.plugin.docker.client.CLibrary.SockAddrUn;
-import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
-
 /**
+ * Connection to docker API through unix socket. When connection is created with {@link DockerConnectionPool}
+ * socket is taken from the pool and is returned back to it when connection is closed, if response is read
+ * completely. Idle socket might be closed by docker daemon, so GET or HEAD request that fails on socket taken
+ * from the pool before any byte of response is received is repeated with new socket. Other requests are not
+ * repeated, since daemon might have already handled them.
+ *
  * @author andrew00x
  * @author Alexander Garagatyi
  */
 public class UnixSocketConnection extends DockerConnection {
-    private final String dockerSocketPath;
+    private static final Logger LOG = LoggerFactory.getLogger(UnixSocketConnection.class);
 
-    private int fd = -1;
+    private final String               dockerSocketPath;
+    private final DockerConnectionPool pool;
+
+    private UnixSocket               socket;
+    private UnixSocketDockerResponse response;
+    private ResponseInputStream      responseInput;
+    private boolean                  keepAlive;
+    private boolean                  responseStarted;
 
     public UnixSocketConnection(String dockerSocketPath) {
+        this(dockerSocketPath, null);
+    }
+
+    UnixSocketConnection(String dockerSocketPath, DockerConnectionPool pool) {
         this.dockerSocketPath = dockerSocketPath;
+        this.pool = pool;
     }
 
     @Override
     protected DockerResponse request(String method, String path, String query, List<Pair<String, ?>> headers, Entity<?> entity)
             throws IOException {
-        fd = connect();
-        final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
-        writeHttpHeaders(output, method, path, query, headers);
-        if (entity != null) {
-            entity.writeTo(output);
+        releaseSocket();
+        keepAlive = pool != null && pool.isKeepAlive() && (entity == null || hasHeader(headers, "Content-Length"));
+        if (keepAlive) {
+            final UnixSocket idle = pool.pollIdle(dockerSocketPath);
+            if (idle != null) {
+                try {
+                    return exchange(idle, method, path, query, headers, entity, true);
+                } catch (IOException e) {
+                    if (responseStarted || !("GET".equals(method) || "HEAD".equals(method))) {
+                        throw e;
+                    }
+                    LOG.debug("Request to docker API failed on idle socket, repeating it with new socket: {}", e.getMessage());
+                }
+            }
         }
-        return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
+        return exchange(UnixSocket.connect(dockerSocketPath), method, path, query, headers, entity, false);
     }
 
-
     @Override
     public void close() {
-        if (fd != -1) {
-            getCLibrary().close(fd);
+        releaseSocket();
+    }
+
+    private DockerResponse exchange(UnixSocket socket,
+                                    String method,
+                                    String path,
+                                    String query,
+                                    List<Pair<String, ?>> headers,
+                                    Entity<?> entity,
+                                    boolean reused) throws IOException {
+        this.socket = socket;
+        responseStarted = false;
+        try {
+            final OutputStream output = socket.getOutputStream();
+            writeHttpHeaders(output, method, path, query, headers);
+            if (entity != null) {
+                entity.writeTo(output);
+            } else {
+                output.flush();
+            }
+            responseInput = new ResponseInputStream(socket.getInputStream());
+            response = new UnixSocketDockerResponse(responseInput);
+            if (reused) {
+                // socket closed by docker daemon is detected only on reading
+                response.getStatus();
+            }
+            return response;
+        } catch (IOException e) {
+            responseStarted = responseInput != null && responseInput.isStarted();
+            releaseSocket();
+            throw e;
         }
     }
 
-    private int connect() throws IOException {
-        final CLibrary cLib = getCLibrary();
-        int fd = cLib.socket(AF_UNIX, SOCK_STREAM, 0);
-        if (fd == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+    private void releaseSocket() {
+        if (socket == null) {
+            return;
         }
-        final SockAddrUn sockAddr = new SockAddrUn(dockerSocketPath);
-        int c = cLib.connect(fd, sockAddr, sockAddr.size());
-        if (c == -1) {
-            throw new ConnectException(String.format("Unable connect to unix socket: '%s'", dockerSocketPath));
+        final boolean reusable = keepAlive && response != null && response.isReusable();
+        if (responseInput != null) {
+            responseInput.detach();
         }
-        return fd;
+        if (reusable) {
+            pool.releaseIdle(dockerSocketPath, socket);
+        } else {
+            socket.close();
+        }
+        socket = null;
+        response = null;
+        responseInput = null;
     }
 
     private void writeHttpHeaders(OutputStream output, String method, String path, String query, List<Pair<String, ?>> headers)
             throws IOException {
-        final Writer writer = new OutputStreamWriter(output);
-        writer.write(method);
-        writer.write(' ');
-        writer.write(path);
+        final StringBuilder request = new StringBuilder(256);
+        request.append(method)
+               .append(' ')
+               .append(path);
         if (!Strings.isNullOrEmpty(query)) {
-            writer.write("?");
-            writer.write(query);
+            request.append('?')
+                   .append(query);
         }
-        writer.write(" HTTP/1.1\r\n");
+        request.append(" HTTP/1.1\r\n");
         for (Pair<String, ?> header : headers) {
-            writer.write(header.first);
-            writer.write(": ");
-            writer.write(String.valueOf(header.second));
-            writer.write("\r\n");
+            request.append(header.first)
+                   .append(": ")
+                   .append(String.valueOf(header.second))
+                   .append("\r\n");
         }
         // Host header is mandatory in HTTP 1.1
-        writer.write("Host: \r\n\r\n");
-        writer.flush();
+        request.append("Host: \r\n\r\n");
+        output.write(request.toString().getBytes(StandardCharsets.UTF_8));
     }
 
-    private InputStream openInputStream(int fd) {
-        return new UnixSocketInputStream(fd);
+    private static boolean hasHeader(List<Pair<String, ?>> headers, String name) {
+        for (Pair<String, ?> header : headers) {
+            if (name.equalsIgnoreCase(header.first)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private OutputStream openOutputStream(int fd) {
-        return new UnixSocketOutputStream(fd);
+    /**
+     * Input of socket given to response. It is detached when connection is closed,
+     * so response can't read data of the next exchange on the same socket.
+     * Closing of the stream doesn't close socket, socket is closed with connection.
+     */
+    private static class ResponseInputStream extends FilterInputStream {
+        private volatile boolean detached;
+        private          boolean started;
+
+        ResponseInputStream(InputStream input) {
+            super(input);
+        }
+
+        void detach() {
+            detached = true;
+        }
+
+        /** Whether any byte of response is received. */
+        boolean isStarted() {
+            return started;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkAttached();
+            final int b = super.read();
+            started |= b != -1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkAttached();
+            final int n = super.read(b, off, len);
+            started |= n > 0;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkAttached();
+            final long skipped = super.skip(n);
+            started |= skipped > 0;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            checkAttached();
+            return super.available();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void checkAttached() throws IOException {
+            if (detached) {
+                throw new IOException("Connection to docker API is closed");
+            }
+        }
     }
 }
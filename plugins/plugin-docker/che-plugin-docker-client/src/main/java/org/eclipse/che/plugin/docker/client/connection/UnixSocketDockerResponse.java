@@ -28,9 +28,9 @@ public class UnixSocketDockerResponse implements DockerResponse {
 
     private final InputStream rawData;
 
-    private InputStream data;
-    private String[]    headersFields;
-    private int         status;
+    private volatile InputStream data;
+    private String[]             headersFields;
+    private int                  status;
 
     UnixSocketDockerResponse(InputStream input) {
         rawData = input;
@@ -143,6 +143,11 @@ public class UnixSocketDockerResponse implements DockerResponse {
             }
         }
         this.headersFields = headerFields.toArray(new String[headerFields.size()]);
+        final int statusCode = getStatus();
+        // such responses never have body
+        if (statusCode == 204 || statusCode == 304) {
+            return data = EMPTY;
+        }
         final int contentLength = getContentLength();
         if (contentLength == 0) {
             return data = EMPTY;
@@ -152,4 +157,35 @@ public class UnixSocketDockerResponse implements DockerResponse {
         }
         return data = "chunked".equals(getHeader("Transfer-Encoding")) ? new ChunkedInputStream(rawData) : rawData;
     }
+
+    /**
+     * Checks whether connection may be used for the next request, that is possible when
+     * the whole body of response is read. Method doesn't wait for thread that reads the body,
+     * so it may be used to abort reading by closing connection.
+     */
+    boolean isReusable() {
+        final InputStream body = data;
+        if (body == null) {
+            // headers are not read
+            return false;
+        }
+        try {
+            if ("close".equalsIgnoreCase(getHeader("Connection"))) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        if (body == EMPTY) {
+            return true;
+        }
+        if (body instanceof LimitedInputStream) {
+            return ((LimitedInputStream)body).isFinished();
+        }
+        if (body instanceof ChunkedInputStream) {
+            return ((ChunkedInputStream)body).isFinished();
+        }
+        // body is delimited by end of stream or connection is upgraded
+        return false;
+    }
 }
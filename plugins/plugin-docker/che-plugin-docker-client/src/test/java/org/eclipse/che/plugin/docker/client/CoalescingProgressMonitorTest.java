@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressDetail;
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Tests for {@link CoalescingProgressMonitor}.
+ */
+public class CoalescingProgressMonitorTest {
+    private List<String>    updates;
+    private ProgressMonitor monitor;
+
+    @BeforeMethod
+    public void setUp() {
+        updates = new ArrayList<>();
+        monitor = new CoalescingProgressMonitor(status -> updates.add(status.getId() + ' ' +
+                                                                      status.getStatus() + ' ' +
+                                                                      (status.getProgressDetail() == null
+                                                                       ? "-" : status.getProgressDetail().getCurrent())),
+                                                4);
+    }
+
+    @Test
+    public void shouldPassOnlyNoticeableUpdatesOfLayer() {
+        for (int current = 0; current <= 100; current += 5) {
+            monitor.updateProgress(progress("layer1", "Downloading", current, 100));
+        }
+
+        assertEquals(updates, asList("layer1 Downloading 0",
+                                     "layer1 Downloading 25",
+                                     "layer1 Downloading 50",
+                                     "layer1 Downloading 75",
+                                     "layer1 Downloading 100"));
+    }
+
+    @Test
+    public void shouldTrackProgressOfEachLayerSeparately() {
+        monitor.updateProgress(progress("layer1", "Downloading", 10, 100));
+        monitor.updateProgress(progress("layer2", "Downloading", 10, 100));
+        monitor.updateProgress(progress("layer1", "Downloading", 20, 100));
+        monitor.updateProgress(progress("layer2", "Downloading", 40, 100));
+
+        assertEquals(updates, asList("layer1 Downloading 10", "layer2 Downloading 10", "layer2 Downloading 40"));
+    }
+
+    @Test
+    public void shouldPassFirstUpdateOfEachStatusOfLayer() {
+        monitor.updateProgress(progress("layer1", "Downloading", 90, 100));
+        monitor.updateProgress(status("layer1", "Download complete"));
+        monitor.updateProgress(progress("layer1", "Extracting", 10, 100));
+        monitor.updateProgress(progress("layer1", "Extracting", 11, 100));
+        monitor.updateProgress(status("layer1", "Pull complete"));
+
+        assertEquals(updates, asList("layer1 Downloading 90",
+                                     "layer1 Download complete -",
+                                     "layer1 Extracting 10",
+                                     "layer1 Pull complete -"));
+    }
+
+    @Test
+    public void shouldPassUpdatesWhichAreNotLayerProgress() {
+        monitor.updateProgress(status(null, "Pulling from library/busybox"));
+        monitor.updateProgress(status(null, "Pulling from library/busybox"));
+        monitor.updateProgress(progress("layer1", "Downloading", 0, 0));
+        monitor.updateProgress(progress("layer1", "Downloading", 0, 0));
+
+        assertEquals(updates.size(), 4);
+    }
+
+    @Test
+    public void shouldNotWrapDevNullMonitor() {
+        assertSame(CoalescingProgressMonitor.wrap(ProgressMonitor.DEV_NULL), ProgressMonitor.DEV_NULL);
+        assertSame(CoalescingProgressMonitor.wrap(monitor), monitor);
+    }
+
+    private static ProgressStatus status(String id, String status) {
+        ProgressStatus progressStatus = new ProgressStatus();
+        progressStatus.setId(id);
+        progressStatus.setStatus(status);
+        return progressStatus;
+    }
+
+    private static ProgressStatus progress(String id, String status, long current, long total) {
+        ProgressDetail detail = new ProgressDetail();
+        detail.setCurrent(current);
+        detail.setTotal(total);
+        ProgressStatus progressStatus = status(id, status);
+        progressStatus.setProgressDetail(detail);
+        return progressStatus;
+    }
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link LogMessageBatcher}.
+ */
+public class LogMessageBatcherTest {
+    private static final long LONG_INTERVAL = SECONDS.toMillis(60);
+
+    private ScheduledExecutorService scheduler;
+    private List<List<LogMessage>>   batches;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        batches = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void shouldSendBatchWhenMaxBatchSizeIsReached() throws Exception {
+        LogMessageBatcher batcher = new LogMessageBatcher(batches::add, 3, LONG_INTERVAL, 0, null, 0, scheduler);
+
+        for (int i = 0; i < 7; i++) {
+            batcher.process(stdout("line " + i));
+        }
+
+        assertEquals(batches.size(), 2);
+        assertEquals(contents(batches.get(0)), asList("line 0", "line 1", "line 2"));
+        assertEquals(contents(batches.get(1)), asList("line 3", "line 4", "line 5"));
+    }
+
+    @Test
+    public void shouldSendRemainingMessagesOnClose() throws Exception {
+        LogMessageBatcher batcher = new LogMessageBatcher(batches::add, 3, LONG_INTERVAL, 0, null, 0, scheduler);
+        batcher.process(stdout("line 0"));
+
+        batcher.close();
+        batcher.process(stdout("line 1"));
+
+        assertEquals(batches.size(), 1);
+        assertEquals(contents(batches.get(0)), asList("line 0"));
+    }
+
+    @Test(timeOut = 10_000)
+    public void shouldSendMessagesPeriodically() throws Exception {
+        CountDownLatch sent = new CountDownLatch(1);
+        LogMessageBatcher batcher = new LogMessageBatcher(batch -> {
+            batches.add(batch);
+            sent.countDown();
+        }, 100, 10, 0, null, 0, scheduler);
+
+        batcher.process(stdout("line 0"));
+
+        assertTrue(sent.await(5, SECONDS));
+        assertEquals(contents(batches.get(0)), asList("line 0"));
+        batcher.close();
+    }
+
+    @Test
+    public void shouldReplaceMessagesOverRateLimitWithDroppedMarker() throws Exception {
+        LogMessageBatcher batcher = new LogMessageBatcher(batches::add, 100, LONG_INTERVAL, 2, null, 0, scheduler);
+
+        for (int i = 0; i < 5; i++) {
+            batcher.process(stdout("line " + i));
+        }
+        batcher.close();
+
+        List<LogMessage> messages = flatten(batches);
+        assertEquals(contents(messages), asList("line 0", "line 1", "3 lines dropped"));
+        assertEquals(messages.get(2).getType(), LogMessage.Type.DOCKER);
+    }
+
+    @Test
+    public void shouldOverwriteOldestMessagesWhenTargetIsTooSlow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        LogMessageBatcher batcher = new LogMessageBatcher(batch -> {
+            batches.add(batch);
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1, LONG_INTERVAL, 0, null, 0, scheduler);
+        // first message is sent by another thread which is blocked by the target
+        Thread sender = new Thread(() -> batcher.process(stdout("first")));
+        sender.start();
+        assertTrue(blocked.await(5, SECONDS));
+
+        // buffer has 4 slots, 6 messages don't fit
+        for (int i = 0; i < 6; i++) {
+            batcher.process(stdout("line " + i));
+        }
+        release.countDown();
+        sender.join();
+        batcher.close();
+
+        assertEquals(contents(flatten(batches)), asList("first", "2 lines dropped", "line 2", "line 3", "line 4", "line 5"));
+    }
+
+    @Test
+    public void shouldWriteAllMessagesToSpillFile() throws Exception {
+        File spillFile = new File(Files.createTempDirectory("logs").toFile(), "workspace/machine.log");
+        LogMessageBatcher batcher = new LogMessageBatcher(batches::add, 100, LONG_INTERVAL, 1, spillFile, 1024, scheduler);
+
+        batcher.process(stdout("line 0"));
+        batcher.process(new LogMessage(LogMessage.Type.STDERR, "line 1"));
+        batcher.close();
+
+        assertEquals(Files.readAllLines(spillFile.toPath(), UTF_8), asList("[STDOUT] line 0", "[STDERR] line 1"));
+        assertEquals(contents(flatten(batches)), asList("line 0", "1 lines dropped"));
+    }
+
+    @Test
+    public void shouldStopWritingSpillFileWhenItReachesLimit() throws Exception {
+        File spillFile = new File(Files.createTempDirectory("logs").toFile(), "workspace/machine.log");
+        // each line takes 16 bytes
+        LogMessageBatcher batcher = new LogMessageBatcher(batches::add, 100, LONG_INTERVAL, 0, spillFile, 40, scheduler);
+
+        for (int i = 0; i < 5; i++) {
+            batcher.process(stdout("line " + i));
+        }
+        batcher.close();
+
+        assertEquals(Files.readAllLines(spillFile.toPath(), UTF_8), asList("[STDOUT] line 0", "[STDOUT] line 1"));
+        assertEquals(contents(flatten(batches)), asList("line 0", "line 1", "line 2", "line 3", "line 4"));
+    }
+
+    private static LogMessage stdout(String content) {
+        return new LogMessage(LogMessage.Type.STDOUT, content);
+    }
+
+    private static List<LogMessage> flatten(List<List<LogMessage>> batches) {
+        List<LogMessage> messages = new ArrayList<>();
+        batches.forEach(messages::addAll);
+        return messages;
+    }
+
+    private static List<String> contents(List<LogMessage> messages) {
+        List<String> contents = new ArrayList<>();
+        messages.forEach(message -> contents.add(message.getContent()));
+        return contents;
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.io.ByteStreams;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures number of image pull responses per second read and shown to user by {@link DockerConnector}.
+ * Response is recorded output of pulling an image of four layers, see {@code docker/pull-response.json}.
+ * Benchmark {@link #jsonMessageReader()} reproduces the former reading path where each message was parsed to a tree
+ * and bound with reflection, each message is formatted as it is done for machine logs.
+ * Benchmark is not run by surefire, run {@link #main(String[])} with test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ProgressStatusReaderBenchmark {
+    private byte[]            response;
+    private FormattingMonitor monitor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = ProgressStatusReaderBenchmark.class.getResourceAsStream("/docker/pull-response.json")) {
+            response = ByteStreams.toByteArray(in);
+        }
+        monitor = new FormattingMonitor();
+    }
+
+    @Benchmark
+    public long jsonMessageReader() throws IOException {
+        final JsonMessageReader<ProgressStatus> reader = new JsonMessageReader<>(new ByteArrayInputStream(response),
+                                                                                 ProgressStatus.class);
+        ProgressStatus status;
+        while ((status = reader.next()) != null) {
+            monitor.updateProgress(status);
+        }
+        return monitor.length;
+    }
+
+    @Benchmark
+    public long progressStatusReader() throws IOException {
+        final ProgressStatusReader reader = new ProgressStatusReader(new ByteArrayInputStream(response));
+        ProgressStatus status;
+        while ((status = reader.next()) != null) {
+            monitor.updateProgress(status);
+        }
+        return monitor.length;
+    }
+
+    @Benchmark
+    public long progressStatusReaderCoalescing() throws IOException {
+        final ProgressStatusReader reader = new ProgressStatusReader(new ByteArrayInputStream(response));
+        final ProgressMonitor layersMonitor = CoalescingProgressMonitor.wrap(monitor);
+        ProgressStatus status;
+        while ((status = reader.next()) != null) {
+            layersMonitor.updateProgress(status);
+        }
+        return monitor.length;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder().include(ProgressStatusReaderBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    private static class FormattingMonitor implements ProgressMonitor {
+        final ProgressLineFormatterImpl formatter = new ProgressLineFormatterImpl();
+
+        long length;
+
+        @Override
+        public void updateProgress(ProgressStatus currentProgressStatus) {
+            length += formatter.format(currentProgressStatus).length();
+        }
+    }
+}
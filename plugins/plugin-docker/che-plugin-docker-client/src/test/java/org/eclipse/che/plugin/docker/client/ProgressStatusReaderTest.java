@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.ProgressStatus;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests for {@link ProgressStatusReader}.
+ */
+public class ProgressStatusReaderTest {
+
+    @Test
+    public void shouldReadSequenceOfProgressStatuses() throws IOException {
+        final ProgressStatusReader reader = createReader("{\"status\":\"Pulling from library/busybox\",\"id\":\"latest\"}\n" +
+                                                         "{\"status\":\"Downloading\",\"progressDetail\":{\"current\":1024,\"total\":4096}," +
+                                                         "\"progress\":\"[=====>     ] 1.024 kB/4.096 kB\",\"id\":\"8ddc19f16526\"}\r\n" +
+                                                         "{\"stream\":\"Step 1 : FROM busybox\\n\"}");
+
+        final ProgressStatus pulling = reader.next();
+        final ProgressStatus downloading = reader.next();
+        final ProgressStatus step = reader.next();
+
+        assertEquals(pulling.getStatus(), "Pulling from library/busybox");
+        assertEquals(pulling.getId(), "latest");
+        assertNull(pulling.getProgressDetail());
+        assertEquals(downloading.getId(), "8ddc19f16526");
+        assertEquals(downloading.getProgress(), "[=====>     ] 1.024 kB/4.096 kB");
+        assertEquals(downloading.getProgressDetail().getCurrent(), 1024);
+        assertEquals(downloading.getProgressDetail().getTotal(), 4096);
+        assertEquals(step.getStream(), "Step 1 : FROM busybox\n");
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldSkipUnknownFields() throws IOException {
+        final ProgressStatusReader reader = createReader("{\"errorDetail\":{\"code\":1,\"message\":\"failed\"},\"error\":\"failed\"," +
+                                                         "\"aux\":{\"Tag\":\"latest\",\"Digest\":\"sha256:abc\",\"Size\":[1,2]}," +
+                                                         "\"progressDetail\":{\"unit\":\"B\"},\"id\":null}");
+
+        final ProgressStatus status = reader.next();
+
+        assertEquals(status.getError(), "failed");
+        assertNull(status.getId());
+        assertEquals(status.getProgressDetail().getTotal(), 0);
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldReturnNullIfStreamIsEmpty() throws IOException {
+        assertNull(createReader("").next());
+    }
+
+    @Test
+    public void shouldReturnNullIfJsonIsIncorrect() throws IOException {
+        final ProgressStatusReader reader = createReader("{\"status\":\"Downloading\"}\nnot json {\"status\":\"Extracting\"}");
+
+        assertEquals(reader.next().getStatus(), "Downloading");
+        assertNull(reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void shouldReturnNullIfMessageIsNotComplete() throws IOException {
+        final ProgressStatusReader reader = createReader("{\"status\":\"Downloading\"}{\"status\":\"Extr");
+
+        assertEquals(reader.next().getStatus(), "Downloading");
+        assertNull(reader.next());
+    }
+
+    private static ProgressStatusReader createReader(String content) {
+        return new ProgressStatusReader(new ByteArrayInputStream(content.getBytes(UTF_8)));
+    }
+}
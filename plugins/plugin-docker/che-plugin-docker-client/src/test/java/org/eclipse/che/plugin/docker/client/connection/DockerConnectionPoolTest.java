@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Tests for {@link DockerConnectionPool}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerConnectionPoolTest {
+    private static final String SOCKET_PATH = "/var/run/docker.sock";
+
+    @Mock
+    private UnixSocket socket1;
+    @Mock
+    private UnixSocket socket2;
+    @Mock
+    private UnixSocket socket3;
+
+    private DockerConnectionPool pool;
+
+    @BeforeMethod
+    public void setUp() {
+        pool = new DockerConnectionPool(2, 60_000);
+        for (UnixSocket socket : new UnixSocket[] {socket1, socket2, socket3}) {
+            when(socket.isAlive()).thenReturn(true);
+            doCallRealMethod().when(socket).setIdleSince(anyLong());
+            when(socket.getIdleSince()).thenCallRealMethod();
+        }
+    }
+
+    @Test
+    public void shouldReuseMostRecentlyReleasedSocket() {
+        pool.releaseIdle(SOCKET_PATH, socket1);
+        pool.releaseIdle(SOCKET_PATH, socket2);
+
+        assertEquals(pool.pollIdle(SOCKET_PATH), socket2);
+        assertEquals(pool.pollIdle(SOCKET_PATH), socket1);
+        assertNull(pool.pollIdle(SOCKET_PATH));
+    }
+
+    @Test
+    public void shouldNotReturnSocketConnectedToOtherPath() {
+        pool.releaseIdle(SOCKET_PATH, socket1);
+
+        assertNull(pool.pollIdle("/tmp/other.sock"));
+        assertEquals(pool.getIdleCount(SOCKET_PATH), 1);
+    }
+
+    @Test
+    public void shouldCloseOldestSocketWhenTooManySocketsAreIdle() {
+        pool.releaseIdle(SOCKET_PATH, socket1);
+        pool.releaseIdle(SOCKET_PATH, socket2);
+        pool.releaseIdle(SOCKET_PATH, socket3);
+
+        verify(socket1).close();
+        verify(socket2, never()).close();
+        verify(socket3, never()).close();
+        assertEquals(pool.getIdleCount(SOCKET_PATH), 2);
+    }
+
+    @Test
+    public void shouldCloseExpiredSockets() throws Exception {
+        pool = new DockerConnectionPool(2, 1);
+        pool.releaseIdle(SOCKET_PATH, socket1);
+        Thread.sleep(5);
+
+        assertNull(pool.pollIdle(SOCKET_PATH));
+        verify(socket1).close();
+    }
+
+    @Test
+    public void shouldSkipSocketClosedByPeer() {
+        when(socket2.isAlive()).thenReturn(false);
+        pool.releaseIdle(SOCKET_PATH, socket1);
+        pool.releaseIdle(SOCKET_PATH, socket2);
+
+        assertEquals(pool.pollIdle(SOCKET_PATH), socket1);
+        verify(socket2).close();
+    }
+
+    @Test
+    public void shouldCloseReleasedSocketWhenKeepAliveIsDisabled() {
+        pool = new DockerConnectionPool(0, 60_000);
+
+        pool.releaseIdle(SOCKET_PATH, socket1);
+
+        assertFalse(pool.isKeepAlive());
+        verify(socket1).close();
+        assertNull(pool.pollIdle(SOCKET_PATH));
+    }
+
+    @Test
+    public void shouldCloseIdleSocketsAndSocketsReleasedAfterPoolIsClosed() {
+        pool.releaseIdle(SOCKET_PATH, socket1);
+
+        pool.close();
+        pool.releaseIdle(SOCKET_PATH, socket2);
+
+        verify(socket1).close();
+        verify(socket2).close();
+        assertEquals(pool.getIdleCount(SOCKET_PATH), 0);
+    }
+}
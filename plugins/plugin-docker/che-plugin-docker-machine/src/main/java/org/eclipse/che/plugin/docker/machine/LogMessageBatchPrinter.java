@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.plugin.docker.client.LogMessage;
+import org.eclipse.che.plugin.docker.client.LogMessageBatcher;
+import org.eclipse.che.plugin.docker.client.LogMessageFormatter;
+import org.eclipse.che.plugin.docker.client.MessageProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Prints batch of log messages produced by {@link LogMessageBatcher} as a single multi-line
+ * frame, each message of the batch is formatted separately like {@link LogMessagePrinter} does.
+ */
+public class LogMessageBatchPrinter implements MessageProcessor<List<LogMessage>> {
+    private static final Logger LOG = LoggerFactory.getLogger(LogMessageBatchPrinter.class);
+
+    private final LineConsumer        output;
+    private final LogMessageFormatter formatter;
+
+    public LogMessageBatchPrinter(LineConsumer output, LogMessageFormatter formatter) {
+        this.output = output;
+        this.formatter = formatter;
+    }
+
+    public LogMessageBatchPrinter(LineConsumer output) {
+        this(output, LogMessageFormatter.DEFAULT);
+    }
+
+    @Override
+    public void process(List<LogMessage> logMessages) {
+        final StringBuilder frame = new StringBuilder();
+        for (LogMessage logMessage : logMessages) {
+            if (frame.length() > 0) {
+                frame.append('\n');
+            }
+            frame.append(formatter.format(logMessage));
+        }
+        try {
+            output.writeLine(frame.toString());
+        } catch (IOException e) {
+            LOG.error(e.getMessage(), e);
+        }
+    }
+}
@@ -36,6 +36,9 @@ import org.eclipse.che.commons.lang.Size;
 import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.eclipse.che.commons.lang.os.WindowsPathEscaper;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.LogMessage;
+import org.eclipse.che.plugin.docker.client.LogMessageBatcher;
+import org.eclipse.che.plugin.docker.client.MessageProcessor;
 import org.eclipse.che.plugin.docker.client.ProgressLineFormatterImpl;
 import org.eclipse.che.plugin.docker.client.ProgressMonitor;
 import org.eclipse.che.plugin.docker.client.UserSpecificDockerRegistryCredentialsProvider;
@@ -61,6 +64,7 @@ import org.eclipse.che.plugin.docker.client.params.TagParams;
 import org.eclipse.che.plugin.docker.client.params.network.ConnectContainerToNetworkParams;
 import org.eclipse.che.plugin.docker.client.params.network.CreateNetworkParams;
 import org.eclipse.che.plugin.docker.machine.node.DockerNode;
+import org.eclipse.che.plugin.docker.machine.warmpool.DockerWarmPool;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
@@ -78,6 +82,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -129,6 +134,14 @@ public class MachineProviderImpl implements MachineInstanceProvider {
     private final long                                          cpuPeriod;
     private final long                                          cpuQuota;
     private final WindowsPathEscaper                            windowsPathEscaper;
+    private final ScheduledExecutorService                      logsFlusher;
+
+    private DockerWarmPool warmPool;
+    private int            logsBatchSize         = 500;
+    private long           logsFlushIntervalMs   = 200;
+    private int            logsMaxLinesPerSecond = 1000;
+    private String         logsDir;
+    private long           logsSpillMaxBytes;
 
     @Inject
     public MachineProviderImpl(DockerConnector docker,
@@ -243,6 +256,46 @@ public class MachineProviderImpl implements MachineInstanceProvider {
                                                                                    LoggingUncaughtExceptionHandler.getInstance())
                                                                            .setDaemon(true)
                                                                            .build());
+        logsFlusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("MachineLogsFlusher-%d")
+                                                                                       .setUncaughtExceptionHandler(
+                                                                                               LoggingUncaughtExceptionHandler.getInstance())
+                                                                                       .setDaemon(true)
+                                                                                       .build());
+    }
+
+    /** Sets pool of pre-pulled images, machine starts are not counted by the pool when it is not set. */
+    @com.google.inject.Inject(optional = true)
+    public void setWarmPool(DockerWarmPool warmPool) {
+        this.warmPool = warmPool;
+    }
+
+    /**
+     * Configures batching of machine logs, see {@link LogMessageBatcher}.
+     * Batch size {@code 0} disables batching, so each line of logs is sent separately.
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setLogsBatching(@Named("che.docker.logs.batch_size") int batchSize,
+                                @Named("che.docker.logs.flush_interval_ms") long flushIntervalMs,
+                                @Named("che.docker.logs.max_lines_per_second") int maxLinesPerSecond) {
+        this.logsBatchSize = batchSize;
+        this.logsFlushIntervalMs = flushIntervalMs;
+        this.logsMaxLinesPerSecond = maxLinesPerSecond;
+    }
+
+    /** Sets folder where full logs of machines are kept, logs are not kept if folder is not set. */
+    @com.google.inject.Inject(optional = true)
+    public void setLogsDir(@Named("che.workspace.logs") String logsDir) {
+        this.logsDir = logsDir;
+    }
+
+    /**
+     * Sets max size of file with full logs of a machine, {@code 0} disables writing of the file.
+     * Files are removed with the workspace, see
+     * {@link org.eclipse.che.plugin.docker.machine.cleaner.RemoveMachineLogsAfterRemoveWorkspaceEventSubscriber}.
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setLogsSpillMaxSize(@Named("che.docker.logs.spill_max_size_mb") long logsSpillMaxSizeMb) {
+        this.logsSpillMaxBytes = logsSpillMaxSizeMb * 1024 * 1024;
     }
 
     @Override
@@ -465,6 +518,9 @@ public class MachineProviderImpl implements MachineInstanceProvider {
             } catch (ImageNotFoundException nfEx) {
                 throw new SourceNotFoundException(nfEx.getLocalizedMessage(), nfEx);
             }
+            if (warmPool != null) {
+                warmPool.onImageUsed(service.getImage());
+            }
 
             // remove unneeded tag if restoring snapshot from registry
             if (isSnapshot && snapshotUseRegistry) {
@@ -589,53 +645,91 @@ public class MachineProviderImpl implements MachineInstanceProvider {
             boolean isContainerRunning = true;
             int errorsCounter = 0;
             long lastErrorTime = 0;
-            while (isContainerRunning) {
-                try {
-                    docker.getContainerLogs(GetContainerLogsParams.create(container)
-                                                                  .withFollow(true)
-                                                                  .withSince(lastProcessedLogDate),
-                                            new LogMessagePrinter(outputConsumer));
-                    isContainerRunning = false;
-                } catch (SocketTimeoutException ste) {
-                    lastProcessedLogDate = System.currentTimeMillis() / 1000L;
-                    // reconnect to container
-                } catch (ContainerNotFoundException e) {
-                    isContainerRunning = false;
-                } catch (IOException e) {
-                    long errorTime = System.currentTimeMillis();
-                    lastProcessedLogDate = errorTime / 1000L;
-                    LOG.warn("Failed to get logs from machine {} of workspace {} backed by container {}, because: {}.",
-                             machineId,
-                             workspaceId,
-                             container,
-                             e.getMessage(),
-                             e);
-                    if (errorTime - lastErrorTime < 20_000L) { // if new error occurs less than 20 seconds after previous
-                        if (++errorsCounter == 5) {
-                            LOG.error("Too many errors while streaming logs from machine {} of workspace {} backed by container {}. " +
-                                      "Logs streaming is closed. Last error: {}.",
-                                      machineId,
-                                      workspaceId,
-                                      container,
-                                      e.getMessage(),
-                                      e);
-                            break;
+            LogMessageBatcher batcher = createLogsBatcher(workspaceId, machineId != null ? machineId : container, outputConsumer);
+            MessageProcessor<LogMessage> logsProcessor = batcher != null ? batcher : new LogMessagePrinter(outputConsumer);
+            try {
+                while (isContainerRunning) {
+                    try {
+                        docker.getContainerLogs(GetContainerLogsParams.create(container)
+                                                                      .withFollow(true)
+                                                                      .withSince(lastProcessedLogDate),
+                                                logsProcessor);
+                        isContainerRunning = false;
+                    } catch (SocketTimeoutException ste) {
+                        lastProcessedLogDate = System.currentTimeMillis() / 1000L;
+                        // reconnect to container
+                    } catch (ContainerNotFoundException e) {
+                        isContainerRunning = false;
+                    } catch (IOException e) {
+                        long errorTime = System.currentTimeMillis();
+                        lastProcessedLogDate = errorTime / 1000L;
+                        LOG.warn("Failed to get logs from machine {} of workspace {} backed by container {}, because: {}.",
+                                 machineId,
+                                 workspaceId,
+                                 container,
+                                 e.getMessage(),
+                                 e);
+                        if (errorTime - lastErrorTime < 20_000L) { // if new error occurs less than 20 seconds after previous
+                            if (++errorsCounter == 5) {
+                                LOG.error("Too many errors while streaming logs from machine {} of workspace {} backed by container {}. " +
+                                          "Logs streaming is closed. Last error: {}.",
+                                          machineId,
+                                          workspaceId,
+                                          container,
+                                          e.getMessage(),
+                                          e);
+                                break;
+                            }
+                        } else {
+                            errorsCounter = 1;
                         }
-                    } else {
-                        errorsCounter = 1;
-                    }
-                    lastErrorTime = errorTime;
+                        lastErrorTime = errorTime;
 
-                    try {
-                        sleep(1_000);
-                    } catch (InterruptedException ie) {
-                        return;
+                        try {
+                            sleep(1_000);
+                        } catch (InterruptedException ie) {
+                            return;
+                        }
                     }
                 }
+            } finally {
+                if (batcher != null) {
+                    batcher.close();
+                }
             }
         });
     }
 
+    private LogMessageBatcher createLogsBatcher(String workspaceId, String machineId, LineConsumer outputConsumer) {
+        if (logsBatchSize <= 0) {
+            return null;
+        }
+        final LogMessageBatchPrinter printer = new LogMessageBatchPrinter(outputConsumer);
+        final File logsFile = logsDir != null && logsSpillMaxBytes > 0 ? new File(new File(logsDir, workspaceId), machineId + ".log")
+                                                                       : null;
+        try {
+            return new LogMessageBatcher(printer,
+                                         logsBatchSize,
+                                         logsFlushIntervalMs,
+                                         logsMaxLinesPerSecond,
+                                         logsFile,
+                                         logsSpillMaxBytes,
+                                         logsFlusher);
+        } catch (IOException e) {
+            LOG.warn("Failed to open file '{}' for logs of machine {} of workspace {}, because: {}.",
+                     logsFile,
+                     machineId,
+                     workspaceId,
+                     e.getMessage());
+            try {
+                return new LogMessageBatcher(printer, logsBatchSize, logsFlushIntervalMs, logsMaxLinesPerSecond, null, 0, logsFlusher);
+            } catch (IOException ignored) {
+                // can't happen without file
+                return null;
+            }
+        }
+    }
+
     private void cleanUpContainer(String containerId) {
         try {
             if (containerId != null) {
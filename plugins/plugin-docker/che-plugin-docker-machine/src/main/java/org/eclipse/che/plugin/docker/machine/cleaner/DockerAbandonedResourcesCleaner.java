@@ -24,6 +24,7 @@ import org.eclipse.che.plugin.docker.client.json.Filters;
 import org.eclipse.che.plugin.docker.client.json.network.Network;
 import org.eclipse.che.plugin.docker.client.params.network.GetNetworksParams;
 import org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator;
+import org.eclipse.che.plugin.docker.machine.warmpool.DockerWarmPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,7 +45,7 @@ import static org.eclipse.che.plugin.docker.machine.DockerContainerNameGenerator
 
 /**
  * Job for periodically clean up abandoned docker containers and networks created by CHE.
- * Also, logs active containers list.
+ * Also, logs active containers list and removes images that are not needed by {@link DockerWarmPool}.
  *
  * @author Alexander Andrienko
  * @author Mykola Morhun
@@ -67,17 +68,20 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
     private final DockerContainerNameGenerator nameGenerator;
     private final WorkspaceRuntimes            runtimes;
     private final Set<String>                  additionalNetworks;
+    private final DockerWarmPool               warmPool;
 
     @Inject
     public DockerAbandonedResourcesCleaner(//CheEnvironmentEngine environmentEngine,
                                            DockerConnector dockerConnector,
                                            DockerContainerNameGenerator nameGenerator,
                                            WorkspaceRuntimes workspaceRuntimes,
-                                           @Named("machine.docker.networks") Set<Set<String>> additionalNetworks) {
+                                           @Named("machine.docker.networks") Set<Set<String>> additionalNetworks,
+                                           DockerWarmPool warmPool) {
         //this.environmentEngine = environmentEngine;
         this.dockerConnector = dockerConnector;
         this.nameGenerator = nameGenerator;
         this.runtimes = workspaceRuntimes;
+        this.warmPool = warmPool;
         this.additionalNetworks = additionalNetworks.stream()
                                                     .flatMap(Set::stream)
                                                     .collect(toSet());
@@ -90,6 +94,7 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
     public void run() {
         cleanContainers();
         cleanNetworks();
+        cleanWarmPool();
     }
 
     /**
@@ -178,4 +183,18 @@ public class DockerAbandonedResourcesCleaner implements Runnable {
         }
     }
 
+    /**
+     * Removes images of warm pool that are not popular anymore.
+     * Should be invoked after cleaning of abandoned containers,
+     * images used by containers can't be removed.
+     */
+    @VisibleForTesting
+    void cleanWarmPool() {
+        try {
+            warmPool.reclaim();
+        } catch (Exception e) {
+            LOG.error("Failed to clean up warm pool of docker images", e);
+        }
+    }
+
 }
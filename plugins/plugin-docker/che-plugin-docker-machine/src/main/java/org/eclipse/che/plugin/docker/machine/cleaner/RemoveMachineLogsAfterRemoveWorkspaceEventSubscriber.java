@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine.cleaner;
+
+import com.google.inject.Singleton;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.workspace.server.event.WorkspaceRemovedEvent;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.File;
+
+/**
+ * Removes files with full logs of machines of the workspace, see
+ * {@link org.eclipse.che.plugin.docker.client.LogMessageBatcher}, after {@code WorkspaceRemovedEvent}.
+ */
+@Singleton
+public class RemoveMachineLogsAfterRemoveWorkspaceEventSubscriber implements EventSubscriber<WorkspaceRemovedEvent> {
+    private static final Logger LOG = LoggerFactory.getLogger(RemoveMachineLogsAfterRemoveWorkspaceEventSubscriber.class);
+
+    private final EventService eventService;
+
+    private String logsDir;
+
+    @Inject
+    public RemoveMachineLogsAfterRemoveWorkspaceEventSubscriber(EventService eventService) {
+        this.eventService = eventService;
+    }
+
+    @com.google.inject.Inject(optional = true)
+    public void setLogsDir(@Named("che.workspace.logs") String logsDir) {
+        this.logsDir = logsDir;
+    }
+
+    @Override
+    public void onEvent(WorkspaceRemovedEvent event) {
+        if (logsDir == null) {
+            return;
+        }
+        final File workspaceLogs = new File(logsDir, event.getWorkspace().getId());
+        if (workspaceLogs.exists() && !IoUtil.deleteRecursive(workspaceLogs)) {
+            LOG.error("Failed to remove logs of machines of workspace with id: '{}'", event.getWorkspace().getId());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        eventService.subscribe(this);
+    }
+}
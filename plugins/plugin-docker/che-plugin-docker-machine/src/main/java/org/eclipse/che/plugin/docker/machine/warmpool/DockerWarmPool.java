@@ -0,0 +1,289 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine.warmpool;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.machine.MachineSource;
+import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.ProgressMonitor;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.params.PullParams;
+import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
+import org.eclipse.che.plugin.docker.machine.DockerMachineSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Comparator.comparingLong;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.eclipse.che.plugin.docker.machine.MachineProviderImpl.SNAPSHOT_LOCATION_PATTERN;
+
+/**
+ * Keeps images of the most popular stacks pulled, so machines of workspaces created
+ * from these stacks start without waiting for images to be downloaded from a registry.
+ *
+ * <p>Popularity of an image is the number of machines started from it, the numbers are
+ * halved on each refresh, so the pool follows recent usage. Images of stacks from {@link StackDao}
+ * are candidates even if no machine was started from them yet, in order of stacks in storage.
+ * On each refresh the pool pulls up to {@code che.docker.warm_pool.max_images} most popular images.
+ * Machine start still pulls the image with credentials of the user, so access to the image is
+ * checked, but layers pulled by the pool are not downloaded again.
+ *
+ * <p>Image that the pool fails to pull is not pulled again and doesn't take place in the pool
+ * until a machine is started from it, e.g. image of a stack that requires credentials.
+ *
+ * <p>Images pulled by the pool that are not popular anymore are removed by {@link #reclaim()}
+ * which is called by {@link org.eclipse.che.plugin.docker.machine.cleaner.DockerAbandonedResourcesCleaner}
+ * after abandoned containers are removed. Images that existed before the pool pulled them are
+ * never removed, images used by containers are not removed by docker. Images are pulled without
+ * holding the lock of the pool state, so reclaim doesn't wait for refresh, images which are
+ * being refreshed are not removed.
+ *
+ * <p>Snapshots are not kept in the pool, each snapshot belongs to a single workspace and
+ * the tag of a snapshot pulled from a registry is removed once machine is created from it.
+ */
+@Singleton
+public class DockerWarmPool implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerWarmPool.class);
+
+    private static final String DOCKER_IMAGE_RECIPE_TYPE = "dockerimage";
+    private static final String LATEST_TAG               = "latest";
+    private static final int    STACKS_BATCH_SIZE        = 30;
+
+    private final DockerConnector docker;
+    private final StackDao        stackDao;
+    private final int             maxImages;
+
+    private final Map<String, AtomicLong> starts       = new ConcurrentHashMap<>();
+    private final Map<String, WarmImage>  images       = new ConcurrentHashMap<>();
+    private final Set<String>             failedImages = ConcurrentHashMap.newKeySet();
+
+    /** Serializes refreshes, state of the pool itself is guarded by the pool instance. */
+    private final Object refreshLock = new Object();
+
+    @Inject
+    public DockerWarmPool(DockerConnector docker,
+                          StackDao stackDao,
+                          @Named("che.docker.warm_pool.max_images") int maxImages) {
+        this.docker = docker;
+        this.stackDao = stackDao;
+        this.maxImages = maxImages;
+    }
+
+    @ScheduleRate(periodParameterName = "che.docker.warm_pool.refresh_period_min",
+                  initialDelay = 1L,
+                  unit = TimeUnit.MINUTES)
+    @Override
+    public void run() {
+        if (isEnabled()) {
+            refresh();
+        }
+    }
+
+    /** Whether pool keeps any images, pool is disabled when max number of images is not positive. */
+    public boolean isEnabled() {
+        return maxImages > 0;
+    }
+
+    /**
+     * Counts start of a machine from the image, should be called once the image is pulled for the machine.
+     *
+     * @param location
+     *         location of the image as it is defined in machine recipe
+     */
+    public void onImageUsed(String location) {
+        if (isEnabled() && !SNAPSHOT_LOCATION_PATTERN.matcher(location).matches()) {
+            starts.computeIfAbsent(location, l -> new AtomicLong()).incrementAndGet();
+            failedImages.remove(location);
+        }
+    }
+
+    /** Pulls the most popular images, images that fail to be pulled are replaced with the next popular ones. */
+    @VisibleForTesting
+    void refresh() {
+        synchronized (refreshLock) {
+            final Set<String> hottest = new HashSet<>();
+            for (String location : getCandidates()) {
+                if (hottest.size() == maxImages) {
+                    break;
+                }
+                final WarmImage image;
+                synchronized (this) {
+                    image = images.computeIfAbsent(location, WarmImage::new);
+                    image.refreshing = true;
+                }
+                try {
+                    pull(image);
+                    hottest.add(location);
+                } catch (IOException | MachineException e) {
+                    LOG.warn("Failed to pull image '{}' to warm pool. Cause: {}", location, e.getLocalizedMessage());
+                    failedImages.add(location);
+                    if (!image.pulled) {
+                        synchronized (this) {
+                            images.remove(location);
+                        }
+                    }
+                }
+            }
+            synchronized (this) {
+                for (WarmImage image : images.values()) {
+                    image.hot = hottest.contains(image.location);
+                    image.refreshing = false;
+                }
+            }
+            // halve popularity, so images that are not used anymore go out of the pool
+            starts.values().removeIf(counter -> counter.updateAndGet(count -> count / 2) == 0);
+        }
+    }
+
+    /** Returns locations of images which are kept in the pool. */
+    @VisibleForTesting
+    Set<String> getPooledImages() {
+        return images.values().stream().filter(image -> image.hot).map(image -> image.location).collect(toSet());
+    }
+
+    /**
+     * Removes images that were pulled by the pool and are not
+     * popular anymore. Images used by containers are kept.
+     */
+    public synchronized void reclaim() {
+        for (WarmImage image : new ArrayList<>(images.values())) {
+            if (image.hot || image.refreshing) {
+                continue;
+            }
+            images.remove(image.location);
+            if (image.pulledByPool) {
+                try {
+                    docker.removeImage(RemoveImageParams.create(image.location).withForce(false));
+                    LOG.info("Image '{}' is removed from warm pool", image.location);
+                } catch (IOException e) {
+                    // most likely image is used by a container, it is not a part of the pool anymore anyway
+                    LOG.debug("Image '{}' is not removed from warm pool. Cause: {}", image.location, e.getLocalizedMessage());
+                }
+            }
+        }
+    }
+
+    /** Returns images that may be pulled to the pool, the most popular first. */
+    @VisibleForTesting
+    List<String> getCandidates() {
+        final Set<String> candidates = new LinkedHashSet<>();
+        try {
+            candidates.addAll(getStackImages());
+        } catch (ServerException e) {
+            LOG.error("Failed to get stacks for warm pool. Cause: {}", e.getLocalizedMessage());
+        }
+        candidates.addAll(starts.keySet());
+        candidates.removeAll(failedImages);
+        // sort is stable, so stacks order is kept for images of the same popularity
+        return candidates.stream()
+                         .sorted(comparingLong(this::getPopularity).reversed())
+                         .collect(toList());
+    }
+
+    private long getPopularity(String location) {
+        final AtomicLong counter = starts.get(location);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private List<String> getStackImages() throws ServerException {
+        final List<String> stackImages = new ArrayList<>();
+        int skipCount = 0;
+        List<StackImpl> stacks;
+        do {
+            stacks = stackDao.searchStacks(null, null, skipCount, STACKS_BATCH_SIZE);
+            for (StackImpl stack : stacks) {
+                final String image = getImage(stack);
+                if (image != null && !failedImages.contains(image)) {
+                    stackImages.add(image);
+                }
+            }
+            skipCount += stacks.size();
+        } while (stacks.size() == STACKS_BATCH_SIZE && stackImages.size() < maxImages);
+        return stackImages;
+    }
+
+    private static String getImage(StackImpl stack) {
+        final WorkspaceConfigImpl config = stack.getWorkspaceConfig();
+        if (config == null || config.getDefaultEnv() == null) {
+            return null;
+        }
+        final EnvironmentImpl environment = config.getEnvironments().get(config.getDefaultEnv());
+        if (environment == null ||
+            environment.getRecipe() == null ||
+            !DOCKER_IMAGE_RECIPE_TYPE.equals(environment.getRecipe().getType())) {
+            return null;
+        }
+        return environment.getRecipe().getLocation();
+    }
+
+    private void pull(WarmImage image) throws IOException, MachineException {
+        final MachineSource source = new MachineSourceImpl("image").setLocation(image.location);
+        final DockerMachineSource dockerSource = new DockerMachineSource(source);
+        if (!image.pulled) {
+            image.pulledByPool = !exists(dockerSource.getLocation(false));
+        }
+        docker.pull(PullParams.create(dockerSource.getRepository())
+                              .withTag(MoreObjects.firstNonNull(dockerSource.getTag(), LATEST_TAG))
+                              .withRegistry(dockerSource.getRegistry()),
+                    ProgressMonitor.DEV_NULL);
+        image.pulled = true;
+    }
+
+    private boolean exists(String image) throws IOException {
+        try {
+            docker.inspectImage(image);
+            return true;
+        } catch (DockerException e) {
+            if (e.getStatus() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private static class WarmImage {
+        final String location;
+
+        volatile boolean pulled;
+        volatile boolean pulledByPool;
+        volatile boolean hot;
+        volatile boolean refreshing;
+
+        WarmImage(String location) {
+            this.location = location;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine.cleaner;
+
+import org.eclipse.che.api.core.model.workspace.Workspace;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.workspace.server.event.WorkspaceRemovedEvent;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link RemoveMachineLogsAfterRemoveWorkspaceEventSubscriber}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class RemoveMachineLogsAfterRemoveWorkspaceEventSubscriberTest {
+    @Mock
+    private EventService eventService;
+    @Mock
+    private Workspace    workspace;
+
+    private File                                                 logsDir;
+    private RemoveMachineLogsAfterRemoveWorkspaceEventSubscriber subscriber;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        logsDir = Files.createTempDirectory("logs").toFile();
+        subscriber = new RemoveMachineLogsAfterRemoveWorkspaceEventSubscriber(eventService);
+        subscriber.setLogsDir(logsDir.getPath());
+        when(workspace.getId()).thenReturn("workspace123");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(logsDir);
+    }
+
+    @Test
+    public void shouldSubscribeListenerToEventService() {
+        subscriber.subscribe();
+
+        verify(eventService).subscribe(subscriber);
+    }
+
+    @Test
+    public void shouldRemoveLogsOfRemovedWorkspaceOnly() throws Exception {
+        File workspaceLogs = new File(logsDir, "workspace123");
+        File otherWorkspaceLogs = new File(logsDir, "workspace456");
+        assertTrue(workspaceLogs.mkdir());
+        assertTrue(otherWorkspaceLogs.mkdir());
+        assertTrue(new File(workspaceLogs, "machine.log").createNewFile());
+
+        subscriber.onEvent(new WorkspaceRemovedEvent(workspace));
+
+        assertFalse(workspaceLogs.exists());
+        assertTrue(otherWorkspaceLogs.exists());
+    }
+
+    @Test
+    public void shouldNotFailWhenWorkspaceHasNoLogs() {
+        subscriber.onEvent(new WorkspaceRemovedEvent(workspace));
+    }
+}
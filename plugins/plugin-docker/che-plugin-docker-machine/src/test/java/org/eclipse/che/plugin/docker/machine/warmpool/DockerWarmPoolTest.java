@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine.warmpool;
+
+import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.RecipeImpl;
+import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
+import org.eclipse.che.api.workspace.server.model.impl.stack.StackImpl;
+import org.eclipse.che.api.workspace.server.spi.StackDao;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.exception.DockerException;
+import org.eclipse.che.plugin.docker.client.params.PullParams;
+import org.eclipse.che.plugin.docker.client.params.RemoveImageParams;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatcher;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link DockerWarmPool}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class DockerWarmPoolTest {
+    private static final String JAVA_IMAGE   = "eclipse/ubuntu_jdk8";
+    private static final String NODE_IMAGE   = "eclipse/node";
+    private static final String PYTHON_IMAGE = "eclipse/ubuntu_python:latest";
+
+    @Mock
+    private DockerConnector docker;
+    @Mock
+    private StackDao        stackDao;
+
+    private DockerWarmPool pool;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        pool = new DockerWarmPool(docker, stackDao, 2);
+        when(stackDao.searchStacks(isNull(String.class), isNull(List.class), anyInt(), anyInt()))
+                .thenReturn(asList(createStack(JAVA_IMAGE), createStack(NODE_IMAGE), createStack(PYTHON_IMAGE)));
+        when(docker.inspectImage(anyString())).thenThrow(new DockerException("not found", 404));
+    }
+
+    @Test
+    public void shouldPreferImagesOfStacksWhenNoMachinesAreStarted() {
+        assertEquals(pool.getCandidates(), asList(JAVA_IMAGE, NODE_IMAGE, PYTHON_IMAGE));
+    }
+
+    @Test
+    public void shouldOrderImagesByNumberOfStartedMachines() {
+        pool.onImageUsed(PYTHON_IMAGE);
+        pool.onImageUsed(PYTHON_IMAGE);
+        pool.onImageUsed(NODE_IMAGE);
+
+        assertEquals(pool.getCandidates(), asList(PYTHON_IMAGE, NODE_IMAGE, JAVA_IMAGE));
+    }
+
+    @Test
+    public void shouldNotCountMachinesStartedFromSnapshots() {
+        pool.onImageUsed("localhost:5000/machine_snapshot_abc123");
+
+        assertEquals(pool.getCandidates(), asList(JAVA_IMAGE, NODE_IMAGE, PYTHON_IMAGE));
+    }
+
+    @Test
+    public void shouldPullHottestImagesOnRefresh() throws Exception {
+        pool.run();
+
+        ArgumentCaptor<PullParams> captor = ArgumentCaptor.forClass(PullParams.class);
+        verify(docker, times(2)).pull(captor.capture(), any());
+        assertEquals(captor.getAllValues().get(0).getImage(), JAVA_IMAGE);
+        assertEquals(captor.getAllValues().get(0).getTag(), "latest");
+        assertEquals(captor.getAllValues().get(1).getImage(), NODE_IMAGE);
+        assertEquals(pool.getPooledImages(), new HashSet<>(asList(JAVA_IMAGE, NODE_IMAGE)));
+    }
+
+    @Test
+    public void shouldReplaceImageThatFailsToBePulledWithNextPopularImage() throws Exception {
+        doThrow(new DockerException("error", 500)).when(docker).pull(withImage(JAVA_IMAGE), any());
+
+        pool.run();
+
+        assertEquals(pool.getPooledImages(), new HashSet<>(asList(NODE_IMAGE, PYTHON_IMAGE)));
+    }
+
+    @Test
+    public void shouldNotPullImageThatFailedToBePulledAgain() throws Exception {
+        doThrow(new DockerException("error", 500)).when(docker).pull(withImage(JAVA_IMAGE), any());
+        pool.run();
+
+        pool.run();
+
+        verify(docker).pull(withImage(JAVA_IMAGE), any());
+        assertEquals(pool.getCandidates(), asList(NODE_IMAGE, PYTHON_IMAGE));
+    }
+
+    @Test
+    public void shouldPullImageThatFailedToBePulledWhenMachineIsStartedFromIt() throws Exception {
+        doThrow(new DockerException("error", 500)).when(docker).pull(withImage(JAVA_IMAGE), any());
+        pool.run();
+
+        pool.onImageUsed(JAVA_IMAGE);
+
+        assertEquals(pool.getCandidates(), asList(JAVA_IMAGE, NODE_IMAGE, PYTHON_IMAGE));
+    }
+
+    @Test
+    public void shouldNotDoAnythingWhenPoolIsDisabled() throws Exception {
+        pool = new DockerWarmPool(docker, stackDao, 0);
+
+        pool.onImageUsed(JAVA_IMAGE);
+        pool.run();
+
+        verify(docker, never()).pull(any(PullParams.class), any());
+        assertFalse(pool.isEnabled());
+        assertTrue(pool.getPooledImages().isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveImagePulledByPoolWhenItIsNotPopularAnymore() throws Exception {
+        pool.run();
+        pool.onImageUsed(PYTHON_IMAGE);
+        pool.onImageUsed(PYTHON_IMAGE);
+        pool.onImageUsed(NODE_IMAGE);
+        pool.onImageUsed(NODE_IMAGE);
+        pool.run();
+
+        pool.reclaim();
+
+        ArgumentCaptor<RemoveImageParams> captor = ArgumentCaptor.forClass(RemoveImageParams.class);
+        verify(docker).removeImage(captor.capture());
+        assertEquals(captor.getValue().getImage(), JAVA_IMAGE);
+        assertEquals(captor.getValue().isForce(), Boolean.FALSE);
+        assertEquals(pool.getPooledImages(), new HashSet<>(asList(NODE_IMAGE, PYTHON_IMAGE)));
+    }
+
+    @Test
+    public void shouldNotRemoveImageThatExistedBeforeItWasPulledByPool() throws Exception {
+        doReturn(null).when(docker).inspectImage(JAVA_IMAGE);
+        pool.run();
+        pool.onImageUsed(PYTHON_IMAGE);
+        pool.onImageUsed(PYTHON_IMAGE);
+        pool.onImageUsed(NODE_IMAGE);
+        pool.onImageUsed(NODE_IMAGE);
+        pool.run();
+
+        pool.reclaim();
+
+        verify(docker, never()).removeImage(any(RemoveImageParams.class));
+        assertFalse(pool.getPooledImages().contains(JAVA_IMAGE));
+    }
+
+    @Test(timeOut = 10_000)
+    public void shouldNotWaitForImagesToBePulledOnReclaim() throws Exception {
+        CountDownLatch pullStarted = new CountDownLatch(1);
+        CountDownLatch pullAllowed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            pullStarted.countDown();
+            pullAllowed.await();
+            return null;
+        }).when(docker).pull(any(PullParams.class), any());
+        Thread refresh = new Thread(pool::run);
+        refresh.start();
+        pullStarted.await();
+
+        pool.reclaim();
+
+        pullAllowed.countDown();
+        refresh.join();
+        verify(docker, never()).removeImage(any(RemoveImageParams.class));
+        assertEquals(pool.getPooledImages(), new HashSet<>(asList(JAVA_IMAGE, NODE_IMAGE)));
+    }
+
+    private static StackImpl createStack(String image) {
+        EnvironmentImpl environment = new EnvironmentImpl(new RecipeImpl("dockerimage", null, null, image), null);
+        return StackImpl.builder()
+                        .setName(image)
+                        .setWorkspaceConfig(WorkspaceConfigImpl.builder()
+                                                               .setName("ws")
+                                                               .setDefaultEnv("default")
+                                                               .setEnvironments(singletonMap("default", environment))
+                                                               .build())
+                        .build();
+    }
+
+    private static PullParams withImage(String image) {
+        return argThat(new ArgumentMatcher<PullParams>() {
+            @Override
+            public boolean matches(Object argument) {
+                return image.equals(((PullParams)argument).getImage());
+            }
+        });
+    }
+}
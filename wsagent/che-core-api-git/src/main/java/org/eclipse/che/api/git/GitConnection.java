@@ -404,6 +404,21 @@ public interface GitConnection extends Closeable {
      */
     Status status(StatusFormat format) throws GitException;
 
+    /**
+     * Get status of working tree updated only with changes of files which are already reported by file watcher.
+     * It is cheaper than {@link #status(StatusFormat)} but doesn't notice changes which are not reported yet,
+     * so it is meant for reacting on file watcher events. By default it is the same as {@link #status(StatusFormat)}.
+     *
+     * @param format
+     *         the format of the ouput
+     * @return status.
+     * @throws GitException
+     *         if any error occurs
+     */
+    default Status reportedStatus(StatusFormat format) throws GitException {
+        return status(format);
+    }
+
     /**
      * Create new tag.
      *
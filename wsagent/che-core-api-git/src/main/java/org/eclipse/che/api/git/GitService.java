@@ -279,14 +279,16 @@ public class GitService {
                        @QueryParam("since") String revisionRangeSince,
                        @QueryParam("until") String revisionRangeUntil,
                        @QueryParam("skip") @DefaultValue("0") int skip,
-                       @QueryParam("maxCount") @DefaultValue(Constants.DEFAULT_PAGE_SIZE_QUERY_PARAM) int maxCount) throws ApiException {
+                       @QueryParam("maxCount") @DefaultValue(Constants.DEFAULT_PAGE_SIZE_QUERY_PARAM) int maxCount,
+                       @QueryParam("diffFiles") @DefaultValue("true") boolean diffCommitFiles) throws ApiException {
         try (GitConnection gitConnection = getGitConnection()) {
             return gitConnection.log(LogParams.create()
                                               .withFileFilter(fileFilter)
                                               .withRevisionRangeSince(revisionRangeSince)
                                               .withRevisionRangeUntil(revisionRangeUntil)
                                               .withMaxCount(maxCount)
-                                              .withSkip(skip));
+                                              .withSkip(skip)
+                                              .withDiffCommitFiles(diffCommitFiles));
         }
     }
 
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.jsonrpc.RequestExecutionPolicy;
+import org.eclipse.che.api.core.jsonrpc.RequestHandlerConfigurator;
+import org.eclipse.che.api.core.jsonrpc.RequestTransmitter;
+import org.eclipse.che.api.core.websocket.WebSocketTransmitterMetrics;
+import org.eclipse.che.api.core.websocket.impl.WebSocketSessionRegistry;
+import org.eclipse.che.api.git.exception.GitException;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.project.shared.dto.event.GitStatusChangedEventDto;
+import org.eclipse.che.api.project.shared.dto.event.GitStatusChangedEventDto.FileStatus;
+import org.eclipse.che.api.vfs.watcher.FileWatcherEventHandler;
+import org.slf4j.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static java.nio.file.Files.isDirectory;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Sends changes of git status of projects to subscribed clients, so they don't need to request
+ * the whole status after each change of files.
+ *
+ * <p>Client gets the whole status of all the projects when it subscribes. Then events of file watcher
+ * are collected for a short delay, status of each changed project is computed and compared with the status
+ * sent to each client previously. Only files which status is changed are sent. When messages to a client
+ * are dropped because it doesn't keep up with them, the client gets the whole status of all the projects
+ * again. Subscription is cancelled when client's session is closed.
+ *
+ * <p>Status of changed projects is computed by {@link GitConnection#reportedStatus(StatusFormat)}, so
+ * implementation which keeps status up to date with file watcher events checks only changed files.
+ * Subscriptions and notifications are handled one by one by a single thread, so sent statuses are
+ * not shared between threads.
+ */
+@Singleton
+public class GitStatusDetector {
+    private static final Logger LOG = getLogger(GitStatusDetector.class);
+
+    private static final String GIT_DIR              = ".git";
+    private static final String INCOMING_METHOD      = "track:git-status";
+    private static final String UNTRACK_METHOD       = "untrack:git-status";
+    private static final String OUTGOING_METHOD      = "event:git-status-changed";
+    private static final long   NOTIFY_DELAY_MS      = 500;
+    private static final long   DROP_CHECK_PERIOD_MS = 5000;
+
+    private final Path                                 root;
+    private final GitConnectionFactory                 gitConnectionFactory;
+    private final RequestTransmitter                   transmitter;
+    private final WebSocketTransmitterMetrics          transmitterMetrics;
+    private final WebSocketSessionRegistry             sessionRegistry;
+    private final FileWatcherEventHandler              watcherEventHandler;
+    private final BiConsumer<Path, WatchEvent.Kind<?>> watcherEventListener;
+    private final Consumer<String>                     sessionCloseListener;
+    private final ScheduledExecutorService             executor;
+
+    // changed by executor only, read by file watcher threads
+    private final Map<String, Subscriber> subscribers     = new ConcurrentHashMap<>();
+    private final Set<String>             changedProjects = newConcurrentHashSet();
+    private final AtomicBoolean           scheduled       = new AtomicBoolean();
+
+    @Inject
+    public GitStatusDetector(@Named("che.user.workspaces.storage") File root,
+                             GitConnectionFactory gitConnectionFactory,
+                             RequestTransmitter transmitter,
+                             WebSocketTransmitterMetrics transmitterMetrics,
+                             WebSocketSessionRegistry sessionRegistry,
+                             FileWatcherEventHandler watcherEventHandler) {
+        this.root = root.toPath().normalize().toAbsolutePath();
+        this.gitConnectionFactory = gitConnectionFactory;
+        this.transmitter = transmitter;
+        this.transmitterMetrics = transmitterMetrics;
+        this.sessionRegistry = sessionRegistry;
+        this.watcherEventHandler = watcherEventHandler;
+        this.executor = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("GitStatusDetector-%d")
+                                                                                   .setDaemon(true)
+                                                                                   .build());
+        this.watcherEventListener = this::onFileSystemChange;
+        this.sessionCloseListener = endpointId -> executor.execute(() -> subscribers.remove(endpointId));
+    }
+
+    @Inject
+    public void configureHandler(RequestHandlerConfigurator configurator) {
+        // subscriptions of endpoint are handled in order they are sent, but don't hold messages of other methods
+        final RequestExecutionPolicy policy = RequestExecutionPolicy.shared(true);
+        configurator.newConfiguration()
+                    .methodName(INCOMING_METHOD, policy)
+                    .paramsAsEmpty()
+                    .noResult()
+                    .withConsumer((endpointId, skip) -> executor.execute(() -> subscribe(endpointId)));
+        configurator.newConfiguration()
+                    .methodName(UNTRACK_METHOD, policy)
+                    .paramsAsEmpty()
+                    .noResult()
+                    .withConsumer((endpointId, skip) -> executor.execute(() -> subscribers.remove(endpointId)));
+    }
+
+    @PostConstruct
+    public void startWatcher() {
+        watcherEventHandler.addEventListener(watcherEventListener);
+        sessionRegistry.addCloseListener(sessionCloseListener);
+        executor.scheduleWithFixedDelay(this::checkDroppedMessages, DROP_CHECK_PERIOD_MS, DROP_CHECK_PERIOD_MS, MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopWatcher() {
+        watcherEventHandler.removeEventListener(watcherEventListener);
+        sessionRegistry.removeCloseListener(sessionCloseListener);
+        executor.shutdownNow();
+    }
+
+    private void onFileSystemChange(Path path, WatchEvent.Kind<?> kind) {
+        if (subscribers.isEmpty() || !path.startsWith(root) || path.equals(root)) {
+            return;
+        }
+        changedProjects.add(root.relativize(path).getName(0).toString());
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::notifyChanges, NOTIFY_DELAY_MS, MILLISECONDS);
+        }
+    }
+
+    /** Sends the whole status of all the projects to the new subscriber. */
+    private void subscribe(String endpointId) {
+        final Subscriber subscriber = new Subscriber(getDroppedMessages(endpointId));
+        subscribers.put(endpointId, subscriber);
+        try {
+            // status that is kept up to date may miss changes which aren't reported yet
+            sendWholeStatus(endpointId, subscriber, true);
+        } catch (RuntimeException e) {
+            LOG.error("Error while sending git status to endpoint {}", endpointId, e);
+        }
+    }
+
+    /** Sends the whole status again to subscribers which may have missed some of the sent changes. */
+    private void checkDroppedMessages() {
+        subscribers.forEach((endpointId, subscriber) -> {
+            final long dropped = getDroppedMessages(endpointId);
+            if (dropped != subscriber.droppedMessages) {
+                subscriber.droppedMessages = dropped;
+                try {
+                    sendWholeStatus(endpointId, subscriber, false);
+                } catch (RuntimeException e) {
+                    LOG.error("Error while sending git status to endpoint {}", endpointId, e);
+                }
+            }
+        });
+    }
+
+    private void notifyChanges() {
+        // changes made after this point are notified by the next run
+        scheduled.set(false);
+        checkDroppedMessages();
+        for (String project : new ArrayList<>(changedProjects)) {
+            changedProjects.remove(project);
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            try {
+                notifyProjectChanges(project);
+            } catch (RuntimeException e) {
+                LOG.error("Error while sending git status of project {}", project, e);
+            }
+        }
+    }
+
+    private void notifyProjectChanges(String project) {
+        final GitStatusChangedEventDto current = getStatus(project, false);
+        if (current == null) {
+            subscribers.values().forEach(subscriber -> subscriber.sentStatuses.remove(project));
+            return;
+        }
+        subscribers.forEach((endpointId, subscriber) -> {
+            final GitStatusChangedEventDto previous = subscriber.sentStatuses.put(project, current);
+            if (previous == null) {
+                transmitter.transmitOneToNone(endpointId, OUTGOING_METHOD, current);
+                return;
+            }
+            final Map<String, List<FileStatus>> changedFiles = getChangedFiles(previous, current);
+            if (changedFiles.isEmpty()
+                && previous.isClean() == current.isClean()
+                && Objects.equals(previous.getBranchName(), current.getBranchName())) {
+                return;
+            }
+            final GitStatusChangedEventDto event = newDto(GitStatusChangedEventDto.class).withProjectName(project)
+                                                                                         .withBranchName(current.getBranchName())
+                                                                                         .withClean(current.isClean())
+                                                                                         .withChangedFiles(changedFiles);
+            transmitter.transmitOneToNone(endpointId, OUTGOING_METHOD, event);
+        });
+    }
+
+    private void sendWholeStatus(String endpointId, Subscriber subscriber, boolean rescan) {
+        subscriber.sentStatuses.clear();
+        try (DirectoryStream<Path> projects = Files.newDirectoryStream(root, dir -> isDirectory(dir.resolve(GIT_DIR)))) {
+            for (Path projectDir : projects) {
+                final String project = projectDir.getFileName().toString();
+                final GitStatusChangedEventDto status = getStatus(project, rescan);
+                if (status != null) {
+                    subscriber.sentStatuses.put(project, status);
+                    transmitter.transmitOneToNone(endpointId, OUTGOING_METHOD, status);
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Unable to list projects to send their git status. Cause: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the whole status of the project or {@code null} if it is not a git repository or status can't be computed.
+     *
+     * @param rescan
+     *         {@code true} if the whole working tree is scanned, otherwise status may be updated only with
+     *         changes of files reported by file watcher
+     */
+    private GitStatusChangedEventDto getStatus(String project, boolean rescan) {
+        final Path projectDir = root.resolve(project);
+        if (!isDirectory(projectDir.resolve(GIT_DIR))) {
+            return null;
+        }
+        final Status status;
+        try (GitConnection connection = gitConnectionFactory.getConnection(projectDir.toFile())) {
+            status = rescan ? connection.status(StatusFormat.SHORT) : connection.reportedStatus(StatusFormat.SHORT);
+        } catch (GitException e) {
+            LOG.debug("Unable to get git status of project {}. Cause: {}", project, e.getMessage());
+            return null;
+        }
+        return newDto(GitStatusChangedEventDto.class).withProjectName(project)
+                                                     .withBranchName(status.getBranchName())
+                                                     .withClean(status.isClean())
+                                                     .withFullStatus(true)
+                                                     .withChangedFiles(toFileStatuses(status));
+    }
+
+    private long getDroppedMessages(String endpointId) {
+        return transmitterMetrics.getDroppedMessages().getOrDefault(endpointId, 0L);
+    }
+
+    /** Returns statuses of files which are changed between two statuses, previous status may be {@code null}. */
+    static Map<String, List<FileStatus>> getChangedFiles(GitStatusChangedEventDto previous, GitStatusChangedEventDto current) {
+        final Map<String, List<FileStatus>> previousFiles = previous == null ? new HashMap<>() : previous.getChangedFiles();
+        final Map<String, List<FileStatus>> changedFiles = new HashMap<>();
+        current.getChangedFiles().forEach((path, statuses) -> {
+            if (!statuses.equals(previousFiles.get(path))) {
+                changedFiles.put(path, statuses);
+            }
+        });
+        previousFiles.keySet().forEach(path -> {
+            if (!current.getChangedFiles().containsKey(path)) {
+                changedFiles.put(path, emptyList());
+            }
+        });
+        return changedFiles;
+    }
+
+    /** Returns statuses of all the files which are not in sync with index or {@code HEAD}. */
+    static Map<String, List<FileStatus>> toFileStatuses(Status status) {
+        final Map<String, List<FileStatus>> files = new HashMap<>();
+        addFileStatus(files, status.getAdded(), FileStatus.ADDED);
+        addFileStatus(files, status.getChanged(), FileStatus.CHANGED);
+        addFileStatus(files, status.getRemoved(), FileStatus.REMOVED);
+        addFileStatus(files, status.getMissing(), FileStatus.MISSING);
+        addFileStatus(files, status.getModified(), FileStatus.MODIFIED);
+        addFileStatus(files, status.getUntracked(), FileStatus.UNTRACKED);
+        addFileStatus(files, status.getUntrackedFolders(), FileStatus.UNTRACKED_FOLDER);
+        addFileStatus(files, status.getConflicting(), FileStatus.CONFLICTING);
+        return files;
+    }
+
+    private static void addFileStatus(Map<String, List<FileStatus>> files, List<String> paths, FileStatus fileStatus) {
+        if (paths != null) {
+            paths.forEach(path -> files.computeIfAbsent(path, p -> new ArrayList<>(2)).add(fileStatus));
+        }
+    }
+
+    /** Statuses of projects sent to a subscribed endpoint. */
+    private static class Subscriber {
+        final Map<String, GitStatusChangedEventDto> sentStatuses = new HashMap<>();
+
+        long droppedMessages;
+
+        Subscriber(long droppedMessages) {
+            this.droppedMessages = droppedMessages;
+        }
+    }
+}
@@ -26,10 +26,12 @@ public class LogParams {
     private String       filePath;
     private int          skip;
     private int          maxCount;
+    private boolean      diffCommitFiles;
 
     private LogParams() {
         skip = -1;
         maxCount = -1;
+        diffCommitFiles = true;
     }
 
     /**
@@ -146,6 +148,27 @@ public class LogParams {
         return this;
     }
 
+    /** Returns {@code true} if changed files of each commit should be returned by log command, {@code true} by default. */
+    public boolean isDiffCommitFiles() {
+        return diffCommitFiles;
+    }
+
+    /** Set whether changed files of each commit should be returned by log command. */
+    public void setDiffCommitFiles(boolean diffCommitFiles) {
+        this.diffCommitFiles = diffCommitFiles;
+    }
+
+    /**
+     * Create a {@link LogParams} object based on a given flag of returning changed files of each commit
+     *
+     * @param diffCommitFiles
+     *         {@code true} if changed files of each commit should be returned by log command
+     */
+    public LogParams withDiffCommitFiles(boolean diffCommitFiles) {
+        this.diffCommitFiles = diffCommitFiles;
+        return this;
+    }
+
     /** Returns the Filter revisions list by range of files. */
     public List<String> getFileFilter() {
         return fileFilter == null ? new ArrayList<>() : fileFilter;
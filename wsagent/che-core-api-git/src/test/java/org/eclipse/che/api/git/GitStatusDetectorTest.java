@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.git;
+
+import org.eclipse.che.api.core.jsonrpc.JsonRpcFactory;
+import org.eclipse.che.api.core.jsonrpc.JsonRpcParams;
+import org.eclipse.che.api.core.jsonrpc.NotificationHandler;
+import org.eclipse.che.api.core.jsonrpc.RequestHandlerRegistry;
+import org.eclipse.che.api.core.jsonrpc.RequestTransmitter;
+import org.eclipse.che.api.core.jsonrpc.reception.MethodNameConfigurator;
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.api.core.websocket.WebSocketTransmitterMetrics;
+import org.eclipse.che.api.core.websocket.impl.WebSocketSessionRegistry;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.project.shared.dto.event.GitStatusChangedEventDto;
+import org.eclipse.che.api.project.shared.dto.event.GitStatusChangedEventDto.FileStatus;
+import org.eclipse.che.api.vfs.watcher.FileWatcherEventHandler;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import javax.websocket.Session;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link GitStatusDetector}
+ */
+@Listeners(MockitoTestNGListener.class)
+public class GitStatusDetectorTest {
+    private static final String PROJECT         = "project";
+    private static final String ENDPOINT_ID     = "endpoint";
+    private static final String OTHER_ENDPOINT  = "other";
+    private static final String OUTGOING_METHOD = "event:git-status-changed";
+
+    @Mock
+    private GitConnectionFactory             gitConnectionFactory;
+    @Mock
+    private GitConnection                    connection;
+    @Mock
+    private RequestTransmitter               transmitter;
+    @Mock
+    private WebSocketTransmitterMetrics      transmitterMetrics;
+    @Mock
+    private FileWatcherEventHandler          watcherEventHandler;
+    @Mock
+    private RequestHandlerRegistry           handlerRegistry;
+
+    private File                                 root;
+    private WebSocketSessionRegistry             sessionRegistry;
+    private GitStatusDetector                    detector;
+    private BiConsumer<Path, WatchEvent.Kind<?>> watcherEventListener;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("git-status").toFile();
+        Files.createDirectories(root.toPath().resolve(PROJECT).resolve(".git"));
+        when(gitConnectionFactory.getConnection(any(File.class), any(LineConsumerFactory.class))).thenReturn(connection);
+        when(transmitterMetrics.getDroppedMessages()).thenReturn(emptyMap());
+        setStatus("a.txt");
+        sessionRegistry = new WebSocketSessionRegistry();
+
+        detector = new GitStatusDetector(root, gitConnectionFactory, transmitter, transmitterMetrics, sessionRegistry, watcherEventHandler);
+        detector.configureHandler(() -> new MethodNameConfigurator(handlerRegistry, mock(JsonRpcFactory.class)));
+        detector.startWatcher();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<BiConsumer<Path, WatchEvent.Kind<?>>> listenerCaptor = ArgumentCaptor.forClass((Class)BiConsumer.class);
+        verify(watcherEventHandler).addEventListener(listenerCaptor.capture());
+        watcherEventListener = listenerCaptor.getValue();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        detector.stopWatcher();
+        IoUtil.deleteRecursive(root);
+    }
+
+    @Test
+    public void shouldSendWholeStatusOnSubscribe() throws Exception {
+        subscribe(ENDPOINT_ID);
+
+        GitStatusChangedEventDto event = captureEvents(ENDPOINT_ID, 1).get(0);
+        assertTrue(event.isFullStatus());
+        assertEquals(event.getProjectName(), PROJECT);
+        assertEquals(event.getChangedFiles(), singletonMap("a.txt", singletonList(FileStatus.MODIFIED)));
+        // explicit status rescans working tree, so the subscriber gets changes that are not reported yet
+        verify(connection).status(StatusFormat.SHORT);
+    }
+
+    @Test
+    public void shouldSendOnlyChangedFiles() throws Exception {
+        subscribe(ENDPOINT_ID);
+        captureEvents(ENDPOINT_ID, 1);
+
+        setStatus("b.txt");
+        fileChanged("b.txt");
+
+        GitStatusChangedEventDto event = captureEvents(ENDPOINT_ID, 2).get(1);
+        assertFalse(event.isFullStatus());
+        assertEquals(event.getChangedFiles().get("a.txt"), emptyList());
+        assertEquals(event.getChangedFiles().get("b.txt"), singletonList(FileStatus.MODIFIED));
+        verify(connection).reportedStatus(StatusFormat.SHORT);
+    }
+
+    @Test
+    public void shouldKeepSentStatusesOfSubscribersWhenNewOneSubscribes() throws Exception {
+        subscribe(ENDPOINT_ID);
+        captureEvents(ENDPOINT_ID, 1);
+
+        subscribe(OTHER_ENDPOINT);
+        assertTrue(captureEvents(OTHER_ENDPOINT, 1).get(0).isFullStatus());
+        setStatus("a.txt", "b.txt");
+        fileChanged("b.txt");
+
+        GitStatusChangedEventDto event = captureEvents(ENDPOINT_ID, 2).get(1);
+        assertFalse(event.isFullStatus());
+        assertEquals(event.getChangedFiles(), singletonMap("b.txt", singletonList(FileStatus.MODIFIED)));
+        assertFalse(captureEvents(OTHER_ENDPOINT, 2).get(1).isFullStatus());
+    }
+
+    @Test
+    public void shouldSendWholeStatusAfterMessagesAreDropped() throws Exception {
+        subscribe(ENDPOINT_ID);
+        captureEvents(ENDPOINT_ID, 1);
+
+        when(transmitterMetrics.getDroppedMessages()).thenReturn(singletonMap(ENDPOINT_ID, 1L));
+        setStatus("b.txt");
+        fileChanged("b.txt");
+
+        GitStatusChangedEventDto event = captureEvents(ENDPOINT_ID, 2).get(1);
+        assertTrue(event.isFullStatus());
+        assertEquals(event.getChangedFiles(), singletonMap("b.txt", singletonList(FileStatus.MODIFIED)));
+    }
+
+    @Test
+    public void shouldStopSendingChangesWhenSessionIsClosed() throws Exception {
+        sessionRegistry.add(ENDPOINT_ID, mock(Session.class));
+        subscribe(ENDPOINT_ID);
+        subscribe(OTHER_ENDPOINT);
+        captureEvents(ENDPOINT_ID, 1);
+        captureEvents(OTHER_ENDPOINT, 1);
+
+        sessionRegistry.remove(ENDPOINT_ID);
+        setStatus("b.txt");
+        fileChanged("b.txt");
+
+        captureEvents(OTHER_ENDPOINT, 2);
+        verify(transmitter, times(1)).transmitOneToNone(eq(ENDPOINT_ID), eq(OUTGOING_METHOD), any(GitStatusChangedEventDto.class));
+    }
+
+    private void subscribe(String endpointId) throws Exception {
+        ArgumentCaptor<NotificationHandler> handlerCaptor = ArgumentCaptor.forClass(NotificationHandler.class);
+        verify(handlerRegistry).register(eq("track:git-status"), handlerCaptor.capture());
+        handlerCaptor.getValue().handle(endpointId, mock(JsonRpcParams.class));
+    }
+
+    private void fileChanged(String path) {
+        watcherEventListener.accept(root.toPath().resolve(PROJECT).resolve(path), ENTRY_MODIFY);
+    }
+
+    private void setStatus(String... modified) throws Exception {
+        Status status = mock(Status.class);
+        when(status.getBranchName()).thenReturn("master");
+        when(status.getModified()).thenReturn(asList(modified));
+        when(connection.status(StatusFormat.SHORT)).thenReturn(status);
+        when(connection.reportedStatus(StatusFormat.SHORT)).thenReturn(status);
+    }
+
+    private List<GitStatusChangedEventDto> captureEvents(String endpointId, int count) {
+        verify(transmitter, timeout(5000).times(count)).transmitOneToNone(eq(endpointId), eq(OUTGOING_METHOD), any());
+        ArgumentCaptor<GitStatusChangedEventDto> eventCaptor = ArgumentCaptor.forClass(GitStatusChangedEventDto.class);
+        verify(transmitter, times(count)).transmitOneToNone(eq(endpointId), eq(OUTGOING_METHOD), eventCaptor.capture());
+        return eventCaptor.getAllValues();
+    }
+}
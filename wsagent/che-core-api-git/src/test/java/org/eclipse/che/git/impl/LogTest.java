@@ -35,6 +35,7 @@ import static org.eclipse.che.git.impl.GitTestUtil.addFile;
 import static org.eclipse.che.git.impl.GitTestUtil.cleanupTestRepo;
 import static org.eclipse.che.git.impl.GitTestUtil.connectToInitializedGitRepository;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Igor Vinokur
@@ -77,6 +78,36 @@ public class LogTest {
         assertEquals("Initial add", commits.get(2).getMessage());
     }
 
+    @Test(dataProvider = "GitConnectionFactory", dataProviderClass = GitConnectionFactoryProvider.class)
+    public void testLogBranchesOfCommitsWithoutDiffFiles(GitConnectionFactory connectionFactory) throws GitException, IOException {
+        //given
+        GitConnection connection = connectToInitializedGitRepository(connectionFactory, repository);
+        addFile(connection, "1.txt", "someChanges");
+        connection.add(AddParams.create());
+        connection.commit(CommitParams.create("add 1.txt file"));
+        connection.branchCreate("feature", null);
+
+        addFile(connection, "2.txt", "newChanges");
+        connection.add(AddParams.create());
+        connection.commit(CommitParams.create("add 2.txt file"));
+
+        //when
+        List<Revision> commits = connection.log(LogParams.create().withDiffCommitFiles(false)).getCommits();
+        connection.branchCreate("release", null);
+        List<Revision> commitsAfterBranchCreated = connection.log(LogParams.create()).getCommits();
+
+        //then
+        assertEquals(commits.get(0).getBranches().size(), 1);
+        assertEquals(commits.get(0).getBranches().get(0).getName(), "refs/heads/master");
+        assertEquals(commits.get(1).getBranches().size(), 2);
+        assertEquals(commits.get(1).getBranches().get(0).getName(), "refs/heads/feature");
+        assertEquals(commits.get(1).getBranches().get(1).getName(), "refs/heads/master");
+        assertTrue(commits.get(0).getDiffCommitFile().isEmpty());
+        assertEquals(commitsAfterBranchCreated.get(0).getBranches().size(), 2);
+        assertEquals(commitsAfterBranchCreated.get(1).getBranches().size(), 3);
+        assertEquals(commitsAfterBranchCreated.get(0).getDiffCommitFile().get(0).getNewPath(), "2.txt");
+    }
+
     @Test(dataProvider = "GitConnectionFactory", dataProviderClass = GitConnectionFactoryProvider.class)
     public void testLogWithFileFilter(GitConnectionFactory connectionFactory) throws GitException, IOException {
         //given
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Page of search results.
+ */
+@DTO
+public interface ProjectSearchResponseDto {
+    /** Total number of found files. */
+    int getTotalHits();
+
+    void setTotalHits(int totalHits);
+
+    ProjectSearchResponseDto withTotalHits(int totalHits);
+
+    /** Found files of this page. */
+    List<SearchResultDto> getItemReferences();
+
+    void setItemReferences(List<SearchResultDto> itemReferences);
+
+    ProjectSearchResponseDto withItemReferences(List<SearchResultDto> itemReferences);
+
+    /** Position of the next page in search results or {@code null} if there are no more results. */
+    String getNextPageToken();
+
+    void setNextPageToken(String nextPageToken);
+
+    ProjectSearchResponseDto withNextPageToken(String nextPageToken);
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * Progress of initial indexing of files for search. Until indexing is completed search may return partial results.
+ */
+@DTO
+public interface SearchIndexingProgress {
+    /** Returns {@code true} if initial indexing is completed. */
+    boolean isCompleted();
+
+    void setCompleted(boolean completed);
+
+    SearchIndexingProgress withCompleted(boolean completed);
+
+    /** Number of files found so far. */
+    long getFilesDiscovered();
+
+    void setFilesDiscovered(long filesDiscovered);
+
+    SearchIndexingProgress withFilesDiscovered(long filesDiscovered);
+
+    /** Number of files added to index so far. */
+    long getFilesIndexed();
+
+    void setFilesIndexed(long filesIndexed);
+
+    SearchIndexingProgress withFilesIndexed(long filesIndexed);
+
+    /** Number of bytes of content added to index so far. */
+    long getBytesIndexed();
+
+    void setBytesIndexed(long bytesIndexed);
+
+    SearchIndexingProgress withBytesIndexed(long bytesIndexed);
+
+    /** Time spent on indexing so far in milliseconds. */
+    long getElapsedTimeMillis();
+
+    void setElapsedTimeMillis(long elapsedTimeMillis);
+
+    SearchIndexingProgress withElapsedTimeMillis(long elapsedTimeMillis);
+
+    /** Estimated time to complete indexing in milliseconds or {@code -1} if it may not be estimated yet. */
+    long getEstimatedTimeMillis();
+
+    void setEstimatedTimeMillis(long estimatedTimeMillis);
+
+    SearchIndexingProgress withEstimatedTimeMillis(long estimatedTimeMillis);
+}
@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.shared.dto.event;
+
+import com.google.common.annotations.Beta;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * To transfer changes of git status of a project.
+ *
+ * <p>Only files which status is changed since the previous event of the project are transferred.
+ * File which is not modified anymore has empty list of statuses. The first event of the project sent
+ * to a client and events sent after messages to the client are lost carry the whole status, see
+ * {@link #isFullStatus()}.
+ */
+@Beta
+@DTO
+public interface GitStatusChangedEventDto {
+    String getProjectName();
+
+    GitStatusChangedEventDto withProjectName(String projectName);
+
+    String getBranchName();
+
+    GitStatusChangedEventDto withBranchName(String branchName);
+
+    boolean isClean();
+
+    GitStatusChangedEventDto withClean(boolean clean);
+
+    /** Returns {@code true} if all the changed files of the project are transferred, files which are not listed are not modified. */
+    boolean isFullStatus();
+
+    GitStatusChangedEventDto withFullStatus(boolean fullStatus);
+
+    /** Returns statuses of changed files by paths relative to the project. */
+    Map<String, List<FileStatus>> getChangedFiles();
+
+    GitStatusChangedEventDto withChangedFiles(Map<String, List<FileStatus>> changedFiles);
+
+    enum FileStatus {
+        ADDED,
+        CHANGED,
+        REMOVED,
+        MISSING,
+        MODIFIED,
+        UNTRACKED,
+        UNTRACKED_FOLDER,
+        CONFLICTING,
+    }
+}
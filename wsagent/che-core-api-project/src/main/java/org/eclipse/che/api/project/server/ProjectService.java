@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.base.Optional;
+import com.google.gson.stream.JsonWriter;
+
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -36,10 +39,16 @@ import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
 import org.eclipse.che.api.project.shared.dto.CopyOptions;
 import org.eclipse.che.api.project.shared.dto.ItemReference;
 import org.eclipse.che.api.project.shared.dto.MoveOptions;
+import org.eclipse.che.api.project.shared.dto.ProjectSearchResponseDto;
+import org.eclipse.che.api.project.shared.dto.SearchIndexingProgress;
+import org.eclipse.che.api.project.shared.dto.SearchOccurrenceDto;
+import org.eclipse.che.api.project.shared.dto.SearchResultDto;
 import org.eclipse.che.api.project.shared.dto.SourceEstimation;
 import org.eclipse.che.api.project.shared.dto.TreeElement;
 import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.search.IndexingProgress;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
@@ -49,6 +58,7 @@ import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.lang.ws.rs.ExtMediaType;
 import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonSerializable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,9 +80,11 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -83,6 +95,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.che.api.project.server.DtoConverter.asDto;
 import static org.eclipse.che.api.project.shared.Constants.LINK_REL_CREATE_BATCH_PROJECTS;
 import static org.eclipse.che.api.project.shared.Constants.LINK_REL_CREATE_PROJECT;
@@ -722,8 +735,8 @@ public class ProjectService extends Service {
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
                    @ApiResponse(code = 500, message = "Internal OldServer Error")})
-    public InputStream exportZip(@ApiParam(value = "Path to resource to be exported")
-                                 @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+    public Response exportZip(@ApiParam(value = "Path to resource to be exported")
+                              @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
 
         final FolderEntry folder = projectManager.asFolder(path);
 
@@ -731,7 +744,17 @@ public class ProjectService extends Service {
             throw new NotFoundException("Folder not found " + path);
         }
 
-        return folder.getVirtualFile().zip();
+        // archive is written directly to the response while client reads it, instead of compressing whole folder
+        // into temporary file before response is started
+        final VirtualFile virtualFile = folder.getVirtualFile();
+        final StreamingOutput archive = output -> {
+            try {
+                virtualFile.zip(output);
+            } catch (ForbiddenException | ServerException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+        return Response.ok(archive, ExtMediaType.APPLICATION_ZIP).build();
     }
 
     @GET
@@ -858,6 +881,9 @@ public class ProjectService extends Service {
                                       @QueryParam("name") String name,
                                       @ApiParam(value = "Search keywords")
                                       @QueryParam("text") String text,
+                                      @ApiParam(value = "How search keywords are matched with content of files",
+                                                allowableValues = "QUERY, SUBSTRING, REGEXP")
+                                      @QueryParam("textMatching") @DefaultValue("QUERY") QueryExpression.TextMatching textMatching,
                                       @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
                                       @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
                                       @ApiParam(value = "Skip count")
@@ -881,6 +907,7 @@ public class ProjectService extends Service {
                 .setPath(path.startsWith("/") ? path : ('/' + path))
                 .setName(name)
                 .setText(text)
+                .setTextMatching(textMatching)
                 .setMaxItems(maxItems)
                 .setSkipCount(skipCount);
 
@@ -900,6 +927,118 @@ public class ProjectService extends Service {
         return items;
     }
 
+    @GET
+    @Path("/search-occurrences/{path:.*}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Search for resources and occurrences of keywords in them",
+                  notes = "Search for resources applying a number of search filters as query parameters. Next page of results is " +
+                          "retrieved with token returned in previous page",
+                  response = ProjectSearchResponseDto.class)
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 403, message = "User not authorized to call this operation"),
+                   @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public Response searchOccurrences(@ApiParam(value = "Path to resource, i.e. where to search?", required = true)
+                                      @PathParam("path") String path,
+                                      @ApiParam(value = "Resource name")
+                                      @QueryParam("name") String name,
+                                      @ApiParam(value = "Search keywords")
+                                      @QueryParam("text") String text,
+                                      @ApiParam(value = "How search keywords are matched with content of files",
+                                                allowableValues = "QUERY, SUBSTRING, REGEXP")
+                                      @QueryParam("textMatching") @DefaultValue("QUERY")
+                                      QueryExpression.TextMatching textMatching,
+                                      @ApiParam(value = "Maximum items to display. If this parameter is dropped, there are no limits")
+                                      @QueryParam("maxItems") @DefaultValue("-1") int maxItems,
+                                      @ApiParam(value = "Token of page returned in previous search response")
+                                      @QueryParam("pageToken") String pageToken) throws NotFoundException,
+                                                                                        ForbiddenException,
+                                                                                        ServerException {
+        final Searcher searcher;
+        try {
+            searcher = projectManager.getSearcher();
+        } catch (NotFoundException e) {
+            LOG.warn(e.getLocalizedMessage());
+            return Response.ok(newDto(ProjectSearchResponseDto.class).withItemReferences(Collections.emptyList()),
+                               MediaType.APPLICATION_JSON)
+                           .build();
+        }
+
+        final QueryExpression expr = new QueryExpression()
+                .setPath(path.startsWith("/") ? path : ('/' + path))
+                .setName(name)
+                .setText(text)
+                .setTextMatching(textMatching)
+                .setMaxItems(maxItems)
+                .setSearchAfter(pageToken);
+
+        final SearchResult result = searcher.search(expr);
+        final Optional<QueryExpression> nextPage = result.getNextPageQueryExpression();
+        final FolderEntry root = projectManager.getProjectsRoot();
+        // occurrences are found file by file while response is written, so occurrences of the whole page are never kept in memory
+        final StreamingOutput page = output -> {
+            final JsonWriter writer = DtoFactory.newJsonWriter(new OutputStreamWriter(output, UTF_8));
+            writer.beginObject();
+            writer.name("totalHits").value(result.getTotalHits());
+            writer.name("itemReferences").beginArray();
+            try {
+                for (SearchResultEntry searchResultEntry : result.getResults()) {
+                    final VirtualFileEntry child = root.getChild(searchResultEntry.getFilePath());
+                    if (child != null && child.isFile()) {
+                        final List<SearchOccurrence> occurrences = searcher.findOccurrences(searchResultEntry.getFilePath(), expr);
+                        ((JsonSerializable)asSearchResultDto((FileEntry)child, occurrences)).writeTo(writer);
+                    }
+                }
+            } catch (ServerException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            writer.endArray();
+            if (nextPage.isPresent()) {
+                writer.name("nextPageToken").value(nextPage.get().getSearchAfter());
+            }
+            writer.endObject();
+            writer.flush();
+        };
+        return Response.ok(page, MediaType.APPLICATION_JSON).build();
+    }
+
+    private SearchResultDto asSearchResultDto(FileEntry file, List<SearchOccurrence> occurrences) throws ServerException {
+        final List<SearchOccurrenceDto> occurrenceDtos = new ArrayList<>(occurrences.size());
+        for (SearchOccurrence occurrence : occurrences) {
+            occurrenceDtos.add(newDto(SearchOccurrenceDto.class).withPhrase(occurrence.getPhrase())
+                                                                .withLineNumber(occurrence.getLineNumber())
+                                                                .withStartOffset(occurrence.getStartOffset())
+                                                                .withEndOffset(occurrence.getEndOffset())
+                                                                .withLineContent(occurrence.getLineContent()));
+        }
+        return newDto(SearchResultDto.class).withItemReference(injectFileLinks(asDto(file)))
+                                            .withSearchOccurrences(occurrenceDtos);
+    }
+
+    @GET
+    @Path("/search-progress")
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value = "Get progress of initial indexing of resources for search",
+                  notes = "Until indexing is completed search may return partial results",
+                  response = SearchIndexingProgress.class)
+    @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 500, message = "Internal Server Error")})
+    public SearchIndexingProgress getSearchIndexingProgress() throws ServerException {
+        IndexingProgress progress;
+        try {
+            progress = projectManager.getSearcher().getIndexingProgress();
+        } catch (NotFoundException e) {
+            LOG.warn(e.getLocalizedMessage());
+            progress = IndexingProgress.COMPLETED;
+        }
+        return newDto(SearchIndexingProgress.class).withCompleted(progress.isCompleted())
+                                                   .withFilesDiscovered(progress.getFilesDiscovered())
+                                                   .withFilesIndexed(progress.getFilesIndexed())
+                                                   .withBytesIndexed(progress.getBytesIndexed())
+                                                   .withElapsedTimeMillis(progress.getElapsedTimeMillis())
+                                                   .withEstimatedTimeMillis(progress.getEstimatedTimeMillis());
+    }
+
     private void logProjectCreatedEvent(@NotNull String projectName, @NotNull String projectType) {
         LOG.info("EVENT#project-created# PROJECT#{}# TYPE#{}# WS#{}# USER#{}# PAAS#default#",
                  projectName,
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
-import com.google.common.io.ByteStreams;
-
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
@@ -74,9 +72,7 @@ public class TarArchiver extends Archiver {
                 tarEntry.setSize(virtualFile.getLength());
                 tarEntry.setModTime(virtualFile.getLastModificationDate());
                 tarOutputStream.putArchiveEntry(tarEntry);
-                try (InputStream content = virtualFile.getContent()) {
-                    ByteStreams.copy(content, tarOutputStream);
-                }
+                virtualFile.writeContent(tarOutputStream);
             }
             tarOutputStream.closeArchiveEntry();
         } catch (ForbiddenException e) {
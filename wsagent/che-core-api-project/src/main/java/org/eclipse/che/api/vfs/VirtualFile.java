@@ -18,6 +18,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Pair;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -112,6 +113,21 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream getContent() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of the file to {@code output}. Unlike {@link #getContent()} content is neither loaded in memory nor
+     * copied to temporary file. File is locked for reading only while it is opened, so update of the file made while
+     * content is written may be partially visible in {@code output}.
+     *
+     * @param output
+     *         output to write content to, it is not closed by this method
+     * @throws ForbiddenException
+     *         if this item is not a file
+     * @throws ServerException
+     *         if other error occurs
+     * @see #isFile()
+     */
+    void writeContent(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Gets content of the file as bytes.
      *
@@ -504,6 +520,19 @@ public interface VirtualFile extends Comparable<VirtualFile> {
      */
     InputStream zip() throws ForbiddenException, ServerException;
 
+    /**
+     * Writes content of folder denoted by this VirtualFile as zip archive to {@code output}. Archive is written while
+     * folder is traversed, it is not copied to temporary file before.
+     *
+     * @param output
+     *         output to write zip archive to
+     * @throws ForbiddenException
+     *         if this item does not denote a folder
+     * @throws ServerException
+     *         if other error occurs
+     */
+    void zip(OutputStream output) throws ForbiddenException, ServerException;
+
     /**
      * Extracts zip archive to the folder denoted by this VirtualFile.
      *
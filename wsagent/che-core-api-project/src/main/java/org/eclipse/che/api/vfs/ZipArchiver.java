@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
-import com.google.common.io.ByteStreams;
-
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
@@ -71,9 +69,7 @@ public class ZipArchiver extends Archiver {
             if (virtualFile.isFolder()) {
                 zipEntry.setTime(0);
             } else {
-                try (InputStream content = virtualFile.getContent()) {
-                    ByteStreams.copy(content, zipOutputStream);
-                }
+                virtualFile.writeContent(zipOutputStream);
                 zipEntry.setTime(virtualFile.getLastModificationDate());
             }
             zipOutputStream.closeEntry();
@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Persistent cache of hash sums of files. Hash sum of file is kept together with modification time and size of file
+ * and is considered as valid while both are not changed. Cache is loaded from file on first access and is stored back
+ * with {@link #save()}.
+ * <p/>
+ * Class is thread safe.
+ */
+class FileHashCache {
+    private static final Logger LOG = LoggerFactory.getLogger(FileHashCache.class);
+
+    private final File                    file;
+    private final FileHashCacheSerializer serializer;
+
+    private volatile Map<String, Entry> entries;
+    private volatile boolean            modified;
+
+    /**
+     * @param file
+     *         file where cache is stored, it is created on first {@link #save()} if does not exist
+     */
+    FileHashCache(File file) {
+        this.file = file;
+        this.serializer = new FileHashCacheSerializer();
+    }
+
+    /**
+     * Returns cached hash sum of file.
+     *
+     * @param path
+     *         path of file
+     * @param lastModified
+     *         actual modification time of file
+     * @param length
+     *         actual size of file
+     * @return hash sum or {@code null} if there is no hash sum for this state of file
+     */
+    String get(String path, long lastModified, long length) {
+        final Entry entry = getEntries().get(path);
+        if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+            return entry.hash;
+        }
+        return null;
+    }
+
+    /** Caches hash sum of file in specified state. */
+    void put(String path, long lastModified, long length, String hash) {
+        final Entry entry = new Entry(lastModified, length, hash);
+        if (!entry.equals(getEntries().put(path, entry))) {
+            modified = true;
+        }
+    }
+
+    /**
+     * Removes hash sums of files that are located under specified folder but are not in {@code existing}, e.g. hash sums
+     * of removed files.
+     */
+    void retain(String folderPath, Set<String> existing) {
+        final String prefix = folderPath.endsWith("/") ? folderPath : folderPath + '/';
+        if (getEntries().keySet().removeIf(path -> path.startsWith(prefix) && !existing.contains(path))) {
+            modified = true;
+        }
+    }
+
+    /** Stores cache to the file if it was modified since loading or last saving. */
+    synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+        modified = false;
+        final File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException(String.format("Unable create directory '%s'", parent));
+        }
+        final File tmp = new File(parent, file.getName() + ".tmp");
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            // copy, since entries may be changed concurrently while they are written
+            serializer.write(dos, new HashMap<>(getEntries()));
+        } catch (IOException e) {
+            modified = true;
+            throw e;
+        }
+        Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    private Map<String, Entry> getEntries() {
+        Map<String, Entry> result = entries;
+        if (result == null) {
+            synchronized (this) {
+                result = entries;
+                if (result == null) {
+                    entries = result = load();
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Entry> load() {
+        final Map<String, Entry> loaded = new ConcurrentHashMap<>();
+        if (file.exists()) {
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                loaded.putAll(serializer.read(dis));
+            } catch (IOException e) {
+                // cache is rebuilt on next hash sums counting
+                LOG.warn("Unable read cache of hash sums from {}: {}", file, e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    static final class Entry {
+        final long   lastModified;
+        final long   length;
+        final String hash;
+
+        Entry(long lastModified, long length, String hash) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            final Entry other = (Entry)o;
+            return lastModified == other.lastModified
+                   && length == other.length
+                   && Objects.equals(hash, other.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, length, hash);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
+
+/**
+ * Serializer for entries of {@link FileHashCache}.
+ *
+ * @see FileHashCache
+ */
+class FileHashCacheSerializer implements DataSerializer<Map<String, FileHashCache.Entry>> {
+    private static final int FORMAT_VERSION = 1;
+
+    @Override
+    public void write(DataOutput output, Map<String, FileHashCache.Entry> entries) throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(entries.size());
+        for (Map.Entry<String, FileHashCache.Entry> entry : entries.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeLong(entry.getValue().lastModified);
+            output.writeLong(entry.getValue().length);
+            output.writeUTF(entry.getValue().hash);
+        }
+    }
+
+    @Override
+    public Map<String, FileHashCache.Entry> read(DataInput input) throws IOException {
+        final int version = input.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(String.format("Unsupported format version %d", version));
+        }
+        final int recordsNum = input.readInt();
+        final Map<String, FileHashCache.Entry> entries = newHashMapWithExpectedSize(recordsNum);
+        for (int i = 0; i < recordsNum; i++) {
+            final String path = input.readUTF();
+            final long lastModified = input.readLong();
+            final long length = input.readLong();
+            final String hash = input.readUTF();
+            entries.put(path, new FileHashCache.Entry(lastModified, length, hash));
+        }
+        return entries;
+    }
+}
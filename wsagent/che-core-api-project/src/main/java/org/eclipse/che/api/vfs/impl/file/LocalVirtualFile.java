@@ -25,6 +25,8 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -59,7 +61,7 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public boolean exists() {
-        return toIoFile().exists();
+        return fileSystem.getAttributes(this) != null;
     }
 
     @Override
@@ -69,12 +71,14 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public boolean isFile() {
-        return toIoFile().isFile();
+        final BasicFileAttributes attributes = fileSystem.getAttributes(this);
+        return attributes != null && attributes.isRegularFile();
     }
 
     @Override
     public boolean isFolder() {
-        return toIoFile().isDirectory();
+        final BasicFileAttributes attributes = fileSystem.getAttributes(this);
+        return attributes != null && attributes.isDirectory();
     }
 
     @Override
@@ -107,6 +111,11 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.getContent(this);
     }
 
+    @Override
+    public void writeContent(OutputStream output) throws ForbiddenException, ServerException {
+        fileSystem.writeContent(this, output);
+    }
+
     @Override
     public byte[] getContentAsBytes() throws ForbiddenException, ServerException {
         if (getLength() > MAX_BUFFER_SIZE) {
@@ -157,15 +166,17 @@ public class LocalVirtualFile implements VirtualFile {
 
     @Override
     public long getLastModificationDate() {
-        return toIoFile().lastModified();
+        final BasicFileAttributes attributes = fileSystem.getAttributes(this);
+        return attributes == null ? 0 : attributes.lastModifiedTime().toMillis();
     }
 
     @Override
     public long getLength() throws ServerException {
-        if (isFolder()) {
+        final BasicFileAttributes attributes = fileSystem.getAttributes(this);
+        if (attributes == null || attributes.isDirectory()) {
             return 0;
         }
-        return toIoFile().length();
+        return attributes.size();
     }
 
     @Override
@@ -246,6 +257,11 @@ public class LocalVirtualFile implements VirtualFile {
         return fileSystem.zip(this);
     }
 
+    @Override
+    public void zip(OutputStream output) throws ForbiddenException, ServerException {
+        fileSystem.zip(this, output);
+    }
+
     @Override
     public void unzip(InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -25,7 +26,6 @@ import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.Archiver;
 import org.eclipse.che.api.vfs.ArchiverFactory;
-import org.eclipse.che.api.vfs.HashSumsCounter;
 import org.eclipse.che.api.vfs.LockedFileFinder;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.PathLockFactory;
@@ -35,6 +35,8 @@ import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.api.vfs.util.DeleteOnCloseFileInputStream;
+import org.eclipse.che.api.vfs.watcher.FileWatcherEventHandler;
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.commons.lang.Pair;
@@ -52,16 +54,23 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Lists.newArrayListWithCapacity;
 import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
@@ -82,18 +91,33 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private static final long WAIT_FOR_FILE_LOCK_TIMEOUT = 60000; // 60 seconds
     private static final int  FILE_LOCK_MAX_THREADS      = 1024;
 
+    private static final int ATTRIBUTES_CACHE_SIZE = 16 * 1024;
+    private static final int CHILDREN_CACHE_SIZE   = 1024;
+
     private static final String   VFS_SERVICE_DIR        = ".vfs";
     private static final String   FILE_LOCKS_DIR         = VFS_SERVICE_DIR + File.separatorChar + "locks";
     private static final String   LOCK_FILE_SUFFIX       = "_lock";
     private static final FileLock NO_LOCK                = new FileLock("no_lock", 0);
     private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
     private static final String   PROPERTIES_FILE_SUFFIX = "_props";
+    private static final String   MD5_SUMS_CACHE_FILE    = VFS_SERVICE_DIR + File.separatorChar + "hashes" + File.separatorChar + "md5";
 
     private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
 
     private static final FilenameFilter VFS_LOCK_FILTER =
             (dir, name) -> !(dir.getAbsolutePath().endsWith(FILE_LOCKS_DIR) || name.endsWith(LOCK_FILE_SUFFIX));
 
+    /** Cached value and number of invalidations of cached state at the moment when value was read. */
+    private static class CachedState<V> {
+        final V    value;
+        final long invalidations;
+
+        CachedState(V value, long invalidations) {
+            this.value = value;
+            this.invalidations = invalidations;
+        }
+    }
+
     private class LockTokenCacheLoader extends CacheLoader<Path, FileLock> {
         @Override
         public FileLock load(Path path) throws Exception {
@@ -136,11 +160,45 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private final FileMetadataSerializer                  metadataSerializer;
     private final LoadingCache<Path, Map<String, String>> metadataCache;
 
-    @SuppressWarnings("unchecked")
+    /*
+     * Attributes and children of items are cached only if file system is watched for changes made outside of this class,
+     * see constructor. Cached state is dropped on file watcher events and on changes made by this class itself.
+     * Cached state of a whole subtree is dropped lazily: the root of subtree is remembered in invalidatedSubtrees
+     * together with the number of invalidations, and entries that were read before that are ignored on lookup.
+     */
+    private final FileWatcherService                                      watcherService;
+    private final FileWatcherEventHandler                                 watcherEventHandler;
+    private final BiConsumer<java.nio.file.Path, WatchEvent.Kind<?>>      watcherEventListener;
+    private final Cache<Path, CachedState<Optional<BasicFileAttributes>>> attributesCache;
+    private final Cache<Path, CachedState<String[]>>                      childrenCache;
+    private final Cache<Path, Long>                                       invalidatedSubtrees;
+    private final Object                                                  cachedStateLock = new Object();
+    /** Number of invalidations of cached state, guarded by {@link #cachedStateLock}. */
+    private long cachedStateInvalidations;
+
+    private final FileHashCache md5SumsCache;
+    /** Pool for counting of hash sums, created on first use. */
+    private ForkJoinPool hashSumsPool;
+
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
                                   SearcherProvider searcherProvider,
                                   AbstractVirtualFileSystemProvider.CloseCallback closeCallback) {
+        this(ioRoot, archiverFactory, searcherProvider, closeCallback, null, null);
+    }
+
+    /**
+     * Creates file system that caches attributes and children of items. Cached state is invalidated with events of
+     * {@code watcherService}, so it is used only for directories that are watched by the service. If any of
+     * {@code watcherService} or {@code watcherEventHandler} is {@code null} then nothing is cached.
+     */
+    @SuppressWarnings("unchecked")
+    public LocalVirtualFileSystem(File ioRoot,
+                                  ArchiverFactory archiverFactory,
+                                  SearcherProvider searcherProvider,
+                                  AbstractVirtualFileSystemProvider.CloseCallback closeCallback,
+                                  FileWatcherService watcherService,
+                                  FileWatcherEventHandler watcherEventHandler) {
         this.ioRoot = ioRoot;
         this.archiverFactory = archiverFactory;
         this.searcherProvider = searcherProvider;
@@ -162,6 +220,38 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                                     .maximumSize(256)
                                     .expireAfterAccess(10, MINUTES)
                                     .build(new FilePropertiesCacheLoader());
+
+        md5SumsCache = new FileHashCache(new File(ioRoot, MD5_SUMS_CACHE_FILE));
+
+        if (watcherService != null && watcherEventHandler != null) {
+            this.watcherService = watcherService;
+            this.watcherEventHandler = watcherEventHandler;
+            attributesCache = CacheBuilder.newBuilder()
+                                          .concurrencyLevel(8)
+                                          .maximumSize(ATTRIBUTES_CACHE_SIZE)
+                                          .expireAfterWrite(1, MINUTES)
+                                          .build();
+            childrenCache = CacheBuilder.newBuilder()
+                                        .concurrencyLevel(8)
+                                        .maximumSize(CHILDREN_CACHE_SIZE)
+                                        .expireAfterWrite(1, MINUTES)
+                                        .build();
+            // Not bounded by size, evicted mark would make stale entries visible again. Mark expires together
+            // with all entries that were cached before it, since they are cached for the same time.
+            invalidatedSubtrees = CacheBuilder.newBuilder()
+                                              .concurrencyLevel(8)
+                                              .expireAfterWrite(1, MINUTES)
+                                              .build();
+            watcherEventListener = this::onFileSystemChange;
+            watcherEventHandler.addEventListener(watcherEventListener);
+        } else {
+            this.watcherService = null;
+            this.watcherEventHandler = null;
+            attributesCache = null;
+            childrenCache = null;
+            invalidatedSubtrees = null;
+            watcherEventListener = null;
+        }
     }
 
     @Override
@@ -176,7 +266,15 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
 
     @Override
     public void close() throws ServerException {
+        if (watcherEventHandler != null) {
+            watcherEventHandler.removeEventListener(watcherEventListener);
+        }
         cleanUpCaches();
+        synchronized (this) {
+            if (hashSumsPool != null) {
+                hashSumsPool.shutdown();
+            }
+        }
         if (searcherProvider != null) {
             Searcher searcher = searcherProvider.getSearcher(this, false);
             if (searcher != null) {
@@ -210,6 +308,102 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         metadataCache.invalidateAll();
     }
 
+    /** Returns attributes of item or {@code null} if item does not exist. */
+    BasicFileAttributes getAttributes(LocalVirtualFile virtualFile) {
+        if (attributesCache == null) {
+            return readAttributes(virtualFile.toIoFile());
+        }
+        final Optional<BasicFileAttributes> cached = getFromCache(attributesCache, virtualFile.getPath());
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        final long invalidations = getCachedStateInvalidations();
+        final BasicFileAttributes attributes = readAttributes(virtualFile.toIoFile());
+        if (watcherService.isTracked(virtualFile.toIoFile().toPath())) {
+            putInCache(attributesCache, virtualFile.getPath(), Optional.ofNullable(attributes), invalidations);
+        }
+        return attributes;
+    }
+
+    private static BasicFileAttributes readAttributes(File ioFile) {
+        try {
+            return java.nio.file.Files.readAttributes(ioFile.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long getCachedStateInvalidations() {
+        synchronized (cachedStateLock) {
+            return cachedStateInvalidations;
+        }
+    }
+
+    /** Caches value unless cached state was invalidated after value was read, otherwise value might be already stale. */
+    private <V> void putInCache(Cache<Path, CachedState<V>> cache, Path path, V value, long invalidations) {
+        synchronized (cachedStateLock) {
+            if (invalidations == cachedStateInvalidations) {
+                cache.put(path, new CachedState<>(value, invalidations));
+            }
+        }
+    }
+
+    /** Returns cached value or {@code null} if nothing is cached or subtree with item was invalidated after value was read. */
+    private <V> V getFromCache(Cache<Path, CachedState<V>> cache, Path path) {
+        final CachedState<V> cached = cache.getIfPresent(path);
+        if (cached == null) {
+            return null;
+        }
+        for (Path subtree = path; subtree != null; subtree = subtree.getParent()) {
+            final Long invalidatedAt = invalidatedSubtrees.getIfPresent(subtree);
+            if (invalidatedAt != null && invalidatedAt > cached.invalidations) {
+                cache.asMap().remove(path, cached);
+                return null;
+            }
+        }
+        return cached.value;
+    }
+
+    /**
+     * Drops cached attributes and children of item and its parent, since creation or removal of item changes both.
+     * If {@code subtree} is {@code true} cached state of all descendants of item is dropped as well. It takes constant
+     * time, descendants are checked against invalidated subtree on lookup. Changes made by this class itself call it
+     * before they return, so they are visible to next read regardless of file watcher events.
+     */
+    private void invalidateCachedState(Path path, boolean subtree) {
+        if (attributesCache == null) {
+            return;
+        }
+        synchronized (cachedStateLock) {
+            cachedStateInvalidations++;
+            attributesCache.invalidate(path);
+            childrenCache.invalidate(path);
+            if (!path.isRoot()) {
+                attributesCache.invalidate(path.getParent());
+                childrenCache.invalidate(path.getParent());
+            }
+            if (subtree) {
+                invalidatedSubtrees.put(path, cachedStateInvalidations);
+            }
+        }
+    }
+
+    private void onFileSystemChange(java.nio.file.Path ioPath, WatchEvent.Kind<?> kind) {
+        final java.nio.file.Path ioRootPath = ioRoot.toPath();
+        if (!ioPath.startsWith(ioRootPath)) {
+            return;
+        }
+        final java.nio.file.Path relative = ioRootPath.relativize(ioPath);
+        Path path = Path.ROOT;
+        if (!relative.toString().isEmpty()) {
+            for (java.nio.file.Path name : relative) {
+                path = path.newPath(name.toString());
+            }
+        }
+        // created or removed item may be a directory with content, e.g. when directory is moved
+        invalidateCachedState(path, kind != ENTRY_MODIFY);
+    }
+
     /** Used in tests. Need this to check state of PathLockFactory. All locks MUST be released at the end of request lifecycle. */
     PathLockFactory getPathLockFactory() {
         return pathLockFactory;
@@ -243,9 +437,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         return newArrayList(path.elements()).contains(".vfs");
     }
 
-    synchronized List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
+    List<VirtualFile> getChildren(LocalVirtualFile parent, VirtualFileFilter filter) throws ServerException {
         if (parent.isFolder()) {
-            final List<VirtualFile> children = doGetChildren(parent, DOT_VFS_DIR_FILTER, filter);
+            final List<VirtualFile> children = doGetChildren(parent, getChildNames(parent), filter);
             Collections.sort(children);
             return children;
         }
@@ -253,17 +447,33 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
-    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, FilenameFilter ioFileFilter, VirtualFileFilter vfsFilter)
-            throws ServerException {
-        if (ioFileFilter == null) {
-            ioFileFilter = IoUtil.ANY_FILTER;
+    private String[] getChildNames(LocalVirtualFile parent) throws ServerException {
+        String[] names = childrenCache == null ? null : getFromCache(childrenCache, parent.getPath());
+        if (names != null) {
+            return names;
         }
 
-        final String[] names = parent.toIoFile().list(ioFileFilter);
+        final long invalidations = getCachedStateInvalidations();
+        // Shared lock lets concurrent listings of the same or different folders run in parallel,
+        // while they still wait for exclusive operations (e.g. update, move, delete) in the same subtree.
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(parent.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+        try {
+            names = parent.toIoFile().list(DOT_VFS_DIR_FILTER);
+        } finally {
+            lock.release();
+        }
         if (names == null) {
             throw new ServerException(String.format("Unable get children of '%s'", parent.getPath()));
         }
 
+        if (childrenCache != null && watcherService.isWatched(parent.toIoFile().toPath())) {
+            putInCache(childrenCache, parent.getPath(), names, invalidations);
+        }
+        return names;
+    }
+
+
+    private List<VirtualFile> doGetChildren(LocalVirtualFile parent, String[] names, VirtualFileFilter vfsFilter) {
         if (vfsFilter == null) {
             vfsFilter = VirtualFileFilter.ACCEPT_ALL;
         }
@@ -302,6 +512,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                 LOG.error(errorMessage + "\n" + e.getMessage(), e);
                 throw new ServerException(errorMessage);
             }
+            invalidateCachedState(newPath, false);
 
             final LocalVirtualFile newVirtualFile = new LocalVirtualFile(newIoFile, newPath, this);
 
@@ -330,6 +541,10 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                     throw new ConflictException(String.format("Item '%s' already exists", newPath));
                 }
             }
+            // name may contain a few segments, all missed folders are created
+            for (Path created = newPath; !created.equals(parent.getPath()); created = created.getParent()) {
+                invalidateCachedState(created, false);
+            }
 
             return new LocalVirtualFile(newIoFile, newPath, this);
         } else {
@@ -386,6 +601,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             String errorMessage = String.format("Unable copy '%s' to '%s'", from, to);
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
+        } finally {
+            invalidateCachedState(to.getPath(), true);
         }
     }
 
@@ -518,6 +735,33 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    void writeContent(LocalVirtualFile virtualFile, OutputStream output) throws ForbiddenException, ServerException {
+        if (virtualFile.isFile()) {
+            final PathLockFactory.PathLock lock = pathLockFactory.getLock(virtualFile.getPath(), false).acquire(WAIT_FOR_FILE_LOCK_TIMEOUT);
+            final InputStream content;
+            try {
+                content = new FileInputStream(virtualFile.toIoFile());
+            } catch (IOException e) {
+                String errorMessage = String.format("Unable write content of '%s'", virtualFile.getPath());
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
+            } finally {
+                lock.release();
+            }
+            // Output may be slow remote client, do not block writers of this file until whole content is consumed.
+            try (InputStream in = content) {
+                ByteStreams.copy(in, output);
+            } catch (IOException e) {
+                String errorMessage = String.format("Unable write content of '%s'", virtualFile.getPath());
+                LOG.error(errorMessage + "\n" + e.getMessage(), e);
+                throw new ServerException(errorMessage);
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable get content. Item '%s' is not a file", virtualFile.getPath()));
+        }
+    }
+
+
     void updateContent(LocalVirtualFile virtualFile, InputStream content, String lockToken)
             throws ForbiddenException, ServerException {
         if (virtualFile.isFile()) {
@@ -544,6 +788,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             String errorMessage = String.format("Unable set content of '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
             throw new ServerException(errorMessage);
+        } finally {
+            invalidateCachedState(virtualFile.getPath(), false);
         }
     }
 
@@ -589,7 +835,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             }
         }
 
-        if (!deleteRecursive(virtualFile.toIoFile())) {
+        final boolean deleted = deleteRecursive(virtualFile.toIoFile());
+        invalidateCachedState(virtualFile.getPath(), true);
+        if (!deleted) {
             LOG.error("Unable delete file {}", virtualFile.toIoFile());
             throw new ServerException(String.format("Unable delete item '%s'", virtualFile.getPath()));
         }
@@ -608,13 +856,33 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    void zip(LocalVirtualFile folder, OutputStream output) throws ForbiddenException, ServerException {
+        if(archiverFactory == null)
+            throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
+
+        if (folder.isFolder()) {
+            try {
+                archiverFactory.createArchiver(folder, "zip").compress(output, dotGitFilter());
+            } catch (IOException e) {
+                throw new ServerException(e.getMessage(), e);
+            }
+        } else {
+            throw new ForbiddenException(String.format("Unable export to zip. Item '%s' is not a folder", folder.getPath()));
+        }
+    }
+
+
     void unzip(LocalVirtualFile parent, InputStream zipped, boolean overwrite, int stripNumber)
             throws ForbiddenException, ConflictException, ServerException {
         if(archiverFactory == null)
             throw new ServerException("VFS: Could not create zip archiver. Archiver Factory is not properly configured (is null)");
 
         if (parent.isFolder()) {
-            extract(archiverFactory.createArchiver(parent, "zip"), zipped, overwrite, stripNumber);
+            try {
+                extract(archiverFactory.createArchiver(parent, "zip"), zipped, overwrite, stripNumber);
+            } finally {
+                invalidateCachedState(parent.getPath(), true);
+            }
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import zip content. Item '%s' is not a folder", parent.getPath()));
@@ -639,7 +907,11 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             throw new ServerException("VFS: Could not create tar archiver. Archiver Factory is not properly configured (is null)");
 
         if (parent.isFolder()) {
-            extract(archiverFactory.createArchiver(parent, "tar"), tarArchive, overwrite, stripNumber);
+            try {
+                extract(archiverFactory.createArchiver(parent, "tar"), tarArchive, overwrite, stripNumber);
+            } finally {
+                invalidateCachedState(parent.getPath(), true);
+            }
             addInSearcher(parent);
         } else {
             throw new ForbiddenException(String.format("Unable import tar archive. Item '%s' is not a folder", parent.getPath()));
@@ -878,6 +1150,7 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
             if (!virtualFile.toIoFile().setLastModified(System.currentTimeMillis())) {
                 LOG.warn("Unable to set timestamp to '{}'", virtualFile.toIoFile());
             }
+            invalidateCachedState(virtualFile.getPath(), false);
         } catch (IOException e) {
             String errorMessage = String.format("Unable lock file '%s'", virtualFile.getPath());
             LOG.error(errorMessage + "\n" + e.getMessage(), e);
@@ -908,7 +1181,22 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         if (virtualFile.isFile()) {
             return emptyList();
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
+        return new ParallelHashSumsCounter(virtualFile.toIoFile(),
+                                           virtualFile.getPath(),
+                                           Hashing.md5(),
+                                           md5SumsCache,
+                                           getHashSumsPool(),
+                                           DOT_VFS_DIR_FILTER,
+                                           pathLockFactory,
+                                           WAIT_FOR_FILE_LOCK_TIMEOUT).countHashSums();
+    }
+
+
+    private synchronized ForkJoinPool getHashSumsPool() {
+        if (hashSumsPool == null) {
+            hashSumsPool = new ForkJoinPool();
+        }
+        return hashSumsPool;
     }
 
 
@@ -15,6 +15,8 @@ import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.watcher.FileWatcherEventHandler;
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -28,6 +30,9 @@ public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemPro
     private final File             rootDirectory;
     private final SearcherProvider searcherProvider;
 
+    private FileWatcherService      watcherService;
+    private FileWatcherEventHandler watcherEventHandler;
+
     @Inject
     public LocalVirtualFileSystemProvider(@Named("che.user.workspaces.storage") File rootDirectory,
                                           SearcherProvider searcherProvider) throws IOException {
@@ -36,8 +41,20 @@ public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemPro
         Files.createDirectories(rootDirectory.toPath());
     }
 
+    /** Enables caching of attributes and children of items in created file system, see {@link LocalVirtualFileSystem}. */
+    @com.google.inject.Inject(optional = true)
+    void setFileWatcher(FileWatcherService watcherService, FileWatcherEventHandler watcherEventHandler) {
+        this.watcherService = watcherService;
+        this.watcherEventHandler = watcherEventHandler;
+    }
+
     @Override
     protected VirtualFileSystem createVirtualFileSystem(CloseCallback closeCallback) throws ServerException {
-        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+        return new LocalVirtualFileSystem(rootDirectory,
+                                          new ArchiverFactory(),
+                                          searcherProvider,
+                                          closeCallback,
+                                          watcherService,
+                                          watcherEventHandler);
     }
 }
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.HashSumsCounter;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.commons.lang.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Calculates hash sums of all files in folder the same way as {@link HashSumsCounter} does but works with local files
+ * directly: tree of folder is traversed with fork-join tasks, so files are hashed in parallel, files are read with
+ * positional reads into direct buffer reused by each thread and hash sums of files that are not changed since previous
+ * counting are taken from {@link FileHashCache}. Each file is read under shared lock of virtual file system, so it is not
+ * read while it is updated through virtual file system.
+ */
+class ParallelHashSumsCounter {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelHashSumsCounter.class);
+
+    /** Size of buffer that files are read with. */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Hash sums of files modified within this interval before counting are not cached since following modification of
+     * such file may not change its modification time.
+     */
+    private static final long RACY_INTERVAL_MILLIS = 2000;
+
+    private static final ThreadLocal<ByteBuffer> DIRECT_BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    private static final ThreadLocal<byte[]>     BUFFERS        = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final File            ioFolder;
+    private final Path            folder;
+    private final HashFunction    hashFunction;
+    private final FileHashCache   cache;
+    private final ForkJoinPool    pool;
+    private final FilenameFilter  filter;
+    private final PathLockFactory pathLockFactory;
+    private final long            lockTimeout;
+
+    private final Queue<Pair<String, String>> hashSums = new ConcurrentLinkedQueue<>();
+    private final Set<String>                 visited  = ConcurrentHashMap.newKeySet();
+
+    private long startTime;
+
+    /**
+     * @param ioFolder
+     *         folder which files should be hashed
+     * @param folder
+     *         virtual file system path of {@code ioFolder}, it is used as key in {@code cache}
+     * @param hashFunction
+     *         algorithm of hash sums
+     * @param cache
+     *         cache of hash sums calculated with the same {@code hashFunction}, may be {@code null}
+     * @param pool
+     *         pool that runs traversal and hashing
+     * @param filter
+     *         filter of files and folders that should be traversed
+     * @param pathLockFactory
+     *         locks of virtual file system, shared lock of file is held while file is read
+     * @param lockTimeout
+     *         maximum time in milliseconds to wait for lock of file
+     */
+    ParallelHashSumsCounter(File ioFolder,
+                            Path folder,
+                            HashFunction hashFunction,
+                            FileHashCache cache,
+                            ForkJoinPool pool,
+                            FilenameFilter filter,
+                            PathLockFactory pathLockFactory,
+                            long lockTimeout) {
+        this.ioFolder = ioFolder;
+        this.folder = folder;
+        this.hashFunction = hashFunction;
+        this.cache = cache;
+        this.pool = pool;
+        this.filter = filter;
+        this.pathLockFactory = pathLockFactory;
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Hash sums of files in the same format as {@link HashSumsCounter#countHashSums()} returns. Hash sums are ordered by
+     * path of file.
+     */
+    List<Pair<String, String>> countHashSums() throws ServerException {
+        startTime = System.currentTimeMillis();
+        try {
+            pool.invoke(new FolderTask(ioFolder, folder));
+        } catch (UncheckedIOException e) {
+            throw new ServerException(e.getCause().getMessage(), e.getCause());
+        }
+
+        if (cache != null) {
+            cache.retain(folder.toString(), visited);
+            try {
+                cache.save();
+            } catch (IOException e) {
+                LOG.warn("Unable save cache of hash sums: {}", e.getMessage());
+            }
+        }
+
+        final List<Pair<String, String>> result = new ArrayList<>(hashSums);
+        result.sort((one, two) -> one.second.compareTo(two.second));
+        return result;
+    }
+
+    private String hash(File file, Path path) throws IOException {
+        final Hasher hasher = hashFunction.newHasher();
+        final ByteBuffer buffer = DIRECT_BUFFERS.get();
+        final byte[] bytes = BUFFERS.get();
+        final PathLockFactory.PathLock lock = pathLockFactory.getLock(path, false).acquire(lockTimeout);
+        try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            // read until end of file rather than up to its size, file may be truncated or extended meanwhile
+            long position = 0;
+            int count;
+            buffer.clear();
+            while ((count = channel.read(buffer, position)) != -1) {
+                position += count;
+                buffer.flip();
+                buffer.get(bytes, 0, count);
+                hasher.putBytes(bytes, 0, count);
+                buffer.clear();
+            }
+        } finally {
+            lock.release();
+        }
+        return hasher.hash().toString();
+    }
+
+    private class FolderTask extends RecursiveAction {
+        private final File dir;
+        private final Path path;
+
+        FolderTask(File dir, Path path) {
+            this.dir = dir;
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            final String[] names = dir.list(filter);
+            if (names == null) {
+                throw new UncheckedIOException(new IOException(String.format("Unable get children of '%s'", path)));
+            }
+            final List<RecursiveAction> tasks = new ArrayList<>(names.length);
+            for (String name : names) {
+                final File child = new File(dir, name);
+                final BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(child.toPath(), BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // removed after listing of folder
+                    continue;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (attributes.isDirectory()) {
+                    tasks.add(new FolderTask(child, path.newPath(name)));
+                } else if (attributes.isRegularFile()) {
+                    tasks.add(new FileTask(child, path.newPath(name), attributes));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    private class FileTask extends RecursiveAction {
+        private final File                file;
+        private final Path                path;
+        private final BasicFileAttributes attributes;
+
+        FileTask(File file, Path path, BasicFileAttributes attributes) {
+            this.file = file;
+            this.path = path;
+            this.attributes = attributes;
+        }
+
+        @Override
+        protected void compute() {
+            final String key = path.toString();
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+            final long length = attributes.size();
+            visited.add(key);
+
+            String hash = cache == null ? null : cache.get(key, lastModified, length);
+            if (hash == null) {
+                try {
+                    hash = hash(file, path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (cache != null && lastModified < startTime - RACY_INTERVAL_MILLIS) {
+                    cache.put(key, lastModified, length, hash);
+                }
+            }
+            hashSums.add(Pair.of(hash, path.subPath(folder).toString()));
+        }
+    }
+}
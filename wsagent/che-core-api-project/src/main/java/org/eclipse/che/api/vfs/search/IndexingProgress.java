@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search;
+
+/**
+ * Snapshot of initial indexing progress of {@link Searcher}. Until initial indexing is completed search results may be partial.
+ */
+public class IndexingProgress {
+    /** Progress of searcher that has nothing to index or already completed initial indexing. */
+    public static final IndexingProgress COMPLETED = new IndexingProgress(true, true, 0, 0, 0, 0);
+
+    private final boolean completed;
+    private final boolean discoveryCompleted;
+    private final long    filesDiscovered;
+    private final long    filesIndexed;
+    private final long    bytesIndexed;
+    private final long    elapsedTimeMillis;
+
+    public IndexingProgress(boolean completed,
+                            boolean discoveryCompleted,
+                            long filesDiscovered,
+                            long filesIndexed,
+                            long bytesIndexed,
+                            long elapsedTimeMillis) {
+        this.completed = completed;
+        this.discoveryCompleted = discoveryCompleted;
+        this.filesDiscovered = filesDiscovered;
+        this.filesIndexed = filesIndexed;
+        this.bytesIndexed = bytesIndexed;
+        this.elapsedTimeMillis = elapsedTimeMillis;
+    }
+
+    /** Returns {@code true} if initial indexing is completed and search results are complete. */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /** Returns {@code true} if all files that should be indexed are already discovered and {@link #getFilesDiscovered()} is final. */
+    public boolean isDiscoveryCompleted() {
+        return discoveryCompleted;
+    }
+
+    /** Number of files found on virtual filesystem so far. */
+    public long getFilesDiscovered() {
+        return filesDiscovered;
+    }
+
+    /** Number of files added to index so far. */
+    public long getFilesIndexed() {
+        return filesIndexed;
+    }
+
+    /** Number of bytes of content added to index so far. */
+    public long getBytesIndexed() {
+        return bytesIndexed;
+    }
+
+    /** Time spent on indexing so far. */
+    public long getElapsedTimeMillis() {
+        return elapsedTimeMillis;
+    }
+
+    /**
+     * Estimated time to complete initial indexing, based on current indexing rate.
+     *
+     * @return estimated time in milliseconds, {@code 0} if indexing is completed or {@code -1} if there is not enough data for
+     * estimation yet
+     */
+    public long getEstimatedTimeMillis() {
+        if (completed) {
+            return 0;
+        }
+        if (!discoveryCompleted || filesIndexed == 0) {
+            return -1;
+        }
+        return (long)((double)elapsedTimeMillis / filesIndexed * Math.max(0, filesDiscovered - filesIndexed));
+    }
+
+    @Override
+    public String toString() {
+        return "IndexingProgress{" +
+               "completed=" + completed +
+               ", discoveryCompleted=" + discoveryCompleted +
+               ", filesDiscovered=" + filesDiscovered +
+               ", filesIndexed=" + filesIndexed +
+               ", bytesIndexed=" + bytesIndexed +
+               ", elapsedTimeMillis=" + elapsedTimeMillis +
+               '}';
+    }
+}
@@ -12,11 +12,24 @@ package org.eclipse.che.api.vfs.search;
 
 /** Container for parameters of query that executed by Searcher.*/
 public class QueryExpression {
-    private String name;
-    private String path;
-    private String text;
-    private int    skipCount;
-    private int    maxItems;
+    /** Defines how {@link #getText() text} of query is matched with content of files. */
+    public enum TextMatching {
+        /** Text is parsed as lucene query syntax and matched with words of content. This is default mode. */
+        QUERY,
+        /** Text is matched as case-insensitive substring of content. */
+        SUBSTRING,
+        /** Text is regular expression that is matched with content. */
+        REGEXP
+    }
+
+    private String       name;
+    private String       path;
+    private String       text;
+    private TextMatching textMatching = TextMatching.QUERY;
+    private int          skipCount;
+    private int          maxItems;
+    private String       searchAfter;
+    private boolean      includeOccurrences;
 
     /** Optional file path parameter. Only file with the specified path or children are included in result. */
     public String getPath() {
@@ -48,6 +61,16 @@ public class QueryExpression {
         return this;
     }
 
+    /** Mode of matching of text with content of files. */
+    public TextMatching getTextMatching() {
+        return textMatching;
+    }
+
+    public QueryExpression setTextMatching(TextMatching textMatching) {
+        this.textMatching = textMatching == null ? TextMatching.QUERY : textMatching;
+        return this;
+    }
+
     /** Number of items in search result that should be skipped. This parameter used for paging through large set of search result. */
     public int getSkipCount() {
         return skipCount;
@@ -68,14 +91,41 @@ public class QueryExpression {
         return this;
     }
 
+    /**
+     * Opaque position in search results, after which results should be retrieved. Such position is provided by query expression
+     * for retrieving next page, see {@link SearchResult#getNextPageQueryExpression()}. Unlike {@link #getSkipCount() skip
+     * count} it doesn't require to go through all previous results. If this parameter is set then skip count is ignored.
+     */
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
+    public QueryExpression setSearchAfter(String searchAfter) {
+        this.searchAfter = searchAfter;
+        return this;
+    }
+
+    /** If {@code true} then locations of matched text are included in each search result entry. */
+    public boolean isIncludeOccurrences() {
+        return includeOccurrences;
+    }
+
+    public QueryExpression setIncludeOccurrences(boolean includeOccurrences) {
+        this.includeOccurrences = includeOccurrences;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QueryExpression{" +
                "text='" + text + '\'' +
+               ", textMatching=" + textMatching +
                ", name='" + name + '\'' +
                ", path='" + path + '\'' +
                ", skipCount=" + skipCount +
                ", maxItems=" + maxItems +
+               ", searchAfter='" + searchAfter + '\'' +
+               ", includeOccurrences=" + includeOccurrences +
                '}';
     }
 }
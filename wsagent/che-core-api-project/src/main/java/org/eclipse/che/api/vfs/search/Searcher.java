@@ -14,6 +14,8 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 
+import java.util.List;
+
 public interface Searcher {
     /**
      * Return paths of matched items on virtual filesystem.
@@ -26,6 +28,20 @@ public interface Searcher {
      */
     SearchResult search(QueryExpression query) throws ServerException;
 
+    /**
+     * Find occurrences of text of query in single file, e.g. in file found with {@link #search(QueryExpression)} without
+     * occurrences.
+     *
+     * @param filePath
+     *         path of file
+     * @param query
+     *         query expression
+     * @return occurrences of text of query or empty list if file doesn't exist or query has no text
+     * @throws ServerException
+     *         if an error occurs
+     */
+    List<SearchOccurrence> findOccurrences(String filePath, QueryExpression query) throws ServerException;
+
     /**
      * Add VirtualFile to index.
      *
@@ -56,6 +72,13 @@ public interface Searcher {
      */
     void update(VirtualFile virtualFile) throws ServerException;
 
+    /**
+     * Get progress of initial indexing. Until initial indexing is completed results of search may be partial.
+     *
+     * @return progress of initial indexing
+     */
+    IndexingProgress getIndexingProgress();
+
     /** Close Searcher. */
     void close();
 
@@ -22,6 +22,7 @@ import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 
 import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -35,6 +36,8 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
     protected final AtomicReference<Searcher> searcherReference = new AtomicReference<>();
     private final ExecutorService executor;
 
+    private boolean trigramIndexEnabled;
+
     /**
      * @param excludeFileIndexFilters
      *         set filter for files that should not be indexed
@@ -61,11 +64,22 @@ public abstract class AbstractLuceneSearcherProvider implements SearcherProvider
         return filter;
     }
 
+    /**
+     * @param trigramIndexEnabled
+     *         whether content of files should be indexed with trigrams for fast substring and regexp search
+     * @see LuceneSearcher#setTrigramIndexEnabled(boolean)
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setTrigramIndexEnabled(@Named("vfs.search.trigram_index") boolean trigramIndexEnabled) {
+        this.trigramIndexEnabled = trigramIndexEnabled;
+    }
+
     @Override
     public Searcher getSearcher(VirtualFileSystem virtualFileSystem, boolean create) throws ServerException {
         Searcher cachedSearcher = searcherReference.get();
         if (cachedSearcher == null && create) {
             LuceneSearcher searcher = createLuceneSearcher(() -> searcherReference.set(null));
+            searcher.setTrigramIndexEnabled(trigramIndexEnabled);
             if (searcherReference.compareAndSet(null, searcher)) {
                 searcher.initAsynchronously(executor, virtualFileSystem);
             }
@@ -10,55 +10,106 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.search.impl;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IOUtils;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileFilters;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.search.IndexingProgress;
 import org.eclipse.che.api.vfs.search.MediaTypeFilter;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
 import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.api.vfs.search.Searcher;
+import org.eclipse.che.commons.lang.concurrent.LoggingUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Lucene based searcher.
@@ -71,6 +122,47 @@ public abstract class LuceneSearcher implements Searcher {
     private static final String PATH_FIELD   = "path";
     private static final String NAME_FIELD   = "name";
     private static final String TEXT_FIELD   = "text";
+    private static final String PARENT_FIELD = "parent";
+    /** Last modification date of file at the moment of indexing. */
+    private static final String MODIFIED_FIELD = "modified";
+    /** Length of file at the moment of indexing. */
+    private static final String SIZE_FIELD     = "size";
+    /** Hash of content of file at the moment of indexing, stored only for files which content is indexed. */
+    private static final String HASH_FIELD     = "hash";
+
+    /** Trigrams of content of file, indexed only if trigram index is enabled. */
+    private static final String TRIGRAM_FIELD         = "trigram";
+    /** Marks files which content is indexed but trigrams are not, e.g. large files, such files are always verified. */
+    private static final String NO_TRIGRAM_FIELD      = "no_trigram";
+
+    private static final Set<String> INDEXED_FILE_FIELDS = newHashSet(PATH_FIELD, HASH_FIELD);
+
+    /** Key of index commit data that holds state of initial indexing. */
+    static final String INDEXING_STATE_KEY             = "che.indexing.state";
+    /**
+     * Key of index commit data that holds path of the last folder which files are indexed together with files of all folders
+     * walked before it.
+     */
+    static final String INDEXING_CHECKPOINT_KEY        = "che.indexing.checkpoint";
+    static final String INDEXING_STATE_IN_PROGRESS     = "in_progress";
+    static final String INDEXING_STATE_COMPLETED       = "completed";
+    /** Key of index commit data that holds whether content of files is indexed with trigrams. */
+    static final String INDEXING_TRIGRAM_INDEX_KEY     = "che.indexing.trigram_index";
+    /** Key of index commit data that holds version of structure of documents. Index of other version is created from scratch. */
+    static final String INDEXING_FORMAT_VERSION_KEY    = "che.indexing.format_version";
+    static final String INDEX_FORMAT_VERSION           = "1";
+
+    /** Results are sorted by relevance, files with the same relevance are sorted by path. */
+    private static final Sort RESULT_SORT = new Sort(SortField.FIELD_SCORE, new SortField(PATH_FIELD, SortField.Type.STRING));
+
+    private static final double INDEXING_RAM_BUFFER_SIZE_MB = 64;
+    private static final int    INDEXING_BATCH_SIZE         = 64;
+    private static final int    INDEXING_QUEUE_SIZE         = 1024;
+    private static final long   INDEXING_CHECKPOINT_PERIOD  = TimeUnit.SECONDS.toMillis(30);
+    /** Content of larger files is not kept in memory for calculation of hash and such files are always re-indexed if modified. */
+    private static final long   MAX_HASHED_CONTENT_LENGTH   = 1024 * 1024;
+    /** Number of leading bytes of content checked for zero byte to detect binary file. */
+    private static final int    BINARY_CHECK_LENGTH         = 8000;
 
     private final List<VirtualFileFilter>                      excludeFileIndexFilters;
     private final AbstractLuceneSearcherProvider.CloseCallback closeCallback;
@@ -80,6 +172,10 @@ public abstract class LuceneSearcher implements Searcher {
 
     private boolean closed = true;
 
+    private volatile IndexingProgressTracker indexingProgressTracker;
+    private volatile VirtualFileSystem       virtualFileSystem;
+    private volatile boolean                 trigramIndexEnabled;
+
     protected LuceneSearcher() {
         this(new MediaTypeFilter(), null);
     }
@@ -109,11 +205,24 @@ public abstract class LuceneSearcher implements Searcher {
         return excludeFileIndexFilters.remove(indexFilter);
     }
 
+    /**
+     * Enables indexing of trigrams of content of files. Trigram index speeds up {@link QueryExpression.TextMatching#SUBSTRING
+     * substring} and {@link QueryExpression.TextMatching#REGEXP regexp} search but makes index larger. Must be set before
+     * initialization of searcher. If index was created with another value of this option then all files are re-indexed.
+     */
+    public void setTrigramIndexEnabled(boolean trigramIndexEnabled) {
+        this.trigramIndexEnabled = trigramIndexEnabled;
+    }
+
+    public boolean isTrigramIndexEnabled() {
+        return trigramIndexEnabled;
+    }
+
     protected Analyzer makeAnalyzer() {
         return new Analyzer() {
             @Override
             protected TokenStreamComponents createComponents(String fieldName) {
-                Tokenizer tokenizer = new WhitespaceTokenizer();
+                Tokenizer tokenizer = TRIGRAM_FIELD.equals(fieldName) ? new NGramTokenizer(3, 3) : new WhitespaceTokenizer();
                 TokenStream filter = new LowerCaseFilter(tokenizer);
                 return new TokenStreamComponents(tokenizer, filter);
             }
@@ -131,16 +240,19 @@ public abstract class LuceneSearcher implements Searcher {
      *         if any virtual filesystem error occurs
      */
     public void init(VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
-        addTree(virtualFileSystem.getRoot());
+        indexTree(virtualFileSystem.getRoot());
     }
 
     public void initAsynchronously(ExecutorService executor, VirtualFileSystem virtualFileSystem) throws ServerException {
+        this.virtualFileSystem = virtualFileSystem;
         doInit();
         if (!executor.isShutdown()) {
+            indexingProgressTracker = new IndexingProgressTracker();
             executor.execute(() -> {
                 try {
-                    LuceneSearcher.this.addTree(virtualFileSystem.getRoot());
+                    LuceneSearcher.this.indexTree(virtualFileSystem.getRoot());
                 } catch (ServerException e) {
                     LOG.error(e.getMessage());
                 }
@@ -150,7 +262,7 @@ public abstract class LuceneSearcher implements Searcher {
 
     protected final synchronized void doInit() throws ServerException {
         try {
-            luceneIndexWriter = new IndexWriter(makeDirectory(), new IndexWriterConfig(makeAnalyzer()));
+            luceneIndexWriter = new IndexWriter(makeDirectory(), makeIndexWriterConfig());
             searcherManager = new SearcherManager(luceneIndexWriter, true, new SearcherFactory());
             closed = false;
         } catch (IOException e) {
@@ -158,6 +270,15 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    protected IndexWriterConfig makeIndexWriterConfig() {
+        return new IndexWriterConfig(makeAnalyzer()).setRAMBufferSizeMB(INDEXING_RAM_BUFFER_SIZE_MB);
+    }
+
+    /** Number of threads that build documents and add them to index during initial indexing. */
+    protected int getIndexingThreads() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 8));
+    }
+
     public final synchronized void close() {
         if (!closed) {
             try {
@@ -185,6 +306,12 @@ public abstract class LuceneSearcher implements Searcher {
         return luceneIndexWriter;
     }
 
+    @Override
+    public IndexingProgress getIndexingProgress() {
+        final IndexingProgressTracker tracker = indexingProgressTracker;
+        return tracker == null ? IndexingProgress.COMPLETED : tracker.snapshot();
+    }
+
     @Override
     public SearchResult search(QueryExpression query) throws ServerException {
         IndexSearcher luceneSearcher = null;
@@ -194,30 +321,44 @@ public abstract class LuceneSearcher implements Searcher {
             luceneSearcher = searcherManager.acquire();
 
             Query luceneQuery = createLuceneQuery(query);
+            Predicate<String> contentMatcher = createContentMatcher(query);
+            if (contentMatcher != null) {
+                return searchAndVerify(luceneSearcher, luceneQuery, contentMatcher, query, startTime);
+            }
 
             ScoreDoc after = null;
-            final int numSkipDocs = Math.max(0, query.getSkipCount());
-            if (numSkipDocs > 0) {
-                after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+            int numSkipDocs = 0;
+            if (query.getSearchAfter() != null) {
+                after = decodeSearchAfter(query.getSearchAfter());
+            } else {
+                numSkipDocs = Math.max(0, query.getSkipCount());
+                if (numSkipDocs > 0) {
+                    after = skipScoreDocs(luceneSearcher, luceneQuery, numSkipDocs);
+                }
             }
 
             final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
-            TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs);
+            // one more document shows whether there is next page
+            TopDocs topDocs = luceneSearcher.searchAfter(after, luceneQuery, numDocs + 1, RESULT_SORT);
             final int totalHitsNum = topDocs.totalHits;
+            final int numRetrievedDocs = Math.min(numDocs, topDocs.scoreDocs.length);
 
             List<SearchResultEntry> results = newArrayList();
-            for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+            String lastFilePath = null;
+            for (int i = 0; i < numRetrievedDocs; i++) {
                 ScoreDoc scoreDoc = topDocs.scoreDocs[i];
-                String filePath = luceneSearcher.doc(scoreDoc.doc).getField(PATH_FIELD).stringValue();
-                results.add(new SearchResultEntry(filePath));
+                lastFilePath = luceneSearcher.doc(scoreDoc.doc).getField(PATH_FIELD).stringValue();
+                results.add(createSearchResultEntry(lastFilePath, null, query));
             }
 
             final long elapsedTimeMillis = System.currentTimeMillis() - startTime;
 
-            boolean hasMoreToRetrieve = numSkipDocs + topDocs.scoreDocs.length + 1 < totalHitsNum;
+            boolean hasMoreToRetrieve = topDocs.scoreDocs.length > numDocs;
             QueryExpression nextPageQueryExpression = null;
             if (hasMoreToRetrieve) {
-                nextPageQueryExpression = createNextPageQuery(query, numSkipDocs + topDocs.scoreDocs.length);
+                nextPageQueryExpression = createNextPageQuery(query,
+                                                              numSkipDocs + numRetrievedDocs,
+                                                              encodeSearchAfter(topDocs.scoreDocs[numRetrievedDocs - 1], lastFilePath));
             }
 
             return SearchResult.aSearchResult()
@@ -237,6 +378,186 @@ public abstract class LuceneSearcher implements Searcher {
         }
     }
 
+    /**
+     * Search candidates with trigram index and verify content of each candidate. Total hits in result is exact only if all
+     * candidates are verified, otherwise it is number of candidates.
+     */
+    private SearchResult searchAndVerify(IndexSearcher luceneSearcher,
+                                         Query luceneQuery,
+                                         Predicate<String> contentMatcher,
+                                         QueryExpression query,
+                                         long startTime) throws IOException, ServerException {
+        final int numSkipDocs = query.getSearchAfter() == null ? Math.max(0, query.getSkipCount()) : 0;
+        final int numDocs = query.getMaxItems() > 0 ? Math.min(query.getMaxItems(), RESULT_LIMIT) : RESULT_LIMIT;
+        final List<SearchResultEntry> results = newArrayList();
+        int matchedDocs = 0;
+        boolean hasMoreToRetrieve = false;
+        ScoreDoc after = query.getSearchAfter() == null ? null : decodeSearchAfter(query.getSearchAfter());
+        ScoreDoc lastResult = null;
+        TopDocs topDocs;
+        do {
+            topDocs = luceneSearcher.searchAfter(after, luceneQuery, RESULT_LIMIT, RESULT_SORT);
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                after = scoreDoc;
+                final String filePath = luceneSearcher.doc(scoreDoc.doc).getField(PATH_FIELD).stringValue();
+                final String content = readContent(filePath);
+                if (!contentMatcher.test(content)) {
+                    continue;
+                }
+                if (matchedDocs++ < numSkipDocs) {
+                    continue;
+                }
+                if (results.size() == numDocs) {
+                    hasMoreToRetrieve = true;
+                    break;
+                }
+                results.add(createSearchResultEntry(filePath, content, query));
+                lastResult = scoreDoc;
+            }
+        } while (!hasMoreToRetrieve && topDocs.scoreDocs.length == RESULT_LIMIT);
+
+        QueryExpression nextPageQueryExpression = null;
+        if (hasMoreToRetrieve) {
+            final String lastFilePath = results.get(results.size() - 1).getFilePath();
+            nextPageQueryExpression = createNextPageQuery(query,
+                                                          numSkipDocs + results.size(),
+                                                          encodeSearchAfter(lastResult, lastFilePath));
+        }
+        return SearchResult.aSearchResult()
+                           .withResults(results)
+                           .withTotalHits(hasMoreToRetrieve ? topDocs.totalHits : matchedDocs)
+                           .withNextPageQueryExpression(nextPageQueryExpression)
+                           .withElapsedTimeMillis(System.currentTimeMillis() - startTime)
+                           .build();
+    }
+
+    private SearchResultEntry createSearchResultEntry(String filePath, String content, QueryExpression query) {
+        if (!query.isIncludeOccurrences() || query.getText() == null) {
+            return new SearchResultEntry(filePath);
+        }
+        return new SearchResultEntry(filePath, findOccurrences(filePath, content, query));
+    }
+
+    @Override
+    public List<SearchOccurrence> findOccurrences(String filePath, QueryExpression query) {
+        return query.getText() == null ? Collections.emptyList() : findOccurrences(filePath, null, query);
+    }
+
+    private List<SearchOccurrence> findOccurrences(String filePath, String content, QueryExpression query) {
+        if (content == null) {
+            content = readContent(filePath);
+        }
+        if (content == null) {
+            return Collections.emptyList();
+        }
+        try {
+            switch (query.getTextMatching()) {
+                case SUBSTRING:
+                    return OccurrenceFinder.findSubstring(content, query.getText());
+                case REGEXP:
+                    return OccurrenceFinder.findRegexp(content, Pattern.compile(query.getText()));
+                default:
+                    final Analyzer analyzer = makeAnalyzer();
+                    final QueryParser qParser = new QueryParser(TEXT_FIELD, analyzer);
+                    qParser.setAllowLeadingWildcard(true);
+                    return OccurrenceFinder.findTerms(content, analyzer, TEXT_FIELD, qParser.parse(query.getText()));
+            }
+        } catch (IOException | ParseException | PatternSyntaxException e) {
+            LOG.debug("Unable find occurrences of '{}' in file {}: {}", query.getText(), filePath, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Position in search results is encoded with score and path of the last retrieved file. Unlike skip count it doesn't depend
+     * on number of files before the position, so files added or removed before the position don't shift the next page. But score
+     * of file depends on statistics of the whole index, so after modification of index some files may be skipped or repeated.
+     */
+    private String encodeSearchAfter(ScoreDoc scoreDoc, String filePath) {
+        final float score = (Float)((FieldDoc)scoreDoc).fields[0];
+        final String position = Integer.toHexString(Float.floatToIntBits(score)) + ':' + filePath;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(UTF_8));
+    }
+
+    private FieldDoc decodeSearchAfter(String searchAfter) throws ServerException {
+        try {
+            final String position = new String(Base64.getUrlDecoder().decode(searchAfter), UTF_8);
+            final int separator = position.indexOf(':');
+            final float score = Float.intBitsToFloat(Integer.parseUnsignedInt(position.substring(0, separator), 16));
+            final String filePath = position.substring(separator + 1);
+            // documents with the same score and path, i.e. the last retrieved document itself, are skipped
+            return new FieldDoc(Integer.MAX_VALUE, score, new Object[]{score, new BytesRef(filePath)});
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ServerException(String.format("Invalid position in search results '%s'", searchAfter));
+        }
+    }
+
+    /** Reads content of file as UTF-8 text or returns {@code null} if file doesn't exist or is binary. */
+    private String readContent(String filePath) {
+        final VirtualFileSystem fileSystem = virtualFileSystem;
+        try {
+            final VirtualFile file = fileSystem == null ? null : fileSystem.getRoot().getChild(Path.of(filePath));
+            if (file == null || !file.isFile()) {
+                return null;
+            }
+            final byte[] content = file.getContentAsBytes();
+            return isBinary(content) ? null : new String(content, UTF_8);
+        } catch (ServerException | ForbiddenException e) {
+            LOG.debug("Unable read content of file {}: {}", filePath, e.getMessage());
+            return null;
+        }
+    }
+
+    /** Checks for zero byte at the beginning of content, in the same way as git detects binary files. */
+    private static boolean isBinary(byte[] content) {
+        final int length = Math.min(content.length, BINARY_CHECK_LENGTH);
+        for (int i = 0; i < length; i++) {
+            if (content[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates matcher for verifying content of candidates found with trigram index or {@code null} if results of lucene query
+     * don't need verification.
+     */
+    private Predicate<String> createContentMatcher(QueryExpression query) {
+        final String text = query.getText();
+        if (text == null || getTrigrams(text, query.getTextMatching()).isEmpty()) {
+            return null;
+        }
+        switch (query.getTextMatching()) {
+            case SUBSTRING:
+                final String substring = Trigrams.toLowerCase(text);
+                return content -> content != null && Trigrams.toLowerCase(content).contains(substring);
+            case REGEXP:
+                final Pattern pattern = Pattern.compile(text);
+                return content -> content != null && pattern.matcher(content).find();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns trigrams for querying candidates with trigram index. Empty set means that trigram index isn't used for query, e.g.
+     * when it is disabled or text is too short, and text is searched in the same way as without trigram index.
+     */
+    private Set<String> getTrigrams(String text, QueryExpression.TextMatching textMatching) {
+        if (!trigramIndexEnabled) {
+            return Collections.emptySet();
+        }
+        switch (textMatching) {
+            case SUBSTRING:
+                return Trigrams.ofLiteral(text);
+            case REGEXP:
+                return Trigrams.ofRegexp(text);
+            default:
+                return Collections.emptySet();
+        }
+    }
+
     private Query createLuceneQuery(QueryExpression query) throws ParseException {
         final BooleanQuery luceneQuery = new BooleanQuery();
         final String name = query.getName();
@@ -251,20 +572,62 @@ public abstract class LuceneSearcher implements Searcher {
             luceneQuery.add(qParser.parse(name), BooleanClause.Occur.MUST);
         }
         if (text != null) {
-            QueryParser qParser = new QueryParser(TEXT_FIELD, makeAnalyzer());
-            qParser.setAllowLeadingWildcard(true);
-            luceneQuery.add(qParser.parse(text), BooleanClause.Occur.MUST);
+            luceneQuery.add(createTextQuery(text, query.getTextMatching()), BooleanClause.Occur.MUST);
         }
         return luceneQuery;
     }
 
+    private Query createTextQuery(String text, QueryExpression.TextMatching textMatching) throws ParseException {
+        final Set<String> trigrams = getTrigrams(text, textMatching);
+        switch (textMatching) {
+            case SUBSTRING:
+                if (!trigrams.isEmpty()) {
+                    return createTrigramQuery(trigrams);
+                }
+                return new WildcardQuery(new Term(TEXT_FIELD, '*' + Trigrams.toLowerCase(text) + '*'));
+            case REGEXP:
+                if (!trigrams.isEmpty()) {
+                    try {
+                        Pattern.compile(text);
+                    } catch (PatternSyntaxException e) {
+                        throw new ParseException(e.getMessage());
+                    }
+                    return createTrigramQuery(trigrams);
+                }
+                try {
+                    return new RegexpQuery(new Term(TEXT_FIELD, text));
+                } catch (IllegalArgumentException e) {
+                    throw new ParseException(e.getMessage());
+                }
+            default:
+                QueryParser qParser = new QueryParser(TEXT_FIELD, makeAnalyzer());
+                qParser.setAllowLeadingWildcard(true);
+                return qParser.parse(text);
+        }
+    }
+
+    /**
+     * Query for candidates that contain all trigrams. Files which content is indexed without trigrams are always candidates. Files
+     * which content isn't indexed, e.g. binary files, are never candidates.
+     */
+    private Query createTrigramQuery(Set<String> trigrams) {
+        final BooleanQuery allTrigrams = new BooleanQuery();
+        for (String trigram : trigrams) {
+            allTrigrams.add(new TermQuery(new Term(TRIGRAM_FIELD, trigram)), BooleanClause.Occur.MUST);
+        }
+        final BooleanQuery candidates = new BooleanQuery();
+        candidates.add(allTrigrams, BooleanClause.Occur.SHOULD);
+        candidates.add(new TermQuery(new Term(NO_TRIGRAM_FIELD, "true")), BooleanClause.Occur.SHOULD);
+        return candidates;
+    }
+
     private ScoreDoc skipScoreDocs(IndexSearcher luceneSearcher, Query luceneQuery, int numSkipDocs) throws IOException {
         final int readFrameSize = Math.min(numSkipDocs, RESULT_LIMIT);
         ScoreDoc scoreDoc = null;
         int retrievedDocs = 0;
         TopDocs topDocs;
         do {
-            topDocs = luceneSearcher.searchAfter(scoreDoc, luceneQuery, readFrameSize);
+            topDocs = luceneSearcher.searchAfter(scoreDoc, luceneQuery, readFrameSize, RESULT_SORT);
             if (topDocs.scoreDocs.length > 0) {
                 scoreDoc = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
             }
@@ -272,18 +635,21 @@ public abstract class LuceneSearcher implements Searcher {
         } while (retrievedDocs < numSkipDocs && topDocs.scoreDocs.length > 0);
 
         if (retrievedDocs > numSkipDocs) {
-            int lastScoreDocIndex = topDocs.scoreDocs.length - (retrievedDocs - numSkipDocs);
+            int lastScoreDocIndex = topDocs.scoreDocs.length - (retrievedDocs - numSkipDocs) - 1;
             scoreDoc = topDocs.scoreDocs[lastScoreDocIndex];
         }
 
         return scoreDoc;
     }
 
-    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount) {
+    private QueryExpression createNextPageQuery(QueryExpression originalQuery, int newSkipCount, String searchAfter) {
         return new QueryExpression().setText(originalQuery.getText())
+                                    .setTextMatching(originalQuery.getTextMatching())
                                     .setName(originalQuery.getName())
                                     .setPath(originalQuery.getPath())
                                     .setSkipCount(newSkipCount)
+                                    .setSearchAfter(searchAfter)
+                                    .setIncludeOccurrences(originalQuery.isIncludeOccurrences())
                                     .setMaxItems(originalQuery.getMaxItems());
     }
 
@@ -322,13 +688,47 @@ public abstract class LuceneSearcher implements Searcher {
         LOG.debug("Indexed {} files from {}, time: {} ms", indexedFiles, tree.getPath(), (end - start));
     }
 
+    /**
+     * Initial indexing of the whole tree. Folders are walked by the calling thread while documents are built and added to index
+     * in batches by {@link #getIndexingThreads()} threads. State of indexing is periodically committed together with index, so
+     * indexing of persistent index that was interrupted is resumed from the last checkpoint instead of starting from scratch.
+     * <p>
+     * If index already contains documents, e.g. persistent index is reopened after restart, only files whose modification date or
+     * length differs from the indexed ones are re-indexed and documents of files that don't exist anymore are deleted. Modified
+     * files with the same length and the same hash of content are not re-indexed.
+     *
+     * @param tree
+     *         root of tree to index
+     * @throws ServerException
+     *         if any virtual filesystem or index error occurs
+     */
+    protected void indexTree(VirtualFile tree) throws ServerException {
+        IndexingProgressTracker tracker = indexingProgressTracker;
+        if (tracker == null) {
+            indexingProgressTracker = tracker = new IndexingProgressTracker();
+        }
+        final long start = System.currentTimeMillis();
+        try {
+            new TreeIndexer(getIndexWriter(), tracker).index(tree);
+            LOG.debug("Indexed {} files from {}, time: {} ms", tracker.filesIndexed.get(), tree.getPath(),
+                      (System.currentTimeMillis() - start));
+        } catch (InterruptedException e) {
+            LOG.debug("Indexing of {} is interrupted", tree.getPath());
+            Thread.currentThread().interrupt();
+        } catch (AlreadyClosedException e) {
+            LOG.debug("Indexing of {} is stopped since searcher is closed", tree.getPath());
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        } finally {
+            tracker.complete();
+        }
+    }
+
     protected void addFile(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.exists()) {
-            try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                         ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                         : null) {
+            try (IndexedContent content = openContent(virtualFile)) {
                 getIndexWriter().updateDocument(new Term(PATH_FIELD, virtualFile.getPath().toString()),
-                                                createDocument(virtualFile, fContentReader));
+                                                createDocument(virtualFile, content));
             } catch (OutOfMemoryError oome) {
                 close();
                 throw oome;
@@ -364,10 +764,8 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     protected void doUpdate(Term deleteTerm, VirtualFile virtualFile) throws ServerException {
-        try (Reader fContentReader = shouldIndexContent(virtualFile)
-                                     ? new BufferedReader(new InputStreamReader(virtualFile.getContent()))
-                                     : null) {
-            getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, fContentReader));
+        try (IndexedContent content = openContent(virtualFile)) {
+            getIndexWriter().updateDocument(deleteTerm, createDocument(virtualFile, content));
         } catch (OutOfMemoryError oome) {
             close();
             throw oome;
@@ -379,15 +777,67 @@ public abstract class LuceneSearcher implements Searcher {
     }
 
     protected Document createDocument(VirtualFile virtualFile, Reader reader) throws ServerException {
+        return createDocument(virtualFile, reader, null);
+    }
+
+    /**
+     * Creates document for file.
+     *
+     * @param virtualFile
+     *         file
+     * @param reader
+     *         reader of content of file or {@code null} if content should not be indexed
+     * @param contentHash
+     *         hash of content of file or {@code null} if hash is not calculated. Hash is used for detecting whether file should be
+     *         re-indexed if its modification date is changed, see {@link #indexTree(VirtualFile)}
+     */
+    protected Document createDocument(VirtualFile virtualFile, Reader reader, String contentHash) throws ServerException {
         final Document doc = new Document();
         doc.add(new StringField(PATH_FIELD, virtualFile.getPath().toString(), Field.Store.YES));
+        doc.add(new SortedDocValuesField(PATH_FIELD, new BytesRef(virtualFile.getPath().toString())));
+        doc.add(new StringField(PARENT_FIELD, virtualFile.getPath().getParent().toString(), Field.Store.NO));
         doc.add(new TextField(NAME_FIELD, virtualFile.getName(), Field.Store.YES));
+        doc.add(new NumericDocValuesField(MODIFIED_FIELD, virtualFile.getLastModificationDate()));
+        doc.add(new NumericDocValuesField(SIZE_FIELD, virtualFile.getLength()));
+        if (contentHash != null) {
+            doc.add(new StoredField(HASH_FIELD, contentHash));
+        }
         if (reader != null) {
             doc.add(new TextField(TEXT_FIELD, reader));
         }
         return doc;
     }
 
+    private Document createDocument(VirtualFile virtualFile, IndexedContent content) throws ServerException {
+        final Document doc = createDocument(virtualFile, content.reader, content.hash);
+        if (trigramIndexEnabled && content.reader != null) {
+            if (content.bytes != null) {
+                doc.add(new TextField(TRIGRAM_FIELD, new InputStreamReader(new ByteArrayInputStream(content.bytes), UTF_8)));
+            } else {
+                doc.add(new StringField(NO_TRIGRAM_FIELD, "true", Field.Store.NO));
+            }
+        }
+        return doc;
+    }
+
+    private IndexedContent openContent(VirtualFile virtualFile) throws ServerException, ForbiddenException, IOException {
+        if (!shouldIndexContent(virtualFile)) {
+            return IndexedContent.NO_CONTENT;
+        }
+        final long length = virtualFile.getLength();
+        if (length > MAX_HASHED_CONTENT_LENGTH) {
+            return new IndexedContent(new BufferedReader(new InputStreamReader(virtualFile.getContent(), UTF_8)), null, null, length);
+        }
+        final byte[] content;
+        try (InputStream contentStream = virtualFile.getContent()) {
+            content = ByteStreams.toByteArray(contentStream);
+        }
+        return new IndexedContent(new InputStreamReader(new ByteArrayInputStream(content), UTF_8),
+                                  content,
+                                  Hashing.md5().hashBytes(content).toString(),
+                                  content.length);
+    }
+
     private boolean shouldIndexContent(VirtualFile virtualFile) {
         for (VirtualFileFilter indexFilter : excludeFileIndexFilters) {
             if (indexFilter.accept(virtualFile)) {
@@ -396,4 +846,386 @@ public abstract class LuceneSearcher implements Searcher {
         }
         return true;
     }
+
+    /**
+     * Walks tree and feeds files to the pool of indexing threads through bounded queue. Folders are walked in the same order every
+     * time since children of folder are sorted. Each folder is considered as completed when all its files are added to index and
+     * path of the last folder that is completed together with all folders walked before it is stored in commit data of index as
+     * checkpoint. If indexing was interrupted, files of folders walked up to the checkpoint are compared with index by modification
+     * date and length, as well as all files if index was completed before, so changes made while indexing was stopped aren't
+     * missed. Files of folders walked after the checkpoint are indexed again.
+     */
+    private class TreeIndexer {
+        private final IndexWriter                   writer;
+        private final IndexingProgressTracker       tracker;
+        private final boolean                       resume;
+        private final boolean                       reconcile;
+        private final boolean                       incremental;
+        private final String                        resumeCheckpoint;
+        private final BlockingQueue<IndexingTask>   queue;
+        private final Queue<FolderState>            walkedFolders;
+        private final AtomicLong                    lastCheckpoint;
+        private final List<Future<Void>>            workers;
+        private final Map<String, IndexedFileState> indexedFiles;
+
+        private String checkpoint;
+
+        TreeIndexer(IndexWriter writer, IndexingProgressTracker tracker) throws IOException {
+            this.writer = writer;
+            this.tracker = tracker;
+            final Map<String, String> commitData = writer.getCommitData();
+            final boolean compatible = INDEX_FORMAT_VERSION.equals(commitData.get(INDEXING_FORMAT_VERSION_KEY))
+                                       && String.valueOf(trigramIndexEnabled).equals(commitData.get(INDEXING_TRIGRAM_INDEX_KEY));
+            if (!compatible && writer.maxDoc() > 0) {
+                LOG.info("Format or options of index are changed, index will be created from scratch");
+                writer.deleteAll();
+            }
+            resume = compatible && INDEXING_STATE_IN_PROGRESS.equals(commitData.get(INDEXING_STATE_KEY));
+            resumeCheckpoint = resume ? commitData.get(INDEXING_CHECKPOINT_KEY) : null;
+            checkpoint = resumeCheckpoint;
+            if (resume) {
+                LOG.info("Resume indexing after folder {}", resumeCheckpoint == null ? "<none>" : resumeCheckpoint);
+            }
+            reconcile = compatible && writer.maxDoc() > 0;
+            incremental = reconcile && !resume;
+            indexedFiles = new HashMap<>();
+            queue = new ArrayBlockingQueue<>(INDEXING_QUEUE_SIZE);
+            walkedFolders = new ConcurrentLinkedQueue<>();
+            lastCheckpoint = new AtomicLong(System.currentTimeMillis());
+            workers = new ArrayList<>();
+        }
+
+        void index(VirtualFile tree) throws ServerException, IOException, InterruptedException {
+            final int threads = getIndexingThreads();
+            final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
+                    .setNameFormat("LuceneSearcherIndexingThread-%d")
+                    .build());
+            try {
+                for (int i = 0; i < threads; i++) {
+                    workers.add(executor.submit(this::indexQueuedFiles));
+                }
+                if (reconcile) {
+                    readIndexedFiles();
+                } else if (!resume) {
+                    commit(INDEXING_STATE_IN_PROGRESS);
+                }
+                walk(tree);
+                for (String removed : indexedFiles.keySet()) {
+                    writer.deleteDocuments(new Term(PATH_FIELD, removed));
+                }
+                if (!indexedFiles.isEmpty()) {
+                    LOG.debug("Deleted {} files that don't exist anymore from index", indexedFiles.size());
+                    indexedFiles.clear();
+                }
+                tracker.discoveryCompleted = true;
+                for (int i = 0; i < threads; i++) {
+                    enqueue(IndexingTask.END_OF_QUEUE);
+                }
+                for (Future<Void> worker : workers) {
+                    waitFor(worker);
+                }
+                walkedFolders.clear();
+                checkpoint = null;
+                commit(INDEXING_STATE_COMPLETED);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private void walk(VirtualFile tree) throws ServerException, IOException, InterruptedException {
+            final Deque<VirtualFile> folders = new ArrayDeque<>();
+            folders.push(tree);
+            // If folder of checkpoint doesn't exist anymore all folders are compared with index
+            boolean beforeCheckpoint = !resume || resumeCheckpoint != null;
+            while (!folders.isEmpty()) {
+                final VirtualFile folder = folders.pop();
+                if (!folder.exists()) {
+                    continue;
+                }
+                final String folderPath = folder.getPath().toString();
+                final boolean reconcileFolder = reconcile && beforeCheckpoint;
+                if (resume && folderPath.equals(resumeCheckpoint)) {
+                    beforeCheckpoint = false;
+                }
+                if (resume && !reconcileFolder) {
+                    // files of folder might be partially indexed before indexing was interrupted
+                    writer.deleteDocuments(new Term(PARENT_FIELD, folderPath));
+                }
+                final List<IndexingTask> tasks = new ArrayList<>();
+                final List<VirtualFile> subFolders = new ArrayList<>();
+                for (VirtualFile child : folder.getChildren()) {
+                    if (child.isFolder()) {
+                        subFolders.add(child);
+                    } else {
+                        tracker.filesDiscovered.incrementAndGet();
+                        final IndexedFileState indexed = indexedFiles.remove(child.getPath().toString());
+                        if (!reconcileFolder) {
+                            tasks.add(new IndexingTask(child, null));
+                        } else if (indexed != null
+                                   && indexed.modified == child.getLastModificationDate()
+                                   && indexed.size == child.getLength()) {
+                            tracker.filesIndexed.incrementAndGet();
+                        } else {
+                            tasks.add(new IndexingTask(child, indexed));
+                        }
+                    }
+                }
+                // sub-folders are walked in order of names
+                for (int i = subFolders.size() - 1; i >= 0; i--) {
+                    folders.push(subFolders.get(i));
+                }
+                final FolderState folderState = new FolderState(folderPath, tasks.size());
+                walkedFolders.add(folderState);
+                for (IndexingTask task : tasks) {
+                    task.folder = folderState;
+                    enqueue(task);
+                }
+            }
+        }
+
+        private void enqueue(IndexingTask task) throws ServerException, InterruptedException {
+            while (!queue.offer(task, 1, TimeUnit.SECONDS)) {
+                // indexing threads stop only after getting end of queue marker or in case of failure
+                for (Future<Void> worker : workers) {
+                    if (worker.isDone()) {
+                        waitFor(worker);
+                        throw new ServerException("Indexing thread is stopped unexpectedly");
+                    }
+                }
+            }
+        }
+
+        private void waitFor(Future<Void> worker) throws ServerException, InterruptedException {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof OutOfMemoryError) {
+                    close();
+                }
+                if (cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                if (cause instanceof ServerException) {
+                    throw (ServerException)cause;
+                }
+                throw new ServerException(cause.getMessage(), cause);
+            }
+        }
+
+        private Void indexQueuedFiles() throws ServerException, IOException, InterruptedException {
+            final List<IndexingTask> batch = new ArrayList<>(INDEXING_BATCH_SIZE);
+            boolean endOfQueue = false;
+            while (!endOfQueue) {
+                IndexingTask task = queue.take();
+                while (task != null) {
+                    if (task == IndexingTask.END_OF_QUEUE) {
+                        endOfQueue = true;
+                        break;
+                    }
+                    batch.add(task);
+                    if (batch.size() == INDEXING_BATCH_SIZE) {
+                        break;
+                    }
+                    task = queue.poll();
+                }
+                if (!batch.isEmpty()) {
+                    indexBatch(batch);
+                    batch.clear();
+                }
+            }
+            return null;
+        }
+
+        private void indexBatch(List<IndexingTask> batch) throws ServerException, IOException {
+            final List<Document> documents = new ArrayList<>(batch.size());
+            final List<IndexedContent> readers = new ArrayList<>(batch.size());
+            long bytes = 0;
+            try {
+                for (IndexingTask task : batch) {
+                    final VirtualFile file = task.file;
+                    if (!file.exists()) {
+                        continue;
+                    }
+                    try {
+                        final IndexedContent content = openContent(file);
+                        readers.add(content);
+                        bytes += content.length;
+                        if (isContentUnchanged(task, content)) {
+                            writer.updateNumericDocValue(new Term(PATH_FIELD, file.getPath().toString()),
+                                                         MODIFIED_FIELD,
+                                                         file.getLastModificationDate());
+                        } else if (task.indexed != null) {
+                            writer.updateDocument(new Term(PATH_FIELD, file.getPath().toString()), createDocument(file, content));
+                        } else {
+                            // bulk add is safe since index doesn't contain document of file
+                            documents.add(createDocument(file, content));
+                        }
+                    } catch (ServerException | ForbiddenException e) {
+                        LOG.warn("Unable index file {}: {}", file.getPath(), e.getMessage());
+                    }
+                }
+                writer.addDocuments(documents);
+            } catch (IOException e) {
+                // none of documents is added if any of them fails, retry file by file
+                LOG.warn("Unable index batch of files, index them one by one. Error: {}", e.getMessage());
+                IOUtils.closeWhileHandlingException(readers);
+                readers.clear();
+                for (IndexingTask task : batch) {
+                    try {
+                        addFile(task.file);
+                    } catch (ServerException fileError) {
+                        LOG.warn("Unable index file {}: {}", task.file.getPath(), fileError.getMessage());
+                    }
+                }
+            } finally {
+                IOUtils.closeWhileHandlingException(readers);
+            }
+            tracker.filesIndexed.addAndGet(batch.size());
+            tracker.bytesIndexed.addAndGet(bytes);
+            for (IndexingTask task : batch) {
+                task.folder.pendingFiles.decrementAndGet();
+            }
+            final long now = System.currentTimeMillis();
+            final long last = lastCheckpoint.get();
+            if (!incremental && now - last >= INDEXING_CHECKPOINT_PERIOD && lastCheckpoint.compareAndSet(last, now)) {
+                commit(INDEXING_STATE_IN_PROGRESS);
+            }
+        }
+
+        private boolean isContentUnchanged(IndexingTask task, IndexedContent content) {
+            return task.indexed != null
+                   && task.indexed.hash != null
+                   && task.indexed.size == content.length
+                   && task.indexed.hash.equals(content.hash);
+        }
+
+        private void readIndexedFiles() throws IOException {
+            try (DirectoryReader reader = DirectoryReader.open(writer, true)) {
+                for (LeafReaderContext context : reader.leaves()) {
+                    final LeafReader leafReader = context.reader();
+                    final Bits liveDocs = leafReader.getLiveDocs();
+                    final NumericDocValues modified = leafReader.getNumericDocValues(MODIFIED_FIELD);
+                    final NumericDocValues size = leafReader.getNumericDocValues(SIZE_FIELD);
+                    for (int docId = 0; docId < leafReader.maxDoc(); docId++) {
+                        if (liveDocs != null && !liveDocs.get(docId)) {
+                            continue;
+                        }
+                        final Document document = leafReader.document(docId, INDEXED_FILE_FIELDS);
+                        indexedFiles.put(document.get(PATH_FIELD), new IndexedFileState(modified == null ? -1 : modified.get(docId),
+                                                                                        size == null ? -1 : size.get(docId),
+                                                                                        document.get(HASH_FIELD)));
+                    }
+                }
+            }
+        }
+
+        private void commit(String state) throws IOException {
+            synchronized (writer) {
+                FolderState folder;
+                while ((folder = walkedFolders.peek()) != null && folder.pendingFiles.get() == 0) {
+                    checkpoint = walkedFolders.poll().path;
+                }
+                final Map<String, String> commitData = new HashMap<>(4);
+                commitData.put(INDEXING_STATE_KEY, state);
+                if (checkpoint != null) {
+                    commitData.put(INDEXING_CHECKPOINT_KEY, checkpoint);
+                }
+                commitData.put(INDEXING_TRIGRAM_INDEX_KEY, String.valueOf(trigramIndexEnabled));
+                commitData.put(INDEXING_FORMAT_VERSION_KEY, INDEX_FORMAT_VERSION);
+                writer.setCommitData(commitData);
+                writer.commit();
+            }
+        }
+    }
+
+    private static class FolderState {
+        final String        path;
+        final AtomicInteger pendingFiles;
+
+        FolderState(String path, int files) {
+            this.path = path;
+            this.pendingFiles = new AtomicInteger(files);
+        }
+    }
+
+    private static class IndexingTask {
+        static final IndexingTask END_OF_QUEUE = new IndexingTask(null, null);
+
+        final VirtualFile      file;
+        final IndexedFileState indexed;
+
+        FolderState folder;
+
+        IndexingTask(VirtualFile file, IndexedFileState indexed) {
+            this.file = file;
+            this.indexed = indexed;
+        }
+    }
+
+    /** State of file at the moment of the last indexing. */
+    private static class IndexedFileState {
+        final long   modified;
+        final long   size;
+        final String hash;
+
+        IndexedFileState(long modified, long size, String hash) {
+            this.modified = modified;
+            this.size = size;
+            this.hash = hash;
+        }
+    }
+
+    private static class IndexedContent implements Closeable {
+        static final IndexedContent NO_CONTENT = new IndexedContent(null, null, null, 0);
+
+        final Reader reader;
+        final byte[] bytes;
+        final String hash;
+        final long   length;
+
+        IndexedContent(Reader reader, byte[] bytes, String hash, long length) {
+            this.reader = reader;
+            this.bytes = bytes;
+            this.hash = hash;
+            this.length = length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+    }
+
+    private static class IndexingProgressTracker {
+        final long       startTime       = System.currentTimeMillis();
+        final AtomicLong filesDiscovered = new AtomicLong();
+        final AtomicLong filesIndexed    = new AtomicLong();
+        final AtomicLong bytesIndexed    = new AtomicLong();
+
+        volatile boolean discoveryCompleted;
+        volatile long    completionTime;
+
+        void complete() {
+            discoveryCompleted = true;
+            completionTime = System.currentTimeMillis();
+        }
+
+        IndexingProgress snapshot() {
+            final long endTime = completionTime;
+            return new IndexingProgress(endTime > 0,
+                                        discoveryCompleted,
+                                        filesDiscovered.get(),
+                                        filesIndexed.get(),
+                                        bytesIndexed.get(),
+                                        (endTime > 0 ? endTime : System.currentTimeMillis()) - startTime);
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds locations of matched text in content of file. Content is read once on server side, so client doesn't need to re-open each
+ * matched file for finding matched text.
+ */
+class OccurrenceFinder {
+    /** Max number of occurrences found in single file. */
+    static final int MAX_OCCURRENCES         = 100;
+    /** Max length of line content provided with occurrence. */
+    static final int MAX_LINE_CONTENT_LENGTH = 200;
+
+    /**
+     * Finds case-insensitive occurrences of substring. Text is lowercased without changing its length, so offsets found in
+     * lowercased content are offsets in original content.
+     */
+    static List<SearchOccurrence> findSubstring(String content, String substring) {
+        final List<int[]> matches = new ArrayList<>();
+        if (!substring.isEmpty()) {
+            final String lowerCaseContent = Trigrams.toLowerCase(content);
+            final String lowerCaseSubstring = Trigrams.toLowerCase(substring);
+            int start = lowerCaseContent.indexOf(lowerCaseSubstring);
+            while (start >= 0 && matches.size() < MAX_OCCURRENCES) {
+                matches.add(new int[]{start, start + lowerCaseSubstring.length()});
+                start = lowerCaseContent.indexOf(lowerCaseSubstring, start + lowerCaseSubstring.length());
+            }
+        }
+        return toOccurrences(content, matches);
+    }
+
+    /** Finds non-empty matches of regular expression. */
+    static List<SearchOccurrence> findRegexp(String content, Pattern pattern) {
+        final List<int[]> matches = new ArrayList<>();
+        final Matcher matcher = pattern.matcher(content);
+        while (matcher.find() && matches.size() < MAX_OCCURRENCES) {
+            if (matcher.end() > matcher.start()) {
+                matches.add(new int[]{matcher.start(), matcher.end()});
+            }
+        }
+        return toOccurrences(content, matches);
+    }
+
+    /**
+     * Finds terms of lucene query in content. Content is split into terms with the same analyzer that is used for indexing, so
+     * offsets are the same as offsets of indexed terms.
+     */
+    static List<SearchOccurrence> findTerms(String content, Analyzer analyzer, String field, Query query) throws IOException {
+        final Predicate<String> termMatcher = createTermMatcher(query, field);
+        final List<int[]> matches = new ArrayList<>();
+        try (TokenStream tokens = analyzer.tokenStream(field, content)) {
+            final CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            final OffsetAttribute offset = tokens.addAttribute(OffsetAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken() && matches.size() < MAX_OCCURRENCES) {
+                if (termMatcher.test(term.toString())) {
+                    matches.add(new int[]{offset.startOffset(), offset.endOffset()});
+                }
+            }
+            tokens.end();
+        }
+        return toOccurrences(content, matches);
+    }
+
+    /** Creates matcher of terms that are required or optional in query. Prohibited terms are ignored. */
+    static Predicate<String> createTermMatcher(Query query, String field) {
+        final Set<String> terms = new HashSet<>();
+        final List<Pattern> patterns = new ArrayList<>();
+        collectTerms(query, field, terms, patterns);
+        return term -> terms.contains(term) || patterns.stream().anyMatch(pattern -> pattern.matcher(term).matches());
+    }
+
+    private static void collectTerms(Query query, String field, Set<String> terms, List<Pattern> patterns) {
+        if (query instanceof BooleanQuery) {
+            for (BooleanClause clause : ((BooleanQuery)query).clauses()) {
+                if (clause.getOccur() != BooleanClause.Occur.MUST_NOT) {
+                    collectTerms(clause.getQuery(), field, terms, patterns);
+                }
+            }
+        } else if (query instanceof TermQuery) {
+            addTerm(((TermQuery)query).getTerm(), field, terms);
+        } else if (query instanceof PhraseQuery) {
+            for (Term term : ((PhraseQuery)query).getTerms()) {
+                addTerm(term, field, terms);
+            }
+        } else if (query instanceof FuzzyQuery) {
+            addTerm(((FuzzyQuery)query).getTerm(), field, terms);
+        } else if (query instanceof PrefixQuery) {
+            final Term prefix = ((PrefixQuery)query).getPrefix();
+            if (field.equals(prefix.field())) {
+                patterns.add(Pattern.compile(Pattern.quote(prefix.text()) + ".*", Pattern.DOTALL));
+            }
+        } else if (query instanceof WildcardQuery) {
+            final Term wildcard = ((WildcardQuery)query).getTerm();
+            if (field.equals(wildcard.field())) {
+                patterns.add(wildcardToPattern(wildcard.text()));
+            }
+        }
+    }
+
+    private static void addTerm(Term term, String field, Set<String> terms) {
+        if (field.equals(term.field())) {
+            terms.add(term.text());
+        }
+    }
+
+    private static Pattern wildcardToPattern(String wildcard) {
+        final StringBuilder regexp = new StringBuilder();
+        for (int i = 0; i < wildcard.length(); i++) {
+            final char c = wildcard.charAt(i);
+            if (c == '*') {
+                regexp.append(".*");
+            } else if (c == '?') {
+                regexp.append('.');
+            } else if (c == '\\' && i + 1 < wildcard.length()) {
+                regexp.append(Pattern.quote(String.valueOf(wildcard.charAt(++i))));
+            } else {
+                regexp.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regexp.toString(), Pattern.DOTALL);
+    }
+
+    /** Converts offsets of matches, sorted by start offset, to occurrences with line numbers and content of lines. */
+    private static List<SearchOccurrence> toOccurrences(String content, List<int[]> matches) {
+        final List<SearchOccurrence> occurrences = new ArrayList<>(matches.size());
+        int lineNumber = 1;
+        int lineStart = 0;
+        int position = 0;
+        for (int[] match : matches) {
+            final int start = match[0];
+            final int end = match[1];
+            for (; position < start; position++) {
+                if (content.charAt(position) == '\n') {
+                    lineNumber++;
+                    lineStart = position + 1;
+                }
+            }
+            int lineEnd = content.indexOf('\n', start);
+            if (lineEnd < 0) {
+                lineEnd = content.length();
+            }
+            if (lineEnd > lineStart && content.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            occurrences.add(new SearchOccurrence(content.substring(start, end),
+                                                 lineNumber,
+                                                 start,
+                                                 end,
+                                                 lineContent(content, lineStart, lineEnd, start)));
+        }
+        return occurrences;
+    }
+
+    private static String lineContent(String content, int lineStart, int lineEnd, int matchStart) {
+        if (lineEnd - lineStart <= MAX_LINE_CONTENT_LENGTH) {
+            return content.substring(lineStart, lineEnd);
+        }
+        final int start = Math.max(lineStart, Math.min(matchStart - MAX_LINE_CONTENT_LENGTH / 2, lineEnd - MAX_LINE_CONTENT_LENGTH));
+        return content.substring(start, start + MAX_LINE_CONTENT_LENGTH);
+    }
+
+    private OccurrenceFinder() {
+    }
+}
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts trigrams that must be present in content matched by substring or regular expression. Content that contains all
+ * extracted trigrams is only a candidate for matching and has to be verified with original substring or regular expression.
+ */
+class Trigrams {
+    /** Max number of trigrams used in query. Any subset of trigrams is still correct filter for candidates. */
+    static final int MAX_TRIGRAMS = 64;
+
+    private static final String META_CHARACTERS = ".^$|)]}*+?{";
+
+    /** Returns lowercased trigrams of substring, or empty set if substring is shorter than three code points. */
+    static Set<String> ofLiteral(String literal) {
+        final Set<String> trigrams = new LinkedHashSet<>();
+        addTrigrams(literal, trigrams);
+        return trigrams;
+    }
+
+    /** Returns lowercased trigrams of literals that must be present in any text matched by regular expression. */
+    static Set<String> ofRegexp(String regexp) {
+        final Set<String> trigrams = new LinkedHashSet<>();
+        for (String literal : requiredLiterals(regexp)) {
+            addTrigrams(literal, trigrams);
+        }
+        return trigrams;
+    }
+
+    /**
+     * Finds sequences of characters that must be present in any text matched by regular expression. Analysis is conservative:
+     * groups, character classes and alternatives are not analyzed and just break sequences of literal characters.
+     */
+    static List<String> requiredLiterals(String regexp) {
+        final List<String> literals = new ArrayList<>();
+        if (hasTopLevelAlternation(regexp)) {
+            return literals;
+        }
+        final StringBuilder current = new StringBuilder();
+        final int length = regexp.length();
+        int i = 0;
+        while (i < length) {
+            final char c = regexp.charAt(i);
+            int next = i + 1;
+            boolean isLiteral = false;
+            char literal = c;
+            if (c == '\\') {
+                if (next < length) {
+                    literal = regexp.charAt(next);
+                    // escaped letters and digits are character classes, back references or special characters,
+                    // they break sequence together with their payload, e.g. '\\x41' or '\\k<name>'
+                    isLiteral = !Character.isLetterOrDigit(literal);
+                    next = skipEscape(regexp, i);
+                }
+            } else if (c == '[') {
+                next = skipCharacterClass(regexp, i);
+            } else if (c == '(') {
+                next = skipGroup(regexp, i);
+            } else {
+                isLiteral = META_CHARACTERS.indexOf(c) < 0;
+            }
+
+            if (next < length && isQuantifier(regexp, next)) {
+                final int min = minRepetitions(regexp, next);
+                next = skipQuantifier(regexp, next);
+                if (isLiteral && min > 0) {
+                    current.append(literal);
+                }
+                // repetition breaks sequence, e.g. 'ab+c' doesn't always contain 'abc'
+                flush(current, literals);
+            } else if (isLiteral) {
+                current.append(literal);
+            } else {
+                flush(current, literals);
+            }
+            i = next;
+        }
+        flush(current, literals);
+        return literals;
+    }
+
+    /**
+     * Lowercases text code point by code point in the same way as lucene {@code LowerCaseFilter}. Unlike {@link
+     * String#toLowerCase(java.util.Locale)} it never changes length of text, so lowercased text can be compared with indexed trigrams.
+     */
+    static String toLowerCase(String text) {
+        final StringBuilder lowerCase = new StringBuilder(text.length());
+        text.codePoints().forEach(codePoint -> lowerCase.appendCodePoint(Character.toLowerCase(codePoint)));
+        return lowerCase.toString();
+    }
+
+    /** Adds trigrams of code points, the same as lucene {@code NGramTokenizer} produces. */
+    private static void addTrigrams(String literal, Set<String> trigrams) {
+        final int[] codePoints = toLowerCase(literal).codePoints().toArray();
+        for (int i = 0; i + 3 <= codePoints.length && trigrams.size() < MAX_TRIGRAMS; i++) {
+            trigrams.add(new String(codePoints, i, 3));
+        }
+    }
+
+    private static void flush(StringBuilder current, List<String> literals) {
+        if (current.length() >= 3) {
+            literals.add(current.toString());
+        }
+        current.setLength(0);
+    }
+
+    private static boolean isQuantifier(String regexp, int index) {
+        final char c = regexp.charAt(index);
+        return c == '?' || c == '*' || c == '+' || (c == '{' && regexp.indexOf('}', index) > 0);
+    }
+
+    private static int minRepetitions(String regexp, int index) {
+        final char c = regexp.charAt(index);
+        if (c == '+') {
+            return 1;
+        }
+        if (c == '{') {
+            int min = 0;
+            for (int i = index + 1; i < regexp.length() && Character.isDigit(regexp.charAt(i)); i++) {
+                min = min * 10 + (regexp.charAt(i) - '0');
+            }
+            return min;
+        }
+        return 0;
+    }
+
+    private static int skipQuantifier(String regexp, int index) {
+        int next = regexp.charAt(index) == '{' ? regexp.indexOf('}', index) + 1 : index + 1;
+        // reluctant or possessive quantifier
+        if (next < regexp.length() && (regexp.charAt(next) == '?' || regexp.charAt(next) == '+')) {
+            next++;
+        }
+        return next;
+    }
+
+    /** Returns index which follows escape sequence that starts with backslash at the given index. */
+    private static int skipEscape(String regexp, int start) {
+        final int length = regexp.length();
+        int i = start + 1;
+        if (i >= length) {
+            return length;
+        }
+        final char c = regexp.charAt(i++);
+        switch (c) {
+            case 'x':
+                // \xhh or \x{h...h}
+                return i < length && regexp.charAt(i) == '{' ? skipPast(regexp, i, "}") : Math.min(i + 2, length);
+            case 'u':
+                return Math.min(i + 4, length);
+            case '0':
+                // \0n, \0nn or \0mnn
+                final int octalEnd = Math.min(i + 3, length);
+                while (i < octalEnd && regexp.charAt(i) >= '0' && regexp.charAt(i) <= '7') {
+                    i++;
+                }
+                return i;
+            case 'c':
+                return Math.min(i + 1, length);
+            case 'k':
+                return skipPast(regexp, i, ">");
+            case 'p':
+            case 'P':
+                // \pL or \p{Name}
+                return i < length && regexp.charAt(i) == '{' ? skipPast(regexp, i, "}") : Math.min(i + 1, length);
+            case 'N':
+                return skipPast(regexp, i, "}");
+            case 'Q':
+                return skipPast(regexp, i, "\\E");
+            default:
+                if (c >= '1' && c <= '9') {
+                    // back reference takes as many digits as there are groups, so all of them are skipped
+                    while (i < length && Character.isDigit(regexp.charAt(i))) {
+                        i++;
+                    }
+                }
+                return i;
+        }
+    }
+
+    /** Returns index which follows the first occurrence of terminator after the given index, or length of regexp. */
+    private static int skipPast(String regexp, int index, String terminator) {
+        final int end = regexp.indexOf(terminator, index);
+        return end < 0 ? regexp.length() : end + terminator.length();
+    }
+
+    private static int skipCharacterClass(String regexp, int start) {
+        int i = start + 1;
+        if (i < regexp.length() && regexp.charAt(i) == '^') {
+            i++;
+        }
+        // ']' right after opening bracket is literal
+        if (i < regexp.length() && regexp.charAt(i) == ']') {
+            i++;
+        }
+        int depth = 1;
+        for (; i < regexp.length(); i++) {
+            final char c = regexp.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regexp, i) - 1;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return regexp.length();
+    }
+
+    private static int skipGroup(String regexp, int start) {
+        int depth = 0;
+        for (int i = start; i < regexp.length(); i++) {
+            final char c = regexp.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regexp, i) - 1;
+            } else if (c == '[') {
+                i = skipCharacterClass(regexp, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return regexp.length();
+    }
+
+    private static boolean hasTopLevelAlternation(String regexp) {
+        int depth = 0;
+        for (int i = 0; i < regexp.length(); i++) {
+            final char c = regexp.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regexp, i) - 1;
+            } else if (c == '[') {
+                i = skipCharacterClass(regexp, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Trigrams() {
+    }
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.watcher;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Known files and directories of a file system tree with their last modification time. Items are kept as a tree of
+ * nodes that hold only names of items, names are interned, so the same name used in many directories (e.g. {@code pom.xml}
+ * or {@code src}) is stored once. Paths are relative to the root of tree, an empty path denotes the root itself.
+ * <p/>
+ * Each update of an item is stamped with a generation. Items that are not updated in the current generation are
+ * considered as removed by {@link #sweep(Path, int)}. Removed items are reported to removal listener, for a removed
+ * directory all its descendants are reported before the directory itself.
+ * <p/>
+ * Class is not thread safe.
+ */
+final class FileTreeSnapshot {
+    /** Returned by {@link #update(Path, boolean, long, int)} if item was not known before. */
+    static final long ABSENT = Long.MIN_VALUE;
+
+    private final Interner<String>          names = Interners.newWeakInterner();
+    private final BiConsumer<Path, Boolean> removalListener;
+    private final Node                      root;
+
+    private int size;
+
+    /**
+     * @param removalListener
+     *         consumer of relative path and directory flag of each removed item
+     */
+    FileTreeSnapshot(BiConsumer<Path, Boolean> removalListener) {
+        this.removalListener = removalListener;
+        this.root = new Node("", true);
+    }
+
+    /**
+     * Updates modification time of item. If item is known as item of other kind, e.g. directory is replaced with file,
+     * then old item is removed first.
+     *
+     * @return previous modification time of item or {@link #ABSENT} if item is new
+     */
+    long update(Path relative, boolean directory, long modified, int generation) {
+        if (relative.toString().isEmpty()) {
+            final long previous = root.modified;
+            root.modified = modified;
+            root.generation = generation;
+            return previous;
+        }
+        final Node parent = relative.getNameCount() > 1 ? find(relative.getParent()) : root;
+        if (parent == null || !parent.directory) {
+            throw new IllegalArgumentException("Parent of " + relative + " is not known");
+        }
+        final String name = relative.getFileName().toString();
+        Node node = parent.children == null ? null : parent.children.get(name);
+        if (node != null && node.directory != directory) {
+            parent.children.remove(name);
+            remove(relative, node);
+            node = null;
+        }
+        if (node == null) {
+            node = new Node(names.intern(name), directory);
+            node.modified = modified;
+            node.generation = generation;
+            if (parent.children == null) {
+                parent.children = new HashMap<>(4);
+            }
+            parent.children.put(node.name, node);
+            size++;
+            return ABSENT;
+        }
+        final long previous = node.modified;
+        node.modified = modified;
+        node.generation = generation;
+        return previous;
+    }
+
+    /** Marks item, if it is known, as existed in specified generation without changing its modification time. */
+    void retain(Path relative, int generation) {
+        final Node node = find(relative);
+        if (node != null) {
+            node.generation = generation;
+        }
+    }
+
+    /** Returns {@code true} if item is known. */
+    boolean contains(Path relative) {
+        return find(relative) != null;
+    }
+
+    /** Returns {@code true} if item is known as directory. */
+    boolean isDirectory(Path relative) {
+        final Node node = find(relative);
+        return node != null && node.directory;
+    }
+
+    /** Removes item and all its descendants if it is known. */
+    void remove(Path relative) {
+        if (relative.toString().isEmpty()) {
+            removeChildren(relative, root, Integer.MAX_VALUE, true);
+            return;
+        }
+        final Node parent = relative.getNameCount() > 1 ? find(relative.getParent()) : root;
+        if (parent == null || parent.children == null) {
+            return;
+        }
+        final Node node = parent.children.remove(relative.getFileName().toString());
+        if (node != null) {
+            remove(relative, node);
+        }
+    }
+
+    /** Removes all items in subtree of specified directory that are not updated in specified generation. */
+    void sweep(Path relative, int generation) {
+        final Node node = find(relative);
+        if (node != null && node.directory) {
+            removeChildren(relative, node, generation, false);
+        }
+    }
+
+    /** Number of known items, not counting the root. */
+    int size() {
+        return size;
+    }
+
+    private void remove(Path path, Node node) {
+        if (node.directory) {
+            removeChildren(path, node, Integer.MAX_VALUE, true);
+        }
+        size--;
+        removalListener.accept(path, node.directory);
+    }
+
+    private void removeChildren(Path path, Node node, int generation, boolean all) {
+        if (node.children == null) {
+            return;
+        }
+        List<Node> retainedDirectories = null;
+        for (Iterator<Node> iterator = node.children.values().iterator(); iterator.hasNext(); ) {
+            final Node child = iterator.next();
+            if (all || child.generation != generation) {
+                iterator.remove();
+                remove(path.resolve(child.name), child);
+            } else if (child.directory && child.children != null) {
+                if (retainedDirectories == null) {
+                    retainedDirectories = new ArrayList<>();
+                }
+                retainedDirectories.add(child);
+            }
+        }
+        if (node.children.isEmpty()) {
+            node.children = null;
+        }
+        if (retainedDirectories != null) {
+            for (Node directory : retainedDirectories) {
+                removeChildren(path.resolve(directory.name), directory, generation, false);
+            }
+        }
+    }
+
+    private Node find(Path relative) {
+        Node node = root;
+        if (relative.toString().isEmpty()) {
+            return node;
+        }
+        for (Path name : relative) {
+            if (node.children == null) {
+                return null;
+            }
+            node = node.children.get(name.toString());
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private static final class Node {
+        final String  name;
+        final boolean directory;
+
+        long              modified = ABSENT;
+        int               generation;
+        Map<String, Node> children;
+
+        Node(String name, boolean directory) {
+            this.name = name;
+            this.directory = directory;
+        }
+    }
+}
@@ -12,39 +12,63 @@ package org.eclipse.che.api.vfs.watcher;
 
 import com.google.inject.Inject;
 
-import org.eclipse.che.commons.schedule.ScheduleRate;
+import org.eclipse.che.commons.schedule.ScheduleDelay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
 import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.readAttributes;
 import static java.nio.file.Files.walkFileTree;
-import static java.util.stream.Collectors.toSet;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
- * Walks a file system tree, register addition, update and removal of file system items.
+ * Tracks a file system tree, register addition, update and removal of file system items.
  * On events runs corresponding consumers that can be registered in DI configuration modules.
+ * <p/>
+ * Changes are collected from events of {@link FileWatcherService}: each directory of tree is registered for watching
+ * and paths of received events are journaled and then checked against known state of tree. Full walk of tree is
+ * performed initially and then only as a reconciliation for changes that may be missed by file watcher, e.g. when
+ * events are overflowed or watcher is suspended.
  */
 @Singleton
 public class FileTreeWalker {
     private static final Logger LOG = LoggerFactory.getLogger(FileTreeWalker.class);
 
-    private final File root;
+    /** Journal that grows above this size is dropped in favor of full walk. */
+    private static final int  MAX_JOURNAL_SIZE       = 64 * 1024;
+    /** Period of polling of subtrees which directories can't be registered for watching. */
+    private static final long POLLING_PERIOD_MILLIS = SECONDS.toMillis(10);
+    /** Failed registration of polled directory is retried with doubled delay up to this one. */
+    private static final long MAX_REGISTRATION_RETRY_DELAY_MILLIS = SECONDS.toMillis(640);
+
+    private final Path rootPath;
 
     private final Set<Consumer<Path>> directoryUpdateConsumers;
     private final Set<Consumer<Path>> directoryCreateConsumers;
@@ -56,8 +80,21 @@ public class FileTreeWalker {
     private final Set<Consumer<Path>> fileDeleteConsumers;
     private final Set<PathMatcher>    fileExcludes;
 
-    private final Map<Path, Long> files       = new HashMap<>();
-    private final Map<Path, Long> directories = new HashMap<>();
+    private final FileWatcherService      watcherService;
+    private final FileWatcherEventHandler watcherEventHandler;
+
+    private final Queue<Path>   journal           = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger journalSize       = new AtomicInteger();
+    private final Queue<Path>   rescanDirectories = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean walkRequired      = new AtomicBoolean(true);
+    private final Map<Path, PolledDirectory> polledDirectories = new LinkedHashMap<>();
+
+    private final FileTreeSnapshot snapshot;
+
+    private int  generation;
+    private long lastWalkTime;
+    private long lastPollTime;
+    private long reconciliationPeriodMillis = SECONDS.toMillis(600);
 
     @Inject
     public FileTreeWalker(@Named("che.user.workspaces.storage") File root,
@@ -70,8 +107,11 @@ public class FileTreeWalker {
                           @Named("che.fs.file.update") Set<Consumer<Path>> fileUpdateConsumers,
                           @Named("che.fs.file.create") Set<Consumer<Path>> fileCreateConsumers,
                           @Named("che.fs.file.delete") Set<Consumer<Path>> fileDeleteConsumers,
-                          @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes) {
-        this.root = root;
+                          @Named("che.fs.file.excludes") Set<PathMatcher> fileExcludes,
+
+                          FileWatcherService watcherService,
+                          FileWatcherEventHandler watcherEventHandler) {
+        this.rootPath = root.toPath();
 
         this.directoryUpdateConsumers = directoryUpdateConsumers;
         this.directoryCreateConsumers = directoryCreateConsumers;
@@ -83,68 +123,257 @@ public class FileTreeWalker {
 
         this.directoryExcludes = directoryExcludes;
         this.fileExcludes = fileExcludes;
+
+        this.watcherService = watcherService;
+        this.watcherEventHandler = watcherEventHandler;
+
+        this.snapshot = new FileTreeSnapshot((path, directory) -> remove(rootPath.resolve(path), directory));
+    }
+
+    @Inject(optional = true)
+    void setReconciliationPeriod(@Named("che.fs.reconciliation_period_sec") long reconciliationPeriodSec) {
+        this.reconciliationPeriodMillis = SECONDS.toMillis(reconciliationPeriodSec);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        watcherEventHandler.addEventListener(this::journal);
+    }
+
+    /**
+     * Records path of changed item. Journaled paths are checked against known state of tree on next processing of changes.
+     * Overflow of events for a directory causes rescan of the whole directory.
+     */
+    void journal(Path path, WatchEvent.Kind<?> kind) {
+        if (kind == OVERFLOW) {
+            rescanDirectories.add(path);
+            return;
+        }
+        if (journalSize.incrementAndGet() > MAX_JOURNAL_SIZE) {
+            walkRequired.set(true);
+            return;
+        }
+        journal.add(path);
     }
 
-    @ScheduleRate(period = 10)
+    @ScheduleDelay(delay = 1)
+    void processChanges() {
+        try {
+            if (walkRequired.get() || System.currentTimeMillis() - lastWalkTime >= reconciliationPeriodMillis) {
+                walk();
+                return;
+            }
+
+            for (Path directory = rescanDirectories.poll(); directory != null; directory = rescanDirectories.poll()) {
+                LOG.debug("Rescan directory {}", directory);
+                rescan(directory);
+            }
+
+            if (!polledDirectories.isEmpty() && System.currentTimeMillis() - lastPollTime >= POLLING_PERIOD_MILLIS) {
+                poll();
+            }
+
+            final Set<Path> paths = new LinkedHashSet<>();
+            for (Path path = journal.poll(); path != null; path = journal.poll()) {
+                journalSize.decrementAndGet();
+                paths.add(path);
+                // modification time of parent directory is changed with its entries
+                final Path parent = path.getParent();
+                if (parent != null && parent.startsWith(rootPath)) {
+                    paths.add(parent);
+                }
+            }
+            for (Path path : paths) {
+                check(path);
+            }
+        } catch (Exception e) {
+            LOG.error("Error while processing file tree changes", e);
+        }
+    }
+
+    /** Walks the whole tree and synchronizes known state of tree with the file system. */
     void walk() {
         try {
             LOG.debug("Tree walk started");
+            walkRequired.set(false);
+            journal.clear();
+            journalSize.set(0);
+            rescanDirectories.clear();
+
+            rescan(rootPath);
 
-            Set<Path> deletedFiles = files.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-            fileDeleteConsumers.forEach(deletedFiles::forEach);
-            files.keySet().removeAll(deletedFiles);
+            lastWalkTime = lastPollTime = System.currentTimeMillis();
+            LOG.debug("Tree walk finished, {} items are tracked", snapshot.size());
+        } catch (Exception e) {
+            LOG.error("Error while walking file tree", e);
+        }
+    }
+
+    /**
+     * Rescans subtrees of directories that can't be registered for watching. Registration is retried with growing delay, so
+     * directory is not polled anymore once it is registered. Subtree of polled directory is rescanned together with its
+     * polled ancestor.
+     */
+    void poll() throws IOException {
+        lastPollTime = System.currentTimeMillis();
+        final Set<Path> rescanned = new LinkedHashSet<>(polledDirectories.keySet());
+        for (Path directory : rescanned) {
+            final PolledDirectory polled = polledDirectories.get(directory);
+            if (polled == null) {
+                // removed while subtree of its ancestor was rescanned
+                continue;
+            }
+            if (!exists(directory)) {
+                polledDirectories.remove(directory);
+            } else if (lastPollTime >= polled.nextRegistrationTime) {
+                if (watcherService.register(directory)) {
+                    polledDirectories.remove(directory);
+                } else {
+                    polled.retryDelayMillis = Math.min(polled.retryDelayMillis * 2, MAX_REGISTRATION_RETRY_DELAY_MILLIS);
+                    polled.nextRegistrationTime = lastPollTime + polled.retryDelayMillis;
+                }
+            }
+            if (!hasAncestorIn(rescanned, directory)) {
+                rescan(directory);
+            }
+        }
+    }
 
-            Set<Path> deletedDirectories = directories.keySet().stream().filter(it -> !exists(it)).collect(toSet());
-            directoryDeleteConsumers.forEach(deletedDirectories::forEach);
-            directories.keySet().removeAll(deletedDirectories);
+    private static boolean hasAncestorIn(Set<Path> directories, Path directory) {
+        for (Path parent = directory.getParent(); parent != null; parent = parent.getParent()) {
+            if (directories.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-            walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+    private void rescan(Path directory) throws IOException {
+        if (!directory.startsWith(rootPath) || (!directory.equals(rootPath) && !snapshot.contains(rootPath.relativize(directory)))) {
+            return;
+        }
+        final int walkGeneration = ++generation;
+        if (exists(directory)) {
+            walkFileTree(directory, new SimpleFileVisitor<Path>() {
                 @Override
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    for (PathMatcher matcher : directoryExcludes) {
-                        if (matcher.matches(dir)) {
-                            return SKIP_SUBTREE;
-                        }
+                    if (FileWatcherUtils.isExcluded(directoryExcludes, dir)) {
+                        return SKIP_SUBTREE;
                     }
 
-                    updateFsTreeAndAcceptConsumables(directories, directoryUpdateConsumers, directoryCreateConsumers, dir, attrs);
+                    update(dir, attrs, walkGeneration);
 
                     return CONTINUE;
                 }
 
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-                    for (PathMatcher matcher : fileExcludes) {
-                        if (matcher.matches(file)) {
-                            return CONTINUE;
-                        }
+                    if (FileWatcherUtils.isExcluded(fileExcludes, file)) {
+                        return CONTINUE;
                     }
 
-                    updateFsTreeAndAcceptConsumables(files, fileUpdateConsumers, fileCreateConsumers, file, attrs);
+                    update(file, attrs, walkGeneration);
 
                     return CONTINUE;
                 }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    LOG.debug("Unable to visit {}: {}", file, e.getMessage());
+                    snapshot.retain(rootPath.relativize(file), walkGeneration);
+                    return CONTINUE;
+                }
             });
-            LOG.debug("Tree walk finished");
-        } catch (Exception e) {
-            LOG.error("Error while walking file tree", e);
+        }
+        if (directory.equals(rootPath) || exists(directory)) {
+            snapshot.sweep(rootPath.relativize(directory), walkGeneration);
+        } else {
+            snapshot.remove(rootPath.relativize(directory));
         }
     }
 
-    private void updateFsTreeAndAcceptConsumables(Map<Path, Long> items, Set<Consumer<Path>> updateConsumer,
-                                                  Set<Consumer<Path>> createConsumer,
-                                                  Path path, BasicFileAttributes attrs) {
-        Long lastModifiedActual = attrs.lastModifiedTime().toMillis();
+    /** Checks single journaled item against known state of tree. */
+    private void check(Path path) throws IOException {
+        if (!path.startsWith(rootPath) || isWithinExcludedDirectory(path)) {
+            return;
+        }
+        final Path relative = rootPath.relativize(path);
+        final Path parent = relative.getParent();
+        if (parent != null && !snapshot.isDirectory(parent)) {
+            // parent is not known yet, it is scanned together with its entries
+            check(path.getParent());
+            return;
+        }
 
-        if (items.containsKey(path)) {
-            Long lastModifiedStored = items.get(path);
-            if (!lastModifiedActual.equals(lastModifiedStored)) {
-                updateConsumer.forEach(it -> it.accept(path));
-                items.put(path, lastModifiedActual);
+        final BasicFileAttributes attrs;
+        try {
+            attrs = readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            snapshot.remove(relative);
+            return;
+        }
+        if (FileWatcherUtils.isExcluded(attrs.isDirectory() ? directoryExcludes : fileExcludes, path)) {
+            return;
+        }
+        final boolean newDirectory = attrs.isDirectory() && !snapshot.isDirectory(relative);
+        update(path, attrs, generation);
+        if (newDirectory) {
+            // entries may be created before the directory is registered for watching
+            rescan(path);
+        }
+    }
+
+    private boolean isWithinExcludedDirectory(Path path) {
+        for (Path dir = path.getParent(); dir != null && dir.startsWith(rootPath); dir = dir.getParent()) {
+            if (FileWatcherUtils.isExcluded(directoryExcludes, dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void update(Path path, BasicFileAttributes attrs, int itemGeneration) {
+        final boolean directory = attrs.isDirectory();
+        final long lastModifiedActual = attrs.lastModifiedTime().toMillis();
+        final long lastModifiedStored = snapshot.update(rootPath.relativize(path), directory, lastModifiedActual, itemGeneration);
+
+        if (lastModifiedStored == FileTreeSnapshot.ABSENT) {
+            if (directory && !watcherService.register(path)) {
+                LOG.warn("Directory {} can't be watched, its changes are checked every {} seconds",
+                         path, SECONDS.convert(POLLING_PERIOD_MILLIS, MILLISECONDS));
+                polledDirectories.put(path, new PolledDirectory(System.currentTimeMillis() + POLLING_PERIOD_MILLIS));
+            }
+            accept(directory ? directoryCreateConsumers : fileCreateConsumers, path);
+        } else if (lastModifiedStored != lastModifiedActual) {
+            accept(directory ? directoryUpdateConsumers : fileUpdateConsumers, path);
+        }
+    }
+
+    private void remove(Path path, boolean directory) {
+        if (directory) {
+            // watch key of moved directory remains valid, so it is cancelled explicitly
+            watcherService.unRegister(path);
+            polledDirectories.remove(path);
+        }
+        accept(directory ? directoryDeleteConsumers : fileDeleteConsumers, path);
+    }
+
+    private static class PolledDirectory {
+        long retryDelayMillis = POLLING_PERIOD_MILLIS;
+        long nextRegistrationTime;
+
+        PolledDirectory(long nextRegistrationTime) {
+            this.nextRegistrationTime = nextRegistrationTime;
+        }
+    }
+
+    private void accept(Set<Consumer<Path>> consumers, Path path) {
+        for (Consumer<Path> consumer : consumers) {
+            try {
+                consumer.accept(path);
+            } catch (RuntimeException e) {
+                LOG.error("Error while processing change of file tree item {}", path, e);
             }
-        } else {
-            createConsumer.forEach(it -> it.accept(path));
-            items.put(path, lastModifiedActual);
         }
     }
 }
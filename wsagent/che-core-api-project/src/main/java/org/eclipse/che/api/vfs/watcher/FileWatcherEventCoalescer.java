@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.watcher;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent.Kind;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Collects file watcher events and delivers them in batches. Batch is delivered when there were no new events during
+ * coalescing window, but not later than ten windows after the first event of batch.
+ * <p/>
+ * Sequence of events of the same path is collapsed into a single event that describes overall change, e.g. creation and
+ * following modification is delivered as creation while creation and following removal is not delivered at all.
+ * <p/>
+ * Storm of events of entries of a single directory is folded: listeners of handler are notified that the whole subtree of
+ * directory is changed instead of being notified about each entry. Registered operations still receive collapsed events of
+ * each entry.
+ * <p/>
+ * Class is not thread safe, it is used by single thread of {@link FileWatcherService}.
+ */
+class FileWatcherEventCoalescer {
+    private final long windowMillis;
+    private final long maxDelayMillis;
+    private final int  foldThreshold;
+
+    private final Map<Path, Kind<?>> events                = new LinkedHashMap<>();
+    private final Map<Path, Integer> directoryEventCounter = new HashMap<>();
+    private final Set<Path>          changedSubtrees       = new LinkedHashSet<>();
+
+    private long firstEventTime;
+    private long lastEventTime;
+
+    /**
+     * @param windowMillis
+     *         quiet period after the last event before batch is delivered, {@code 0} delivers events immediately
+     * @param foldThreshold
+     *         number of changed entries of a directory within single batch when directory is considered as changed subtree
+     */
+    FileWatcherEventCoalescer(long windowMillis, int foldThreshold) {
+        this.windowMillis = windowMillis;
+        this.maxDelayMillis = windowMillis * 10;
+        this.foldThreshold = foldThreshold;
+    }
+
+    /** Adds event of item. */
+    void add(Path path, Kind<?> kind, long time) {
+        touch(time);
+        final Kind<?> previous = events.remove(path);
+        if (previous == null) {
+            events.put(path, kind);
+            final Path dir = path.getParent();
+            if (dir != null) {
+                directoryEventCounter.merge(dir, 1, Integer::sum);
+            }
+            return;
+        }
+        final Kind<?> collapsed = collapse(previous, kind);
+        if (collapsed != null) {
+            events.put(path, collapsed);
+        }
+    }
+
+    /** Adds event about loss of events of a directory, such directory is delivered as changed subtree. */
+    void addChangedSubtree(Path dir, long time) {
+        touch(time);
+        changedSubtrees.add(dir);
+    }
+
+    boolean isEmpty() {
+        return events.isEmpty() && changedSubtrees.isEmpty();
+    }
+
+    /** Returns time in milliseconds left until batch should be delivered, {@code 0} if batch should be delivered now. */
+    long getDelay(long time) {
+        final long delay = Math.min(lastEventTime + windowMillis, firstEventTime + maxDelayMillis) - time;
+        return Math.max(0, delay);
+    }
+
+    /** Delivers collected batch to handler and starts new batch. */
+    void flush(FileWatcherEventHandler handler) {
+        final Set<Path> subtrees = new LinkedHashSet<>(changedSubtrees);
+        for (Entry<Path, Integer> entry : directoryEventCounter.entrySet()) {
+            if (entry.getValue() >= foldThreshold) {
+                subtrees.add(entry.getKey());
+            }
+        }
+        final Map<Path, Kind<?>> batch = new LinkedHashMap<>(events);
+        events.clear();
+        directoryEventCounter.clear();
+        changedSubtrees.clear();
+
+        subtrees.removeIf(it -> isWithinSubtree(it.getParent(), subtrees));
+        subtrees.forEach(handler::handleOverflow);
+        for (Entry<Path, Kind<?>> entry : batch.entrySet()) {
+            final Path path = entry.getKey();
+            if (isWithinSubtree(path.getParent(), subtrees)) {
+                handler.handle(path, entry.getValue(), false);
+            } else {
+                handler.handle(path, entry.getValue());
+            }
+        }
+    }
+
+    private void touch(long time) {
+        if (isEmpty()) {
+            firstEventTime = time;
+        }
+        lastEventTime = time;
+    }
+
+    private static boolean isWithinSubtree(Path path, Set<Path> subtrees) {
+        if (subtrees.isEmpty()) {
+            return false;
+        }
+        for (Path dir = path; dir != null; dir = dir.getParent()) {
+            if (subtrees.contains(dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collapses two successive events of the same item.
+     *
+     * @return event that describes both events or {@code null} if events cancel each other
+     */
+    static Kind<?> collapse(Kind<?> previous, Kind<?> next) {
+        if (previous == ENTRY_CREATE) {
+            // item did not exist before the first event
+            return next == ENTRY_DELETE ? null : ENTRY_CREATE;
+        }
+        if (next == ENTRY_DELETE) {
+            return ENTRY_DELETE;
+        }
+        // item existed before the first event and still exists
+        return ENTRY_MODIFY;
+    }
+}
@@ -18,6 +18,7 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -25,7 +26,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -41,6 +44,8 @@ public class FileWatcherEventHandler {
 
     private final Map<Path, Set<FileWatcherOperation>> operations = new ConcurrentHashMap<>();
 
+    private final Set<BiConsumer<Path, WatchEvent.Kind<?>>> listeners = new CopyOnWriteArraySet<>();
+
     private final File root;
 
     @Inject
@@ -107,6 +112,41 @@ public class FileWatcherEventHandler {
         return dir;
     }
 
+    /**
+     * Registers listener that is notified about every event of watched
+     * directories regardless of registered operations. Unlike operations
+     * listener receives path in a normal operation system file system form
+     * and is also notified with {@link StandardWatchEventKinds#OVERFLOW}
+     * kind and path of directory when some events of the directory are lost.
+     *
+     * @param listener
+     *         consumer of path and kind of event
+     */
+    public void addEventListener(BiConsumer<Path, WatchEvent.Kind<?>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters listener previously registered with {@link #addEventListener(BiConsumer)}.
+     *
+     * @param listener
+     *         listener to remove
+     */
+    public void removeEventListener(BiConsumer<Path, WatchEvent.Kind<?>> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Handles loss of events of a watched directory, e.g. when events are
+     * overflowed or skipped while file watcher system is suspended.
+     *
+     * @param dir
+     *         directory which events are lost
+     */
+    void handleOverflow(Path dir) {
+        listeners.forEach(it -> it.accept(dir, StandardWatchEventKinds.OVERFLOW));
+    }
+
     /**
      * Handles event passed form file watcher system. Path parameter is expected
      * to be passed in a normal operation system file system form and is
@@ -119,6 +159,26 @@ public class FileWatcherEventHandler {
      *         kind of event (e.g. created, modified, removed)
      */
     void handle(Path path, WatchEvent.Kind<?> kind) {
+        handle(path, kind, true);
+    }
+
+    /**
+     * Handles event passed form file watcher system. Listeners are not
+     * notified if they are already notified about change of the whole
+     * subtree that contains the path.
+     *
+     * @param path
+     *         path that the event is originated from
+     * @param kind
+     *         kind of event (e.g. created, modified, removed)
+     * @param notifyListeners
+     *         whether listeners should be notified about the event
+     */
+    void handle(Path path, WatchEvent.Kind<?> kind, boolean notifyListeners) {
+        if (notifyListeners) {
+            listeners.forEach(it -> it.accept(path, kind));
+        }
+
         Path dir = path.getParent();
         String internalPath = toInternalPath(root.toPath(), path);
         Set<FileWatcherOperation> dirOperations = operations.get(dir);
@@ -46,6 +46,7 @@ import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
 import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
 import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.vfs.watcher.FileWatcherUtils.isExcluded;
 
@@ -57,6 +58,7 @@ import static org.eclipse.che.api.vfs.watcher.FileWatcherUtils.isExcluded;
  * java file system paths in counter to che virtual file system which may have
  * custom root element and structure. Transforming one we of path representation
  * into another and backwards is the responsibility of upper services.
+ * Events are passed to handler in batches, see {@link FileWatcherEventCoalescer}.
  */
 @Singleton
 public class FileWatcherService {
@@ -74,7 +76,11 @@ public class FileWatcherService {
     private final Modifier[]              eventModifiers;
     private final Kind<?>[]               eventKinds;
 
-    private ExecutorService executor;
+    private long coalescingWindowMillis = 200;
+    private int  subtreeFoldThreshold   = 128;
+
+    private ExecutorService           executor;
+    private FileWatcherEventCoalescer coalescer;
 
     @Inject
     public FileWatcherService(@Named("che.user.workspaces.storage.excludes") Set<PathMatcher> excludes,
@@ -88,6 +94,26 @@ public class FileWatcherService {
 
     }
 
+    /**
+     * Sets period of time without new events after which collected events
+     * are delivered to handler. Events of the same item received within
+     * the period are collapsed into single event.
+     */
+    @com.google.inject.Inject(optional = true)
+    void setCoalescingWindow(@Named("che.fs.watcher.coalescing_window_ms") long coalescingWindowMillis) {
+        this.coalescingWindowMillis = coalescingWindowMillis;
+    }
+
+    /**
+     * Sets number of changed entries of a directory within single batch of
+     * events when listeners are notified about change of the whole directory
+     * instead of each entry.
+     */
+    @com.google.inject.Inject(optional = true)
+    void setSubtreeFoldThreshold(@Named("che.fs.watcher.subtree_fold_threshold") int subtreeFoldThreshold) {
+        this.subtreeFoldThreshold = subtreeFoldThreshold;
+    }
+
     @SuppressWarnings("unchecked")
     private static <T> WatchEvent<T> cast(WatchEvent<?> event) {
         return (WatchEvent<T>)event;
@@ -127,6 +153,7 @@ public class FileWatcherService {
 
     @PostConstruct
     void start() throws IOException {
+        coalescer = new FileWatcherEventCoalescer(coalescingWindowMillis, subtreeFoldThreshold);
         ThreadFactoryBuilder builder = new ThreadFactoryBuilder();
         ThreadFactory factory = builder.setUncaughtExceptionHandler(LoggingUncaughtExceptionHandler.getInstance())
                                        .setNameFormat(FileWatcherService.class.getSimpleName())
@@ -166,6 +193,34 @@ public class FileWatcherService {
         }
     }
 
+    /**
+     * Checks if changes of entries of a directory are reported to handler,
+     * i.e. service is running and directory is registered. Note that changes
+     * of entries that match excludes are never reported.
+     *
+     * @param dir
+     *         directory
+     *
+     * @return true if directory is being watched, false otherwise
+     */
+    public boolean isWatched(Path dir) {
+        return running.get() && registrations.containsKey(dir);
+    }
+
+    /**
+     * Checks if changes of an item are reported to handler, i.e. parent
+     * directory of the item is being watched and the item is not excluded.
+     *
+     * @param path
+     *         file or directory
+     *
+     * @return true if changes of the item are reported, false otherwise
+     */
+    public boolean isTracked(Path path) {
+        Path dir = path.getParent();
+        return dir != null && isWatched(dir) && !isExcluded(excludes, path);
+    }
+
     boolean isStopped(){
         return executor.isShutdown();
     }
@@ -181,10 +236,14 @@ public class FileWatcherService {
      *
      * @param dir
      *         directory
+     *
+     * @return true if directory is being watched, false if it can't be
+     * registered in underlying watch service, e.g. when limit of inotify
+     * watches is reached
      */
-    public void register(Path dir) {
+    public boolean register(Path dir) {
         LOG.debug("Registering directory '{}'", dir);
-        if (keys.values().contains(dir)) {
+        if (registrations.containsKey(dir)) {
             int previous = registrations.get(dir);
             LOG.debug("Directory is already being watched, increasing watch counter, previous value: {}", previous);
             registrations.put(dir, previous + 1);
@@ -196,8 +255,10 @@ public class FileWatcherService {
                 registrations.put(dir, 1);
             } catch (IOException e) {
                 LOG.error("Can't register dir {} in file watch service", dir, e);
+                return false;
             }
         }
+        return true;
     }
 
     /**
@@ -212,8 +273,11 @@ public class FileWatcherService {
     void unRegister(Path dir) {
         LOG.debug("Canceling directory '{}' registration", dir);
 
-        int previous = registrations.get(dir);
-        if (previous == 1) {
+        Integer previous = registrations.get(dir);
+        if (previous == null) {
+            // watch key of removed directory is already invalidated
+            LOG.debug("Directory '{}' is not being watched", dir);
+        } else if (previous == 1) {
             LOG.debug("Stopping watching directory '{}'", dir);
             registrations.remove(dir);
 
@@ -254,10 +318,26 @@ public class FileWatcherService {
 
         while (running.get()) {
             try {
-                WatchKey watchKey = service.take();
+                WatchKey watchKey;
+                if (coalescer.isEmpty()) {
+                    watchKey = service.take();
+                } else {
+                    long delay = coalescer.getDelay(System.currentTimeMillis());
+                    watchKey = delay > 0 ? service.poll(delay, MILLISECONDS) : null;
+                    if (watchKey == null) {
+                        flushEvents();
+                        continue;
+                    }
+                }
                 Path dir = keys.get(watchKey);
+                long time = System.currentTimeMillis();
 
                 if (suspended.get()) {
+                    watchKey.pollEvents();
+                    if (dir != null) {
+                        // events are lost, listeners may need to check the directory after resuming
+                        coalescer.addChangedSubtree(dir, time);
+                    }
                     resetAndRemove(watchKey, dir);
 
                     LOG.debug("File watchers are running in suspended mode - skipping.");
@@ -269,6 +349,9 @@ public class FileWatcherService {
 
                     if (kind == OVERFLOW) {
                         LOG.warn("Detected file system events overflowing");
+                        if (dir != null) {
+                            coalescer.addChangedSubtree(dir, time);
+                        }
                         continue;
                     }
 
@@ -281,7 +364,7 @@ public class FileWatcherService {
                         continue;
                     }
 
-                    handler.handle(path, kind);
+                    coalescer.add(path, kind, time);
                 }
 
                 resetAndRemove(watchKey, dir);
@@ -295,6 +378,14 @@ public class FileWatcherService {
         }
     }
 
+    private void flushEvents() {
+        try {
+            coalescer.flush(handler);
+        } catch (RuntimeException e) {
+            LOG.error("Error while handling file watcher events", e);
+        }
+    }
+
     private void resetAndRemove(WatchKey watchKey, Path dir) {
         if (!watchKey.reset()) {
             registrations.remove(dir);
@@ -81,9 +81,11 @@ import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -99,6 +101,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -108,6 +111,7 @@ import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import static java.lang.String.format;
@@ -1533,6 +1537,44 @@ public class ProjectServiceTest {
         assertEquals(response.getContentType().toString(), ExtMediaType.APPLICATION_ZIP);
     }
 
+    @Test
+    public void testExportLargeProjectWithoutBuffering() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        byte[] content = new byte[4 * 1024 * 1024];
+        new Random().nextBytes(content);
+        myProject.getBaseFolder().createFolder("a/b").createFile("big.bin", content);
+        File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+        Set<String> tmpFiles = new HashSet<>(Arrays.asList(tmpDir.list()));
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/export/my_project",
+                                                      "http://localhost:8080/api", null, null, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        ((StreamingOutput)response.getEntity()).write(new FilterOutputStream(zip) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                // neither archive nor content of files is spooled to temporary files while archive is written
+                List<String> spooled = Arrays.stream(tmpDir.list())
+                                             .filter(name -> !tmpFiles.contains(name))
+                                             .filter(name -> name.startsWith("export") || name.startsWith("spool_file"))
+                                             .collect(Collectors.toList());
+                assertTrue("Spooled to " + spooled, spooled.isEmpty());
+                out.write(b, off, len);
+            }
+        });
+
+        try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            ZipEntry entry = zipIn.getNextEntry();
+            while (entry != null && !"a/b/big.bin".equals(entry.getName())) {
+                entry = zipIn.getNextEntry();
+            }
+            assertNotNull(entry);
+            Assert.assertArrayEquals(content, ByteStreams.toByteArray(zipIn));
+        }
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testGetChildren() throws Exception {
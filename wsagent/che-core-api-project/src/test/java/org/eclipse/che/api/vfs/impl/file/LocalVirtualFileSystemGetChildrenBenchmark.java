@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures throughput of concurrent {@link LocalVirtualFileSystem#getChildren(LocalVirtualFile, org.eclipse.che.api.vfs.VirtualFileFilter)}
+ * calls. Benchmark is not run by surefire, run {@link #main(String[])} with test classpath, optionally passing numbers of
+ * threads as arguments, e.g. {@code 1 4 16}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LocalVirtualFileSystemGetChildrenBenchmark {
+    @Param({"16"})
+    public int folders;
+
+    @Param({"1000"})
+    public int filesPerFolder;
+
+    private File                   testDirectory;
+    private LocalVirtualFileSystem fileSystem;
+    private LocalVirtualFile[]     parents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ServerException {
+        testDirectory = Files.createTempDirectory("fs-benchmark-").toFile();
+        for (int i = 0; i < folders; i++) {
+            final File folder = new File(testDirectory, "folder" + i);
+            if (!folder.mkdir()) {
+                throw new IOException("Unable create " + folder);
+            }
+            for (int j = 0; j < filesPerFolder; j++) {
+                Files.createFile(new File(folder, "file" + j).toPath());
+            }
+        }
+        fileSystem = new LocalVirtualFileSystem(testDirectory, null, null, null);
+        parents = new LocalVirtualFile[folders];
+        for (int i = 0; i < folders; i++) {
+            parents[i] = (LocalVirtualFile)fileSystem.getRoot().getChild(Path.of("folder" + i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        IoUtil.deleteRecursive(testDirectory);
+    }
+
+    /** All threads list the same folder. */
+    @Benchmark
+    public List<VirtualFile> sameFolder() throws ServerException {
+        return parents[0].getChildren();
+    }
+
+    /** Each call lists randomly chosen folder, as parallel expansion of project tree does. */
+    @Benchmark
+    public List<VirtualFile> differentFolders() throws ServerException {
+        return parents[ThreadLocalRandom.current().nextInt(parents.length)].getChildren();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final String[] threads = args.length == 0 ? new String[]{"1", "4", "16"} : args;
+        for (String count : threads) {
+            final Options options = new OptionsBuilder().include(LocalVirtualFileSystemGetChildrenBenchmark.class.getSimpleName())
+                                                        .threads(Integer.parseInt(count))
+                                                        .build();
+            new Runner(options).run();
+        }
+    }
+}
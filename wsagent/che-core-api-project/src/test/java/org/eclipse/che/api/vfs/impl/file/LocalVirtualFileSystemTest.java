@@ -13,16 +13,35 @@ package org.eclipse.che.api.vfs.impl.file;
 import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
+import org.eclipse.che.api.vfs.watcher.FileWatcherEventHandler;
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.util.List;
+import java.util.function.BiConsumer;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -34,6 +53,8 @@ public class LocalVirtualFileSystemTest {
     private Searcher                                        searcher;
     private AbstractVirtualFileSystemProvider.CloseCallback closeCallback;
     private File                                            testDirectory;
+    private FileWatcherEventHandler                         watcherEventHandler;
+    private BiConsumer<Path, WatchEvent.Kind<?>>            watcherEventListener;
 
     @Before
     public void setUp() throws Exception {
@@ -64,4 +85,98 @@ public class LocalVirtualFileSystemTest {
         fileSystem.close();
         verify(searcher).close();
     }
+
+    @Test
+    public void cachesChildrenOfWatchedFolderUntilFileWatcherEventReceived() throws Exception {
+        LocalVirtualFileSystem cachingFileSystem = createCachingFileSystem();
+        VirtualFile folder = cachingFileSystem.getRoot().createFolder("folder");
+        assertTrue(folder.getChildren().isEmpty());
+
+        File ioFile = new File(testDirectory, "folder/file.txt");
+        assertTrue(ioFile.createNewFile());
+        assertTrue(folder.getChildren().isEmpty());
+
+        watcherEventListener.accept(ioFile.toPath(), ENTRY_CREATE);
+
+        assertEquals(singletonList("file.txt"), getNames(folder.getChildren()));
+    }
+
+    @Test
+    public void cachesAttributesOfWatchedItemUntilFileWatcherEventReceived() throws Exception {
+        LocalVirtualFileSystem cachingFileSystem = createCachingFileSystem();
+        VirtualFile file = cachingFileSystem.getRoot().createFolder("folder").createFile("file.txt", "a");
+        assertEquals(1, file.getLength());
+
+        File ioFile = new File(testDirectory, "folder/file.txt");
+        Files.write(ioFile.toPath(), "abc".getBytes(UTF_8));
+        assertEquals(1, file.getLength());
+
+        watcherEventListener.accept(ioFile.toPath(), ENTRY_MODIFY);
+
+        assertEquals(3, file.getLength());
+    }
+
+    @Test
+    public void dropsCachedStateOfDescendantsWhenFolderCreatedOrRemoved() throws Exception {
+        LocalVirtualFileSystem cachingFileSystem = createCachingFileSystem();
+        VirtualFile folder = cachingFileSystem.getRoot().createFolder("a/b");
+        VirtualFile file = folder.createFile("file.txt", "a");
+        assertEquals(singletonList("file.txt"), getNames(folder.getChildren()));
+        assertEquals(1, file.getLength());
+
+        File ioFolder = new File(testDirectory, "a");
+        Files.write(new File(ioFolder, "b/file.txt").toPath(), "abc".getBytes(UTF_8));
+        assertTrue(new File(ioFolder, "b/other.txt").createNewFile());
+        assertEquals(1, file.getLength());
+
+        watcherEventListener.accept(ioFolder.toPath(), ENTRY_CREATE);
+
+        assertEquals(3, file.getLength());
+        assertEquals(asList("file.txt", "other.txt"), getNames(folder.getChildren()));
+    }
+
+    @Test
+    public void invalidatesCachedChildrenWhenItemsChangedThroughFileSystem() throws Exception {
+        LocalVirtualFileSystem cachingFileSystem = createCachingFileSystem();
+        VirtualFile folder = cachingFileSystem.getRoot().createFolder("folder");
+        assertTrue(folder.getChildren().isEmpty());
+
+        VirtualFile file = folder.createFile("file.txt", "a");
+        assertEquals(singletonList("file.txt"), getNames(folder.getChildren()));
+
+        file.rename("renamed.txt");
+        assertEquals(singletonList("renamed.txt"), getNames(folder.getChildren()));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void removesFileWatcherEventListenerWhenFileSystemClosed() throws Exception {
+        LocalVirtualFileSystem cachingFileSystem = createCachingFileSystem();
+
+        cachingFileSystem.close();
+
+        verify(watcherEventHandler).removeEventListener(watcherEventListener);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LocalVirtualFileSystem createCachingFileSystem() {
+        FileWatcherService watcherService = mock(FileWatcherService.class);
+        when(watcherService.isWatched(any(Path.class))).thenReturn(true);
+        when(watcherService.isTracked(any(Path.class))).thenReturn(true);
+        watcherEventHandler = mock(FileWatcherEventHandler.class);
+        LocalVirtualFileSystem cachingFileSystem = new LocalVirtualFileSystem(testDirectory,
+                                                                              mock(ArchiverFactory.class),
+                                                                              null,
+                                                                              closeCallback,
+                                                                              watcherService,
+                                                                              watcherEventHandler);
+        ArgumentCaptor<BiConsumer> listenerCaptor = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(watcherEventHandler).addEventListener(listenerCaptor.capture());
+        watcherEventListener = listenerCaptor.getValue();
+        return cachingFileSystem;
+    }
+
+    private List<String> getNames(List<VirtualFile> files) {
+        return files.stream().map(VirtualFile::getName).collect(toList());
+    }
 }
\ No newline at end of file
@@ -50,9 +50,12 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -421,6 +424,43 @@ public class LocalVirtualFileTest {
         assertEquals(DEFAULT_CONTENT, content);
     }
 
+    @Test
+    public void writesContentToOutputStream() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        file.writeContent(output);
+
+        assertEquals(DEFAULT_CONTENT, output.toString());
+    }
+
+    @Test
+    public void doesNotBlockUpdateOfContentWhileContentIsWrittenToOutputStream() throws Exception {
+        VirtualFile root = getRoot();
+        VirtualFile file = root.createFile(generateFileName(), DEFAULT_CONTENT);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            OutputStream slowOutput = new ByteArrayOutputStream() {
+                @Override
+                public synchronized void write(byte[] bytes, int offset, int length) {
+                    try {
+                        executor.submit(() -> file.updateContent("updated content")).get(5, SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    super.write(bytes, offset, length);
+                }
+            };
+
+            file.writeContent(slowOutput);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("updated content", file.getContentAsString());
+    }
+
     @Test
     public void failsGetContentOfFolderAsStream() throws Exception {
         VirtualFile root = getRoot();
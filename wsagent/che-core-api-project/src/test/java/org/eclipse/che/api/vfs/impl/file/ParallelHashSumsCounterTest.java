@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.PathLockFactory;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.che.commons.lang.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelHashSumsCounterTest {
+    private File            testDirectory;
+    private File            cacheFile;
+    private ForkJoinPool    pool;
+    private FileHashCache   cache;
+    private PathLockFactory pathLockFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        File targetDir = new File(Thread.currentThread().getContextClassLoader().getResource(".").getPath()).getParentFile();
+        testDirectory = new File(targetDir, NameGenerator.generate("fs-", 4));
+        assertTrue(new File(testDirectory, "a/b").mkdirs());
+        cacheFile = new File(targetDir, NameGenerator.generate("hashes-", 4));
+        pool = new ForkJoinPool(4);
+        cache = new FileHashCache(cacheFile);
+        pathLockFactory = new PathLockFactory(4);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdown();
+        IoUtil.deleteRecursive(testDirectory);
+        IoUtil.deleteRecursive(cacheFile);
+    }
+
+    @Test
+    public void countsHashSumsOfAllFilesInFolder() throws Exception {
+        writeFile("a/file", "file1".getBytes());
+        writeFile("a/b/file", "file2".getBytes());
+        writeFile("a/.vfs/file", "service file".getBytes());
+
+        List<Pair<String, String>> hashSums = countHashSums("/a");
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum("file2".getBytes()), "b/file"),
+                                  Pair.of(countMd5Sum("file1".getBytes()), "file")),
+                     hashSums);
+    }
+
+    @Test
+    public void countsHashSumsOfBigFiles() throws Exception {
+        byte[] content = new byte[ParallelHashSumsCounter.BUFFER_SIZE * 3 + 17];
+        new Random().nextBytes(content);
+        writeFile("a/file", content);
+
+        List<Pair<String, String>> hashSums = countHashSums("/a");
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum(content), "file")), hashSums);
+    }
+
+    @Test
+    public void waitsForExclusiveLockOfFileBeforeReadingIt() throws Exception {
+        writeFile("a/file", "file1".getBytes());
+        PathLockFactory.PathLock lock = pathLockFactory.getLock(Path.of("/a/file"), true).acquire();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Pair<String, String>>> hashSums = executor.submit(() -> countHashSums("/a"));
+            try {
+                hashSums.get(200, MILLISECONDS);
+                fail("File must not be read while it is locked exclusively");
+            } catch (TimeoutException expected) {
+            }
+
+            writeFile("a/file", "file2".getBytes());
+            lock.release();
+
+            assertEquals(newArrayList(Pair.of(countMd5Sum("file2".getBytes()), "file")), hashSums.get(10, SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reusesCachedHashSumsOfNotChangedFiles() throws Exception {
+        File file = writeFile("a/file", "file1".getBytes());
+        long lastModified = System.currentTimeMillis() - 60_000;
+        assertTrue(file.setLastModified(lastModified));
+        countHashSums("/a");
+
+        // same size and modification time, so content is not read again
+        writeFile("a/file", "file2".getBytes());
+        assertTrue(file.setLastModified(lastModified));
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum("file1".getBytes()), "file")), countHashSums("/a"));
+
+        assertTrue(file.setLastModified(lastModified + 1000));
+
+        assertEquals(newArrayList(Pair.of(countMd5Sum("file2".getBytes()), "file")), countHashSums("/a"));
+    }
+
+    @Test
+    public void doesNotCacheHashSumsOfRecentlyModifiedFiles() throws Exception {
+        File file = writeFile("a/file", "file1".getBytes());
+
+        countHashSums("/a");
+
+        assertNull(cache.get("/a/file", file.lastModified(), file.length()));
+    }
+
+    @Test
+    public void storesCacheOfHashSumsInFile() throws Exception {
+        File file = writeFile("a/file", "file1".getBytes());
+        assertTrue(file.setLastModified(System.currentTimeMillis() - 60_000));
+
+        countHashSums("/a");
+
+        assertEquals(countMd5Sum("file1".getBytes()),
+                     new FileHashCache(cacheFile).get("/a/file", file.lastModified(), file.length()));
+    }
+
+    @Test
+    public void removesCachedHashSumsOfRemovedFiles() throws Exception {
+        File file = writeFile("a/b/file", "file1".getBytes());
+        long lastModified = System.currentTimeMillis() - 60_000;
+        assertTrue(file.setLastModified(lastModified));
+        countHashSums("/a");
+
+        assertTrue(file.delete());
+        countHashSums("/a");
+
+        assertNull(new FileHashCache(cacheFile).get("/a/b/file", lastModified, 5));
+    }
+
+    private List<Pair<String, String>> countHashSums(String folder) throws Exception {
+        return new ParallelHashSumsCounter(new File(testDirectory, folder.substring(1)),
+                                           Path.of(folder),
+                                           Hashing.md5(),
+                                           cache,
+                                           pool,
+                                           (dir, name) -> !".vfs".equals(name),
+                                           pathLockFactory,
+                                           60_000).countHashSums();
+    }
+
+    private File writeFile(String path, byte[] content) throws Exception {
+        File file = new File(testDirectory, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private String countMd5Sum(byte[] bytes) throws Exception {
+        return ByteSource.wrap(bytes).hash(Hashing.md5()).toString();
+    }
+}
@@ -12,13 +12,22 @@ package org.eclipse.che.api.vfs.search.impl;
 
 import com.google.common.base.Optional;
 
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.store.FSDirectory;
 import org.eclipse.che.api.vfs.ArchiverFactory;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.impl.memory.MemoryVirtualFileSystem;
+import org.eclipse.che.api.vfs.search.IndexingProgress;
 import org.eclipse.che.api.vfs.search.QueryExpression;
+import org.eclipse.che.api.vfs.search.SearchOccurrence;
 import org.eclipse.che.api.vfs.search.SearchResult;
+import org.eclipse.che.api.vfs.search.SearchResultEntry;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.mockito.ArgumentMatcher;
@@ -29,9 +38,12 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
@@ -39,6 +51,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 @SuppressWarnings("Duplicates")
@@ -336,6 +349,255 @@ public class FSLuceneSearcherTest {
         assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
     }
 
+    @Test
+    public void retrievesSearchResultWithPagesByPosition() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 100; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%02d", i), TEST_CONTENT[i % TEST_CONTENT.length]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult firstPage = searcher.search(new QueryExpression().setText("spaceflight").setMaxItems(8));
+        String searchAfter = firstPage.getNextPageQueryExpression().get().getSearchAfter();
+        assertNotNull(searchAfter);
+
+        SearchResult lastPage = searcher.search(new QueryExpression().setText("spaceflight").setSearchAfter(searchAfter).setMaxItems(100));
+        assertEquals(17, lastPage.getFilePaths().size());
+        assertTrue(Collections.disjoint(firstPage.getFilePaths(), lastPage.getFilePaths()));
+        assertFalse(lastPage.getNextPageQueryExpression().isPresent());
+    }
+
+    @Test
+    public void skipsExactNumberOfResultsWhenSkipCountIsLargerThanResultLimit() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        for (int i = 0; i < 1003; i++) {
+            virtualFileSystem.getRoot().createFile(String.format("file%04d", i), TEST_CONTENT[0]);
+        }
+        searcher.init(virtualFileSystem);
+
+        SearchResult page = searcher.search(new QueryExpression().setText("spaceflight").setSkipCount(1001).setMaxItems(10));
+
+        assertEquals(newArrayList("/file1001", "/file1002"), page.getFilePaths());
+    }
+
+    @Test
+    public void findsOccurrencesInSingleFile() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFile("xxx.txt", TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        List<SearchOccurrence> occurrences = searcher.findOccurrences("/xxx.txt", new QueryExpression().setText("be"));
+
+        assertEquals(2, occurrences.size());
+        assertTrue(searcher.findOccurrences("/yyy.txt", new QueryExpression().setText("be")).isEmpty());
+    }
+
+    @Test
+    public void returnsOccurrencesOfSearchedText() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        virtualFileSystem.getRoot().createFile("xxx.txt", TEST_CONTENT[1] + "\n" + TEST_CONTENT[2]);
+        searcher.init(virtualFileSystem);
+
+        List<SearchResultEntry> results = searcher.search(new QueryExpression().setText("be").setIncludeOccurrences(true)).getResults();
+        assertEquals(1, results.size());
+        List<SearchOccurrence> occurrences = results.get(0).getOccurrences();
+        assertEquals(2, occurrences.size());
+        SearchOccurrence first = occurrences.get(0);
+        assertEquals("be", first.getPhrase());
+        assertEquals(2, first.getLineNumber());
+        assertEquals(TEST_CONTENT[1].length() + 4, first.getStartOffset());
+        assertEquals(TEST_CONTENT[1].length() + 6, first.getEndOffset());
+        assertEquals(TEST_CONTENT[2], first.getLineContent());
+        assertEquals(2, occurrences.get(1).getLineNumber());
+    }
+
+    @Test
+    public void findsOccurrencesOfSubstringInOriginalContentWhenLowerCaseChangesLength() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        // String.toLowerCase(Locale.ROOT) turns capital dotted I into two characters
+        virtualFileSystem.getRoot().createFile("xxx.txt", "\u0130stanbul\nistanbul".getBytes(UTF_8));
+        searcher.init(virtualFileSystem);
+
+        List<SearchOccurrence> occurrences = searcher.findOccurrences("/xxx.txt", new QueryExpression().setText("ISTANBUL")
+                                                                                                       .setTextMatching(
+                                                                                                               QueryExpression.TextMatching.SUBSTRING));
+
+        assertEquals(2, occurrences.size());
+        assertEquals("\u0130stanbul", occurrences.get(0).getPhrase());
+        assertEquals(0, occurrences.get(0).getStartOffset());
+        assertEquals(8, occurrences.get(0).getEndOffset());
+        SearchOccurrence second = occurrences.get(1);
+        assertEquals("istanbul", second.getPhrase());
+        assertEquals(2, second.getLineNumber());
+        assertEquals(9, second.getStartOffset());
+        assertEquals(17, second.getEndOffset());
+        assertEquals("istanbul", second.getLineContent());
+    }
+
+    @Test
+    public void reportsProgressOfInitialIndexing() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFolder("sub").createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+
+        IndexingProgress progress = searcher.getIndexingProgress();
+        assertTrue(progress.isCompleted());
+        assertEquals(2, progress.getFilesDiscovered());
+        assertEquals(2, progress.getFilesIndexed());
+        assertEquals(TEST_CONTENT[2].length() + TEST_CONTENT[1].length(), progress.getBytesIndexed());
+        assertEquals(0, progress.getEstimatedTimeMillis());
+    }
+
+    @Test
+    public void resumesInterruptedInitialIndexingFromCheckpoint() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile indexed = virtualFileSystem.getRoot().createFolder("indexed").createFile("xxx.txt", TEST_CONTENT[1]);
+        virtualFileSystem.getRoot().createFolder("not_indexed").createFile("zzz.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+        searcher.close();
+        // indexing is interrupted after files of folder '/indexed' are indexed
+        try (IndexWriter writer = new IndexWriter(FSDirectory.open(indexDirectory.toPath()), new IndexWriterConfig(new WhitespaceAnalyzer()))) {
+            writer.deleteDocuments(new PrefixQuery(new Term("path", "/not_indexed/")));
+            Map<String, String> commitData = new HashMap<>();
+            commitData.put(LuceneSearcher.INDEXING_STATE_KEY, LuceneSearcher.INDEXING_STATE_IN_PROGRESS);
+            commitData.put(LuceneSearcher.INDEXING_CHECKPOINT_KEY, "/indexed");
+            commitData.put(LuceneSearcher.INDEXING_FORMAT_VERSION_KEY, LuceneSearcher.INDEX_FORMAT_VERSION);
+            commitData.put(LuceneSearcher.INDEXING_TRIGRAM_INDEX_KEY, "false");
+            writer.setCommitData(commitData);
+            writer.commit();
+        }
+        // file of completed folder is modified while indexing is stopped
+        indexed.updateContent(TEST_CONTENT[2]);
+
+        searcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback);
+        searcher.init(virtualFileSystem);
+
+        assertEquals(newArrayList("/not_indexed/zzz.txt"), searcher.search(new QueryExpression().setText("should")).getFilePaths());
+        assertEquals(newArrayList("/indexed/xxx.txt"), searcher.search(new QueryExpression().setText("be")).getFilePaths());
+        Map<String, String> commitData = searcher.getIndexWriter().getCommitData();
+        assertEquals(LuceneSearcher.INDEXING_STATE_COMPLETED, commitData.get(LuceneSearcher.INDEXING_STATE_KEY));
+        assertFalse(commitData.containsKey(LuceneSearcher.INDEXING_CHECKPOINT_KEY));
+    }
+
+    @Test
+    public void keepsIndexAfterClosingAndReindexesOnlyChangedFiles() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("unchanged.txt", TEST_CONTENT[0]);
+        VirtualFile modified = folder.createFile("modified.txt", TEST_CONTENT[1]);
+        VirtualFile deleted = folder.createFile("deleted.txt", TEST_CONTENT[1]);
+        searcher.init(virtualFileSystem);
+        searcher.close();
+
+        modified.updateContent(TEST_CONTENT[2]);
+        deleted.delete();
+        folder.createFile("created.txt", TEST_CONTENT[2]);
+        searcher = new FSLuceneSearcher(indexDirectory, filter, closeCallback);
+        searcher.init(virtualFileSystem);
+
+        assertEquals(newArrayList("/folder/unchanged.txt"), searcher.search(new QueryExpression().setText("spaceflight")).getFilePaths());
+        assertTrue(searcher.search(new QueryExpression().setText("should")).getFilePaths().isEmpty());
+        List<String> paths = searcher.search(new QueryExpression().setText("be")).getFilePaths();
+        Collections.sort(paths);
+        assertEquals(newArrayList("/folder/created.txt", "/folder/modified.txt"), paths);
+    }
+
+    @Test
+    public void searchesSubstringWithTrigramIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0]);
+        folder.createFile("yyy.txt", "FLIGHTS ARE DELAYED");
+        folder.createFile("zzz.txt", TEST_CONTENT[3]);
+        searcher.setTrigramIndexEnabled(true);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("flight mile")
+                                                                  .setTextMatching(QueryExpression.TextMatching.SUBSTRING))
+                                     .getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+        paths = searcher.search(new QueryExpression().setText("Flight")
+                                                     .setTextMatching(QueryExpression.TextMatching.SUBSTRING))
+                        .getFilePaths();
+        Collections.sort(paths);
+        assertEquals(newArrayList("/folder/xxx.txt", "/folder/yyy.txt"), paths);
+    }
+
+    @Test
+    public void searchesRegexpWithTrigramIndexAndVerifiesCandidates() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", "ascent was direct");
+        folder.createFile("zzz.txt", TEST_CONTENT[3]);
+        searcher.setTrigramIndexEnabled(true);
+        searcher.init(virtualFileSystem);
+
+        SearchResult result = searcher.search(new QueryExpression().setText("direct\\s+ascent")
+                                                                   .setTextMatching(QueryExpression.TextMatching.REGEXP));
+        assertEquals(newArrayList("/folder/zzz.txt"), result.getFilePaths());
+        assertEquals(1, result.getTotalHits());
+    }
+
+    @Test
+    public void searchesShortSubstringWithTrigramIndexInTheSameWayAsWithoutIt() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[2]);
+        folder.createFile("zzz.txt", TEST_CONTENT[3]);
+        searcher.setTrigramIndexEnabled(true);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("Be")
+                                                                  .setTextMatching(QueryExpression.TextMatching.SUBSTRING))
+                                     .getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
+    @Test
+    public void searchesNonAsciiSubstringWithTrigramIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", "Gr\u00FC\u00DFe aus K\u00F6ln".getBytes(UTF_8));
+        searcher.setTrigramIndexEnabled(true);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("AUS K\u00D6LN")
+                                                                  .setTextMatching(QueryExpression.TextMatching.SUBSTRING))
+                                     .getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
+    @Test
+    public void doesNotVerifyBinaryFilesFoundWithTrigramIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.bin", "binary\u0000content".getBytes(UTF_8));
+        folder.createFile("xxx.txt", "text content");
+        searcher.setTrigramIndexEnabled(true);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("content")
+                                                                  .setTextMatching(QueryExpression.TextMatching.SUBSTRING))
+                                     .getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
+    @Test
+    public void searchesSubstringOfWordsWithoutTrigramIndex() throws Exception {
+        VirtualFileSystem virtualFileSystem = virtualFileSystem();
+        VirtualFile folder = virtualFileSystem.getRoot().createFolder("folder");
+        folder.createFile("xxx.txt", TEST_CONTENT[0]);
+        folder.createFile("zzz.txt", TEST_CONTENT[3]);
+        searcher.init(virtualFileSystem);
+
+        List<String> paths = searcher.search(new QueryExpression().setText("flight")
+                                                                  .setTextMatching(QueryExpression.TextMatching.SUBSTRING))
+                                     .getFilePaths();
+        assertEquals(newArrayList("/folder/xxx.txt"), paths);
+    }
+
     private VirtualFileSystem virtualFileSystem() throws Exception {
         return new MemoryVirtualFileSystem(mock(ArchiverFactory.class), null);
     }
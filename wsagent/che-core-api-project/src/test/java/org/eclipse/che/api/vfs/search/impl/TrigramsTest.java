@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.search.impl;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TrigramsTest {
+    @Test
+    public void returnsLowerCaseTrigramsOfLiteral() {
+        assertEquals(Trigrams.ofLiteral("To Be"), newLinkedHashSet(newArrayList("to ", "o b", " be")));
+    }
+
+    @Test
+    public void returnsNoTrigramsForShortLiteral() {
+        assertTrue(Trigrams.ofLiteral("ab").isEmpty());
+    }
+
+    @Test
+    public void returnsTrigramsOfCodePoints() {
+        assertEquals(Trigrams.ofLiteral("a\uD83D\uDE00b"), newLinkedHashSet(newArrayList("a\uD83D\uDE00b")));
+    }
+
+    @Test
+    public void lowercasesWithoutChangingLength() {
+        // String.toLowerCase(Locale.ROOT) turns capital dotted I into two characters
+        assertEquals(Trigrams.toLowerCase("\u0130STANBUL"), "istanbul");
+    }
+
+    @DataProvider(name = "regexps")
+    public Object[][] regexps() {
+        return new Object[][]{
+                {"foo.*bar", newArrayList("foo", "bar")},
+                {"abc+def", newArrayList("abc", "def")},
+                {"colou?r", newArrayList("colo")},
+                {"ab{0,3}cdef", newArrayList("cdef")},
+                {"public\\s+class\\s+(\\w+)", newArrayList("public", "class")},
+                {"(x|y)hello", newArrayList("hello")},
+                {"get[A-Z]\\w*Name", newArrayList("get", "Name")},
+                {"\\.toString\\(\\)", newArrayList(".toString()")},
+                {"foo|bar", newArrayList()},
+                // payload of escape sequences is not literal
+                {"\\x41BCD", newArrayList("BCD")},
+                {"\\x{41}BCD", newArrayList("BCD")},
+                {"\\u0041BCD", newArrayList("BCD")},
+                {"\\0101bcd", newArrayList("bcd")},
+                {"\\cJabc", newArrayList("abc")},
+                {"(?<w>abc)\\k<w>", newArrayList()},
+                {"\\p{Lu}abc\\pLdef\\P{Lu}ghi", newArrayList("abc", "def", "ghi")},
+                {"\\N{LATIN SMALL LETTER A}bcd", newArrayList("bcd")},
+                {"\\Q(a|b)\\Ecde", newArrayList("cde")},
+                {"(a)\\12bcd", newArrayList("bcd")}
+        };
+    }
+
+    @Test(dataProvider = "regexps")
+    public void findsLiteralsRequiredByRegexp(String regexp, List<String> literals) {
+        assertEquals(Trigrams.requiredLiterals(regexp), literals);
+    }
+}
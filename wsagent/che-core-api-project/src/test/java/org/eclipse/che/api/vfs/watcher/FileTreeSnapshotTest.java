@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.watcher;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link FileTreeSnapshot}
+ */
+public class FileTreeSnapshotTest {
+    List<Path>       removed;
+    FileTreeSnapshot snapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        removed = new ArrayList<>();
+        snapshot = new FileTreeSnapshot((path, directory) -> removed.add(path));
+    }
+
+    @Test
+    public void shouldReturnPreviousModificationTime() throws Exception {
+        assertEquals(FileTreeSnapshot.ABSENT, snapshot.update(Paths.get("a"), true, 1, 1));
+        assertEquals(FileTreeSnapshot.ABSENT, snapshot.update(Paths.get("a/b.txt"), false, 2, 1));
+
+        assertEquals(2, snapshot.update(Paths.get("a/b.txt"), false, 3, 1));
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.isDirectory(Paths.get("a")));
+        assertFalse(snapshot.isDirectory(Paths.get("a/b.txt")));
+    }
+
+    @Test
+    public void shouldRemoveDescendantsBeforeDirectory() throws Exception {
+        snapshot.update(Paths.get("a"), true, 1, 1);
+        snapshot.update(Paths.get("a/b"), true, 1, 1);
+        snapshot.update(Paths.get("a/b/c.txt"), false, 1, 1);
+
+        snapshot.remove(Paths.get("a"));
+
+        assertEquals(asList(Paths.get("a/b/c.txt"), Paths.get("a/b"), Paths.get("a")), removed);
+        assertEquals(0, snapshot.size());
+    }
+
+    @Test
+    public void shouldSweepItemsNotUpdatedInGeneration() throws Exception {
+        snapshot.update(Paths.get("a"), true, 1, 1);
+        snapshot.update(Paths.get("a/b.txt"), false, 1, 1);
+        snapshot.update(Paths.get("a/c.txt"), false, 1, 1);
+        snapshot.update(Paths.get("d.txt"), false, 1, 1);
+
+        snapshot.update(Paths.get("a"), true, 1, 2);
+        snapshot.update(Paths.get("a/b.txt"), false, 1, 2);
+        snapshot.sweep(Paths.get("a"), 2);
+
+        assertEquals(asList(Paths.get("a/c.txt")), removed);
+        assertTrue(snapshot.contains(Paths.get("d.txt")));
+    }
+
+    @Test
+    public void shouldReplaceItemOfOtherKind() throws Exception {
+        snapshot.update(Paths.get("a"), true, 1, 1);
+        snapshot.update(Paths.get("a/b.txt"), false, 1, 1);
+
+        assertEquals(FileTreeSnapshot.ABSENT, snapshot.update(Paths.get("a"), false, 2, 1));
+
+        assertEquals(asList(Paths.get("a/b.txt"), Paths.get("a")), removed);
+        assertEquals(1, snapshot.size());
+    }
+}
@@ -28,9 +28,16 @@ import java.util.function.Consumer;
 
 import static java.io.File.createTempFile;
 import static java.lang.Thread.sleep;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
 import static org.apache.commons.io.FileUtils.write;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Tests for {@link FileTreeWalker}
@@ -72,8 +79,14 @@ public class FileTreeWalkerTest {
     @Mock
     Consumer<Path> directoryDeleteConsumerMock;
 
+    @Mock
+    FileWatcherService      fileWatcherService;
+    @Mock
+    FileWatcherEventHandler fileWatcherEventHandler;
+
     @Before
     public void setUp() throws Exception {
+        when(fileWatcherService.register(any(Path.class))).thenReturn(true);
         fileTreeWalker = new FileTreeWalker(rootFolder.getRoot(),
                                             directoryUpdateConsumers,
                                             directoryCreateConsumers,
@@ -82,7 +95,9 @@ public class FileTreeWalkerTest {
                                             fileUpdateConsumers,
                                             fileCreateConsumers,
                                             fileDeleteConsumers,
-                                            fileExcludes);
+                                            fileExcludes,
+                                            fileWatcherService,
+                                            fileWatcherEventHandler);
     }
 
     @After
@@ -198,4 +213,117 @@ public class FileTreeWalkerTest {
         fileTreeWalker.walk();
         verify(directoryCreatedConsumerMock, never()).accept(file.toPath());
     }
+
+    @Test
+    public void shouldRegisterDirectoriesForWatching() throws Exception {
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+
+        fileTreeWalker.walk();
+
+        verify(fileWatcherService).register(rootFolder.getRoot().toPath());
+        verify(fileWatcherService).register(folder.toPath());
+    }
+
+    @Test
+    public void shouldRunFileCreatedConsumerOnJournaledEventWithoutWalk() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+        fileTreeWalker.walk();
+
+        File notJournaled = rootFolder.newFile(TEST_FILE_NAME);
+        File journaled = new File(folder, TEST_FILE_NAME);
+        write(journaled, TEST_FILE_CONTENT);
+        fileTreeWalker.journal(journaled.toPath(), ENTRY_CREATE);
+        fileTreeWalker.processChanges();
+
+        verify(fileCreatedConsumerMock).accept(journaled.toPath());
+        verify(fileCreatedConsumerMock, never()).accept(notJournaled.toPath());
+    }
+
+    @Test
+    public void shouldScanEntriesOfJournaledDirectory() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        directoryCreateConsumers.add(directoryCreatedConsumerMock);
+        fileTreeWalker.walk();
+
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+        File file = new File(folder, TEST_FILE_NAME);
+        write(file, TEST_FILE_CONTENT);
+        fileTreeWalker.journal(folder.toPath(), ENTRY_CREATE);
+        fileTreeWalker.processChanges();
+
+        verify(directoryCreatedConsumerMock).accept(folder.toPath());
+        verify(fileCreatedConsumerMock).accept(file.toPath());
+        verify(fileWatcherService).register(folder.toPath());
+    }
+
+    @Test
+    public void shouldRescanDirectoryOnEventsOverflow() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        fileDeleteConsumers.add(fileDeleteConsumerMock);
+        File deleted = rootFolder.newFile("deleted");
+        fileTreeWalker.walk();
+
+        deleted.delete();
+        File file = rootFolder.newFile(TEST_FILE_NAME);
+        fileTreeWalker.journal(rootFolder.getRoot().toPath(), OVERFLOW);
+        fileTreeWalker.processChanges();
+
+        verify(fileCreatedConsumerMock).accept(file.toPath());
+        verify(fileDeleteConsumerMock).accept(deleted.toPath());
+    }
+
+    @Test
+    public void shouldPollDirectoryThatCannotBeWatched() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+        when(fileWatcherService.register(folder.toPath())).thenReturn(false);
+        fileTreeWalker.walk();
+
+        File file = new File(folder, TEST_FILE_NAME);
+        write(file, TEST_FILE_CONTENT);
+        fileTreeWalker.poll();
+
+        verify(fileCreatedConsumerMock).accept(file.toPath());
+    }
+
+    @Test
+    public void shouldNotRetryRegistrationOfPolledDirectoryOnEachPoll() throws Exception {
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+        when(fileWatcherService.register(folder.toPath())).thenReturn(false);
+        fileTreeWalker.walk();
+
+        fileTreeWalker.poll();
+        fileTreeWalker.poll();
+
+        verify(fileWatcherService, times(1)).register(folder.toPath());
+    }
+
+    @Test
+    public void shouldPollDirectoryWithinPolledDirectory() throws Exception {
+        fileCreateConsumers.add(fileCreatedConsumerMock);
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+        File nested = rootFolder.newFolder(TEST_FOLDER_NAME, TEST_FOLDER_NAME);
+        when(fileWatcherService.register(folder.toPath())).thenReturn(false);
+        when(fileWatcherService.register(nested.toPath())).thenReturn(false);
+        fileTreeWalker.walk();
+
+        File file = new File(nested, TEST_FILE_NAME);
+        write(file, TEST_FILE_CONTENT);
+        fileTreeWalker.poll();
+
+        verify(fileCreatedConsumerMock).accept(file.toPath());
+    }
+
+    @Test
+    public void shouldCancelWatchingOfDeletedDirectory() throws Exception {
+        File folder = rootFolder.newFolder(TEST_FOLDER_NAME);
+        fileTreeWalker.walk();
+
+        deleteDirectory(folder);
+        fileTreeWalker.journal(folder.toPath(), ENTRY_DELETE);
+        fileTreeWalker.processChanges();
+
+        verify(fileWatcherService).unRegister(folder.toPath());
+    }
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.watcher;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+/**
+ * Tests for {@link FileWatcherEventCoalescer}
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FileWatcherEventCoalescerTest {
+    static final Path DIR  = Paths.get("/projects/dir");
+    static final Path FILE = DIR.resolve("file");
+
+    @Mock
+    FileWatcherEventHandler handler;
+
+    @Test
+    public void shouldCollapseCreationAndModification() throws Exception {
+        FileWatcherEventCoalescer coalescer = new FileWatcherEventCoalescer(100, 10);
+
+        coalescer.add(FILE, ENTRY_CREATE, 0);
+        coalescer.add(FILE, ENTRY_MODIFY, 10);
+        coalescer.add(FILE, ENTRY_MODIFY, 20);
+        coalescer.flush(handler);
+
+        verify(handler).handle(FILE, ENTRY_CREATE);
+        verifyNoMoreInteractions(handler);
+        assertTrue(coalescer.isEmpty());
+    }
+
+    @Test
+    public void shouldDropCreationFollowedByRemoval() throws Exception {
+        FileWatcherEventCoalescer coalescer = new FileWatcherEventCoalescer(100, 10);
+
+        coalescer.add(FILE, ENTRY_CREATE, 0);
+        coalescer.add(FILE, ENTRY_DELETE, 10);
+        coalescer.flush(handler);
+
+        verifyNoMoreInteractions(handler);
+    }
+
+    @Test
+    public void shouldDeliverRemovalFollowedByCreationAsModification() throws Exception {
+        FileWatcherEventCoalescer coalescer = new FileWatcherEventCoalescer(100, 10);
+
+        coalescer.add(FILE, ENTRY_DELETE, 0);
+        coalescer.add(FILE, ENTRY_CREATE, 10);
+        coalescer.flush(handler);
+
+        verify(handler).handle(FILE, ENTRY_MODIFY);
+    }
+
+    @Test
+    public void shouldDelayBatchUntilWindowWithoutEventsButNotLongerThanTenWindows() throws Exception {
+        FileWatcherEventCoalescer coalescer = new FileWatcherEventCoalescer(100, 10);
+
+        coalescer.add(FILE, ENTRY_MODIFY, 0);
+        assertEquals(100, coalescer.getDelay(0));
+        coalescer.add(FILE, ENTRY_MODIFY, 50);
+        assertEquals(100, coalescer.getDelay(50));
+        coalescer.add(FILE, ENTRY_MODIFY, 950);
+        assertEquals(50, coalescer.getDelay(950));
+        assertEquals(0, coalescer.getDelay(1000));
+    }
+
+    @Test
+    public void shouldFoldStormOfDirectoryEntriesIntoSubtreeChange() throws Exception {
+        FileWatcherEventCoalescer coalescer = new FileWatcherEventCoalescer(100, 3);
+        Path subDir = DIR.resolve("sub");
+        Path other = Paths.get("/projects/other");
+
+        coalescer.add(DIR.resolve("a"), ENTRY_CREATE, 0);
+        coalescer.add(DIR.resolve("b"), ENTRY_CREATE, 0);
+        coalescer.add(subDir, ENTRY_CREATE, 0);
+        coalescer.add(subDir.resolve("c"), ENTRY_CREATE, 0);
+        coalescer.add(other, ENTRY_MODIFY, 0);
+        coalescer.flush(handler);
+
+        InOrder inOrder = inOrder(handler);
+        inOrder.verify(handler).handleOverflow(DIR);
+        inOrder.verify(handler).handle(DIR.resolve("a"), ENTRY_CREATE, false);
+        verify(handler).handle(subDir.resolve("c"), ENTRY_CREATE, false);
+        verify(handler).handle(other, ENTRY_MODIFY);
+        verify(handler, never()).handle(eq(DIR.resolve("a")), any());
+    }
+}
@@ -164,7 +164,6 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -241,6 +240,8 @@ class JGitConnection implements GitConnection {
 
     private static final String FILE_NAME_TOO_LONG_ERROR_PREFIX = "File name too long";
 
+    static final int DEFAULT_LOG_CACHE_SIZE = 10_000;
+
     private static final Pattern GIT_URL_WITH_CREDENTIALS_PATTERN = Pattern.compile("https?://[^:]+:[^@]+@.*");
 
     private static final Logger LOG = LoggerFactory.getLogger(JGitConnection.class);
@@ -248,6 +249,8 @@ class JGitConnection implements GitConnection {
     private Git                 git;
     private JGitConfigImpl      config;
     private LineConsumerFactory lineConsumerFactory;
+    private JGitLogCache        logCache = new JGitLogCache(DEFAULT_LOG_CACHE_SIZE);
+    private JGitStatusCache     statusCache;
 
     private final CredentialsLoader credentialsLoader;
     private final SshKeyProvider    sshKeyProvider;
@@ -728,11 +731,17 @@ class JGitConnection implements GitConnection {
             if (!isNullOrEmpty(filePath)) {
                 logCommand.addPath(filePath);
             }
-            Iterator<RevCommit> revIterator = logCommand.call().iterator();
-            List<Revision> commits = new ArrayList<>();
-            while (revIterator.hasNext()) {
-                RevCommit commit = revIterator.next();
-                Revision revision = getRevision(commit, filePath);
+            List<RevCommit> revCommits = new ArrayList<>();
+            logCommand.call().forEach(revCommits::add);
+            // branches of all the commits are found at once
+            List<Ref> branchRefs = getGit().branchList().setListMode(ListMode.ALL).call();
+            Map<ObjectId, List<String>> branchesOfCommits = logCache.getBranches(repository, branchRefs, revCommits);
+            List<Revision> commits = new ArrayList<>(revCommits.size());
+            for (RevCommit commit : revCommits) {
+                Revision revision = getRevision(commit, branchesOfCommits.get(commit));
+                if (params.isDiffCommitFiles()) {
+                    revision.setDiffCommitFile(logCache.getDiffFiles(commit, filePath, () -> getCommitDiffFiles(commit, filePath)));
+                }
                 commits.add(revision);
             }
             return new LogPage(commits);
@@ -747,7 +756,7 @@ class JGitConnection implements GitConnection {
         }
     }
 
-    private Revision getRevision(RevCommit commit, String filePath) throws GitAPIException, IOException {
+    private Revision getRevision(RevCommit commit, List<String> branches) {
         List<String> commitParentsList = Stream.of(commit.getParents())
                                                .map(RevCommit::getName)
                                                .collect(Collectors.toList());
@@ -757,9 +766,10 @@ class JGitConnection implements GitConnection {
                                      .withCommitTime((long)commit.getCommitTime() * 1000)
                                      .withCommitter(getCommitCommitter(commit))
                                      .withAuthor(getCommitAuthor(commit))
-                                     .withBranches(getBranchesOfCommit(commit, ListMode.ALL))
-                                     .withCommitParent(commitParentsList)
-                                     .withDiffCommitFile(getCommitDiffFiles(commit, filePath));
+                                     .withBranches(branches.stream()
+                                                           .map(branch -> newDto(Branch.class).withName(branch))
+                                                           .collect(Collectors.toList()))
+                                     .withCommitParent(commitParentsList);
     }
 
     private GitUser getCommitCommitter(RevCommit commit) {
@@ -774,16 +784,6 @@ class JGitConnection implements GitConnection {
                                     .withEmail(authorIdentity.getEmailAddress());
     }
 
-    private List<Branch> getBranchesOfCommit(RevCommit commit, ListMode mode) throws GitAPIException {
-        List<Ref> branches = getGit().branchList()
-                                     .setListMode(mode)
-                                     .setContains(commit.getName())
-                                     .call();
-        return branches.stream()
-                       .map(branch -> newDto(Branch.class).withName(branch.getName()))
-                       .collect(Collectors.toList());
-    }
-
     private List<DiffCommitFile> getCommitDiffFiles(RevCommit revCommit, String pattern) throws IOException {
         List<DiffEntry> diffs;
         TreeFilter filter = null;
@@ -1462,10 +1462,33 @@ class JGitConnection implements GitConnection {
 
     @Override
     public Status status(StatusFormat format) throws GitException {
+        return status(format, true);
+    }
+
+    @Override
+    public Status reportedStatus(StatusFormat format) throws GitException {
+        return status(format, false);
+    }
+
+    /**
+     * Returns status of the working tree. Status kept up to date with file watcher events may miss changes
+     * which are not reported yet, e.g. file that is just saved, so it is used as is only when {@code rescan}
+     * is {@code false}, otherwise the whole working tree is scanned and the kept status is replaced.
+     */
+    private Status status(StatusFormat format, boolean rescan) throws GitException {
         if (!RepositoryCache.FileKey.isGitRepository(getRepository().getDirectory(), FS.DETECTED)) {
             throw new GitException("Not a git repository");
         }
         String branchName = getCurrentBranch();
+        if (statusCache != null) {
+            try {
+                return new JGitStatusImpl(branchName,
+                                          rescan ? statusCache.rescan(repository) : statusCache.getStatus(repository),
+                                          format);
+            } catch (IOException exception) {
+                throw new GitException(exception.getMessage(), exception);
+            }
+        }
         return new JGitStatusImpl(branchName, getGit().status(), format);
     }
 
@@ -1595,6 +1618,16 @@ class JGitConnection implements GitConnection {
         this.lineConsumerFactory = lineConsumerFactory;
     }
 
+    /** Sets cache of commit details shared by connections to the same repository. */
+    void setLogCache(JGitLogCache logCache) {
+        this.logCache = logCache;
+    }
+
+    /** Sets status of the repository kept up to date with file watcher, {@code null} means status is computed on each call. */
+    void setStatusCache(JGitStatusCache statusCache) {
+        this.statusCache = statusCache;
+    }
+
 
     private Git getGit() {
         if (git != null) {
@@ -11,18 +11,25 @@
  *******************************************************************************/
 package org.eclipse.che.git.impl.jgit;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.git.CredentialsLoader;
 import org.eclipse.che.api.git.GitConnectionFactory;
 import org.eclipse.che.api.git.exception.GitException;
 import org.eclipse.che.api.git.GitUserResolver;
+import org.eclipse.che.api.vfs.watcher.FileWatcherEventHandler;
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
 import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
-import org.eclipse.jgit.internal.storage.file.FileRepository;
-import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
 import org.eclipse.jgit.transport.UserAgent;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
@@ -32,24 +39,43 @@ import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 /**
  * JGit implementation for GitConnectionFactory
  * 
  * @author Tareq Sharafy (tareq.sha@gmail.com)
  */
+@Singleton
 public class JGitConnectionFactory extends GitConnectionFactory {
 
-    private static final String USER_AGENT = "git/2.1.0";
+    private static final String USER_AGENT              = "git/2.1.0";
+    private static final int    MAX_CACHED_REPOSITORIES = 100;
+
+    private static final long DEFAULT_REPOSITORY_IDLE_TIMEOUT_SEC = 300;
+    private static final int  DEFAULT_PACKED_GIT_LIMIT_MB         = 64;
+    private static final int  DEFAULT_PACKED_GIT_OPEN_FILES       = 128;
+    private static final int  DEFAULT_DELTA_BASE_CACHE_LIMIT_MB   = 16;
 
-    private final CredentialsLoader credentialsLoader;
-    private final SshKeyProvider    sshKeyProvider;
-    private final GitUserResolver   userResolver;
+    private final CredentialsLoader         credentialsLoader;
+    private final SshKeyProvider            sshKeyProvider;
+    private final GitUserResolver           userResolver;
+    private final Cache<File, JGitLogCache> logCaches;
+
+    private volatile JGitRepositoryCache repositoryCache;
+    private volatile JGitStatusTracker   statusTracker;
+
+    private int packedGitLimitMb      = DEFAULT_PACKED_GIT_LIMIT_MB;
+    private int packedGitOpenFiles    = DEFAULT_PACKED_GIT_OPEN_FILES;
+    private int deltaBaseCacheLimitMb = DEFAULT_DELTA_BASE_CACHE_LIMIT_MB;
 
     @Inject
     public JGitConnectionFactory(CredentialsLoader credentialsLoader, SshKeyProvider sshKeyProvider, GitUserResolver userResolver) throws GitException {
         this.credentialsLoader = credentialsLoader;
         this.sshKeyProvider = sshKeyProvider;
         this.userResolver = userResolver;
+        this.logCaches = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_REPOSITORIES).build();
+        this.repositoryCache = new JGitRepositoryCache(SECONDS.toMillis(DEFAULT_REPOSITORY_IDLE_TIMEOUT_SEC));
 
         UserAgent.set(USER_AGENT);
         // Install the all-trusting trust manager
@@ -76,17 +102,73 @@ public class JGitConnectionFactory extends GitConnectionFactory {
         }
     }
 
+    /**
+     * Configures caches shared by all the repositories, window cache is installed by {@link #installWindowCache()}.
+     *
+     * @param repositoryIdleTimeoutSec
+     *         time after which repository which is not used is closed
+     * @param packedGitLimitMb
+     *         memory used for caching of pack files content
+     * @param packedGitOpenFiles
+     *         max number of pack files kept open
+     * @param deltaBaseCacheLimitMb
+     *         memory used for caching of objects which other objects are delta-compressed against
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setCacheConfiguration(@Named("che.git.repository_cache.idle_timeout_sec") long repositoryIdleTimeoutSec,
+                                      @Named("che.git.window_cache.packed_git_limit_mb") int packedGitLimitMb,
+                                      @Named("che.git.window_cache.packed_git_open_files") int packedGitOpenFiles,
+                                      @Named("che.git.window_cache.delta_base_cache_limit_mb") int deltaBaseCacheLimitMb) {
+        final JGitRepositoryCache previous = repositoryCache;
+        repositoryCache = new JGitRepositoryCache(SECONDS.toMillis(repositoryIdleTimeoutSec));
+        previous.clear();
+        this.packedGitLimitMb = packedGitLimitMb;
+        this.packedGitOpenFiles = packedGitOpenFiles;
+        this.deltaBaseCacheLimitMb = deltaBaseCacheLimitMb;
+    }
+
+    /**
+     * Window cache is global for JGit, so it is sized once on startup for all the repositories of the workspace.
+     * Installing of new configuration drops all the cached content of pack files.
+     */
+    @PostConstruct
+    public void installWindowCache() {
+        final WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitLimit(packedGitLimitMb * WindowCacheConfig.MB);
+        config.setPackedGitOpenFiles(packedGitOpenFiles);
+        config.setDeltaBaseCacheLimit(deltaBaseCacheLimitMb * WindowCacheConfig.MB);
+        config.install();
+    }
+
+    /**
+     * Makes status of repositories be kept up to date with file watcher events, so the working tree
+     * isn't scanned by each status request. Without file watcher status is computed on each request.
+     */
+    @com.google.inject.Inject(optional = true)
+    public void setFileWatcher(FileWatcherService watcherService, FileWatcherEventHandler watcherEventHandler) {
+        final JGitStatusTracker tracker = new JGitStatusTracker(watcherService, MAX_CACHED_REPOSITORIES);
+        watcherEventHandler.addEventListener(tracker::onFileSystemChange);
+        statusTracker = tracker;
+    }
+
     @Override
     public JGitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory) throws GitException {
-        Repository gitRepo = createRepository(workDir);
+        Repository gitRepo = acquireRepository(workDir);
         JGitConnection conn = new JGitConnection(gitRepo, credentialsLoader, sshKeyProvider, userResolver);
         conn.setOutputLineConsumerFactory(outputPublisherFactory);
+        conn.setLogCache(logCaches.asMap().computeIfAbsent(gitRepo.getDirectory().getAbsoluteFile(),
+                                                           dir -> new JGitLogCache(JGitConnection.DEFAULT_LOG_CACHE_SIZE)));
+        final JGitStatusTracker tracker = statusTracker;
+        if (tracker != null) {
+            conn.setStatusCache(tracker.getStatusCache(gitRepo));
+        }
         return conn;
     }
 
-    private static Repository createRepository(File workDir) throws GitException {
+    /** Returns shared repository, it is released by {@link JGitConnection#close()}. */
+    private Repository acquireRepository(File workDir) throws GitException {
         try {
-            return new FileRepository(new File(workDir, Constants.DOT_GIT));
+            return repositoryCache.acquire(workDir);
         } catch (IOException e) {
             throw new GitException(e.getMessage(), e);
         }
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *   SAP           - implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.eclipse.che.api.git.shared.DiffCommitFile;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+
+/**
+ * Computes and caches details of commits shown by {@link JGitConnection#log}.
+ *
+ * <p>Branches containing commits of a log page are computed by a single walk from all the
+ * branch tips in topological order, each commit gets a bit set of branches it is reachable from,
+ * which is propagated to its parents. Topological order needs the whole history reachable from
+ * the tips to be read before the first commit is emitted, so the walk costs about the same as
+ * reading the history once, no matter how many commits are requested. Computed branches are
+ * cached by commit id while branch tips are not changed. Changed files of a commit never change, so they are cached
+ * by commit id and path filter.
+ *
+ * <p>One instance is shared by all connections to the same repository, the instance is thread safe.
+ *
+ * @see JGitConnectionFactory
+ */
+class JGitLogCache {
+    private final int                                 maxCommits;
+    private final Cache<String, List<DiffCommitFile>> diffFiles;
+
+    // guarded by this
+    private Cache<ObjectId, List<String>> branches;
+    private Map<String, ObjectId>         branchTips;
+
+    JGitLogCache(int maxCommits) {
+        this.maxCommits = maxCommits;
+        this.diffFiles = CacheBuilder.newBuilder().maximumSize(maxCommits).build();
+    }
+
+    /**
+     * Returns names of branches each of the given commits is reachable from.
+     *
+     * @param repository
+     *         repository which contains the commits
+     * @param branchRefs
+     *         all the branches of the repository, result lists names in the same order
+     * @param commits
+     *         commits to find branches for
+     * @return names of branches by commit id, the list is empty if commit isn't reachable from any of the branches
+     */
+    Map<ObjectId, List<String>> getBranches(Repository repository,
+                                            List<Ref> branchRefs,
+                                            Collection<? extends ObjectId> commits) throws IOException {
+        final Cache<ObjectId, List<String>> branches = getBranchesCache(branchRefs);
+        final Map<ObjectId, List<String>> result = new HashMap<>();
+        final Set<ObjectId> notCached = new HashSet<>();
+        for (ObjectId commit : commits) {
+            final List<String> cached = branches.getIfPresent(commit);
+            if (cached != null) {
+                result.put(commit, cached);
+            } else {
+                notCached.add(commit.copy());
+            }
+        }
+        if (!notCached.isEmpty()) {
+            final Map<ObjectId, List<String>> computed = computeBranches(repository, branchRefs, notCached);
+            branches.putAll(computed);
+            result.putAll(computed);
+        }
+        return result;
+    }
+
+    /**
+     * Returns changed files of the commit loading them with given loader if they are not cached yet.
+     *
+     * @param commit
+     *         commit to get files for
+     * @param filePath
+     *         path the files are filtered by, may be {@code null}
+     * @param loader
+     *         loads the changed files
+     */
+    List<DiffCommitFile> getDiffFiles(ObjectId commit,
+                                      String filePath,
+                                      Callable<List<DiffCommitFile>> loader) throws IOException {
+        final List<DiffCommitFile> files;
+        try {
+            files = diffFiles.get(commit.getName() + ':' + (filePath == null ? "" : filePath), loader);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        // cached DTOs are never exposed, so they can't be modified by callers
+        return files.stream()
+                    .map(file -> newDto(DiffCommitFile.class).withOldPath(file.getOldPath())
+                                                             .withNewPath(file.getNewPath())
+                                                             .withChangeType(file.getChangeType()))
+                    .collect(toList());
+    }
+
+    /** Returns cache of branches computed for the given branch tips, the cache is replaced once tips are changed. */
+    private synchronized Cache<ObjectId, List<String>> getBranchesCache(List<Ref> branchRefs) {
+        final Map<String, ObjectId> tips = new HashMap<>();
+        for (Ref ref : branchRefs) {
+            tips.put(ref.getName(), ref.getObjectId());
+        }
+        if (!tips.equals(branchTips)) {
+            // branches computed for the previous tips by concurrent calls go to the replaced cache
+            branches = CacheBuilder.newBuilder().maximumSize(maxCommits).build();
+            branchTips = tips;
+        }
+        return branches;
+    }
+
+    private static Map<ObjectId, List<String>> computeBranches(Repository repository,
+                                                               List<Ref> branchRefs,
+                                                               Set<ObjectId> commits) throws IOException {
+        final Map<ObjectId, List<String>> result = new HashMap<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            // children are always emitted before their parents, so when a commit is emitted
+            // its bit set already contains all the branches which it is reachable from
+            walk.sort(RevSort.TOPO);
+            final Map<ObjectId, BitSet> reachableFrom = new HashMap<>();
+            for (int i = 0; i < branchRefs.size(); i++) {
+                final RevCommit tip = parseTip(walk, branchRefs.get(i));
+                if (tip != null) {
+                    walk.markStart(tip);
+                    reachableFrom.computeIfAbsent(tip, t -> new BitSet(branchRefs.size())).set(i);
+                }
+            }
+            for (RevCommit commit : walk) {
+                BitSet bits = reachableFrom.remove(commit);
+                if (bits == null) {
+                    bits = new BitSet();
+                }
+                if (commits.contains(commit)) {
+                    result.put(commit.copy(), toBranchNames(branchRefs, bits));
+                    // history is already read by topological sort, this only saves propagation of bit sets
+                    if (result.size() == commits.size()) {
+                        break;
+                    }
+                }
+                for (RevCommit parent : commit.getParents()) {
+                    // bit sets are shared by parents, merged sets are new ones
+                    reachableFrom.merge(parent, bits, (existing, added) -> {
+                        final BitSet merged = (BitSet)existing.clone();
+                        merged.or(added);
+                        return merged;
+                    });
+                }
+            }
+        }
+        for (ObjectId commit : commits) {
+            result.putIfAbsent(commit, emptyList());
+        }
+        return result;
+    }
+
+    private static RevCommit parseTip(RevWalk walk, Ref ref) throws IOException {
+        if (ref.getObjectId() == null) {
+            return null;
+        }
+        try {
+            return walk.parseCommit(ref.getObjectId());
+        } catch (MissingObjectException | IncorrectObjectTypeException e) {
+            return null;
+        }
+    }
+
+    private static List<String> toBranchNames(List<Ref> branchRefs, BitSet bits) {
+        final List<String> names = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            names.add(branchRefs.get(i).getName());
+        }
+        return unmodifiableList(names);
+    }
+}
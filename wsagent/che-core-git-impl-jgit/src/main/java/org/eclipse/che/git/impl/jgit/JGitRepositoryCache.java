@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *   SAP           - implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Shares opened repositories between connections, so refs, config and pack indexes of a repository
+ * are not read from disk by each request.
+ *
+ * <p>Reference counting of {@link Repository} is used. The cache holds one reference of each cached
+ * repository and each {@link #acquire(File) acquired} repository must be {@link Repository#close() closed}
+ * by the caller, so repository is actually closed when it is removed from the cache and isn't used anymore.
+ * Repository which isn't acquired for the idle timeout is removed from the cache.
+ *
+ * <p>Changes made by external tools to refs, config and pack files are picked up by JGit itself.
+ * Repository is reopened when its {@code .git} directory is removed or recreated, e.g. by
+ * repository removal or by cloning to the same folder, recreated directory is detected by its
+ * file key, so it isn't detected on platforms which don't provide file keys. Folders without
+ * {@code .git} directory are not cached, so folders that aren't under git don't occupy the cache.
+ */
+class JGitRepositoryCache {
+    private final long         idleTimeoutMs;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private final Map<File, CachedRepository> repositories = new HashMap<>();
+    private       long                        lastEvictionTime;
+
+    JGitRepositoryCache(long idleTimeoutMs) {
+        this(idleTimeoutMs, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    JGitRepositoryCache(long idleTimeoutMs, LongSupplier clock) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.clock = clock;
+        this.lastEvictionTime = clock.getAsLong();
+    }
+
+    /**
+     * Returns repository of the working directory, the repository must be closed by the caller.
+     *
+     * @param workDir
+     *         working directory of the repository
+     * @throws IOException
+     *         if repository can't be opened
+     */
+    Repository acquire(File workDir) throws IOException {
+        final File gitDir = new File(workDir, Constants.DOT_GIT).getAbsoluteFile();
+        final Object gitDirKey = getDirectoryKey(gitDir);
+        if (gitDirKey == null) {
+            // not a git repository yet, e.g. repository is going to be initialized or cloned
+            return new FileRepository(gitDir);
+        }
+        synchronized (this) {
+            final long now = clock.getAsLong();
+            evictIdle(now);
+            CachedRepository cached = repositories.get(gitDir);
+            if (cached != null && !cached.gitDirKey.equals(gitDirKey)) {
+                // .git directory is recreated
+                repositories.remove(gitDir);
+                cached.repository.close();
+                cached = null;
+            }
+            if (cached == null) {
+                cached = new CachedRepository(new FileRepository(gitDir), gitDirKey);
+                repositories.put(gitDir, cached);
+            }
+            cached.lastAccessTime = now;
+            // reference of the caller, reference of the cache is released on eviction
+            cached.repository.incrementOpen();
+            return cached.repository;
+        }
+    }
+
+    /** Removes all the repositories from the cache, repositories are closed once they aren't used anymore. */
+    synchronized void clear() {
+        repositories.values().forEach(cached -> cached.repository.close());
+        repositories.clear();
+    }
+
+    @VisibleForTesting
+    synchronized int size() {
+        return repositories.size();
+    }
+
+    private void evictIdle(long now) {
+        if (now - lastEvictionTime < idleTimeoutMs) {
+            return;
+        }
+        lastEvictionTime = now;
+        for (Iterator<CachedRepository> it = repositories.values().iterator(); it.hasNext(); ) {
+            final CachedRepository cached = it.next();
+            if (now - cached.lastAccessTime >= idleTimeoutMs) {
+                it.remove();
+                cached.repository.close();
+            }
+        }
+    }
+
+    /** Returns value which identifies the directory until it is removed, or {@code null} if it doesn't exist. */
+    private static Object getDirectoryKey(File directory) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(directory.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isDirectory()) {
+            // .git file of a worktree or a submodule, not cached
+            return null;
+        }
+        // file key is not available on some platforms, any existing directory is the same one there
+        return attributes.fileKey() != null ? attributes.fileKey() : Boolean.TRUE;
+    }
+
+    private static class CachedRepository {
+        final Repository repository;
+        final Object     gitDirKey;
+
+        long lastAccessTime;
+
+        CachedRepository(Repository repository, Object gitDirKey) {
+            this.repository = repository;
+            this.gitDirKey = gitDirKey;
+        }
+    }
+}
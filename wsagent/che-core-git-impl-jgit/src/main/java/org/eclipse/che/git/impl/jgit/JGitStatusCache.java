@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *   SAP           - implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.jgit.internal.storage.file.FileSnapshot;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.IndexDiff;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Keeps the last computed status of a repository and updates only files reported as changed.
+ *
+ * <p>Full scan of the working tree is done for the first time, when index file or {@code HEAD}
+ * is changed, e.g. by commit, checkout or adding files to index, and when the cache is
+ * {@link #invalidate() invalidated}. Otherwise only files {@link #fileChanged(String) reported}
+ * as changed since the previous call are compared with the index. The cache is correct only while
+ * all changes of files in the working tree are reported, so it is used only for working trees watched
+ * by file watcher. Events are reported with a delay and never for files excluded from watching,
+ * so {@link #getStatus(Repository)} is used for reacting on reported changes, while explicit
+ * requests of status {@link #rescan(Repository) rescan} the working tree.
+ *
+ * <p>The instance is thread safe.
+ *
+ * @see JGitStatusTracker
+ */
+class JGitStatusCache {
+    private final File workTree;
+
+    // guarded by this
+    private Snapshot     snapshot;
+    private FileSnapshot indexSnapshot;
+    private ObjectId     head;
+
+    // guarded by pendingLock
+    private final Object      pendingLock    = new Object();
+    private       Set<String> changedFiles   = new HashSet<>();
+    private       boolean     rescanRequired = true;
+
+    JGitStatusCache(File workTree) {
+        this.workTree = workTree;
+    }
+
+    /** Returns working tree of the repository. */
+    File getWorkTree() {
+        return workTree;
+    }
+
+    /**
+     * Reports that content of a file is changed.
+     *
+     * @param path
+     *         path of the file relative to the working tree
+     */
+    void fileChanged(String path) {
+        synchronized (pendingLock) {
+            if (!rescanRequired) {
+                changedFiles.add(path);
+            }
+        }
+    }
+
+    /** Makes the next call of {@link #getStatus(Repository)} scan the whole working tree. */
+    void invalidate() {
+        synchronized (pendingLock) {
+            rescanRequired = true;
+            changedFiles = new HashSet<>();
+        }
+    }
+
+    /** Returns status of the repository updating the cached one with files reported as changed. */
+    synchronized Snapshot getStatus(Repository repository) throws IOException {
+        return getStatus(repository, false);
+    }
+
+    /**
+     * Returns status of the repository computed by scan of the whole working tree, so changes that
+     * are not reported yet are found too. The cached status is replaced with the computed one.
+     */
+    synchronized Snapshot rescan(Repository repository) throws IOException {
+        return getStatus(repository, true);
+    }
+
+    private Snapshot getStatus(Repository repository, boolean forceRescan) throws IOException {
+        final Set<String> changed;
+        final boolean rescan;
+        // changes reported while status is computed are applied next time
+        synchronized (pendingLock) {
+            changed = changedFiles;
+            rescan = rescanRequired || forceRescan;
+            changedFiles = new HashSet<>();
+            rescanRequired = false;
+        }
+        final File indexFile = repository.getIndexFile();
+        final ObjectId currentHead = repository.resolve(Constants.HEAD);
+        if (rescan || snapshot == null || indexSnapshot.isModified(indexFile) || !Objects.equals(head, currentHead)) {
+            // snapshot of index is taken before reading it, so concurrent modification is noticed next time
+            indexSnapshot = FileSnapshot.save(indexFile);
+            head = currentHead;
+            snapshot = new Snapshot(diff(repository, null));
+        } else if (!changed.isEmpty()) {
+            snapshot = snapshot.update(changed, diff(repository, changed));
+        }
+        return snapshot;
+    }
+
+    private static IndexDiff diff(Repository repository, Set<String> paths) throws IOException {
+        final IndexDiff diff = new IndexDiff(repository, Constants.HEAD, new FileTreeIterator(repository));
+        if (paths != null) {
+            diff.setFilter(PathFilterGroup.createFromStrings(paths));
+        }
+        diff.diff();
+        return diff;
+    }
+
+    /** Immutable status of files of the working tree. */
+    static class Snapshot {
+        final Set<String> added;
+        final Set<String> changed;
+        final Set<String> removed;
+        final Set<String> missing;
+        final Set<String> modified;
+        final Set<String> untracked;
+        final Set<String> untrackedFolders;
+        final Set<String> conflicting;
+
+        Snapshot(IndexDiff diff) {
+            this(diff.getAdded(),
+                 diff.getChanged(),
+                 diff.getRemoved(),
+                 diff.getMissing(),
+                 diff.getModified(),
+                 diff.getUntracked(),
+                 diff.getUntrackedFolders(),
+                 diff.getConflicting());
+        }
+
+        private Snapshot(Set<String> added,
+                         Set<String> changed,
+                         Set<String> removed,
+                         Set<String> missing,
+                         Set<String> modified,
+                         Set<String> untracked,
+                         Set<String> untrackedFolders,
+                         Set<String> conflicting) {
+            this.added = unmodifiableSet(new HashSet<>(added));
+            this.changed = unmodifiableSet(new HashSet<>(changed));
+            this.removed = unmodifiableSet(new HashSet<>(removed));
+            this.missing = unmodifiableSet(new HashSet<>(missing));
+            this.modified = unmodifiableSet(new HashSet<>(modified));
+            this.untracked = unmodifiableSet(new HashSet<>(untracked));
+            this.untrackedFolders = unmodifiableSet(new HashSet<>(untrackedFolders));
+            this.conflicting = unmodifiableSet(new HashSet<>(conflicting));
+        }
+
+        /** Same as {@link org.eclipse.jgit.api.Status#isClean()}. */
+        boolean isClean() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty() && missing.isEmpty()
+                   && modified.isEmpty() && untracked.isEmpty() && conflicting.isEmpty();
+        }
+
+        /**
+         * Returns snapshot where status of the given files is replaced with the given one. Untracked
+         * folders are kept, as they are changed only when files are created or removed.
+         */
+        Snapshot update(Set<String> paths, IndexDiff diff) {
+            return new Snapshot(replace(added, paths, diff.getAdded()),
+                                replace(changed, paths, diff.getChanged()),
+                                replace(removed, paths, diff.getRemoved()),
+                                replace(missing, paths, diff.getMissing()),
+                                replace(modified, paths, diff.getModified()),
+                                replace(untracked, paths, diff.getUntracked()),
+                                untrackedFolders,
+                                replace(conflicting, paths, diff.getConflicting()));
+        }
+
+        private static Set<String> replace(Set<String> files, Set<String> paths, Set<String> updated) {
+            final Set<String> result = new HashSet<>(files);
+            result.removeAll(paths);
+            result.addAll(updated);
+            return result;
+        }
+    }
+}
@@ -77,6 +77,29 @@ public class JGitStatusImpl implements Status, InfoPage {
         conflicting = new ArrayList<>(gitStatus.getConflicting());
     }
 
+    /**
+     * @param branchName
+     *         current repository branch name
+     * @param status
+     *         status of the repository kept by {@link JGitStatusCache}
+     * @param format
+     *         the output format for the status
+     */
+    JGitStatusImpl(String branchName, JGitStatusCache.Snapshot status, StatusFormat format) {
+        this.branchName = branchName;
+        this.format = format;
+
+        clean = status.isClean();
+        added = new ArrayList<>(status.added);
+        changed = new ArrayList<>(status.changed);
+        removed = new ArrayList<>(status.removed);
+        missing = new ArrayList<>(status.missing);
+        modified = new ArrayList<>(status.modified);
+        untracked = new ArrayList<>(status.untracked);
+        untrackedFolders = new ArrayList<>(status.untrackedFolders);
+        conflicting = new ArrayList<>(status.conflicting);
+    }
+
     @Override
     public void writeTo(OutputStream out) throws IOException {
         StringBuilder status = new StringBuilder();
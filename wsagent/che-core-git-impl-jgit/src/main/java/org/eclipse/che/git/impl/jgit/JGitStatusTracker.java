@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *   SAP           - implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Passes file watcher events to {@link JGitStatusCache status caches} of repositories which working trees
+ * contain changed files.
+ *
+ * <p>Modification of a file is passed as is. Creation and removal of files, changes of ignore rules
+ * and lost events make the cache rescan the working tree. Changes inside of {@code .git} directory are
+ * not passed, status cache checks index file and {@code HEAD} itself.
+ *
+ * @see JGitConnectionFactory
+ */
+class JGitStatusTracker {
+    private static final String INFO_EXCLUDE = Constants.DOT_GIT + "/info/exclude";
+
+    private final FileWatcherService           watcherService;
+    private final Cache<File, JGitStatusCache> statusCaches;
+
+    JGitStatusTracker(FileWatcherService watcherService, int maxRepositories) {
+        this.watcherService = watcherService;
+        this.statusCaches = CacheBuilder.newBuilder().maximumSize(maxRepositories).build();
+    }
+
+    /**
+     * Returns status cache of the repository or {@code null} if changes of its working tree
+     * are not tracked by file watcher.
+     */
+    JGitStatusCache getStatusCache(Repository repository) {
+        if (repository.isBare()) {
+            return null;
+        }
+        final File workTree = repository.getWorkTree().getAbsoluteFile();
+        if (!watcherService.isWatched(workTree.toPath())) {
+            statusCaches.invalidate(workTree);
+            return null;
+        }
+        return statusCaches.asMap().computeIfAbsent(workTree, JGitStatusCache::new);
+    }
+
+    /** Listener of file watcher events, path is in file system form. */
+    void onFileSystemChange(Path path, WatchEvent.Kind<?> kind) {
+        for (JGitStatusCache cache : statusCaches.asMap().values()) {
+            final Path workTree = cache.getWorkTree().toPath();
+            if (workTree.startsWith(path)) {
+                // events of the working tree or one of its parents are lost
+                cache.invalidate();
+            } else if (path.startsWith(workTree) && !(kind == ENTRY_MODIFY && isDirectory(path))) {
+                // modification of directory is followed by events of its entries
+                onFileSystemChange(cache, workTree.relativize(path).toString().replace(File.separatorChar, '/'), kind);
+            }
+        }
+    }
+
+    private static void onFileSystemChange(JGitStatusCache cache, String relativePath, WatchEvent.Kind<?> kind) {
+        if (relativePath.equals(Constants.DOT_GIT) || relativePath.startsWith(Constants.DOT_GIT + '/')) {
+            if (relativePath.equals(INFO_EXCLUDE)) {
+                cache.invalidate();
+            }
+        } else if (kind != ENTRY_MODIFY || isIgnoreRules(relativePath)) {
+            // created or removed item may be a directory with content and may change untracked folders
+            cache.invalidate();
+        } else {
+            cache.fileChanged(relativePath);
+        }
+    }
+
+    private static boolean isIgnoreRules(String relativePath) {
+        return relativePath.equals(Constants.DOT_GIT_IGNORE) || relativePath.endsWith('/' + Constants.DOT_GIT_IGNORE);
+    }
+}
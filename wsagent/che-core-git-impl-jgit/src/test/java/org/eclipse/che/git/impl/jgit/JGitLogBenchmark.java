@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *   SAP           - implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import com.google.common.io.Files;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ListBranchCommand.ListMode;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.eclipse.che.git.impl.jgit.JGitConnection.DEFAULT_LOG_CACHE_SIZE;
+
+/**
+ * Measures time of finding branches of commits of a log page in a synthetic repository which has a long history
+ * and many branches. Benchmark {@link #branchListPerCommit()} reproduces the former way where branches were
+ * listed with a containment check for each commit of the page, {@link #singleWalk()} uses {@link JGitLogCache}
+ * without cached results and {@link #cached()} shows repeated requests of the same page.
+ * Benchmark is not run by surefire, run {@link #main(String[])} with test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JGitLogBenchmark {
+    private static final int HISTORY_SIZE = 2000;
+    private static final int PAGE_SIZE    = 200;
+
+    @Param({"50", "300"})
+    public int branchesCount;
+
+    private File            directory;
+    private Repository      repository;
+    private Git             git;
+    private List<RevCommit> page;
+    private JGitLogCache    logCache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GitAPIException {
+        directory = Files.createTempDir();
+        repository = new FileRepository(new File(directory, Constants.DOT_GIT));
+        repository.create();
+        createHistory(repository, branchesCount);
+        git = new Git(repository);
+        page = new ArrayList<>();
+        git.log().setMaxCount(PAGE_SIZE).call().forEach(page::add);
+        logCache = new JGitLogCache(DEFAULT_LOG_CACHE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        FileUtils.delete(directory, FileUtils.RECURSIVE);
+    }
+
+    @Benchmark
+    public int branchListPerCommit() throws GitAPIException {
+        int found = 0;
+        for (RevCommit commit : page) {
+            found += git.branchList().setListMode(ListMode.ALL).setContains(commit.getName()).call().size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int singleWalk() throws GitAPIException, IOException {
+        final List<Ref> branches = git.branchList().setListMode(ListMode.ALL).call();
+        return new JGitLogCache(DEFAULT_LOG_CACHE_SIZE).getBranches(repository, branches, page).size();
+    }
+
+    @Benchmark
+    public int cached() throws GitAPIException, IOException {
+        final List<Ref> branches = git.branchList().setListMode(ListMode.ALL).call();
+        return logCache.getBranches(repository, branches, page).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final Options options = new OptionsBuilder().include(JGitLogBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    /**
+     * Creates linear history of master branch with merges of short side branches,
+     * other branches start from random commits of master.
+     */
+    private static void createHistory(Repository repository, int branchesCount) throws IOException {
+        final Random random = new Random(42);
+        final List<ObjectId> master = new ArrayList<>(HISTORY_SIZE);
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            final ObjectId emptyTree = inserter.insert(new TreeFormatter());
+            ObjectId head = null;
+            for (int i = 0; i < HISTORY_SIZE; i++) {
+                if (head != null && i % 50 == 0) {
+                    final ObjectId side = insertCommit(inserter, emptyTree, i, "side " + i, master.get(random.nextInt(master.size())));
+                    head = insertCommit(inserter, emptyTree, i, "merge " + i, head, side);
+                } else {
+                    head = head == null ? insertCommit(inserter, emptyTree, i, "commit " + i)
+                                        : insertCommit(inserter, emptyTree, i, "commit " + i, head);
+                }
+                master.add(head);
+            }
+            final List<ObjectId> tips = new ArrayList<>(branchesCount);
+            for (int i = 0; i < branchesCount; i++) {
+                final ObjectId base = master.get(random.nextInt(master.size()));
+                tips.add(insertCommit(inserter, emptyTree, HISTORY_SIZE + i, "branch " + i, base));
+            }
+            inserter.flush();
+            updateRef(repository, Constants.R_HEADS + Constants.MASTER, head);
+            for (int i = 0; i < branchesCount; i++) {
+                updateRef(repository, Constants.R_HEADS + "branch-" + i, tips.get(i));
+            }
+        }
+    }
+
+    private static ObjectId insertCommit(ObjectInserter inserter,
+                                         ObjectId tree,
+                                         int time,
+                                         String message,
+                                         ObjectId... parents) throws IOException {
+        final PersonIdent ident = new PersonIdent("Che", "che@eclipse.org", new Date(time * 60_000L), TimeZone.getTimeZone("UTC"));
+        final CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        commit.setParentIds(parents);
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage(message);
+        return inserter.insert(commit);
+    }
+
+    private static void updateRef(Repository repository, String name, ObjectId id) throws IOException {
+        final RefUpdate update = repository.updateRef(name);
+        update.setNewObjectId(id);
+        update.forceUpdate();
+    }
+}
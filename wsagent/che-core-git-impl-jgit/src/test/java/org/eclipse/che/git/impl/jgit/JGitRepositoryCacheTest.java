@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *   SAP           - implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Repository;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link JGitRepositoryCache}.
+ */
+public class JGitRepositoryCacheTest {
+    private static final long IDLE_TIMEOUT_MS = 1000;
+
+    private File                workDir;
+    private long                now;
+    private JGitRepositoryCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("repository-cache").toFile();
+        cache = new JGitRepositoryCache(IDLE_TIMEOUT_MS, () -> now);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        cache.clear();
+        IoUtil.deleteRecursive(workDir);
+    }
+
+    @Test
+    public void shouldShareRepositoryOfTheSameWorkingDirectory() throws Exception {
+        createRepository(workDir);
+
+        try (Repository first = cache.acquire(workDir);
+             Repository second = cache.acquire(workDir)) {
+            assertSame(first, second);
+            assertEquals(cache.size(), 1);
+        }
+    }
+
+    @Test
+    public void shouldNotCacheDirectoryWhichIsNotGitRepository() throws Exception {
+        try (Repository first = cache.acquire(workDir);
+             Repository second = cache.acquire(workDir)) {
+            assertNotSame(first, second);
+            assertEquals(cache.size(), 0);
+        }
+    }
+
+    @Test
+    public void shouldReopenRepositoryWhenGitDirectoryIsRecreated() throws Exception {
+        createRepository(workDir);
+        final Repository first = cache.acquire(workDir);
+        first.close();
+
+        // old directory is kept, so the new one can't get the same file key
+        assertTrue(first.getDirectory().renameTo(new File(workDir, ".git-old")));
+        createRepository(workDir);
+
+        try (Repository second = cache.acquire(workDir)) {
+            assertNotSame(first, second);
+            assertEquals(cache.size(), 1);
+        }
+    }
+
+    @Test
+    public void shouldEvictIdleRepositories() throws Exception {
+        final File otherWorkDir = new File(workDir, "other");
+        createRepository(workDir);
+        createRepository(otherWorkDir);
+        cache.acquire(workDir).close();
+
+        now += IDLE_TIMEOUT_MS;
+        cache.acquire(otherWorkDir).close();
+
+        assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void shouldNotEvictRecentlyUsedRepositories() throws Exception {
+        createRepository(workDir);
+        final Repository first = cache.acquire(workDir);
+        first.close();
+
+        now += IDLE_TIMEOUT_MS - 1;
+        try (Repository second = cache.acquire(workDir)) {
+            assertSame(first, second);
+        }
+    }
+
+    private static void createRepository(File workDir) throws Exception {
+        try (Repository repository = new FileRepository(new File(workDir, ".git"))) {
+            repository.create();
+        }
+    }
+}
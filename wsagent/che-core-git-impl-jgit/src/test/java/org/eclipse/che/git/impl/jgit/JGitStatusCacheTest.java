@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *   SAP           - implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singleton;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link JGitStatusCache}.
+ */
+public class JGitStatusCacheTest {
+    private File            workDir;
+    private Git             git;
+    private JGitStatusCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("status-cache").toFile();
+        git = Git.init().setDirectory(workDir).call();
+        write("a.txt", "a");
+        write("b.txt", "b");
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("init").call();
+        cache = new JGitStatusCache(workDir);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        git.close();
+        IoUtil.deleteRecursive(workDir);
+    }
+
+    @Test
+    public void shouldComputeStatusOfWholeWorkingTreeFirstTime() throws Exception {
+        write("a.txt", "changed");
+        write("c.txt", "c");
+
+        JGitStatusCache.Snapshot status = cache.getStatus(repository());
+
+        assertEquals(status.modified, singleton("a.txt"));
+        assertEquals(status.untracked, singleton("c.txt"));
+        assertFalse(status.isClean());
+    }
+
+    @Test
+    public void shouldUpdateOnlyReportedFiles() throws Exception {
+        assertTrue(cache.getStatus(repository()).isClean());
+        write("a.txt", "changed");
+        write("b.txt", "not reported");
+
+        cache.fileChanged("a.txt");
+        JGitStatusCache.Snapshot status = cache.getStatus(repository());
+
+        assertEquals(status.modified, singleton("a.txt"));
+    }
+
+    @Test
+    public void shouldRemoveFileFromStatusWhenItIsReverted() throws Exception {
+        write("a.txt", "changed");
+        assertEquals(cache.getStatus(repository()).modified, singleton("a.txt"));
+
+        write("a.txt", "a");
+        cache.fileChanged("a.txt");
+
+        assertTrue(cache.getStatus(repository()).isClean());
+    }
+
+    @Test
+    public void shouldRescanWorkingTreeWhenIndexIsChanged() throws Exception {
+        cache.getStatus(repository());
+        write("a.txt", "changed");
+        write("b.txt", "changed");
+
+        git.add().addFilepattern("a.txt").call();
+        JGitStatusCache.Snapshot status = cache.getStatus(repository());
+
+        assertEquals(status.changed, singleton("a.txt"));
+        assertEquals(status.modified, singleton("b.txt"));
+    }
+
+    @Test
+    public void shouldRescanWorkingTreeWhenInvalidated() throws Exception {
+        cache.getStatus(repository());
+        write("c.txt", "c");
+
+        cache.invalidate();
+
+        assertEquals(cache.getStatus(repository()).untracked, singleton("c.txt"));
+    }
+
+    @Test
+    public void shouldFindChangesWhichAreNotReportedWhenRescanned() throws Exception {
+        cache.getStatus(repository());
+        write("a.txt", "changed");
+
+        assertEquals(cache.rescan(repository()).modified, singleton("a.txt"));
+        write("a.txt", "a");
+        cache.fileChanged("a.txt");
+        assertTrue(cache.getStatus(repository()).isClean());
+    }
+
+    private Repository repository() {
+        return git.getRepository();
+    }
+
+    private void write(String path, String content) throws Exception {
+        Files.write(new File(workDir, path).toPath(), content.getBytes(UTF_8));
+    }
+}
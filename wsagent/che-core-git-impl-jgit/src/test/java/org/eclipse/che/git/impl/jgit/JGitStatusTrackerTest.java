@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2017 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.jgit;
+
+import org.eclipse.che.api.vfs.watcher.FileWatcherService;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.mockito.Mock;
+import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Listeners;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.util.Collections.singleton;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test for {@link JGitStatusTracker}.
+ */
+@Listeners(MockitoTestNGListener.class)
+public class JGitStatusTrackerTest {
+    @Mock
+    private FileWatcherService watcherService;
+
+    private File              workDir;
+    private Git               git;
+    private JGitStatusTracker tracker;
+    private JGitStatusCache   cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("status-tracker").toFile().getAbsoluteFile();
+        git = Git.init().setDirectory(workDir).call();
+        write("a.txt", "a");
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("init").call();
+        when(watcherService.isWatched(any(Path.class))).thenReturn(true);
+        tracker = new JGitStatusTracker(watcherService, 10);
+        cache = tracker.getStatusCache(repository());
+        assertTrue(cache.getStatus(repository()).isClean());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        git.close();
+        IoUtil.deleteRecursive(workDir);
+    }
+
+    @Test
+    public void shouldNotTrackWorkingTreeWhichIsNotWatched() throws Exception {
+        when(watcherService.isWatched(workDir.toPath())).thenReturn(false);
+
+        assertNull(tracker.getStatusCache(repository()));
+    }
+
+    @Test
+    public void shouldReturnSameCacheForSameWorkingTree() throws Exception {
+        assertSame(tracker.getStatusCache(repository()), cache);
+    }
+
+    @Test
+    public void shouldUpdateStatusOfModifiedFile() throws Exception {
+        write("a.txt", "changed");
+
+        tracker.onFileSystemChange(path("a.txt"), ENTRY_MODIFY);
+
+        assertEquals(cache.getStatus(repository()).modified, singleton("a.txt"));
+    }
+
+    @Test
+    public void shouldRescanWorkingTreeWhenFileIsCreated() throws Exception {
+        write("a.txt", "changed");
+        write("b.txt", "b");
+
+        tracker.onFileSystemChange(path("b.txt"), ENTRY_CREATE);
+
+        JGitStatusCache.Snapshot status = cache.getStatus(repository());
+        assertEquals(status.modified, singleton("a.txt"));
+        assertEquals(status.untracked, singleton("b.txt"));
+    }
+
+    @Test
+    public void shouldRescanWorkingTreeWhenIgnoreRulesAreChanged() throws Exception {
+        write("a.txt", "changed");
+        write(".gitignore", "*.log");
+
+        tracker.onFileSystemChange(path(".gitignore"), ENTRY_MODIFY);
+
+        assertEquals(cache.getStatus(repository()).modified, singleton("a.txt"));
+    }
+
+    @Test
+    public void shouldRescanWorkingTreeWhenEventsOfParentAreLost() throws Exception {
+        write("a.txt", "changed");
+
+        tracker.onFileSystemChange(workDir.toPath().getParent(), ENTRY_MODIFY);
+
+        assertEquals(cache.getStatus(repository()).modified, singleton("a.txt"));
+    }
+
+    @Test
+    public void shouldNotPassChangesInsideOfGitDirectoryExceptExcludeRules() throws Exception {
+        write("a.txt", "changed");
+
+        tracker.onFileSystemChange(path(".git/config"), ENTRY_MODIFY);
+        assertTrue(cache.getStatus(repository()).isClean());
+
+        tracker.onFileSystemChange(path(".git/info/exclude"), ENTRY_MODIFY);
+        assertEquals(cache.getStatus(repository()).modified, singleton("a.txt"));
+    }
+
+    @Test
+    public void shouldIgnoreChangesOutsideOfWorkingTree() throws Exception {
+        write("a.txt", "changed");
+
+        tracker.onFileSystemChange(workDir.toPath().resolveSibling(workDir.getName() + "-other").resolve("a.txt"), ENTRY_MODIFY);
+
+        assertTrue(cache.getStatus(repository()).isClean());
+    }
+
+    private Repository repository() {
+        return git.getRepository();
+    }
+
+    private Path path(String relativePath) {
+        return new File(workDir, relativePath).toPath();
+    }
+
+    private void write(String path, String content) throws Exception {
+        Files.write(new File(workDir, path).toPath(), content.getBytes(UTF_8));
+    }
+}
@@ -13,21 +13,33 @@ package org.eclipse.che.api.environment.server;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Sets;
 
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 
 /**
- * Finds order of Che services to start that respects dependencies between services.
+ * Finds order of Che services to start that respects dependencies between services
+ * and starts services that do not depend on each other concurrently.
  *
  * @author Alexander Garagatyi
  * @author Alexander Andrienko
@@ -46,6 +58,105 @@ public class DefaultServicesStartStrategy {
         return sortByWeight(weights);
     }
 
+    /**
+     * Resolves levels of dependency graph of machines in an environment.
+     * Machines of a level depend only on machines of previous levels,
+     * so machines of the same level may be started concurrently.
+     *
+     * @throws IllegalArgumentException
+     *         if order of machines can not be calculated
+     */
+    public List<List<String>> orderByLevels(CheServicesEnvironmentImpl composeEnvironment) throws IllegalArgumentException {
+        Map<Integer, List<String>> levels = new TreeMap<>();
+        for (Map.Entry<String, Integer> weight : weightMachines(composeEnvironment.getServices()).entrySet()) {
+            levels.computeIfAbsent(weight.getValue(), w -> new ArrayList<>()).add(weight.getKey());
+        }
+        return new ArrayList<>(levels.values());
+    }
+
+    /**
+     * Starts machines of an environment level by level, see {@link #orderByLevels(CheServicesEnvironmentImpl)}.
+     * Machines of a level are started concurrently with the given executor, next level is started
+     * when all the machines of the previous level are started. If start of a machine fails, starts of
+     * other machines of the same level are cancelled and machines of next levels are not started.
+     * Machines that are already started are not stopped, it is up to starter to track and stop them.
+     *
+     * <p>Executor is usually {@link org.eclipse.che.api.workspace.server.WorkspaceSharedPool#getExecutor()},
+     * thread locals of the caller are propagated to threads that start machines. Machine of a level
+     * that consists of a single machine is started by the calling thread.
+     *
+     * @param composeEnvironment
+     *         environment to start
+     * @param starter
+     *         starts a single machine, is called concurrently for machines of the same level
+     * @param executor
+     *         executor that starts machines
+     * @return started instances mapped to names of machines in order of start
+     * @throws IllegalArgumentException
+     *         if order of machines can not be calculated
+     * @throws ServerException
+     *         if start of any machine fails or calling thread is interrupted
+     */
+    public <T> Map<String, T> start(CheServicesEnvironmentImpl composeEnvironment,
+                                    ServiceStarter<T> starter,
+                                    Executor executor) throws ServerException {
+        Map<String, T> started = new LinkedHashMap<>();
+        for (List<String> level : orderByLevels(composeEnvironment)) {
+            if (level.size() == 1) {
+                started.put(level.get(0), starter.start(level.get(0)));
+            } else {
+                startLevel(level, starter, executor, started);
+            }
+        }
+        return started;
+    }
+
+    private <T> void startLevel(List<String> level,
+                                ServiceStarter<T> starter,
+                                Executor executor,
+                                Map<String, T> started) throws ServerException {
+        CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<T>, String> futures = new HashMap<>();
+        Map<String, T> levelInstances = new HashMap<>();
+        try {
+            for (String service : level) {
+                futures.put(completionService.submit(ThreadLocalPropagateContext.wrap(() -> starter.start(service))),
+                            service);
+            }
+            for (int i = 0; i < level.size(); i++) {
+                Future<T> future = completionService.take();
+                levelInstances.put(futures.get(future), getStarted(future, futures.get(future)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Start of machines '" + Joiner.on(", ").join(level) + "' was interrupted");
+        } finally {
+            // no-op for completed starts, fail-fast for others
+            futures.keySet().forEach(future -> future.cancel(true));
+        }
+        level.forEach(service -> started.put(service, levelInstances.get(service)));
+    }
+
+    private <T> T getStarted(Future<T> future, String service) throws ServerException, InterruptedException {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new ServerException(format("Start of machine '%s' was cancelled", service));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new ServerException(cause.getLocalizedMessage(), cause);
+        }
+    }
+
     /**
      * Returns mapping of names of machines to its weights in dependency graph.
      *
@@ -172,4 +283,14 @@ public class DefaultServicesStartStrategy {
                            dependency, serviceName));
         }
     }
+
+    /** Starts a single machine of an environment. */
+    @FunctionalInterface
+    public interface ServiceStarter<T> {
+        /**
+         * Starts machine with the given name.
+         * Thread that starts the machine is interrupted if start is cancelled.
+         */
+        T start(String serviceName) throws ServerException;
+    }
 }
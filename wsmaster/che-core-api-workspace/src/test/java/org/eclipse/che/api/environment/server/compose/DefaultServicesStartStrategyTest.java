@@ -10,19 +10,30 @@
  *******************************************************************************/
 package org.eclipse.che.api.environment.server.compose;
 
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.environment.server.DefaultServicesStartStrategy;
 import org.eclipse.che.api.environment.server.model.CheServiceImpl;
 import org.eclipse.che.api.environment.server.model.CheServicesEnvironmentImpl;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEqualsNoOrder;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * @author Alexander Garagatyi
@@ -30,6 +41,12 @@ import static org.testng.Assert.assertTrue;
  */
 public class DefaultServicesStartStrategyTest {
     DefaultServicesStartStrategy strategy = new DefaultServicesStartStrategy();
+    ExecutorService              executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
 
     @Test
     public void shouldOrderServicesWithDependenciesWhereOrderIsStrict() throws Exception {
@@ -320,4 +337,96 @@ public class DefaultServicesStartStrategyTest {
         // when
         strategy.order(composeEnvironment);
     }
+
+    @Test
+    public void shouldGroupServicesByLevelsOfDependencyGraph() throws Exception {
+        // given
+        CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+        composeEnvironment.getServices().put("app", new CheServiceImpl().withDependsOn(asList("db", "cache")));
+        composeEnvironment.getServices().put("db", new CheServiceImpl());
+        composeEnvironment.getServices().put("cache", new CheServiceImpl());
+        composeEnvironment.getServices().put("dev-machine", new CheServiceImpl().withLinks(singletonList("app:application")));
+
+        // when
+        List<List<String>> levels = strategy.orderByLevels(composeEnvironment);
+
+        // then
+        assertEquals(levels.size(), 3);
+        assertEqualsNoOrder(levels.get(0).toArray(), new String[] {"db", "cache"});
+        assertEquals(levels.get(1), singletonList("app"));
+        assertEquals(levels.get(2), singletonList("dev-machine"));
+    }
+
+    @Test(timeOut = 10_000)
+    public void shouldStartIndependentServicesConcurrently() throws Exception {
+        // given
+        CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+        composeEnvironment.getServices().put("db", new CheServiceImpl());
+        composeEnvironment.getServices().put("cache", new CheServiceImpl());
+        composeEnvironment.getServices().put("app", new CheServiceImpl().withDependsOn(asList("db", "cache")));
+        // each of independent services waits until the other one is started
+        CountDownLatch independentStarts = new CountDownLatch(2);
+        List<String> startOrder = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        Map<String, String> started = strategy.start(composeEnvironment, service -> {
+            startOrder.add(service);
+            if (!service.equals("app")) {
+                independentStarts.countDown();
+                await(independentStarts);
+            }
+            return service + "-instance";
+        }, executor);
+
+        // then
+        assertEquals(started.size(), 3);
+        assertEquals(started.get("db"), "db-instance");
+        assertEquals(startOrder.get(2), "app");
+        assertEquals(new ArrayList<>(started.keySet()).get(2), "app");
+    }
+
+    @Test(timeOut = 10_000)
+    public void shouldCancelStartOfSiblingsAndNotStartNextLevelIfStartOfServiceFails() throws Exception {
+        // given
+        CheServicesEnvironmentImpl composeEnvironment = new CheServicesEnvironmentImpl();
+        composeEnvironment.getServices().put("db", new CheServiceImpl());
+        composeEnvironment.getServices().put("cache", new CheServiceImpl());
+        composeEnvironment.getServices().put("app", new CheServiceImpl().withDependsOn(asList("db", "cache")));
+        CountDownLatch cacheInterrupted = new CountDownLatch(1);
+        List<String> startOrder = Collections.synchronizedList(new ArrayList<>());
+
+        // when
+        try {
+            strategy.start(composeEnvironment, service -> {
+                startOrder.add(service);
+                if (service.equals("db")) {
+                    throw new ServerException("db failed");
+                }
+                try {
+                    Thread.sleep(SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    cacheInterrupted.countDown();
+                }
+                return service;
+            }, executor);
+            fail("Start should fail");
+        } catch (ServerException e) {
+            assertEquals(e.getLocalizedMessage(), "db failed");
+        }
+
+        // then
+        assertTrue(cacheInterrupted.await(5, SECONDS) || !startOrder.contains("cache"));
+        assertFalse(startOrder.contains("app"));
+    }
+
+    private static void await(CountDownLatch latch) throws ServerException {
+        try {
+            if (!latch.await(5, SECONDS)) {
+                throw new ServerException("Services are not started concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Interrupted");
+        }
+    }
 }